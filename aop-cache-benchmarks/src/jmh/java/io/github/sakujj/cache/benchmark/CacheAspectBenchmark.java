@@ -0,0 +1,141 @@
+package io.github.sakujj.cache.benchmark;
+
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.LRUCache;
+import io.github.sakujj.cache.aop.CacheAspect;
+import io.github.sakujj.cache.aop.CacheKeyResolver;
+import io.github.sakujj.cache.aop.CacheableFindByUUID;
+import io.github.sakujj.cache.invalidation.InvalidationPublisher;
+import io.github.sakujj.cache.trace.TraceRecorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Throughput of find calls through a Spring AOP proxy advised by {@link CacheAspect},
+ * against the same calls on the unadvised service, so that the overhead of the aspect shows on its own.</p>
+ * <p>The service finds the entities in a map, standing for a repository as fast as can be,
+ * so the advised calls gain nothing from the hits and the results are an upper bound of the overhead.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheAspectBenchmark {
+    private static final int SAMPLE_SIZE = 1 << 20;
+    private static final int SAMPLE_MASK = SAMPLE_SIZE - 1;
+    private static final int KEYS_PER_CAPACITY = 2;
+    private static final long SEED = 42;
+    private static final String CACHE = "benchmark";
+
+    @Param
+    private KeyDistribution distribution;
+
+    @Param({"10000"})
+    private int capacity;
+
+    private BenchmarkService service;
+    private BenchmarkService advisedService;
+    private BenchmarkEntity[] entities;
+    private int[] keys;
+
+    public interface BenchmarkService {
+
+        Optional<BenchmarkEntity> findByUUID(UUID uuid);
+
+        CompletableFuture<Optional<BenchmarkEntity>> findByUUIDAsync(UUID uuid);
+    }
+
+    public static class MapBenchmarkService implements BenchmarkService {
+        private final Map<UUID, BenchmarkEntity> entitiesByUUID = new HashMap<>();
+
+        MapBenchmarkService(BenchmarkEntity[] entities) {
+            for (BenchmarkEntity entity : entities) {
+                entitiesByUUID.put(entity.uuid(), entity);
+            }
+        }
+
+        @Override
+        @CacheableFindByUUID(cache = CACHE)
+        public Optional<BenchmarkEntity> findByUUID(UUID uuid) {
+            return Optional.ofNullable(entitiesByUUID.get(uuid));
+        }
+
+        @Override
+        @CacheableFindByUUID(cache = CACHE)
+        public CompletableFuture<Optional<BenchmarkEntity>> findByUUIDAsync(UUID uuid) {
+            return CompletableFuture.completedFuture(Optional.ofNullable(entitiesByUUID.get(uuid)));
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        entities = BenchmarkEntity.createAll(capacity * KEYS_PER_CAPACITY);
+        keys = distribution.sample(entities.length, SAMPLE_SIZE, new Random(SEED));
+
+        service = new MapBenchmarkService(entities);
+
+        CacheManager cacheManager = new CacheManager(name -> new LRUCache<>(capacity));
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(service);
+        proxyFactory.addAspect(new CacheAspect(cacheManager,
+                new CacheKeyResolver(new DefaultListableBeanFactory()),
+                Runnable::run,
+                InvalidationPublisher.none(),
+                TraceRecorder.none()));
+        advisedService = proxyFactory.getProxy();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        @Setup
+        public void setUp() {
+            position = ThreadLocalRandom.current().nextInt(SAMPLE_SIZE);
+        }
+
+        private int next() {
+            return position++ & SAMPLE_MASK;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Optional<BenchmarkEntity> unadvised(Cursor cursor) {
+        return service.findByUUID(entities[keys[cursor.next()]].uuid());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Optional<BenchmarkEntity> advised(Cursor cursor) {
+        return advisedService.findByUUID(entities[keys[cursor.next()]].uuid());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Optional<BenchmarkEntity> advisedMaxThreads(Cursor cursor) {
+        return advisedService.findByUUID(entities[keys[cursor.next()]].uuid());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Optional<BenchmarkEntity> advisedAsync(Cursor cursor) {
+        return advisedService.findByUUIDAsync(entities[keys[cursor.next()]].uuid()).join();
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.sakujj.cache.benchmark;
+
+import io.github.sakujj.cache.Cache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Throughput of the engines under mixes of reads and writes, from one thread up to all the available processors.</p>
+ * <p>The keys are twice as many as the capacity, so that the reads miss and the writes evict.
+ * The cache starts filled with the hottest keys.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheBenchmark {
+    private static final int SAMPLE_SIZE = 1 << 20;
+    private static final int SAMPLE_MASK = SAMPLE_SIZE - 1;
+    private static final int KEYS_PER_CAPACITY = 2;
+    private static final long SEED = 42;
+
+    @Param
+    private CacheEngine engine;
+
+    @Param
+    private KeyDistribution distribution;
+
+    @Param
+    private Workload workload;
+
+    @Param({"10000"})
+    private int capacity;
+
+    private Cache<UUID, BenchmarkEntity> cache;
+    private BenchmarkEntity[] entities;
+    private int[] keys;
+    private boolean[] writes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(SEED);
+        entities = BenchmarkEntity.createAll(capacity * KEYS_PER_CAPACITY);
+        keys = distribution.sample(entities.length, SAMPLE_SIZE, random);
+        writes = workload.sampleWrites(SAMPLE_SIZE, random);
+
+        cache = engine.create(capacity);
+        for (int i = capacity - 1; i >= 0; i--) {
+            cache.addOrUpdate(entities[i].uuid(), entities[i]);
+        }
+    }
+
+    /**
+     * Position of a thread in the samples, starting at a random one so that the threads do not access the same keys in step.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        @Setup
+        public void setUp() {
+            position = ThreadLocalRandom.current().nextInt(SAMPLE_SIZE);
+        }
+
+        private int next() {
+            return position++ & SAMPLE_MASK;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object oneThread(Cursor cursor) {
+        return operate(cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object fourThreads(Cursor cursor) {
+        return operate(cursor);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object maxThreads(Cursor cursor) {
+        return operate(cursor);
+    }
+
+    private Object operate(Cursor cursor) {
+        int position = cursor.next();
+        BenchmarkEntity entity = entities[keys[position]];
+        if (writes[position]) {
+            cache.addOrUpdate(entity.uuid(), entity);
+            return entity;
+        }
+
+        return cache.getById(entity.uuid());
+    }
+}
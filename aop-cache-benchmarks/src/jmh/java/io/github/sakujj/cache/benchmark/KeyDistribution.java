@@ -0,0 +1,54 @@
+package io.github.sakujj.cache.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Distributions of the keys accessed by the benchmarks, sampled ahead of time so that sampling costs nothing during a measurement.
+ */
+public enum KeyDistribution {
+    UNIFORM {
+        @Override
+        public int[] sample(int keyCount, int sampleSize, Random random) {
+            int[] sample = new int[sampleSize];
+            for (int i = 0; i < sampleSize; i++) {
+                sample[i] = random.nextInt(keyCount);
+            }
+
+            return sample;
+        }
+    },
+    /**
+     * Key of rank k is accessed with a probability proportional to 1 / k^0.99, as in YCSB :
+     * a few keys are hot and the long tail is rarely accessed.
+     */
+    ZIPF {
+        @Override
+        public int[] sample(int keyCount, int sampleSize, Random random) {
+            double[] cumulative = new double[keyCount];
+            double sum = 0;
+            for (int rank = 0; rank < keyCount; rank++) {
+                sum += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+                cumulative[rank] = sum;
+            }
+
+            int[] sample = new int[sampleSize];
+            for (int i = 0; i < sampleSize; i++) {
+                int found = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                sample[i] = Math.min(keyCount - 1, found >= 0 ? found : -found - 1);
+            }
+
+            return sample;
+        }
+    };
+
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * @param keyCount   number of distinct keys, the indexes of the hottest keys are the lowest
+     * @param sampleSize number of accesses to sample
+     * @param random     source of randomness, seeded for the runs to be comparable
+     * @return indexes of the accessed keys
+     */
+    public abstract int[] sample(int keyCount, int sampleSize, Random random);
+}
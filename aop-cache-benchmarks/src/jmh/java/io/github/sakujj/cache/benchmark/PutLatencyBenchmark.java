@@ -0,0 +1,58 @@
+package io.github.sakujj.cache.benchmark;
+
+import io.github.sakujj.cache.Cache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Average latency of an update of a random entity of a full cache, by capacity.</p>
+ * <p>The cost of an update should not depend on the number of entities : a growth with the capacity
+ * beyond the one caused by CPU cache misses means an update scans the entities.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PutLatencyBenchmark {
+    private static final int SAMPLE_SIZE = 1 << 20;
+    private static final int SAMPLE_MASK = SAMPLE_SIZE - 1;
+    private static final long SEED = 42;
+
+    @Param
+    private CacheEngine engine;
+
+    @Param({"100", "10000", "1000000"})
+    private int capacity;
+
+    private Cache<UUID, BenchmarkEntity> cache;
+    private BenchmarkEntity[] entities;
+    private int[] keys;
+    private int position;
+
+    @Setup
+    public void setUp() {
+        entities = BenchmarkEntity.createAll(capacity);
+        keys = KeyDistribution.UNIFORM.sample(capacity, SAMPLE_SIZE, new Random(SEED));
+
+        cache = engine.create(capacity);
+        for (BenchmarkEntity entity : entities) {
+            cache.addOrUpdate(entity.uuid(), entity);
+        }
+    }
+
+    @Benchmark
+    public BenchmarkEntity update() {
+        BenchmarkEntity entity = entities[keys[position++ & SAMPLE_MASK]];
+        cache.addOrUpdate(entity.uuid(), entity);
+        return entity;
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.sakujj.cache.benchmark;
+
+import java.util.Random;
+
+/**
+ * Mixes of reads and writes, a write being an update of an entity present or not.
+ */
+public enum Workload {
+    READ_ONLY(100),
+    READ_HEAVY(90),
+    WRITE_HEAVY(25);
+
+    private final int readPercentage;
+
+    Workload(int readPercentage) {
+        this.readPercentage = readPercentage;
+    }
+
+    /**
+     * @param sampleSize number of operations to sample
+     * @param random     source of randomness, seeded for the runs to be comparable
+     * @return whether each operation is a write
+     */
+    public boolean[] sampleWrites(int sampleSize, Random random) {
+        boolean[] writes = new boolean[sampleSize];
+        for (int i = 0; i < sampleSize; i++) {
+            writes[i] = random.nextInt(100) >= readPercentage;
+        }
+
+        return writes;
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.sakujj.cache.benchmark;
+
+import io.github.sakujj.cache.IdentifiableByUUID;
+
+import java.util.UUID;
+
+/**
+ * Entity of the size of a typical response, flat so that every engine, including the off-heap one, can hold it.
+ */
+public record BenchmarkEntity(UUID uuid, String name, String surname, int number) implements IdentifiableByUUID {
+
+    @Override
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    /**
+     * @param count number of entities
+     * @return entities with distinct random uuids
+     */
+    public static BenchmarkEntity[] createAll(int count) {
+        BenchmarkEntity[] entities = new BenchmarkEntity[count];
+        for (int i = 0; i < count; i++) {
+            entities[i] = new BenchmarkEntity(UUID.randomUUID(), "Name" + i, "Surname" + i, i);
+        }
+
+        return entities;
+    }
+}
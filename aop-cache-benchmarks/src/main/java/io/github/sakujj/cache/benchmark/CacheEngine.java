@@ -0,0 +1,85 @@
+package io.github.sakujj.cache.benchmark;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CompactCache;
+import io.github.sakujj.cache.ConcurrentLRUCache;
+import io.github.sakujj.cache.LFUCache;
+import io.github.sakujj.cache.LRUCache;
+import io.github.sakujj.cache.OffHeapCache;
+import io.github.sakujj.cache.TieredCache;
+import io.github.sakujj.cache.TinyLFUCache;
+import io.github.sakujj.cache.Weigher;
+import io.github.sakujj.cache.codec.ReflectiveEntityCodec;
+
+import java.util.UUID;
+
+/**
+ * <p>The cache engines under benchmark and simulation, each created as the auto-configuration would create it for a capacity.</p>
+ * <p>An enum {@code @Param} without values runs over all the constants, so a new engine added here
+ * is benchmarked by every benchmark without further changes.</p>
+ */
+public enum CacheEngine {
+    LRU {
+        @Override
+        public Cache<UUID, BenchmarkEntity> create(int capacity) {
+            return new LRUCache<>(capacity);
+        }
+    },
+    LFU {
+        @Override
+        public Cache<UUID, BenchmarkEntity> create(int capacity) {
+            return new LFUCache<>(capacity);
+        }
+    },
+    CONCURRENT_LRU {
+        @Override
+        public Cache<UUID, BenchmarkEntity> create(int capacity) {
+            return new ConcurrentLRUCache<>(capacity);
+        }
+    },
+    TINYLFU {
+        @Override
+        public Cache<UUID, BenchmarkEntity> create(int capacity) {
+            return new TinyLFUCache<>(capacity);
+        }
+    },
+    /**
+     * An LRU storing the entities encoded, decoding them on every hit.
+     */
+    COMPACT_LRU {
+        @Override
+        public Cache<UUID, BenchmarkEntity> create(int capacity) {
+            return new CompactCache<>(new LRUCache<>(capacity), new ReflectiveEntityCodec());
+        }
+    },
+    OFF_HEAP {
+        @Override
+        public Cache<UUID, BenchmarkEntity> create(int capacity) {
+            return new OffHeapCache<>(capacity, offHeapBytesOf(capacity), new ReflectiveEntityCodec());
+        }
+    },
+    /**
+     * An on-heap LRU of a tenth of the capacity in front of an off-heap region.
+     */
+    TIERED {
+        @Override
+        public Cache<UUID, BenchmarkEntity> create(int capacity) {
+            int l1Capacity = Math.max(1, capacity / 10);
+            return new TieredCache<>(evictionListener -> new LRUCache<>(l1Capacity, Weigher.singleton(), evictionListener),
+                    new OffHeapCache<>(capacity, offHeapBytesOf(capacity), new ReflectiveEntityCodec()));
+        }
+    };
+
+    // enough for the benchmark entities with room for the garbage of the updates
+    private static final long OFF_HEAP_BYTES_PER_ENTITY = 256;
+
+    /**
+     * @param capacity maximum number of entities in cache
+     * @return an empty cache
+     */
+    public abstract Cache<UUID, BenchmarkEntity> create(int capacity);
+
+    private static long offHeapBytesOf(int capacity) {
+        return Math.max(1L << 20, capacity * OFF_HEAP_BYTES_PER_ENTITY);
+    }
+}
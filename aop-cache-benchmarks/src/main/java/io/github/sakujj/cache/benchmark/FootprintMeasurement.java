@@ -0,0 +1,107 @@
+package io.github.sakujj.cache.benchmark;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CompactCache;
+import io.github.sakujj.cache.IdentifiableByUUID;
+import io.github.sakujj.cache.LRUCache;
+import io.github.sakujj.cache.codec.ReflectiveEntityCodec;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * <p>Measures the heap taken per entry by an LRU cache of house-like entities, storing the entity objects
+ * or the entities encoded by the COMPACT storage, with and without dictionaries of the low-cardinality fields.</p>
+ * <p>The heap is measured as the used heap after a few garbage collections, before and after filling the cache,
+ * so the figures are approximate : run with a fixed heap size, e.g. the default of the task.</p>
+ * <p>Usage : {@code ./gradlew :aop-cache-benchmarks:footprint --args="[entity count]"}.</p>
+ */
+public class FootprintMeasurement {
+    private static final int DEFAULT_ENTITY_COUNT = 200_000;
+    private static final int GC_COUNT = 5;
+    private static final String[] COUNTRIES = {"Belarus", "Poland", "Lithuania", "Latvia", "Ukraine"};
+    private static final String[] CITIES = {"Minsk", "Grodno", "Brest", "Vitebsk", "Gomel", "Mogilev", "Warsaw", "Vilnius"};
+    private static final Set<String> DICTIONARY_FIELDS = Set.of("country", "city");
+    private static final int DICTIONARY_SIZE = 1024;
+
+    /**
+     * Entity of the shape of a house response, with two low-cardinality string fields.
+     */
+    public record HouseEntity(UUID uuid,
+                              Double area,
+                              String country,
+                              String city,
+                              String street,
+                              Integer number,
+                              LocalDateTime createDate) implements IdentifiableByUUID {
+
+        @Override
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        /**
+         * The strings are copied, as the strings of the entities loaded from a database are distinct instances.
+         */
+        private static HouseEntity of(int i) {
+            Random random = new Random(i);
+            return new HouseEntity(new UUID(0, i),
+                    50 + random.nextInt(100) + 0.5,
+                    new String(COUNTRIES[random.nextInt(COUNTRIES.length)]),
+                    new String(CITIES[random.nextInt(CITIES.length)]),
+                    "Street " + random.nextInt(300),
+                    random.nextInt(200),
+                    LocalDateTime.of(2023, 1 + random.nextInt(12), 1 + random.nextInt(28),
+                            random.nextInt(24), random.nextInt(60), random.nextInt(60)));
+        }
+    }
+
+    public static void main(String[] args) {
+        int entityCount = args.length > 0
+                ? Integer.parseInt(args[0])
+                : DEFAULT_ENTITY_COUNT;
+
+        System.out.printf("%-24s %12s %12s%n", "storage", "bytes/entry", "bytes/value");
+
+        measure("OBJECT", entityCount, () -> new LRUCache<>(entityCount), -1);
+
+        ReflectiveEntityCodec codec = new ReflectiveEntityCodec();
+        measure("COMPACT", entityCount, () -> new CompactCache<>(new LRUCache<>(entityCount), codec),
+                codec.encode(HouseEntity.of(0)).length);
+
+        ReflectiveEntityCodec dictionaryCodec = new ReflectiveEntityCodec(DICTIONARY_FIELDS, DICTIONARY_SIZE, false);
+        measure("COMPACT, country & city", entityCount, () -> new CompactCache<>(new LRUCache<>(entityCount), dictionaryCodec),
+                dictionaryCodec.encode(HouseEntity.of(0)).length);
+    }
+
+    private static void measure(String storage,
+                                int entityCount,
+                                Supplier<Cache<UUID, HouseEntity>> cacheFactory,
+                                int valueBytes) {
+        long usedBefore = usedHeap();
+
+        Cache<UUID, HouseEntity> cache = cacheFactory.get();
+        for (int i = 0; i < entityCount; i++) {
+            HouseEntity entity = HouseEntity.of(i);
+            cache.addOrUpdate(entity.uuid(), entity);
+        }
+
+        long usedAfter = usedHeap();
+        System.out.printf("%-24s %12.1f %12s%n",
+                storage,
+                (double) (usedAfter - usedBefore) / cache.getSize(),
+                valueBytes >= 0 ? valueBytes : "-");
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < GC_COUNT; i++) {
+            System.gc();
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
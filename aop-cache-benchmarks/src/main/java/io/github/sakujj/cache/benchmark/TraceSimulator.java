@@ -0,0 +1,204 @@
+package io.github.sakujj.cache.benchmark;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.trace.TraceFile;
+import io.github.sakujj.cache.trace.TraceOperation;
+import io.github.sakujj.cache.trace.TraceRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * <p>Replays access traces recorded by the starter against every cache engine and capacity,
+ * and reports the hit ratio and the throughput of each, region by region.</p>
+ * <p>A read replays the advised find method : a hit is answered by the cache,
+ * a miss loads the entity and caches it. A write caches the entity, a delete removes it.
+ * The uuids found missing by the application are replayed as existing ones, as if a negative cache answered them.</p>
+ * <p>Each engine replays a prefix of the trace once before being measured, so that its code is compiled,
+ * still the throughput is only indicative : the JMH benchmarks give the precise one.</p>
+ * <p>Usage : {@code ./gradlew :aop-cache-benchmarks:simulate --args="<trace>... [--capacities=100,1000,10000] [--engines=LRU,LFU]"},
+ * where a trace is the path of the current trace file, its rotated files being replayed before it.</p>
+ */
+public class TraceSimulator {
+    private static final String CAPACITIES_OPTION = "--capacities=";
+    private static final String ENGINES_OPTION = "--engines=";
+    private static final int[] DEFAULT_CAPACITIES = {100, 1000, 10000};
+    private static final int WARM_UP_OPERATIONS = 1 << 20;
+    private static final TraceOperation[] OPERATIONS = TraceOperation.values();
+
+    private final int[] capacities;
+    private final List<CacheEngine> engines;
+
+    /**
+     * @param capacities capacities to simulate
+     * @param engines    engines to simulate
+     */
+    public TraceSimulator(int[] capacities, List<CacheEngine> engines) {
+        this.capacities = capacities;
+        this.engines = engines;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        int[] capacities = DEFAULT_CAPACITIES;
+        List<CacheEngine> engines = List.of(CacheEngine.values());
+
+        try {
+            for (String arg : args) {
+                if (arg.startsWith(CAPACITIES_OPTION)) {
+                    capacities = Arrays.stream(arg.substring(CAPACITIES_OPTION.length()).split(","))
+                            .mapToInt(capacity -> Integer.parseInt(capacity.trim()))
+                            .toArray();
+                } else if (arg.startsWith(ENGINES_OPTION)) {
+                    engines = Arrays.stream(arg.substring(ENGINES_OPTION.length()).split(","))
+                            .map(engine -> CacheEngine.valueOf(engine.trim()))
+                            .toList();
+                } else {
+                    List<Path> tracePaths = TraceFile.listOldestFirst(Path.of(arg));
+                    if (tracePaths.isEmpty()) {
+                        throw new IllegalArgumentException("No trace at " + arg);
+                    }
+                    paths.addAll(tracePaths);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            printUsage(e.getMessage());
+            return;
+        }
+
+        if (paths.isEmpty()) {
+            printUsage("No trace given");
+            return;
+        }
+
+        Map<String, Trace> tracesByCache = new LinkedHashMap<>();
+        for (Path path : paths) {
+            TraceFile.read(path, traceRecord -> tracesByCache
+                    .computeIfAbsent(traceRecord.cache(), cache -> new Trace())
+                    .add(traceRecord));
+        }
+
+        TraceSimulator simulator = new TraceSimulator(capacities, engines);
+        tracesByCache.forEach(simulator::simulate);
+    }
+
+    /**
+     * Used to replay the trace of a region against every engine and capacity, printing a line per simulation.
+     *
+     * @param cache name of the region
+     * @param trace trace of the region
+     */
+    public void simulate(String cache, Trace trace) {
+        System.out.printf("%nCache %s : %d operations, %d reads, %d distinct uuids%n",
+                cache, trace.size, trace.readCount, trace.uuids.size());
+        System.out.printf("%-16s %10s %10s %12s%n", "engine", "capacity", "hit ratio", "ops/ms");
+
+        for (CacheEngine engine : engines) {
+            replay(engine.create(capacities[0]), trace, Math.min(trace.size, WARM_UP_OPERATIONS));
+
+            for (int capacity : capacities) {
+                long start = System.nanoTime();
+                long hitCount = replay(engine.create(capacity), trace, trace.size);
+                long elapsedNanos = Math.max(1, System.nanoTime() - start);
+
+                System.out.printf("%-16s %10d %9.2f%% %12.1f%n",
+                        engine, capacity, hitRatioOf(hitCount, trace), trace.size * 1_000_000.0 / elapsedNanos);
+            }
+        }
+    }
+
+    /**
+     * Used to replay a whole trace against a cache without measuring the time.
+     *
+     * @param cache cache to replay the trace against
+     * @param trace trace of a region
+     * @return percentage of the reads answered by the cache
+     */
+    public static double hitRatioOf(Cache<UUID, BenchmarkEntity> cache, Trace trace) {
+        return hitRatioOf(replay(cache, trace, trace.size), trace);
+    }
+
+    private static double hitRatioOf(long hitCount, Trace trace) {
+        return trace.readCount > 0
+                ? 100.0 * hitCount / trace.readCount
+                : 0;
+    }
+
+    /**
+     * @return number of the reads answered by the cache
+     */
+    private static long replay(Cache<UUID, BenchmarkEntity> cache, Trace trace, int operationCount) {
+        long hitCount = 0;
+        for (int i = 0; i < operationCount; i++) {
+            UUID uuid = new UUID(trace.mostSignificantBits[i], trace.leastSignificantBits[i]);
+
+            switch (OPERATIONS[trace.operations[i]]) {
+                case READ -> {
+                    if (cache.getById(uuid).isPresent()) {
+                        hitCount++;
+                    } else {
+                        cache.addOrUpdate(uuid, entityOf(uuid));
+                    }
+                }
+                case WRITE -> cache.addOrUpdate(uuid, entityOf(uuid));
+                case DELETE -> cache.removeById(uuid);
+            }
+        }
+
+        return hitCount;
+    }
+
+    private static BenchmarkEntity entityOf(UUID uuid) {
+        return new BenchmarkEntity(uuid, "Name", "Surname", 0);
+    }
+
+    private static void printUsage(String error) {
+        System.err.println(error);
+        System.err.println("Usage : TraceSimulator <trace>... [--capacities=100,1000,10000] [--engines=LRU,LFU]");
+        System.err.println("Engines : " + Arrays.toString(CacheEngine.values()));
+    }
+
+    /**
+     * Operations of a region, kept in primitive arrays so that long traces fit in memory.
+     */
+    public static class Trace {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private long[] mostSignificantBits = new long[INITIAL_CAPACITY];
+        private long[] leastSignificantBits = new long[INITIAL_CAPACITY];
+        private byte[] operations = new byte[INITIAL_CAPACITY];
+        private final Set<UUID> uuids = new HashSet<>();
+        private int size;
+        private long readCount;
+
+        /**
+         * @param traceRecord record to append
+         */
+        public void add(TraceRecord traceRecord) {
+            if (size == operations.length) {
+                int capacity = size * 2;
+                mostSignificantBits = Arrays.copyOf(mostSignificantBits, capacity);
+                leastSignificantBits = Arrays.copyOf(leastSignificantBits, capacity);
+                operations = Arrays.copyOf(operations, capacity);
+            }
+
+            mostSignificantBits[size] = traceRecord.uuid().getMostSignificantBits();
+            leastSignificantBits[size] = traceRecord.uuid().getLeastSignificantBits();
+            operations[size] = (byte) traceRecord.operation().ordinal();
+            size++;
+
+            uuids.add(traceRecord.uuid());
+            if (traceRecord.operation() == TraceOperation.READ) {
+                readCount++;
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.sakujj.cache.benchmark;
+
+import io.github.sakujj.cache.trace.TraceOperation;
+import io.github.sakujj.cache.trace.TraceRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class TraceSimulatorTests {
+
+    private static final String CACHE = "people";
+    private static final int CAPACITY = 2;
+
+    @Test
+    public void hitRatioOfShouldFavourRecencyForLRU() {
+        // given
+        TraceSimulator.Trace trace = shiftingReadsTrace();
+
+        // when
+        double hitRatio = TraceSimulator.hitRatioOf(CacheEngine.LRU.create(CAPACITY), trace);
+
+        // then
+        // hits on the second and third read of 0, then on the second reads of 1 and 2
+        assertThat(hitRatio).isCloseTo(50.0, within(0.01));
+    }
+
+    @Test
+    public void hitRatioOfShouldFavourFrequencyForLFU() {
+        // given
+        TraceSimulator.Trace trace = shiftingReadsTrace();
+
+        // when
+        double hitRatio = TraceSimulator.hitRatioOf(CacheEngine.LFU.create(CAPACITY), trace);
+
+        // then
+        // 1 and 2 evict each other as 0 stays the most frequent, so only the reads of 0 hit
+        assertThat(hitRatio).isCloseTo(37.5, within(0.01));
+    }
+
+    @Test
+    public void hitRatioOfShouldMissReadsAfterDelete() {
+        // given
+        TraceSimulator.Trace trace = new TraceSimulator.Trace();
+        trace.add(recordOf(0, TraceOperation.WRITE));
+        trace.add(recordOf(0, TraceOperation.READ));
+        trace.add(recordOf(0, TraceOperation.DELETE));
+        trace.add(recordOf(0, TraceOperation.READ));
+
+        // when
+        double hitRatio = TraceSimulator.hitRatioOf(CacheEngine.LRU.create(CAPACITY), trace);
+
+        // then
+        assertThat(hitRatio).isCloseTo(50.0, within(0.01));
+    }
+
+    @Test
+    public void hitRatioOfShouldBeZeroWithoutReads() {
+        // given
+        TraceSimulator.Trace trace = new TraceSimulator.Trace();
+        trace.add(recordOf(0, TraceOperation.WRITE));
+
+        // when
+        double hitRatio = TraceSimulator.hitRatioOf(CacheEngine.LRU.create(CAPACITY), trace);
+
+        // then
+        assertThat(hitRatio).isZero();
+    }
+
+    /**
+     * Reads the entity 0 three times, then the entities 1 and 2 in turn, then 0 again.
+     */
+    private static TraceSimulator.Trace shiftingReadsTrace() {
+        TraceSimulator.Trace trace = new TraceSimulator.Trace();
+        for (int i : new int[]{0, 0, 0, 1, 2, 1, 2, 0}) {
+            trace.add(recordOf(i, TraceOperation.READ));
+        }
+        return trace;
+    }
+
+    private static TraceRecord recordOf(int i, TraceOperation operation) {
+        return new TraceRecord(CACHE, new UUID(0, i), operation, 0);
+    }
+}
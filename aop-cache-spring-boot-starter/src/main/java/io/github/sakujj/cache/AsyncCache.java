@@ -0,0 +1,141 @@
+package io.github.sakujj.cache;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <p>Asynchronous view of a cache : a lookup returns a future, and the concurrent lookups of an id
+ * missing from the cache share one in-flight load.</p>
+ * <p>Only the loads in flight are held as futures. A completed load puts its value in the underlying cache,
+ * so that it is weighed, evicted, expired and snapshotted as any other, or removes the id from it if the value is absent.
+ * A failed load leaves the cache as it was.</p>
+ * <p>A load discarded by a write to the same id still completes for its callers, but its result is not cached,
+ * so that a load started before a write does not overwrite it with the old value.</p>
+ *
+ * @param <K> type of ids
+ * @param <V> type of cached values
+ */
+public class AsyncCache<K, V> {
+    private final Cache<K, V> cache;
+    private final ConcurrentHashMap<K, CompletableFuture<Optional<V>>> loadsInFlight;
+
+    /**
+     * @param cache cache to hold the loaded values
+     */
+    public AsyncCache(Cache<K, V> cache) {
+        this.cache = cache;
+        loadsInFlight = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Used to get by id from cache, loading the value on a miss.
+     *
+     * @param id     id to get by
+     * @param loader loads the value of the id, called only if no load of it is in flight
+     * @return future of the value, empty if there is no value with the id
+     */
+    public CompletableFuture<Optional<V>> get(K id, Function<? super K, CompletableFuture<Optional<V>>> loader) {
+        Optional<V> cached = cache.getById(id);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return load(id, loader);
+    }
+
+    /**
+     * Used to load the value of an id whether it is cached or not, e.g. to refresh it,
+     * joining the load in flight if there is one.
+     *
+     * @param id     id to load the value of
+     * @param loader loads the value of the id, called only if no load of it is in flight
+     * @return future of the value, empty if there is no value with the id
+     */
+    public CompletableFuture<Optional<V>> load(K id, Function<? super K, CompletableFuture<Optional<V>>> loader) {
+        return load(id, loader, absentId -> {
+        });
+    }
+
+    /**
+     * Used to load the value of an id whether it is cached or not,
+     * joining the load in flight if there is one.
+     *
+     * @param id       id to load the value of
+     * @param loader   loads the value of the id, called only if no load of it is in flight
+     * @param onAbsent called with the id if the value is absent and the load is not discarded,
+     *                 under the same guard as the write of a loaded value, e.g. to put a tombstone
+     * @return future of the value, empty if there is no value with the id
+     */
+    public CompletableFuture<Optional<V>> load(K id,
+                                               Function<? super K, CompletableFuture<Optional<V>>> loader,
+                                               Consumer<? super K> onAbsent) {
+        CompletableFuture<Optional<V>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<V>> loadInFlight = loadsInFlight.putIfAbsent(id, load);
+        if (loadInFlight != null) {
+            return loadInFlight.copy();
+        }
+
+        long loadStart = System.nanoTime();
+        CompletableFuture<Optional<V>> loaded;
+        try {
+            loaded = loader.apply(id);
+        } catch (RuntimeException | Error e) {
+            loaded = CompletableFuture.failedFuture(e);
+        }
+
+        loaded.whenComplete((result, failure) -> {
+            if (failure != null) {
+                cache.getStatsCounter().recordLoadFailure(System.nanoTime() - loadStart);
+                loadsInFlight.remove(id, load);
+                load.completeExceptionally(failure);
+                return;
+            }
+
+            cache.getStatsCounter().recordLoadSuccess(System.nanoTime() - loadStart);
+            // cached under the lock of the map entry, so that a concurrent discard either precedes it or follows it
+            loadsInFlight.computeIfPresent(id, (k, current) -> {
+                if (current != load) {
+                    return current;
+                }
+
+                result.ifPresentOrElse(value -> cache.addOrUpdate(id, value), () -> {
+                    cache.removeById(id);
+                    onAbsent.accept(id);
+                });
+                return null;
+            });
+            load.complete(result);
+        });
+
+        return load.copy();
+    }
+
+    /**
+     * Used to discard the load of an id in flight, if any, before a write of a newer value.
+     *
+     * @param id id to discard the load of
+     */
+    public void discardLoad(K id) {
+        loadsInFlight.remove(id);
+    }
+
+    /**
+     * Used to remove by id from cache, discarding the load in flight.
+     *
+     * @param id id to remove by
+     */
+    public void invalidate(K id) {
+        discardLoad(id);
+        cache.removeById(id);
+    }
+
+    /**
+     * @return the underlying cache
+     */
+    public Cache<K, V> synchronous() {
+        return cache;
+    }
+}
@@ -1,16 +1,114 @@
 package io.github.sakujj.cache;
 
 
+import io.github.sakujj.cache.stats.CacheStats;
+import io.github.sakujj.cache.stats.StatsCounter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
-public interface Cache {
-    void addOrUpdate(IdentifiableByUUID identifiableByUUID);
+/**
+ * @param <K> type of ids
+ * @param <V> type of cached values
+ */
+public interface Cache<K, V> {
+    void addOrUpdate(K id, V value);
 
-    Optional<IdentifiableByUUID> getById(Object id);
+    Optional<V> getById(K id);
 
-    void removeById(Object id);
+    void removeById(K id);
 
     int getSize();
 
     void clear();
+
+    /**
+     * Used to get by ids from cache. Engines override it to take their lock once for the whole batch.
+     *
+     * @param ids ids to get by
+     * @return the found values by id and the ids not found
+     */
+    default BulkLookup<K, V> getAllById(Collection<? extends K> ids) {
+        Map<K, V> found = new HashMap<>();
+        Set<K> missing = new HashSet<>();
+        for (K id : ids) {
+            getById(id).ifPresentOrElse(value -> found.put(id, value), () -> missing.add(id));
+        }
+
+        return new BulkLookup<>(found, missing);
+    }
+
+    /**
+     * Used to add or update values with cache, in the iteration order of the map.
+     * Engines override it to take their lock once for the whole batch.
+     *
+     * @param values values to add or update by id
+     */
+    default void addOrUpdateAll(Map<? extends K, ? extends V> values) {
+        values.forEach(this::addOrUpdate);
+    }
+
+    /**
+     * Used to remove by ids from cache. Engines override it to take their lock once for the whole batch.
+     *
+     * @param ids ids to remove by
+     */
+    default void removeAllById(Collection<? extends K> ids) {
+        ids.forEach(this::removeById);
+    }
+
+    /**
+     * Used to get the counter the cache records its events to.
+     * Decorators share the counter of the decorated cache.
+     *
+     * @return statistics counter
+     */
+    StatsCounter getStatsCounter();
+
+    /**
+     * Used to get current total weight of the entities.
+     *
+     * @return total weight, the number of entities if the cache is not weighted
+     */
+    default long getWeight() {
+        return getSize();
+    }
+
+    /**
+     * Used to check whether an entity should be reloaded in the background, while it is still served from the cache.
+     * Decorators pass the check to the decorated cache.
+     *
+     * @param id id of the entity
+     * @return whether the entity is due for a refresh, false if the cache does not refresh its entities
+     */
+    default boolean isRefreshDue(K id) {
+        return false;
+    }
+
+    /**
+     * Used to bound the cache to a fraction of the maximum weight it was created with, evicting the entities beyond it,
+     * or to let it grow back. Decorators pass the fraction to the decorated cache.
+     * A cache holding no more than a bounded number of entities does not have to resize, and does nothing by default.
+     *
+     * @param fraction fraction of the maximum weight, 1 to restore it
+     */
+    default void resize(double fraction) {
+    }
+
+    default CacheStats getStats() {
+        return getStatsCounter().snapshot(getSize(), getWeight());
+    }
+
+    /**
+     * Result of a batch lookup.
+     *
+     * @param found   found values by id
+     * @param missing ids not found
+     */
+    record BulkLookup<K, V>(Map<K, V> found, Set<K> missing) {
+    }
 }
@@ -0,0 +1,192 @@
+package io.github.sakujj.cache;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <p>Holds the named cache regions, each with its own type, capacity and expiration.</p>
+ * <p>A region not configured explicitly is created on first use with the default settings.</p>
+ * <p>A region can also have a negative cache : tombstones of the uuids found missing,
+ * so that repeated lookups of nonexistent entities do not reach the database.</p>
+ * <p>A region is also available as an {@link AsyncCache}, for the lookups returning futures.</p>
+ * <p>All the regions, including their negative caches and the regions created later,
+ * can be bounded to a fraction of their maximum weight by {@link #resize(double)}.</p>
+ * <p>The loads and the writes of an entity, by whichever component, are serialized by the lock of its region and uuid,
+ * see {@link #lock(String, UUID)}.</p>
+ */
+public class CacheManager {
+    public static final String DEFAULT_CACHE = "default";
+
+    private final ConcurrentHashMap<String, Cache<UUID, ? extends IdentifiableByUUID>> cachesByName;
+    private final Function<String, Cache<UUID, ? extends IdentifiableByUUID>> cacheFactory;
+    private final CopyOnWriteArrayList<Consumer<String>> creationListeners;
+    private final ConcurrentHashMap<String, Optional<Cache<UUID, Boolean>>> negativeCachesByName;
+    private final Function<String, Cache<UUID, Boolean>> negativeCacheFactory;
+    private final ConcurrentHashMap<String, AsyncCache<UUID, ? extends IdentifiableByUUID>> asyncCachesByName;
+    private final KeyLocks keyLocks;
+    private volatile double capacityFraction = 1;
+
+    /**
+     * @param cacheFactory creates the cache of a region by its name
+     */
+    public CacheManager(Function<String, Cache<UUID, ? extends IdentifiableByUUID>> cacheFactory) {
+        this(cacheFactory, name -> null);
+    }
+
+    /**
+     * @param cacheFactory         creates the cache of a region by its name
+     * @param negativeCacheFactory creates the negative cache of a region by its name,
+     *                             returns null if negative caching is disabled for the region
+     */
+    public CacheManager(Function<String, Cache<UUID, ? extends IdentifiableByUUID>> cacheFactory,
+                        Function<String, Cache<UUID, Boolean>> negativeCacheFactory) {
+        this.cacheFactory = cacheFactory;
+        this.negativeCacheFactory = negativeCacheFactory;
+        cachesByName = new ConcurrentHashMap<>();
+        creationListeners = new CopyOnWriteArrayList<>();
+        negativeCachesByName = new ConcurrentHashMap<>();
+        asyncCachesByName = new ConcurrentHashMap<>();
+        keyLocks = new KeyLocks();
+    }
+
+    /**
+     * Used to get the cache of a region, creating it if needed.
+     *
+     * @param name name of the region
+     * @param <V>  type of the entities cached in the region
+     * @return cache of the region
+     */
+    @SuppressWarnings("unchecked")
+    public <V extends IdentifiableByUUID> Cache<UUID, V> getCache(String name) {
+        var cache = cachesByName.get(name);
+        if (cache != null) {
+            return (Cache<UUID, V>) cache;
+        }
+
+        boolean[] isCreated = {false};
+        cache = cachesByName.computeIfAbsent(name, n -> {
+            isCreated[0] = true;
+            return resized(cacheFactory.apply(n));
+        });
+
+        // outside of computeIfAbsent, so that a listener can get the cache
+        if (isCreated[0]) {
+            creationListeners.forEach(listener -> listener.accept(name));
+        }
+
+        return (Cache<UUID, V>) cache;
+    }
+
+    /**
+     * Used to get the negative cache of a region, creating it if needed.
+     * A present value for an uuid is a tombstone : the entity was found missing.
+     *
+     * @param name name of the region
+     * @return negative cache of the region, empty if negative caching is disabled for the region
+     */
+    public Optional<Cache<UUID, Boolean>> getNegativeCache(String name) {
+        return negativeCachesByName.computeIfAbsent(name,
+                n -> Optional.ofNullable(resized(negativeCacheFactory.apply(n))));
+    }
+
+    /**
+     * Used to get the asynchronous view of a region, creating the region if needed.
+     *
+     * @param name name of the region
+     * @param <V>  type of the entities cached in the region
+     * @return asynchronous view of the cache of the region
+     */
+    @SuppressWarnings("unchecked")
+    public <V extends IdentifiableByUUID> AsyncCache<UUID, V> getAsyncCache(String name) {
+        return (AsyncCache<UUID, V>) asyncCachesByName.computeIfAbsent(name, n -> new AsyncCache<>(getCache(n)));
+    }
+
+    /**
+     * Used to acquire the lock of an entity, blocking while another thread holds it :
+     * a load holds it from reading the entity until caching it, so an eviction under the lock lands after the load.
+     *
+     * @param name name of the region
+     * @param uuid uuid of the entity
+     */
+    public void lock(String name, UUID uuid) {
+        keyLocks.lock(new RegionKey(name, uuid));
+    }
+
+    /**
+     * Used to release the lock of an entity acquired by {@link #lock(String, UUID)} on the same thread.
+     *
+     * @param name name of the region
+     * @param uuid uuid of the entity
+     */
+    public void unlock(String name, UUID uuid) {
+        keyLocks.unlock(new RegionKey(name, uuid));
+    }
+
+    /**
+     * Used to be notified of the regions created from now on.
+     * The regions already created are available from {@link #getCaches()}.
+     *
+     * @param listener accepts the name of a created region
+     */
+    public void addCreationListener(Consumer<String> listener) {
+        creationListeners.add(listener);
+    }
+
+    /**
+     * Used to set the cache of a region, replacing the existing one.
+     *
+     * @param name  name of the region
+     * @param cache cache of the region
+     */
+    public void registerCache(String name, Cache<UUID, ? extends IdentifiableByUUID> cache) {
+        cachesByName.put(name, resized(cache));
+        asyncCachesByName.remove(name);
+    }
+
+    /**
+     * @return the regions created so far, by name
+     */
+    public Map<String, Cache<UUID, ? extends IdentifiableByUUID>> getCaches() {
+        return Map.copyOf(cachesByName);
+    }
+
+    /**
+     * Used to bound all the regions to a fraction of their maximum weight, see {@link Cache#resize(double)}.
+     *
+     * @param fraction fraction of the maximum weight, 1 to restore it
+     */
+    public void resize(double fraction) {
+        capacityFraction = fraction;
+        cachesByName.values().forEach(cache -> cache.resize(fraction));
+        negativeCachesByName.values().forEach(negativeCache -> negativeCache.ifPresent(cache -> cache.resize(fraction)));
+    }
+
+    /**
+     * @return fraction of the maximum weight the regions are bounded to
+     */
+    public double getCapacityFraction() {
+        return capacityFraction;
+    }
+
+    public void clear() {
+        cachesByName.values().forEach(Cache::clear);
+        negativeCachesByName.values().forEach(negativeCache -> negativeCache.ifPresent(Cache::clear));
+    }
+
+    private <C extends Cache<?, ?>> C resized(C cache) {
+        double fraction = capacityFraction;
+        if (cache != null && fraction < 1) {
+            cache.resize(fraction);
+        }
+
+        return cache;
+    }
+
+    private record RegionKey(String name, UUID uuid) {
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.sakujj.cache;
+
+import io.github.sakujj.cache.codec.EntityCodec;
+import io.github.sakujj.cache.snapshot.Snapshottable;
+import io.github.sakujj.cache.stats.StatsCounter;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * <p>Decorates a cache of encoded entities, so that the entities are stored on heap as compact byte arrays.</p>
+ * <p>An entity is encoded by the {@link EntityCodec} on write and decoded on every hit,
+ * trading some CPU per hit for a fraction of the heap taken by the entity objects :
+ * the decorated cache holds a single array per entry instead of the graph of the entity, its strings,
+ * uuids and dates. Every hit returns a new instance, so a caller modifying it does not modify the cached entity.</p>
+ * <p>The decorated cache keeps its eviction policy, its weigher weighs the encoded arrays.</p>
+ *
+ * @param <V> type of cached entities, decoded by the codec
+ */
+public class CompactCache<V extends IdentifiableByUUID> implements Cache<UUID, V>, Snapshottable<UUID, V> {
+    private final Cache<UUID, byte[]> cache;
+    private final EntityCodec codec;
+
+    /**
+     * @param cache cache of encoded entities to decorate
+     * @param codec codec of entities
+     */
+    public CompactCache(Cache<UUID, byte[]> cache, EntityCodec codec) {
+        this.cache = cache;
+        this.codec = codec;
+    }
+
+    /**
+     * @param cacheFactory     creates the cache of encoded entities to decorate, passing the entries it evicts to the listener
+     * @param codec            codec of entities
+     * @param evictionListener listener of the entities evicted by the decorated cache, null if none,
+     *                         the entities are decoded only to be passed to it
+     */
+    public CompactCache(Function<EvictionListener<UUID, byte[]>, Cache<UUID, byte[]>> cacheFactory,
+                        EntityCodec codec,
+                        EvictionListener<? super UUID, ? super V> evictionListener) {
+        this.codec = codec;
+        cache = cacheFactory.apply(evictionListener != null
+                ? (id, bytes) -> evictionListener.onEviction(id, decode(bytes))
+                : EvictionListener.none());
+    }
+
+    @Override
+    public void addOrUpdate(UUID id, V value) {
+        cache.addOrUpdate(id, codec.encode(value));
+    }
+
+    @Override
+    public Optional<V> getById(UUID id) {
+        return cache.getById(id)
+                .map(this::decode);
+    }
+
+    @Override
+    public void removeById(UUID id) {
+        cache.removeById(id);
+    }
+
+    @Override
+    public BulkLookup<UUID, V> getAllById(Collection<? extends UUID> ids) {
+        BulkLookup<UUID, byte[]> lookup = cache.getAllById(ids);
+
+        Map<UUID, V> found = new HashMap<>();
+        lookup.found().forEach((id, bytes) -> found.put(id, decode(bytes)));
+
+        return new BulkLookup<>(found, lookup.missing());
+    }
+
+    @Override
+    public void addOrUpdateAll(Map<? extends UUID, ? extends V> values) {
+        Map<UUID, byte[]> encoded = new LinkedHashMap<>();
+        values.forEach((id, value) -> encoded.put(id, codec.encode(value)));
+
+        cache.addOrUpdateAll(encoded);
+    }
+
+    @Override
+    public void removeAllById(Collection<? extends UUID> ids) {
+        cache.removeAllById(ids);
+    }
+
+    @Override
+    public int getSize() {
+        return cache.getSize();
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public StatsCounter getStatsCounter() {
+        return cache.getStatsCounter();
+    }
+
+    @Override
+    public long getWeight() {
+        return cache.getWeight();
+    }
+
+    @Override
+    public boolean isRefreshDue(UUID id) {
+        return cache.isRefreshDue(id);
+    }
+
+    @Override
+    public void resize(double fraction) {
+        cache.resize(fraction);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachEntry(EntryConsumer<? super UUID, ? super V> consumer) {
+        if (cache instanceof Snapshottable<?, ?> snapshottable) {
+            ((Snapshottable<UUID, byte[]>) snapshottable).forEachEntry((id, bytes, frequency) ->
+                    consumer.accept(id, decode(bytes), frequency));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void restore(UUID id, V value, int frequency) {
+        if (cache instanceof Snapshottable<?, ?> snapshottable) {
+            ((Snapshottable<UUID, byte[]>) snapshottable).restore(id, codec.encode(value), frequency);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V decode(byte[] bytes) {
+        return (V) codec.decode(ByteBuffer.wrap(bytes));
+    }
+}
@@ -0,0 +1,336 @@
+package io.github.sakujj.cache;
+
+import io.github.sakujj.cache.collections.DoublyLinkedList;
+import io.github.sakujj.cache.collections.StripedRingBuffer;
+import io.github.sakujj.cache.snapshot.Snapshottable;
+import io.github.sakujj.cache.stats.RemovalCause;
+import io.github.sakujj.cache.stats.StatsCounter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>Concurrent LRU cache implementation.</p>
+ * <p>Lookups are lock-free : a hit is only recorded in a {@link StripedRingBuffer},
+ * the recency order is updated later in batches by the thread that manages to acquire the eviction lock.
+ * Since the access recording is lossy, the eviction order is an approximation of LRU under contention.</p>
+ */
+@Slf4j
+public class ConcurrentLRUCache<K, V> implements Cache<K, V>, Snapshottable<K, V> {
+    private final ConcurrentHashMap<K, DoublyLinkedList.Node<K, V>> nodesById;
+    private final StripedRingBuffer<DoublyLinkedList.Node<K, V>> readBuffer;
+    private final ReentrantLock evictionLock;
+    private DoublyLinkedList<K, V> entities;
+    private final long configuredMaxWeight;
+    private volatile long maxWeight;
+    private final Weigher<? super V> weigher;
+    private final EvictionListener<? super K, ? super V> evictionListener;
+    private final StatsCounter statsCounter;
+    private volatile long totalWeight;
+
+    public ConcurrentLRUCache(int capacity) {
+        this(capacity, Weigher.singleton());
+    }
+
+    /**
+     * @param maxWeight maximum total weight of entities in cache
+     * @param weigher   weigher of entities
+     */
+    public ConcurrentLRUCache(long maxWeight, Weigher<? super V> weigher) {
+        this(maxWeight, weigher, EvictionListener.none());
+    }
+
+    /**
+     * @param maxWeight        maximum total weight of entities in cache
+     * @param weigher          weigher of entities
+     * @param evictionListener listener of the entities evicted to fit the maximum weight
+     */
+    public ConcurrentLRUCache(long maxWeight,
+                              Weigher<? super V> weigher,
+                              EvictionListener<? super K, ? super V> evictionListener) {
+        this.configuredMaxWeight = maxWeight;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+        nodesById = new ConcurrentHashMap<>();
+        readBuffer = new StripedRingBuffer<>();
+        evictionLock = new ReentrantLock();
+        entities = new DoublyLinkedList<>();
+        statsCounter = new StatsCounter();
+    }
+
+    /**
+     * Used to get current cache size.
+     *
+     * @return number of entities in cache
+     */
+    @Override
+    public int getSize() {
+        return nodesById.size();
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            readBuffer.drainTo(node -> {
+            });
+            entities = new DoublyLinkedList<>();
+            nodesById.clear();
+            totalWeight = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public long getWeight() {
+        return totalWeight;
+    }
+
+    @Override
+    public StatsCounter getStatsCounter() {
+        return statsCounter;
+    }
+
+    /**
+     * Used to get by id from cache.
+     *
+     * @param id id to get by
+     */
+    @Override
+    public Optional<V> getById(K id) {
+        var node = nodesById.get(id);
+        if (node == null) {
+            log.debug("CACHE MISS");
+            statsCounter.recordMiss();
+            return Optional.empty();
+        }
+
+        log.debug("CACHE HIT");
+        statsCounter.recordHit();
+
+        if (readBuffer.offer(node)) {
+            tryToDrainReadBuffer();
+        }
+        return Optional.of(node.getValue());
+    }
+
+    /**
+     * Used to add or update entity with cache.
+     *
+     * @param id    id of the instance
+     * @param value instance to add or update
+     */
+    @Override
+    public void addOrUpdate(K id, V value) {
+        if (maxWeight == 0) {
+            return;
+        }
+
+        int weight = weigher.weigh(value);
+
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            put(id, value, weight);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Used to remove by id from cache.
+     *
+     * @param id id to remove by
+     */
+    @Override
+    public void removeById(K id) {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            remove(id);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Looks the ids up without locking, the accesses are recorded as for a single lookup,
+     * but the read buffer is drained at most once for the whole batch.
+     */
+    @Override
+    public BulkLookup<K, V> getAllById(Collection<? extends K> ids) {
+        Map<K, V> found = new HashMap<>();
+        Set<K> missing = new HashSet<>();
+        boolean isDrainNeeded = false;
+
+        for (K id : ids) {
+            var node = nodesById.get(id);
+            if (node == null) {
+                statsCounter.recordMiss();
+                missing.add(id);
+                continue;
+            }
+
+            statsCounter.recordHit();
+            isDrainNeeded |= readBuffer.offer(node);
+            found.put(id, node.getValue());
+        }
+
+        if (isDrainNeeded) {
+            tryToDrainReadBuffer();
+        }
+        return new BulkLookup<>(found, missing);
+    }
+
+    /**
+     * Weighs the values before taking the eviction lock, then takes it once for the whole batch.
+     */
+    @Override
+    public void addOrUpdateAll(Map<? extends K, ? extends V> values) {
+        if (maxWeight == 0 || values.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<? extends K, ? extends V>> entries = new ArrayList<>(values.entrySet());
+        int[] weights = new int[entries.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = weigher.weigh(entries.get(i).getValue());
+        }
+
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            for (int i = 0; i < weights.length; i++) {
+                put(entries.get(i).getKey(), entries.get(i).getValue(), weights[i]);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void removeAllById(Collection<? extends K> ids) {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            ids.forEach(this::remove);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void forEachEntry(EntryConsumer<? super K, ? super V> consumer) {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            entities.forEach((id, value) -> consumer.accept(id, value, 1));
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void restore(K id, V value, int frequency) {
+        addOrUpdate(id, value);
+    }
+
+    @Override
+    public void resize(double fraction) {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            maxWeight = Math.min(configuredMaxWeight, Math.max(1, (long) (configuredMaxWeight * fraction)));
+            evictWhileOverweight(0);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Must be called under the eviction lock.
+     */
+    private void put(K id, V value, int weight) {
+        // the existing node is replaced in the map at the end, so that readers never miss an updated entity
+        var existingNode = nodesById.get(id);
+        if (existingNode != null) {
+            entities.removeNode(existingNode);
+            totalWeight -= existingNode.getWeight();
+        }
+
+        if (weight > maxWeight) {
+            nodesById.remove(id);
+            return;
+        }
+
+        evictWhileOverweight(weight);
+
+        var node = entities.addFirst(id, value);
+        node.setWeight(weight);
+        nodesById.put(id, node);
+        totalWeight += weight;
+    }
+
+    /**
+     * Must be called under the eviction lock.
+     */
+    private void evictWhileOverweight(int incomingWeight) {
+        while (totalWeight + incomingWeight > maxWeight && entities.getSize() > 0) {
+            var lruNode = entities.getLastNode();
+
+            entities.removeLast();
+            nodesById.remove(lruNode.getKey());
+            totalWeight -= lruNode.getWeight();
+            statsCounter.recordEviction(RemovalCause.SIZE);
+            evictionListener.onEviction(lruNode.getKey(), lruNode.getValue());
+        }
+    }
+
+    /**
+     * Must be called under the eviction lock.
+     */
+    private void remove(K id) {
+        var nodeToDelete = nodesById.remove(id);
+        if (nodeToDelete != null) {
+            entities.removeNode(nodeToDelete);
+            totalWeight -= nodeToDelete.getWeight();
+        }
+    }
+
+    private void tryToDrainReadBuffer() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            drainReadBuffer();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void drainReadBuffer() {
+        readBuffer.drainTo(this::moveToFront);
+    }
+
+    private void moveToFront(DoublyLinkedList.Node<K, V> node) {
+        // the node could have been removed or replaced after the access was recorded
+        if (nodesById.get(node.getKey()) != node) {
+            return;
+        }
+
+        entities.removeNode(node);
+        entities.addNodeFirst(node);
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.sakujj.cache;
+
+/**
+ * <p>Notified of the entities a cache evicts to fit its maximum weight.</p>
+ * <p>Called under the lock of the cache, so it should be fast and must not call back into the cache.
+ * Explicit removals are not evictions and are not notified.</p>
+ *
+ * @param <K> type of ids
+ * @param <V> type of cached values
+ */
+@FunctionalInterface
+public interface EvictionListener<K, V> {
+
+    /**
+     * @param id    id of the evicted entity
+     * @param value evicted entity
+     */
+    void onEviction(K id, V value);
+
+    /**
+     * @return listener ignoring the evictions
+     */
+    static <K, V> EvictionListener<K, V> none() {
+        return (id, value) -> {
+        };
+    }
+}
@@ -0,0 +1,366 @@
+package io.github.sakujj.cache;
+
+import io.github.sakujj.cache.collections.TimerWheel;
+import io.github.sakujj.cache.snapshot.Snapshottable;
+import io.github.sakujj.cache.stats.RemovalCause;
+import io.github.sakujj.cache.stats.StatsCounter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * <p>Decorates a cache with time-based expiration.</p>
+ * <p>An entity expires after the specified duration since it was added or updated (expire after write),
+ * and/or since it was last read or written (expire after access), whichever comes first.</p>
+ * <p>Expired entities are removed in amortized O(1) by a {@link TimerWheel}, advanced on writes
+ * and opportunistically on reads. A read also checks the exact deadline,
+ * so an expired entity is never returned even if the wheel has not reached it yet.
+ * Reads do not block : postponing the deadline on access is a volatile write.</p>
+ * <p>The timers of the entities evicted by the decorated cache to fit its maximum weight are removed
+ * by its eviction listener, so that they do not pile up until their deadline.
+ * An eviction under the wheel lock removes the timer at once, the others, e.g. of an entity
+ * demoted by a read of a {@link TieredCache}, are removed on the next write.</p>
+ */
+public class ExpiringCache<K, V> implements Cache<K, V>, Snapshottable<K, V> {
+    private final Cache<K, V> cache;
+    private final Ticker ticker;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+
+    private final ConcurrentHashMap<K, Expiration<K>> expirationsById;
+    private final TimerWheel<K> timerWheel;
+    private final ReentrantLock wheelLock;
+    private final ConcurrentLinkedQueue<TimerWheel.Timer<K>> timersOfEvicted;
+
+    /**
+     * @param cacheFactory      creates the cache to decorate, passing the entities it evicts to the listener
+     * @param expireAfterWrite  time to live since the last write, null if the entities do not expire after write
+     * @param expireAfterAccess time to live since the last access, null if the entities do not expire after access
+     * @param ticker            source of time
+     */
+    public ExpiringCache(Function<EvictionListener<K, V>, Cache<K, V>> cacheFactory,
+                         Duration expireAfterWrite,
+                         Duration expireAfterAccess,
+                         Ticker ticker) {
+        this.ticker = ticker;
+        expireAfterWriteNanos = expireAfterWrite != null ? expireAfterWrite.toNanos() : Long.MAX_VALUE;
+        expireAfterAccessNanos = expireAfterAccess != null ? expireAfterAccess.toNanos() : Long.MAX_VALUE;
+
+        expirationsById = new ConcurrentHashMap<>();
+        timerWheel = new TimerWheel<>(ticker.read());
+        wheelLock = new ReentrantLock();
+        timersOfEvicted = new ConcurrentLinkedQueue<>();
+        cache = cacheFactory.apply(this::onEviction);
+    }
+
+    @Override
+    public Optional<V> getById(K id) {
+        long now = ticker.read();
+
+        var expiration = expirationsById.get(id);
+        if (expiration != null && expiration.timer.getDeadline() - now <= 0L) {
+            expire(id, expiration);
+        }
+
+        tryToAdvance(now);
+
+        Optional<V> optional = cache.getById(id);
+        if (optional.isPresent() && expiration != null && expireAfterAccessNanos != Long.MAX_VALUE) {
+            long accessDeadline = saturatedAdd(now, expireAfterAccessNanos);
+            expiration.timer.setDeadline(Math.min(expiration.writeDeadline, accessDeadline));
+        }
+
+        return optional;
+    }
+
+    @Override
+    public void addOrUpdate(K id, V value) {
+        write(id, () -> cache.addOrUpdate(id, value));
+    }
+
+    @Override
+    public BulkLookup<K, V> getAllById(Collection<? extends K> ids) {
+        long now = ticker.read();
+
+        Map<K, Expiration<K>> expirations = new HashMap<>();
+        for (K id : ids) {
+            var expiration = expirationsById.get(id);
+            if (expiration != null && expiration.timer.getDeadline() - now <= 0L) {
+                expire(id, expiration);
+            } else if (expiration != null) {
+                expirations.put(id, expiration);
+            }
+        }
+
+        tryToAdvance(now);
+
+        BulkLookup<K, V> lookup = cache.getAllById(ids);
+        if (expireAfterAccessNanos != Long.MAX_VALUE) {
+            long accessDeadline = saturatedAdd(now, expireAfterAccessNanos);
+            for (K id : lookup.found().keySet()) {
+                var expiration = expirations.get(id);
+                if (expiration != null) {
+                    expiration.timer.setDeadline(Math.min(expiration.writeDeadline, accessDeadline));
+                }
+            }
+        }
+
+        return lookup;
+    }
+
+    @Override
+    public void addOrUpdateAll(Map<? extends K, ? extends V> values) {
+        wheelLock.lock();
+        try {
+            long now = ticker.read();
+            advance(now);
+
+            cache.addOrUpdateAll(values);
+            values.keySet().forEach(id -> schedule(id, now));
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    @Override
+    public void removeAllById(Collection<? extends K> ids) {
+        wheelLock.lock();
+        try {
+            advance(ticker.read());
+
+            for (K id : ids) {
+                var expiration = expirationsById.remove(id);
+                if (expiration != null) {
+                    timerWheel.deschedule(expiration.timer);
+                }
+            }
+
+            cache.removeAllById(ids);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * Skips the entities that have expired but have not been removed yet.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachEntry(EntryConsumer<? super K, ? super V> consumer) {
+        if (!(cache instanceof Snapshottable<?, ?> snapshottable)) {
+            return;
+        }
+
+        long now = ticker.read();
+        ((Snapshottable<K, V>) snapshottable).forEachEntry((id, value, frequency) -> {
+            var expiration = expirationsById.get(id);
+            if (expiration == null || expiration.timer.getDeadline() - now > 0L) {
+                consumer.accept(id, value, frequency);
+            }
+        });
+    }
+
+    /**
+     * Restored entities get a fresh time to live, since they were valid when the snapshot was written.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void restore(K id, V value, int frequency) {
+        if (cache instanceof Snapshottable<?, ?> snapshottable) {
+            write(id, () -> ((Snapshottable<K, V>) snapshottable).restore(id, value, frequency));
+        }
+    }
+
+    private void write(K id, Runnable writer) {
+        wheelLock.lock();
+        try {
+            long now = ticker.read();
+            advance(now);
+
+            writer.run();
+            schedule(id, now);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * Must be called under the wheel lock.
+     */
+    private void schedule(K id, long now) {
+        long writeDeadline = saturatedAdd(now, expireAfterWriteNanos);
+        long deadline = Math.min(writeDeadline, saturatedAdd(now, expireAfterAccessNanos));
+
+        var expiration = expirationsById.get(id);
+        TimerWheel.Timer<K> timer;
+        if (expiration != null) {
+            timer = expiration.timer;
+            timerWheel.reschedule(timer, deadline);
+        } else {
+            timer = timerWheel.schedule(id, deadline);
+        }
+        expirationsById.put(id, new Expiration<>(timer, writeDeadline));
+    }
+
+    @Override
+    public void removeById(K id) {
+        wheelLock.lock();
+        try {
+            advance(ticker.read());
+
+            var expiration = expirationsById.remove(id);
+            if (expiration != null) {
+                timerWheel.deschedule(expiration.timer);
+            }
+
+            cache.removeById(id);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        wheelLock.lock();
+        try {
+            advance(ticker.read());
+        } finally {
+            wheelLock.unlock();
+        }
+
+        return cache.getSize();
+    }
+
+    @Override
+    public long getWeight() {
+        return cache.getWeight();
+    }
+
+    @Override
+    public StatsCounter getStatsCounter() {
+        return cache.getStatsCounter();
+    }
+
+    @Override
+    public boolean isRefreshDue(K id) {
+        return cache.isRefreshDue(id);
+    }
+
+    @Override
+    public void resize(double fraction) {
+        wheelLock.lock();
+        try {
+            cache.resize(fraction);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        wheelLock.lock();
+        try {
+            timerWheel.clear();
+            timersOfEvicted.clear();
+            expirationsById.clear();
+            cache.clear();
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * Must be called under the wheel lock.
+     * The timers of the evicted entities are removed first, so that none of them expires an entity written since.
+     */
+    private void advance(long now) {
+        for (var timer = timersOfEvicted.poll(); timer != null; timer = timersOfEvicted.poll()) {
+            // kept if a write read the expiration before the eviction removed it, and put it back since
+            var expiration = expirationsById.get(timer.getElement());
+            if (expiration == null || expiration.timer != timer) {
+                timerWheel.deschedule(timer);
+            }
+        }
+
+        timerWheel.advance(now, this::expire);
+    }
+
+    /**
+     * Called under the lock of the decorated cache, which can evict on a read as well as on a write.
+     */
+    private void onEviction(K id, V value) {
+        var expiration = expirationsById.remove(id);
+        if (expiration == null) {
+            return;
+        }
+
+        if (wheelLock.isHeldByCurrentThread()) {
+            timerWheel.deschedule(expiration.timer);
+        } else {
+            timersOfEvicted.add(expiration.timer);
+        }
+    }
+
+    private void expire(K id) {
+        expirationsById.remove(id);
+        removeExpired(id);
+    }
+
+    private void expire(K id, Expiration<K> expiration) {
+        wheelLock.lock();
+        try {
+            // the entity could have been rewritten since its expiration was read
+            if (expirationsById.get(id) != expiration || expiration.timer.getDeadline() - ticker.read() > 0L) {
+                return;
+            }
+
+            expirationsById.remove(id);
+            timerWheel.deschedule(expiration.timer);
+            removeExpired(id);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * Counts the expiration only if the entity was still there : it could have been evicted by size before.
+     * The size is a reliable witness, since all the writes to the decorated cache hold the wheel lock.
+     */
+    private void removeExpired(K id) {
+        int sizeBefore = cache.getSize();
+        cache.removeById(id);
+
+        if (cache.getSize() < sizeBefore) {
+            cache.getStatsCounter().recordEviction(RemovalCause.EXPIRED);
+        }
+    }
+
+    private void tryToAdvance(long now) {
+        if (!timerWheel.isAdvanceNeeded(now) || !wheelLock.tryLock()) {
+            return;
+        }
+
+        try {
+            advance(ticker.read());
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    private static long saturatedAdd(long now, long durationNanos) {
+        long result = now + durationNanos;
+        return durationNanos > 0 && result < now
+                ? Long.MAX_VALUE
+                : result;
+    }
+
+    private record Expiration<K>(TimerWheel.Timer<K> timer, long writeDeadline) {
+    }
+}
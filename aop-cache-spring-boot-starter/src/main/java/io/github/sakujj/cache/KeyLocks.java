@@ -0,0 +1,55 @@
+package io.github.sakujj.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>Per-key mutual exclusion for the loads and the writes of the cache regions.</p>
+ * <p>A lock exists only while at least one thread holds or waits for it,
+ * so the map never grows beyond the number of keys currently in use.</p>
+ */
+class KeyLocks {
+
+    private final ConcurrentHashMap<Object, KeyLock> locksByKey = new ConcurrentHashMap<>();
+
+    /**
+     * Used to acquire a lock for the specified key, blocking while another thread holds it.
+     *
+     * @param key key to lock
+     */
+    void lock(Object key) {
+        KeyLock keyLock = locksByKey.compute(key, (k, existing) -> {
+            KeyLock acquired = existing != null
+                    ? existing
+                    : new KeyLock();
+            acquired.holders++;
+            return acquired;
+        });
+
+        keyLock.lock.lock();
+    }
+
+    /**
+     * Used to release a lock previously acquired by {@link #lock(Object)} on the same thread.
+     *
+     * @param key key to unlock
+     */
+    void unlock(Object key) {
+        KeyLock keyLock = locksByKey.get(key);
+        if (keyLock == null) {
+            throw new IllegalStateException("Key is not locked : " + key);
+        }
+
+        keyLock.lock.unlock();
+
+        locksByKey.computeIfPresent(key, (k, existing) -> --existing.holders == 0
+                ? null
+                : existing);
+    }
+
+    private static class KeyLock {
+        private final ReentrantLock lock = new ReentrantLock();
+        // guarded by the ConcurrentHashMap bin lock of the owning key
+        private int holders;
+    }
+}
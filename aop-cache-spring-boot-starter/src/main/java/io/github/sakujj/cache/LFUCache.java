@@ -1,106 +1,417 @@
 package io.github.sakujj.cache;
 
+import io.github.sakujj.cache.snapshot.Snapshottable;
+import io.github.sakujj.cache.stats.RemovalCause;
+import io.github.sakujj.cache.stats.StatsCounter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * <p>LFU cache implementation with O(1) operations.</p>
+ * <p>Entries are grouped into buckets of the same frequency, the buckets form a list ordered by frequency,
+ * so the least frequently used entry is always at the head of the first bucket.
+ * Ties are broken by recency : within a bucket, the entry that entered it first is evicted first.</p>
+ * <p>Optionally, every {@code decayPeriod} operations all the frequencies are halved,
+ * so that entries that were hot in the past do not stay in the cache forever once the workload shifts.</p>
+ */
 @Slf4j
-public class LFUCache implements Cache {
-    private final HashMap<Object, IdentifiableByUUID> entityById;
-    private final HashMap<Object, Integer> countById;
-    private final HashMap<Integer, LinkedHashSet<Object>> idsByCount;
-    private final int capacity;
-    private int min = -1;
+public class LFUCache<K, V> implements Cache<K, V>, Snapshottable<K, V> {
+    private final HashMap<K, Entry<K, V>> entriesById;
+    private final long configuredMaxWeight;
+    private long maxWeight;
+    private final Weigher<? super V> weigher;
+    private final int decayPeriod;
+    private final EvictionListener<? super K, ? super V> evictionListener;
+    private final StatsCounter statsCounter;
+    private FrequencyNode<K, V> lowestFrequency;
+    private long totalWeight;
+    private int operationsSinceDecay;
+
+    public LFUCache(int capacity) {
+        this(capacity, 0);
+    }
+
+    /**
+     * @param capacity    maximum number of entities in cache
+     * @param decayPeriod number of operations between halvings of all the frequencies, 0 to disable
+     */
+    public LFUCache(int capacity, int decayPeriod) {
+        this(capacity, Weigher.singleton(), decayPeriod);
+    }
+
+    /**
+     * @param maxWeight   maximum total weight of entities in cache
+     * @param weigher     weigher of entities
+     * @param decayPeriod number of operations between halvings of all the frequencies, 0 to disable
+     */
+    public LFUCache(long maxWeight, Weigher<? super V> weigher, int decayPeriod) {
+        this(maxWeight, weigher, decayPeriod, EvictionListener.none());
+    }
+
+    /**
+     * @param maxWeight        maximum total weight of entities in cache
+     * @param weigher          weigher of entities
+     * @param decayPeriod      number of operations between halvings of all the frequencies, 0 to disable
+     * @param evictionListener listener of the entities evicted to fit the maximum weight
+     */
+    public LFUCache(long maxWeight,
+                    Weigher<? super V> weigher,
+                    int decayPeriod,
+                    EvictionListener<? super K, ? super V> evictionListener) {
+        this.configuredMaxWeight = maxWeight;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.decayPeriod = decayPeriod;
+        this.evictionListener = evictionListener;
+        entriesById = new HashMap<>();
+        statsCounter = new StatsCounter();
+    }
 
     public synchronized int getSize() {
-        return entityById.size();
+        return entriesById.size();
     }
 
     @Override
     public synchronized void clear() {
-        entityById.clear();
-        countById.clear();
-        idsByCount.clear();
-        idsByCount.put(1, new LinkedHashSet<>());
-        min = -1;
+        entriesById.clear();
+        lowestFrequency = null;
+        totalWeight = 0;
+        operationsSinceDecay = 0;
     }
 
-    public LFUCache(int capacity) {
-        this.capacity = capacity;
-        entityById = new HashMap<>();
-        countById = new HashMap<>();
-        idsByCount = new HashMap<>();
-        idsByCount.put(1, new LinkedHashSet<>());
+    @Override
+    public synchronized long getWeight() {
+        return totalWeight;
+    }
+
+    @Override
+    public StatsCounter getStatsCounter() {
+        return statsCounter;
     }
 
-    public synchronized Optional<IdentifiableByUUID> getById(Object id) {
-        if (!entityById.containsKey(id)) {
-            log.info("CACHE MISS");
+    public synchronized Optional<V> getById(K id) {
+        Entry<K, V> entry = entriesById.get(id);
+        if (entry == null) {
+            log.debug("CACHE MISS");
+            statsCounter.recordMiss();
             return Optional.empty();
         }
 
-        log.info("CACHE HIT");
-        // Get the count from counts map
-        int count = countById.get(id);
-        // increase the counter
-        countById.put(id, count + 1);
-        // remove the element from the counter to linkedhashset
-        idsByCount.get(count).remove(id);
+        log.debug("CACHE HIT");
+        statsCounter.recordHit();
 
-        // when current min does not have any data, next one would be the min
-        if (count == min && idsByCount.get(count).isEmpty()) {
-            min++;
+        incrementFrequency(entry);
+        decayIfNeeded();
+        return Optional.of(entry.value);
+    }
+
+    @Override
+    public synchronized void removeById(K id) {
+        Entry<K, V> entry = entriesById.remove(id);
+        if (entry == null) {
+            return;
+        }
+
+        unlink(entry);
+        totalWeight -= entry.weight;
+    }
+
+    public synchronized void addOrUpdate(K id, V value) {
+        if (maxWeight == 0) {
+            return;
         }
-        if (!idsByCount.containsKey(count + 1)) {
-            idsByCount.put(count + 1, new LinkedHashSet<>());
+
+        int weight = weigher.weigh(value);
+        if (weight > maxWeight) {
+            removeById(id);
+            return;
+        }
+
+        Entry<K, V> existing = entriesById.get(id);
+        if (existing != null) {
+            existing.value = value;
+            totalWeight += weight - existing.weight;
+            existing.weight = weight;
+
+            incrementFrequency(existing);
+            evictWhileOverweight(0, existing);
+            decayIfNeeded();
+            return;
         }
-        idsByCount.get(count + 1).add(id);
-        return Optional.of(entityById.get(id));
+
+        evictWhileOverweight(weight, null);
+
+        Entry<K, V> entry = new Entry<>(id, value);
+        entry.weight = weight;
+        totalWeight += weight;
+        FrequencyNode<K, V> first = lowestFrequency != null && lowestFrequency.frequency == 1
+                ? lowestFrequency
+                : insertFrequencyNodeAfter(null, 1);
+        first.append(entry);
+        entriesById.put(id, entry);
+
+        decayIfNeeded();
     }
 
+    /**
+     * Holds the monitor for the whole batch, the lookups of the ids reenter it.
+     */
     @Override
-    public synchronized void removeById(Object id) {
-        if (!entityById.containsKey(id)) {
-            return;
+    public synchronized BulkLookup<K, V> getAllById(Collection<? extends K> ids) {
+        return Cache.super.getAllById(ids);
+    }
+
+    @Override
+    public synchronized void addOrUpdateAll(Map<? extends K, ? extends V> values) {
+        Cache.super.addOrUpdateAll(values);
+    }
+
+    @Override
+    public synchronized void removeAllById(Collection<? extends K> ids) {
+        Cache.super.removeAllById(ids);
+    }
+
+    @Override
+    public synchronized void forEachEntry(EntryConsumer<? super K, ? super V> consumer) {
+        FrequencyNode<K, V> highestFrequency = lowestFrequency;
+        while (highestFrequency != null && highestFrequency.next != null) {
+            highestFrequency = highestFrequency.next;
         }
 
-        int count = countById.get(id);
-        countById.remove(id);
-        idsByCount.get(count).remove(id);
-        entityById.remove(id);
-        if (count == min && idsByCount.get(count).isEmpty()) {
-            while (count > -1
-                    && (idsByCount.get(count) == null
-                    || idsByCount.get(count).isEmpty())) {
-                count--;
+        for (FrequencyNode<K, V> node = highestFrequency; node != null; node = node.prev) {
+            for (Entry<K, V> entry = node.tail; entry != null; entry = entry.prev) {
+                consumer.accept(entry.id, entry.value, node.frequency);
             }
-            min = count;
         }
     }
 
-    public synchronized void addOrUpdate(IdentifiableByUUID identifiableByUUID) {
-        Object id = identifiableByUUID.getUuid();
-        if (capacity == 0) {
+    /**
+     * Takes O(number of distinct frequencies) to find the bucket of the restored frequency.
+     * A frequency below 1, e.g. from a corrupted snapshot, is restored as 1.
+     */
+    @Override
+    public synchronized void restore(K id, V value, int frequency) {
+        frequency = Math.max(1, frequency);
+        int weight = weigher.weigh(value);
+        if (maxWeight == 0 || weight > maxWeight || entriesById.containsKey(id)) {
             return;
         }
-        // If key does exist, we are returning from here
-        if (entityById.containsKey(id)) {
-            entityById.put(id, identifiableByUUID);
-            getById(id);
+
+        evictWhileOverweight(weight, null);
+
+        FrequencyNode<K, V> previous = null;
+        FrequencyNode<K, V> node = lowestFrequency;
+        while (node != null && node.frequency < frequency) {
+            previous = node;
+            node = node.next;
+        }
+
+        FrequencyNode<K, V> bucket = node != null && node.frequency == frequency
+                ? node
+                : insertFrequencyNodeAfter(previous, frequency);
+
+        Entry<K, V> entry = new Entry<>(id, value);
+        entry.weight = weight;
+        totalWeight += weight;
+        bucket.append(entry);
+        entriesById.put(id, entry);
+    }
+
+    @Override
+    public synchronized void resize(double fraction) {
+        maxWeight = Math.min(configuredMaxWeight, Math.max(1, (long) (configuredMaxWeight * fraction)));
+        evictWhileOverweight(0, null);
+    }
+
+    private void incrementFrequency(Entry<K, V> entry) {
+        FrequencyNode<K, V> current = entry.frequencyNode;
+        int nextFrequency = current.frequency + 1;
+
+        FrequencyNode<K, V> next = current.next != null && current.next.frequency == nextFrequency
+                ? current.next
+                : insertFrequencyNodeAfter(current, nextFrequency);
+
+        current.remove(entry);
+        if (current.isEmpty()) {
+            removeFrequencyNode(current);
+        }
+        next.append(entry);
+    }
+
+    private void evictWhileOverweight(int incomingWeight, Entry<K, V> toKeep) {
+        while (totalWeight + incomingWeight > maxWeight && lowestFrequency != null) {
+            Entry<K, V> toEvict = lowestFrequency.head;
+            if (toEvict == toKeep) {
+                // the entry to keep is alone in the lowest bucket
+                toEvict = lowestFrequency.next.head;
+            }
+
+            unlink(toEvict);
+            entriesById.remove(toEvict.id);
+            totalWeight -= toEvict.weight;
+            statsCounter.recordEviction(RemovalCause.SIZE);
+            evictionListener.onEviction(toEvict.id, toEvict.value);
+        }
+    }
+
+    private void unlink(Entry<K, V> entry) {
+        FrequencyNode<K, V> frequencyNode = entry.frequencyNode;
+
+        frequencyNode.remove(entry);
+        if (frequencyNode.isEmpty()) {
+            removeFrequencyNode(frequencyNode);
+        }
+    }
+
+    /**
+     * Halves all the frequencies, merging the buckets that end up with the same frequency.
+     * Takes O(n), which is amortized over the decay period.
+     */
+    private void decayIfNeeded() {
+        if (decayPeriod <= 0 || ++operationsSinceDecay < decayPeriod) {
             return;
         }
-        if (entityById.size() == capacity) {
-            Object toEvict = idsByCount.get(min).iterator().next();
-            idsByCount.get(min).remove(toEvict);
-            entityById.remove(toEvict);
-            countById.remove(toEvict);
+        operationsSinceDecay = 0;
+
+        FrequencyNode<K, V> current = lowestFrequency;
+        FrequencyNode<K, V> previous = null;
+        while (current != null) {
+            FrequencyNode<K, V> next = current.next;
+            current.frequency = Math.max(1, current.frequency >>> 1);
+
+            if (previous != null && previous.frequency == current.frequency) {
+                previous.appendAll(current);
+                removeFrequencyNode(current);
+            } else {
+                previous = current;
+            }
+
+            current = next;
+        }
+    }
+
+    private FrequencyNode<K, V> insertFrequencyNodeAfter(FrequencyNode<K, V> previous, int frequency) {
+        FrequencyNode<K, V> node = new FrequencyNode<>(frequency);
+
+        if (previous == null) {
+            node.next = lowestFrequency;
+            if (lowestFrequency != null) {
+                lowestFrequency.prev = node;
+            }
+            lowestFrequency = node;
+            return node;
+        }
+
+        node.prev = previous;
+        node.next = previous.next;
+        if (previous.next != null) {
+            previous.next.prev = node;
+        }
+        previous.next = node;
+        return node;
+    }
+
+    private void removeFrequencyNode(FrequencyNode<K, V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            lowestFrequency = node.next;
+        }
+
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static class Entry<K, V> {
+        private final K id;
+        private V value;
+        private int weight;
+        private FrequencyNode<K, V> frequencyNode;
+        private Entry<K, V> prev;
+        private Entry<K, V> next;
+
+        private Entry(K id, V value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A bucket of entries with the same frequency, ordered from the least to the most recently added.
+     */
+    private static class FrequencyNode<K, V> {
+        private int frequency;
+        private FrequencyNode<K, V> prev;
+        private FrequencyNode<K, V> next;
+        private Entry<K, V> head;
+        private Entry<K, V> tail;
+
+        private FrequencyNode(int frequency) {
+            this.frequency = frequency;
+        }
+
+        private boolean isEmpty() {
+            return head == null;
+        }
+
+        private void append(Entry<K, V> entry) {
+            entry.frequencyNode = this;
+            entry.next = null;
+            entry.prev = tail;
+
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+            tail = entry;
+        }
+
+        private void appendAll(FrequencyNode<K, V> other) {
+            for (Entry<K, V> entry = other.head; entry != null; entry = entry.next) {
+                entry.frequencyNode = this;
+            }
+
+            if (other.head == null) {
+                return;
+            }
+
+            if (tail == null) {
+                head = other.head;
+            } else {
+                tail.next = other.head;
+                other.head.prev = tail;
+            }
+            tail = other.tail;
+
+            other.head = null;
+            other.tail = null;
+        }
+
+        private void remove(Entry<K, V> entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            } else {
+                tail = entry.prev;
+            }
+
+            entry.prev = null;
+            entry.next = null;
+            entry.frequencyNode = null;
         }
-        // If the key is new, insert the value and current min should be 1 of course
-        entityById.put(id, identifiableByUUID);
-        countById.put(id, 1);
-        min = 1;
-        idsByCount.get(1).add(id);
     }
-}
\ No newline at end of file
+}
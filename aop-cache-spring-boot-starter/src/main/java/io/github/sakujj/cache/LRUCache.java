@@ -2,10 +2,15 @@ package io.github.sakujj.cache;
 
 
 import io.github.sakujj.cache.collections.DoublyLinkedList;
+import io.github.sakujj.cache.snapshot.Snapshottable;
+import io.github.sakujj.cache.stats.RemovalCause;
+import io.github.sakujj.cache.stats.StatsCounter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -13,10 +18,15 @@ import java.util.Optional;
  */
 @Slf4j
 @ToString
-public class LRUCache implements Cache {
-    private DoublyLinkedList<IdentifiableByUUID> entities;
-    private final HashMap<Object, DoublyLinkedList.Node<IdentifiableByUUID>> nodesById;
-    private final int capacity;
+public class LRUCache<K, V> implements Cache<K, V>, Snapshottable<K, V> {
+    private DoublyLinkedList<K, V> entities;
+    private final HashMap<K, DoublyLinkedList.Node<K, V>> nodesById;
+    private final long configuredMaxWeight;
+    private long maxWeight;
+    private final Weigher<? super V> weigher;
+    private final EvictionListener<? super K, ? super V> evictionListener;
+    private final StatsCounter statsCounter;
+    private long totalWeight;
 
     /**
      * Used to get current cache size.
@@ -28,38 +38,78 @@ public class LRUCache implements Cache {
     }
 
     @Override
-    public void clear() {
+    public synchronized void clear() {
         entities = new DoublyLinkedList<>();
         nodesById.clear();
+        totalWeight = 0;
+    }
+
+    @Override
+    public synchronized long getWeight() {
+        return totalWeight;
+    }
+
+    @Override
+    public StatsCounter getStatsCounter() {
+        return statsCounter;
     }
 
     public LRUCache(int capacity) {
-        this.capacity = capacity;
+        this(capacity, Weigher.singleton());
+    }
+
+    /**
+     * @param maxWeight maximum total weight of entities in cache
+     * @param weigher   weigher of entities
+     */
+    public LRUCache(long maxWeight, Weigher<? super V> weigher) {
+        this(maxWeight, weigher, EvictionListener.none());
+    }
+
+    /**
+     * @param maxWeight        maximum total weight of entities in cache
+     * @param weigher          weigher of entities
+     * @param evictionListener listener of the entities evicted to fit the maximum weight
+     */
+    public LRUCache(long maxWeight, Weigher<? super V> weigher, EvictionListener<? super K, ? super V> evictionListener) {
+        this.configuredMaxWeight = maxWeight;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
         entities = new DoublyLinkedList<>();
         nodesById = new HashMap<>();
+        statsCounter = new StatsCounter();
     }
 
     /**
      * Used to add or update entity with cache.
      *
-     * @param identifiableByUUID instance to add or update
+     * @param id    id of the instance
+     * @param value instance to add or update
      */
-    public synchronized void addOrUpdate(IdentifiableByUUID identifiableByUUID) {
-        if (capacity == 0) {
+    public synchronized void addOrUpdate(K id, V value) {
+        if (maxWeight == 0) {
             return;
         }
 
-        if (entities.getSize() == capacity) {
-            var lruEntity = entities.getLast();
-            Object lruId = lruEntity.getUuid();
+        int weight = weigher.weigh(value);
 
-            entities.removeLast();
-            nodesById.remove(lruId);
+        var existingNode = nodesById.remove(id);
+        if (existingNode != null) {
+            entities.removeNode(existingNode);
+            totalWeight -= existingNode.getWeight();
+        }
+
+        if (weight > maxWeight) {
+            return;
         }
 
-        entities.removeByCondition(e -> e.getUuid().equals(identifiableByUUID.getUuid()));
-        var node = entities.addFirst(identifiableByUUID);
-        nodesById.put(identifiableByUUID.getUuid(), node);
+        evictWhileOverweight(weight);
+
+        var node = entities.addFirst(id, value);
+        node.setWeight(weight);
+        nodesById.put(id, node);
+        totalWeight += weight;
     }
 
     /**
@@ -67,13 +117,15 @@ public class LRUCache implements Cache {
      *
      * @param id id to get by
      */
-    public synchronized Optional<IdentifiableByUUID> getById(Object id) {
+    public synchronized Optional<V> getById(K id) {
         if (!nodesById.containsKey(id)) {
-            log.info("CACHE MISS");
+            log.debug("CACHE MISS");
+            statsCounter.recordMiss();
             return Optional.empty();
         }
 
-        log.info("CACHE HIT");
+        log.debug("CACHE HIT");
+        statsCounter.recordHit();
 
         var nodeToGet = nodesById.get(id);
         entities.removeNode(nodeToGet);
@@ -86,7 +138,7 @@ public class LRUCache implements Cache {
      *
      * @param id id to remove by
      */
-    public synchronized void removeById(Object id) {
+    public synchronized void removeById(K id) {
         if (!nodesById.containsKey(id)) {
             return;
         }
@@ -94,7 +146,52 @@ public class LRUCache implements Cache {
         var nodeToDelete = nodesById.get(id);
         entities.removeNode(nodeToDelete);
         nodesById.remove(id);
+        totalWeight -= nodeToDelete.getWeight();
+    }
+
+    /**
+     * Holds the monitor for the whole batch, the lookups of the ids reenter it.
+     */
+    @Override
+    public synchronized BulkLookup<K, V> getAllById(Collection<? extends K> ids) {
+        return Cache.super.getAllById(ids);
+    }
+
+    @Override
+    public synchronized void addOrUpdateAll(Map<? extends K, ? extends V> values) {
+        Cache.super.addOrUpdateAll(values);
     }
 
+    @Override
+    public synchronized void removeAllById(Collection<? extends K> ids) {
+        Cache.super.removeAllById(ids);
+    }
+
+    @Override
+    public synchronized void forEachEntry(EntryConsumer<? super K, ? super V> consumer) {
+        entities.forEach((id, value) -> consumer.accept(id, value, 1));
+    }
 
+    @Override
+    public void restore(K id, V value, int frequency) {
+        addOrUpdate(id, value);
+    }
+
+    @Override
+    public synchronized void resize(double fraction) {
+        maxWeight = Math.min(configuredMaxWeight, Math.max(1, (long) (configuredMaxWeight * fraction)));
+        evictWhileOverweight(0);
+    }
+
+    private void evictWhileOverweight(int incomingWeight) {
+        while (totalWeight + incomingWeight > maxWeight && entities.getSize() > 0) {
+            var lruNode = entities.getLastNode();
+
+            entities.removeLast();
+            nodesById.remove(lruNode.getKey());
+            totalWeight -= lruNode.getWeight();
+            statsCounter.recordEviction(RemovalCause.SIZE);
+            evictionListener.onEviction(lruNode.getKey(), lruNode.getValue());
+        }
+    }
 }
@@ -0,0 +1,319 @@
+package io.github.sakujj.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * <p>Weighs an entity by the estimated number of bytes it retains on the heap.</p>
+ * <p>The estimate assumes a 64-bit JVM with compressed oops : 12-byte object headers,
+ * 4-byte references and 8-byte alignment. The shallow size of a class is computed once from its field types.
+ * The deep size adds the retained size of the referenced objects : the fields of application classes
+ * are read reflectively, while well-known JDK value types (strings, boxed primitives, {@link UUID},
+ * {@code java.time} types) are sized by formula since their internals are encapsulated.
+ * Enums are shared and therefore not counted.</p>
+ * <p>The layout of a class is computed once : the fields declared with a well-known type of fixed size
+ * are added to its size as if they were set, without being read, and only the strings and the other
+ * references are read on each weighing. An entity whose fields are all of primitive, fixed-size or string types,
+ * as most DTOs are, is weighed from its layout and its strings, without walking a graph.</p>
+ */
+public class ObjectSizeWeigher implements Weigher<Object> {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+
+    private static final int STRING_SHALLOW = 24;
+    private static final int UUID_SIZE = 32;
+    private static final int LOCAL_DATE_SIZE = 24;
+    private static final int LOCAL_TIME_SIZE = 24;
+    private static final int LOCAL_DATE_TIME_SIZE = 24 + LOCAL_DATE_SIZE + LOCAL_TIME_SIZE;
+    private static final int INSTANT_SIZE = 24;
+    private static final int ZONED_DATE_TIME_SIZE = 24 + LOCAL_DATE_TIME_SIZE;
+    private static final int OFFSET_DATE_TIME_SIZE = 24 + LOCAL_DATE_TIME_SIZE;
+    private static final int COLLECTION_SHALLOW = 40;
+    private static final int MAP_ENTRY = 32;
+
+    private final ClassValue<ClassLayout> layouts = new ClassValue<>() {
+        @Override
+        protected ClassLayout computeValue(Class<?> type) {
+            return ClassLayout.of(type);
+        }
+    };
+
+    @Override
+    public int weigh(Object value) {
+        long size = isFlat(value)
+                ? flatSizeOf(value, layouts.get(value.getClass()))
+                : deepSizeOf(value);
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Used to estimate the size of an object itself, without the objects it references.
+     *
+     * @param object object to estimate the size of
+     * @return shallow size in bytes
+     */
+    public long shallowSizeOf(Object object) {
+        if (object == null) {
+            return 0;
+        }
+
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            return arraySize(type.getComponentType(), Array.getLength(object));
+        }
+
+        return layouts.get(type).shallowSize;
+    }
+
+    /**
+     * Used to estimate the size of an object together with all the objects it retains.
+     *
+     * @param object object to estimate the size of
+     * @return deep size in bytes
+     */
+    public long deepSizeOf(Object object) {
+        return deepSizeOf(object, new IdentityHashMap<>());
+    }
+
+    private long deepSizeOf(Object object, IdentityHashMap<Object, Boolean> visited) {
+        if (object == null || object instanceof Enum<?> || object instanceof Class<?>
+                || visited.put(object, Boolean.TRUE) != null) {
+            return 0;
+        }
+
+        Long wellKnownSize = wellKnownSizeOf(object);
+        if (wellKnownSize != null) {
+            return wellKnownSize;
+        }
+
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            return deepArraySizeOf(object, visited);
+        }
+
+        if (object instanceof Collection<?> collection) {
+            long size = COLLECTION_SHALLOW + align(ARRAY_HEADER + (long) REFERENCE * collection.size());
+            for (Object element : collection) {
+                size += deepSizeOf(element, visited);
+            }
+            return size;
+        }
+
+        if (object instanceof Map<?, ?> map) {
+            long size = COLLECTION_SHALLOW + align(ARRAY_HEADER + (long) REFERENCE * map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += MAP_ENTRY + deepSizeOf(entry.getKey(), visited) + deepSizeOf(entry.getValue(), visited);
+            }
+            return size;
+        }
+
+        ClassLayout layout = layouts.get(type);
+        long size = flatSizeOf(object, layout);
+        for (Field field : layout.referenceFields) {
+            size += deepSizeOf(readField(field, object), visited);
+        }
+        return size;
+    }
+
+    private boolean isFlat(Object value) {
+        return value != null
+                && !(value instanceof Enum<?>) && !(value instanceof Class<?>)
+                && !value.getClass().isArray()
+                && wellKnownSizeOf(value) == null
+                && !(value instanceof Collection<?>) && !(value instanceof Map<?, ?>)
+                && layouts.get(value.getClass()).referenceFields.isEmpty();
+    }
+
+    /**
+     * Used to estimate the size of an object with its fixed-size fields and its strings, without its other references.
+     */
+    private static long flatSizeOf(Object object, ClassLayout layout) {
+        long size = layout.fixedSize;
+        for (Field field : layout.stringFields) {
+            if (readField(field, object) instanceof String string) {
+                size += STRING_SHALLOW + stringValueSize(string);
+            }
+        }
+        return size;
+    }
+
+    private long deepArraySizeOf(Object array, IdentityHashMap<Object, Boolean> visited) {
+        Class<?> componentType = array.getClass().getComponentType();
+        int length = Array.getLength(array);
+
+        long size = arraySize(componentType, length);
+        if (!componentType.isPrimitive()) {
+            for (int i = 0; i < length; i++) {
+                size += deepSizeOf(Array.get(array, i), visited);
+            }
+        }
+        return size;
+    }
+
+    private Long wellKnownSizeOf(Object object) {
+        if (object instanceof String string) {
+            return STRING_SHALLOW + stringValueSize(string);
+        }
+
+        Long fixedSize = fixedSizeOf(object.getClass());
+        if (fixedSize != null) {
+            return fixedSize;
+        }
+        if (object instanceof Number) {
+            return 16L;
+        }
+
+        if (object.getClass().getName().startsWith("java.")
+                && !(object instanceof Collection<?>) && !(object instanceof Map<?, ?>)) {
+            // internals of JDK classes are not accessible, count only their own fields
+            return layouts.get(object.getClass()).shallowSize;
+        }
+
+        return null;
+    }
+
+    /**
+     * Used to get the size of the instances of a well-known final JDK value type, enums being shared.
+     *
+     * @return size in bytes, null if the instances of the type do not have a fixed size
+     */
+    private static Long fixedSizeOf(Class<?> type) {
+        if (type.isEnum()) {
+            return 0L;
+        }
+        if (type == UUID.class) {
+            return (long) UUID_SIZE;
+        }
+        if (type == LocalDateTime.class) {
+            return (long) LOCAL_DATE_TIME_SIZE;
+        }
+        if (type == LocalDate.class) {
+            return (long) LOCAL_DATE_SIZE;
+        }
+        if (type == LocalTime.class) {
+            return (long) LOCAL_TIME_SIZE;
+        }
+        if (type == Instant.class) {
+            return (long) INSTANT_SIZE;
+        }
+        if (type == ZonedDateTime.class) {
+            return (long) ZONED_DATE_TIME_SIZE;
+        }
+        if (type == OffsetDateTime.class) {
+            return (long) OFFSET_DATE_TIME_SIZE;
+        }
+        if (type == Long.class || type == Double.class) {
+            return 24L;
+        }
+        if (type == Integer.class || type == Float.class || type == Short.class || type == Byte.class
+                || type == Boolean.class || type == Character.class) {
+            return 16L;
+        }
+
+        return null;
+    }
+
+    private static long stringValueSize(String string) {
+        boolean latin1 = true;
+        for (int i = 0; i < string.length() && latin1; i++) {
+            latin1 = string.charAt(i) < 256;
+        }
+
+        long bytes = latin1
+                ? string.length()
+                : 2L * string.length();
+        return align(ARRAY_HEADER + bytes);
+    }
+
+    private static long arraySize(Class<?> componentType, int length) {
+        return align(ARRAY_HEADER + (long) sizeOfType(componentType) * length);
+    }
+
+    private static int sizeOfType(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static Object readField(Field field, Object object) {
+        try {
+            return field.get(object);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can not read field " + field + " to weigh an entity", e);
+        }
+    }
+
+    /**
+     * @param shallowSize     size of an instance without the objects it references
+     * @param fixedSize       shallow size plus the sizes of the fields of a fixed-size type
+     * @param stringFields    fields of type {@link String}
+     * @param referenceFields the other reference fields, to weigh by walking the objects they reference
+     */
+    private record ClassLayout(long shallowSize, long fixedSize, List<Field> stringFields, List<Field> referenceFields) {
+
+        private static ClassLayout of(Class<?> type) {
+            long size = OBJECT_HEADER;
+            long fixedFieldsSize = 0;
+            List<Field> stringFields = new ArrayList<>();
+            List<Field> referenceFields = new ArrayList<>();
+
+            boolean accessible = !type.getName().startsWith("java.");
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+
+                    Class<?> fieldType = field.getType();
+                    size += sizeOfType(fieldType);
+                    if (!accessible || fieldType.isPrimitive()) {
+                        continue;
+                    }
+
+                    Long fixedSize = fixedSizeOf(fieldType);
+                    if (fixedSize != null) {
+                        fixedFieldsSize += fixedSize;
+                    } else if (field.trySetAccessible()) {
+                        (fieldType == String.class ? stringFields : referenceFields).add(field);
+                    }
+                }
+            }
+
+            long shallowSize = align(size);
+            return new ClassLayout(shallowSize,
+                    shallowSize + fixedFieldsSize,
+                    List.copyOf(stringFields),
+                    List.copyOf(referenceFields));
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package io.github.sakujj.cache;
+
+import io.github.sakujj.cache.codec.EntityCodec;
+import io.github.sakujj.cache.collections.UUIDIndex;
+import io.github.sakujj.cache.snapshot.Snapshottable;
+import io.github.sakujj.cache.stats.RemovalCause;
+import io.github.sakujj.cache.stats.StatsCounter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * <p>Off-heap cache implementation, storing encoded entities in direct memory.</p>
+ * <p>The memory is split into slabs allocated once with {@link ByteBuffer#allocateDirect(int)}.
+ * Records are appended to the current slab, the slabs being used as a ring :
+ * when the next slab is needed and all the slabs are in use, the oldest slab is evicted as a whole.
+ * An update appends a new record, the previous one is reclaimed with its slab.
+ * Eviction is therefore FIFO by slab, which fits a large second-level tier behind an on-heap cache.
+ * When the index is full before the slabs are, the oldest records are evicted one by one instead,
+ * so the cache keeps its capacity even if all the records fit in a single slab.</p>
+ * <p>Entities are found through a {@link UUIDIndex} keyed by the two longs of the uuid, so the tier
+ * creates no heap objects per entry : entities are decoded by the {@link EntityCodec} on every hit.
+ * For the same reason, the tier keeps its capacity when the caches are resized under heap pressure.</p>
+ * <p>Record layout : most significant bits (8), least significant bits (8), length (4), encoded entity.</p>
+ * <p>The entities evicted are decoded only to be passed to the eviction listener, if there is one.</p>
+ *
+ * @param <V> type of cached entities, decoded by the codec
+ */
+@Slf4j
+public class OffHeapCache<V extends IdentifiableByUUID> implements Cache<UUID, V>, Snapshottable<UUID, V> {
+    private static final int DEFAULT_SLAB_SIZE = 1 << 20;
+    private static final int RECORD_HEADER_SIZE = 20;
+    private static final int LENGTH_OFFSET = 16;
+
+    private final ByteBuffer[] slabs;
+    private final int[] slabLimits;
+    private final int[] evictedOffsets;
+    private final int slabSize;
+    private final UUIDIndex index;
+    private final EntityCodec codec;
+    private final EvictionListener<? super UUID, ? super V> evictionListener;
+    private final StatsCounter statsCounter;
+    private int writeSlab;
+    private int oldestSlab;
+
+    /**
+     * @param capacity maximum number of entities in cache
+     * @param maxBytes maximum number of bytes of direct memory to allocate
+     * @param codec    codec of entities
+     */
+    public OffHeapCache(int capacity, long maxBytes, EntityCodec codec) {
+        this(capacity, maxBytes, codec, null);
+    }
+
+    /**
+     * @param capacity         maximum number of entities in cache
+     * @param maxBytes         maximum number of bytes of direct memory to allocate
+     * @param codec            codec of entities
+     * @param evictionListener listener of the entities evicted to fit the capacity or the slabs, null if none
+     */
+    public OffHeapCache(int capacity,
+                        long maxBytes,
+                        EntityCodec codec,
+                        EvictionListener<? super UUID, ? super V> evictionListener) {
+        this.codec = codec;
+        this.evictionListener = evictionListener;
+
+        slabSize = (int) Math.min(DEFAULT_SLAB_SIZE, Math.max(RECORD_HEADER_SIZE, maxBytes / 2));
+        int slabCount = (int) Math.max(2, Math.min(Integer.MAX_VALUE, maxBytes / slabSize));
+
+        slabs = new ByteBuffer[slabCount];
+        for (int i = 0; i < slabCount; i++) {
+            slabs[i] = ByteBuffer.allocateDirect(slabSize);
+        }
+        slabLimits = new int[slabCount];
+        evictedOffsets = new int[slabCount];
+        index = new UUIDIndex(capacity);
+        statsCounter = new StatsCounter();
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        index.clear();
+        for (int i = 0; i < slabLimits.length; i++) {
+            slabLimits[i] = 0;
+            evictedOffsets[i] = 0;
+        }
+        writeSlab = 0;
+        oldestSlab = 0;
+    }
+
+    /**
+     * Counts the bytes of the slabs in use, including the records of updated or removed entities
+     * not reclaimed yet.
+     */
+    @Override
+    public synchronized long getWeight() {
+        long bytesInUse = 0;
+        for (int slabLimit : slabLimits) {
+            bytesInUse += slabLimit;
+        }
+        return bytesInUse;
+    }
+
+    @Override
+    public StatsCounter getStatsCounter() {
+        return statsCounter;
+    }
+
+    @Override
+    public synchronized Optional<V> getById(UUID id) {
+        long location = index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (location == UUIDIndex.ABSENT) {
+            log.debug("CACHE MISS");
+            statsCounter.recordMiss();
+            return Optional.empty();
+        }
+
+        log.debug("CACHE HIT");
+        statsCounter.recordHit();
+
+        ByteBuffer slab = slabs[slabOf(location)];
+        int offset = offsetOf(location);
+        int length = slab.getInt(offset + LENGTH_OFFSET);
+
+        return Optional.of(decode(slab, offset, length));
+    }
+
+    @Override
+    public synchronized void addOrUpdate(UUID id, V value) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+
+        byte[] encoded = codec.encode(value);
+        int recordSize = RECORD_HEADER_SIZE + encoded.length;
+        if (recordSize > slabSize) {
+            index.remove(msb, lsb);
+            return;
+        }
+
+        if (index.get(msb, lsb) == UUIDIndex.ABSENT) {
+            while (index.isFull()) {
+                evictOldestRecord();
+            }
+        }
+
+        if (slabLimits[writeSlab] + recordSize > slabSize) {
+            moveToNextSlab();
+        }
+
+        ByteBuffer slab = slabs[writeSlab];
+        int offset = slabLimits[writeSlab];
+        slab.putLong(offset, msb);
+        slab.putLong(offset + 8, lsb);
+        slab.putInt(offset + LENGTH_OFFSET, encoded.length);
+        slab.put(offset + RECORD_HEADER_SIZE, encoded);
+        slabLimits[writeSlab] = offset + recordSize;
+
+        index.put(msb, lsb, locationOf(writeSlab, offset));
+    }
+
+    @Override
+    public synchronized void removeById(UUID id) {
+        index.remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    /**
+     * Holds the monitor for the whole batch, the lookups of the ids reenter it.
+     */
+    @Override
+    public synchronized BulkLookup<UUID, V> getAllById(Collection<? extends UUID> ids) {
+        return Cache.super.getAllById(ids);
+    }
+
+    @Override
+    public synchronized void addOrUpdateAll(Map<? extends UUID, ? extends V> values) {
+        Cache.super.addOrUpdateAll(values);
+    }
+
+    @Override
+    public synchronized void removeAllById(Collection<? extends UUID> ids) {
+        Cache.super.removeAllById(ids);
+    }
+
+    /**
+     * Passes the entities from the newest slab to the oldest one.
+     */
+    @Override
+    public synchronized void forEachEntry(EntryConsumer<? super UUID, ? super V> consumer) {
+        for (int i = 0; i < slabs.length; i++) {
+            int slabIndex = Math.floorMod(writeSlab - i, slabs.length);
+            ByteBuffer slab = slabs[slabIndex];
+
+            int offset = 0;
+            while (offset < slabLimits[slabIndex]) {
+                long msb = slab.getLong(offset);
+                long lsb = slab.getLong(offset + 8);
+                int length = slab.getInt(offset + LENGTH_OFFSET);
+
+                if (index.get(msb, lsb) == locationOf(slabIndex, offset)) {
+                    consumer.accept(new UUID(msb, lsb), decode(slab, offset, length), 1);
+                }
+
+                offset += RECORD_HEADER_SIZE + length;
+            }
+
+            if (slabIndex == oldestSlab) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void restore(UUID id, V value, int frequency) {
+        addOrUpdate(id, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V decode(ByteBuffer slab, int offset, int length) {
+        return (V) codec.decode(slab.slice(offset + RECORD_HEADER_SIZE, length));
+    }
+
+    private void moveToNextSlab() {
+        writeSlab = (writeSlab + 1) % slabs.length;
+        if (writeSlab == oldestSlab) {
+            evictSlab(oldestSlab);
+            oldestSlab = (oldestSlab + 1) % slabs.length;
+        }
+    }
+
+    /**
+     * Removes from the index the oldest record that has not been overwritten or removed since,
+     * reclaiming the oldest slab once all its records are evicted, unless new records are still appended to it.
+     */
+    private void evictOldestRecord() {
+        while (true) {
+            ByteBuffer slab = slabs[oldestSlab];
+
+            int offset = evictedOffsets[oldestSlab];
+            while (offset < slabLimits[oldestSlab]) {
+                long msb = slab.getLong(offset);
+                long lsb = slab.getLong(offset + 8);
+                int length = slab.getInt(offset + LENGTH_OFFSET);
+                int recordOffset = offset;
+
+                offset += RECORD_HEADER_SIZE + length;
+                evictedOffsets[oldestSlab] = offset;
+
+                if (index.get(msb, lsb) == locationOf(oldestSlab, recordOffset)) {
+                    evict(msb, lsb, slab, recordOffset, length);
+                    return;
+                }
+            }
+
+            if (oldestSlab == writeSlab) {
+                return;
+            }
+
+            slabLimits[oldestSlab] = 0;
+            evictedOffsets[oldestSlab] = 0;
+            oldestSlab = (oldestSlab + 1) % slabs.length;
+        }
+    }
+
+    /**
+     * Removes from the index the records of the slab that have not been overwritten, removed or evicted since.
+     */
+    private void evictSlab(int slabIndex) {
+        ByteBuffer slab = slabs[slabIndex];
+
+        int offset = evictedOffsets[slabIndex];
+        while (offset < slabLimits[slabIndex]) {
+            long msb = slab.getLong(offset);
+            long lsb = slab.getLong(offset + 8);
+            int length = slab.getInt(offset + LENGTH_OFFSET);
+
+            if (index.get(msb, lsb) == locationOf(slabIndex, offset)) {
+                evict(msb, lsb, slab, offset, length);
+            }
+
+            offset += RECORD_HEADER_SIZE + length;
+        }
+
+        slabLimits[slabIndex] = 0;
+        evictedOffsets[slabIndex] = 0;
+    }
+
+    private void evict(long msb, long lsb, ByteBuffer slab, int offset, int length) {
+        index.remove(msb, lsb);
+        statsCounter.recordEviction(RemovalCause.SIZE);
+
+        if (evictionListener != null) {
+            evictionListener.onEviction(new UUID(msb, lsb), decode(slab, offset, length));
+        }
+    }
+
+    private static long locationOf(int slabIndex, int offset) {
+        return ((long) slabIndex << 32) | offset;
+    }
+
+    private static int slabOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(long location) {
+        return (int) location;
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.sakujj.cache;
+
+import io.github.sakujj.cache.snapshot.Snapshottable;
+import io.github.sakujj.cache.stats.StatsCounter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p>Decorates a cache to mark its entities as due for a refresh some time after they were written.</p>
+ * <p>A due entity is still returned by the lookups : reloading it is up to the caller,
+ * see {@link io.github.sakujj.cache.aop.CacheAspect}. Writing the entity again starts a new interval.</p>
+ * <p>Write times are kept in a {@link ConcurrentLRUCache} of the capacity of the region, so the ones
+ * of the entities evicted from the decorated cache do not pile up. An entity without a known write time,
+ * e.g. restored from a snapshot, is due.</p>
+ */
+public class RefreshingCache<K, V> implements Cache<K, V>, Snapshottable<K, V> {
+    private final Cache<K, V> cache;
+    private final Ticker ticker;
+    private final long refreshAfterWriteNanos;
+    private final Cache<K, Long> writeTimesById;
+
+    /**
+     * @param cache             cache to decorate
+     * @param refreshAfterWrite time since the last write after which an entity is due for a refresh
+     * @param capacity          maximum number of write times to keep
+     * @param ticker            source of time
+     */
+    public RefreshingCache(Cache<K, V> cache, Duration refreshAfterWrite, int capacity, Ticker ticker) {
+        this.cache = cache;
+        this.ticker = ticker;
+        refreshAfterWriteNanos = refreshAfterWrite.toNanos();
+        writeTimesById = new ConcurrentLRUCache<>(capacity);
+    }
+
+    @Override
+    public Optional<V> getById(K id) {
+        return cache.getById(id);
+    }
+
+    @Override
+    public BulkLookup<K, V> getAllById(Collection<? extends K> ids) {
+        return cache.getAllById(ids);
+    }
+
+    @Override
+    public boolean isRefreshDue(K id) {
+        return writeTimesById.getById(id)
+                .map(writeTime -> ticker.read() - writeTime >= refreshAfterWriteNanos)
+                .orElse(true);
+    }
+
+    @Override
+    public void resize(double fraction) {
+        cache.resize(fraction);
+        writeTimesById.resize(fraction);
+    }
+
+    @Override
+    public void addOrUpdate(K id, V value) {
+        long now = ticker.read();
+        cache.addOrUpdate(id, value);
+        writeTimesById.addOrUpdate(id, now);
+    }
+
+    @Override
+    public void addOrUpdateAll(Map<? extends K, ? extends V> values) {
+        Long now = ticker.read();
+        cache.addOrUpdateAll(values);
+        values.keySet().forEach(id -> writeTimesById.addOrUpdate(id, now));
+    }
+
+    @Override
+    public void removeById(K id) {
+        cache.removeById(id);
+        writeTimesById.removeById(id);
+    }
+
+    @Override
+    public void removeAllById(Collection<? extends K> ids) {
+        cache.removeAllById(ids);
+        writeTimesById.removeAllById(ids);
+    }
+
+    @Override
+    public int getSize() {
+        return cache.getSize();
+    }
+
+    @Override
+    public long getWeight() {
+        return cache.getWeight();
+    }
+
+    @Override
+    public StatsCounter getStatsCounter() {
+        return cache.getStatsCounter();
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        writeTimesById.clear();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachEntry(EntryConsumer<? super K, ? super V> consumer) {
+        if (cache instanceof Snapshottable<?, ?> snapshottable) {
+            ((Snapshottable<K, V>) snapshottable).forEachEntry(consumer);
+        }
+    }
+
+    /**
+     * Restored entities have no write time, so they are refreshed on their first read.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void restore(K id, V value, int frequency) {
+        if (cache instanceof Snapshottable<?, ?> snapshottable) {
+            ((Snapshottable<K, V>) snapshottable).restore(id, value, frequency);
+        }
+    }
+}
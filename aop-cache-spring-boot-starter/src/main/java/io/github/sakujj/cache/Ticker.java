@@ -0,0 +1,18 @@
+package io.github.sakujj.cache;
+
+/**
+ * <p>A source of nanosecond-precision time, used to expire cached entities.</p>
+ * <p>Can be replaced by a bean of this type, e.g. in tests to advance time deterministically.</p>
+ */
+@FunctionalInterface
+public interface Ticker {
+
+    /**
+     * @return number of nanoseconds elapsed since some fixed but arbitrary point in time
+     */
+    long read();
+
+    static Ticker systemTicker() {
+        return System::nanoTime;
+    }
+}
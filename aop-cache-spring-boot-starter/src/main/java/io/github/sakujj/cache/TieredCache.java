@@ -0,0 +1,202 @@
+package io.github.sakujj.cache;
+
+import io.github.sakujj.cache.snapshot.Snapshottable;
+import io.github.sakujj.cache.stats.CacheStats;
+import io.github.sakujj.cache.stats.StatsCounter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * <p>Two-level cache : a small on-heap L1 for the hot entities in front of a large L2 for the warm ones,
+ * e.g. an {@link OffHeapCache}, so that the warm entities do not burden the garbage collector.</p>
+ * <p>The tiers are exclusive. An entity is written to L1, an entity evicted from L1 is demoted to L2,
+ * and an entity found in L2 is promoted back to L1.</p>
+ * <p>L1 hits take only the lock of L1. Misses and writes are serialized by the lock of the tiered cache,
+ * so that an entity moving between the tiers is never lost nor duplicated, and a removed entity is never
+ * brought back by a concurrent promotion.</p>
+ * <p>Shares the statistics counter of L2 : a hit of either tier is a hit, a miss of both is a miss,
+ * and only the evictions from L2 are evictions. The statistics of L1 alone are available by {@link #getL1Stats()}.</p>
+ */
+public class TieredCache<K, V> implements Cache<K, V>, Snapshottable<K, V> {
+    private final Cache<K, V> l1;
+    private final Cache<K, V> l2;
+    private final ReentrantLock lock;
+
+    /**
+     * @param l1Factory creates L1, passing the entities it evicts to the listener
+     * @param l2        L2
+     */
+    public TieredCache(Function<EvictionListener<K, V>, Cache<K, V>> l1Factory, Cache<K, V> l2) {
+        this.l2 = l2;
+        l1 = l1Factory.apply(this::demote);
+        lock = new ReentrantLock();
+    }
+
+    @Override
+    public Optional<V> getById(K id) {
+        Optional<V> optional = l1.getById(id);
+        if (optional.isPresent()) {
+            l2.getStatsCounter().recordHit();
+            return optional;
+        }
+
+        lock.lock();
+        try {
+            // promoted by a concurrent lookup while the lock was awaited
+            optional = l1.getById(id);
+            if (optional.isPresent()) {
+                l2.getStatsCounter().recordHit();
+                return optional;
+            }
+
+            optional = l2.getById(id);
+            optional.ifPresent(value -> promote(id, value));
+
+            return optional;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addOrUpdate(K id, V value) {
+        lock.lock();
+        try {
+            l2.removeById(id);
+            l1.addOrUpdate(id, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeById(K id) {
+        lock.lock();
+        try {
+            l1.removeById(id);
+            l2.removeById(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Holds the lock for the whole batch, the operations on the ids reenter it.
+     */
+    @Override
+    public void addOrUpdateAll(Map<? extends K, ? extends V> values) {
+        lock.lock();
+        try {
+            Cache.super.addOrUpdateAll(values);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeAllById(Collection<? extends K> ids) {
+        lock.lock();
+        try {
+            l1.removeAllById(ids);
+            l2.removeAllById(ids);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return l1.getSize() + l2.getSize();
+    }
+
+    /**
+     * @return sum of the weights of the tiers, each in its own units
+     */
+    @Override
+    public long getWeight() {
+        return l1.getWeight() + l2.getWeight();
+    }
+
+    @Override
+    public StatsCounter getStatsCounter() {
+        return l2.getStatsCounter();
+    }
+
+    /**
+     * @return statistics of L1 alone
+     */
+    public CacheStats getL1Stats() {
+        return l1.getStats();
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            l1.clear();
+            l2.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The entities evicted from a shrunk L1 are demoted to L2, which is resized after it.
+     */
+    @Override
+    public void resize(double fraction) {
+        lock.lock();
+        try {
+            l1.resize(fraction);
+            l2.resize(fraction);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Passes the entities of L1, then the ones of L2. Holds the lock, so that no entity is passed twice.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachEntry(EntryConsumer<? super K, ? super V> consumer) {
+        lock.lock();
+        try {
+            if (l1 instanceof Snapshottable<?, ?> snapshottable) {
+                ((Snapshottable<K, V>) snapshottable).forEachEntry(consumer);
+            }
+            if (l2 instanceof Snapshottable<?, ?> snapshottable) {
+                ((Snapshottable<K, V>) snapshottable).forEachEntry(consumer);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Restored entities are written to L1, since they are restored on their first access after a restart.
+     */
+    @Override
+    public void restore(K id, V value, int frequency) {
+        addOrUpdate(id, value);
+    }
+
+    /**
+     * Must be called under the lock.
+     */
+    private void promote(K id, V value) {
+        l2.removeById(id);
+        l1.addOrUpdate(id, value);
+    }
+
+    /**
+     * Called by L1 under its own lock, within a write to L1 made under the lock of the tiered cache.
+     */
+    private void demote(K id, V value) {
+        l2.addOrUpdate(id, value);
+    }
+}
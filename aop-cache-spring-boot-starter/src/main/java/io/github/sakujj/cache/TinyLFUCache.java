@@ -0,0 +1,364 @@
+package io.github.sakujj.cache;
+
+import io.github.sakujj.cache.collections.DoublyLinkedList;
+import io.github.sakujj.cache.collections.FrequencySketch;
+import io.github.sakujj.cache.snapshot.Snapshottable;
+import io.github.sakujj.cache.stats.RemovalCause;
+import io.github.sakujj.cache.stats.StatsCounter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p>W-TinyLFU cache implementation.</p>
+ * <p>New entities enter a small LRU admission window (1% of the maximum weight).
+ * An entity evicted from the window becomes a candidate for the main region,
+ * a segmented LRU split into probation (20%) and protected (80%) segments.
+ * The candidate replaces the probation victim only if the {@link FrequencySketch}
+ * estimates it to be accessed more often, so one-hit wonders do not pollute the main region.</p>
+ */
+@Slf4j
+public class TinyLFUCache<K, V> implements Cache<K, V>, Snapshottable<K, V> {
+    private static final int WINDOW_PERCENTAGE = 1;
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    private final HashMap<K, Entry<K, V>> entriesById;
+    private final DoublyLinkedList<K, V> window;
+    private final DoublyLinkedList<K, V> probation;
+    private final DoublyLinkedList<K, V> protectedSegment;
+    private final FrequencySketch sketch;
+    private final Weigher<? super V> weigher;
+    private final EvictionListener<? super K, ? super V> evictionListener;
+    private final long configuredMaxWeight;
+    private long maxWeight;
+    private long windowMaxWeight;
+    private long mainMaxWeight;
+    private long protectedMaxWeight;
+    private final StatsCounter statsCounter;
+    private long windowWeight;
+    private long mainWeight;
+    private long protectedWeight;
+
+    public TinyLFUCache(int capacity) {
+        this(capacity, capacity, Weigher.singleton());
+    }
+
+    /**
+     * @param maxWeight        maximum total weight of entities in cache
+     * @param expectedCapacity expected number of entities in cache, used to size the frequency sketch
+     * @param weigher          weigher of entities
+     */
+    public TinyLFUCache(long maxWeight, int expectedCapacity, Weigher<? super V> weigher) {
+        this(maxWeight, expectedCapacity, weigher, EvictionListener.none());
+    }
+
+    /**
+     * @param maxWeight        maximum total weight of entities in cache
+     * @param expectedCapacity expected number of entities in cache, used to size the frequency sketch
+     * @param weigher          weigher of entities
+     * @param evictionListener listener of the entities evicted to fit the maximum weight,
+     *                         including the candidates rejected by the admission filter
+     */
+    public TinyLFUCache(long maxWeight,
+                        int expectedCapacity,
+                        Weigher<? super V> weigher,
+                        EvictionListener<? super K, ? super V> evictionListener) {
+        this.configuredMaxWeight = maxWeight;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+        setMaxWeight(maxWeight);
+
+        entriesById = new HashMap<>();
+        window = new DoublyLinkedList<>();
+        probation = new DoublyLinkedList<>();
+        protectedSegment = new DoublyLinkedList<>();
+        sketch = new FrequencySketch(expectedCapacity);
+        statsCounter = new StatsCounter();
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return entriesById.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        entriesById.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        sketch.clear();
+        windowWeight = 0;
+        mainWeight = 0;
+        protectedWeight = 0;
+    }
+
+    @Override
+    public synchronized long getWeight() {
+        return windowWeight + mainWeight;
+    }
+
+    @Override
+    public StatsCounter getStatsCounter() {
+        return statsCounter;
+    }
+
+    @Override
+    public synchronized Optional<V> getById(K id) {
+        sketch.increment(id);
+
+        Entry<K, V> entry = entriesById.get(id);
+        if (entry == null) {
+            log.debug("CACHE MISS");
+            statsCounter.recordMiss();
+            return Optional.empty();
+        }
+
+        log.debug("CACHE HIT");
+        statsCounter.recordHit();
+
+        onAccess(entry);
+        return Optional.of(entry.node.getValue());
+    }
+
+    @Override
+    public synchronized void addOrUpdate(K id, V value) {
+        if (maxWeight == 0) {
+            return;
+        }
+
+        int weight = weigher.weigh(value);
+        if (weight > maxWeight) {
+            removeById(id);
+            return;
+        }
+
+        Entry<K, V> existing = entriesById.get(id);
+        if (existing != null) {
+            DoublyLinkedList<K, V> segment = listOf(existing.region);
+            segment.removeNode(existing.node);
+            addWeight(existing.region, -existing.node.getWeight());
+
+            existing.node = segment.addFirst(id, value);
+            existing.node.setWeight(weight);
+            addWeight(existing.region, weight);
+
+            onAccess(existing);
+            evictFromWindowWhileOverweight();
+            evictFromMainWhileOverweight(existing);
+            return;
+        }
+
+        Entry<K, V> entry = new Entry<>(window.addFirst(id, value), Region.WINDOW);
+        entry.node.setWeight(weight);
+        windowWeight += weight;
+        entriesById.put(id, entry);
+
+        evictFromWindowWhileOverweight();
+    }
+
+    @Override
+    public synchronized void removeById(K id) {
+        Entry<K, V> entry = entriesById.remove(id);
+        if (entry == null) {
+            return;
+        }
+
+        listOf(entry.region).removeNode(entry.node);
+        addWeight(entry.region, -entry.node.getWeight());
+    }
+
+    /**
+     * Holds the monitor for the whole batch, the lookups of the ids reenter it.
+     */
+    @Override
+    public synchronized BulkLookup<K, V> getAllById(Collection<? extends K> ids) {
+        return Cache.super.getAllById(ids);
+    }
+
+    @Override
+    public synchronized void addOrUpdateAll(Map<? extends K, ? extends V> values) {
+        Cache.super.addOrUpdateAll(values);
+    }
+
+    @Override
+    public synchronized void removeAllById(Collection<? extends K> ids) {
+        Cache.super.removeAllById(ids);
+    }
+
+    @Override
+    public synchronized void forEachEntry(EntryConsumer<? super K, ? super V> consumer) {
+        protectedSegment.forEach((id, value) -> consumer.accept(id, value, sketch.frequency(id)));
+        probation.forEach((id, value) -> consumer.accept(id, value, sketch.frequency(id)));
+        window.forEach((id, value) -> consumer.accept(id, value, sketch.frequency(id)));
+    }
+
+    @Override
+    public synchronized void restore(K id, V value, int frequency) {
+        for (int i = 0; i < frequency && sketch.frequency(id) < frequency; i++) {
+            sketch.increment(id);
+        }
+
+        addOrUpdate(id, value);
+    }
+
+    /**
+     * The segments keep their shares of the new maximum weight : the window candidates compete for the shrunk main region,
+     * the protected entities beyond the shrunk protected segment are demoted to probation, then the main victims are evicted.
+     */
+    @Override
+    public synchronized void resize(double fraction) {
+        setMaxWeight(Math.min(configuredMaxWeight, Math.max(1, (long) (configuredMaxWeight * fraction))));
+
+        evictFromWindowWhileOverweight();
+        demoteFromProtectedWhileOverweight();
+        evictFromMainWhileOverweight(null);
+    }
+
+    private void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+        windowMaxWeight = Math.min(maxWeight, Math.max(1, maxWeight * WINDOW_PERCENTAGE / 100));
+        mainMaxWeight = maxWeight - windowMaxWeight;
+        protectedMaxWeight = mainMaxWeight * PROTECTED_PERCENTAGE / 100;
+    }
+
+    private void onAccess(Entry<K, V> entry) {
+        switch (entry.region) {
+            case WINDOW -> moveToFront(window, entry);
+            case PROTECTED -> moveToFront(protectedSegment, entry);
+            case PROBATION -> promoteToProtected(entry);
+        }
+    }
+
+    private void promoteToProtected(Entry<K, V> entry) {
+        probation.removeNode(entry.node);
+        protectedSegment.addNodeFirst(entry.node);
+        entry.region = Region.PROTECTED;
+        protectedWeight += entry.node.getWeight();
+
+        demoteFromProtectedWhileOverweight();
+    }
+
+    private void demoteFromProtectedWhileOverweight() {
+        while (protectedWeight > protectedMaxWeight && protectedSegment.getSize() > 0) {
+            var demotedNode = protectedSegment.getLastNode();
+            Entry<K, V> demoted = entriesById.get(demotedNode.getKey());
+
+            protectedSegment.removeNode(demotedNode);
+            probation.addNodeFirst(demotedNode);
+            demoted.region = Region.PROBATION;
+            protectedWeight -= demotedNode.getWeight();
+        }
+    }
+
+    private void evictFromWindowWhileOverweight() {
+        while (windowWeight > windowMaxWeight && window.getSize() > 0) {
+            admitWindowCandidate();
+        }
+    }
+
+    /**
+     * Moves the window tail to probation, then lets it compete with the main victims
+     * until the main region fits its maximum weight.
+     */
+    private void admitWindowCandidate() {
+        var candidateNode = window.getLastNode();
+        K candidateId = candidateNode.getKey();
+        Entry<K, V> candidate = entriesById.get(candidateId);
+
+        window.removeNode(candidateNode);
+        windowWeight -= candidateNode.getWeight();
+
+        probation.addNodeFirst(candidateNode);
+        candidate.region = Region.PROBATION;
+        mainWeight += candidateNode.getWeight();
+
+        while (mainWeight > mainMaxWeight) {
+            Entry<K, V> victim = findMainVictim(candidate);
+            if (victim == null
+                    || sketch.frequency(candidateId) <= sketch.frequency(victim.node.getKey())) {
+                evict(candidate);
+                return;
+            }
+
+            evict(victim);
+        }
+    }
+
+    private void evictFromMainWhileOverweight(Entry<K, V> toKeep) {
+        while (mainWeight > mainMaxWeight) {
+            Entry<K, V> victim = findMainVictim(toKeep);
+            if (victim == null) {
+                return;
+            }
+
+            evict(victim);
+        }
+    }
+
+    private Entry<K, V> findMainVictim(Entry<K, V> toKeep) {
+        Entry<K, V> victim = tailEntryOf(probation);
+        if (victim == null || victim == toKeep) {
+            victim = tailEntryOf(protectedSegment);
+        }
+
+        return victim != toKeep
+                ? victim
+                : null;
+    }
+
+    private Entry<K, V> tailEntryOf(DoublyLinkedList<K, V> segment) {
+        return segment.getSize() > 0
+                ? entriesById.get(segment.getLastNode().getKey())
+                : null;
+    }
+
+    private void evict(Entry<K, V> entry) {
+        entriesById.remove(entry.node.getKey());
+        listOf(entry.region).removeNode(entry.node);
+        addWeight(entry.region, -entry.node.getWeight());
+        statsCounter.recordEviction(RemovalCause.SIZE);
+        evictionListener.onEviction(entry.node.getKey(), entry.node.getValue());
+    }
+
+    private void addWeight(Region region, long weight) {
+        switch (region) {
+            case WINDOW -> windowWeight += weight;
+            case PROBATION -> mainWeight += weight;
+            case PROTECTED -> {
+                mainWeight += weight;
+                protectedWeight += weight;
+            }
+        }
+    }
+
+    private DoublyLinkedList<K, V> listOf(Region region) {
+        return switch (region) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            case PROTECTED -> protectedSegment;
+        };
+    }
+
+    private static <K, V> void moveToFront(DoublyLinkedList<K, V> list, Entry<K, V> entry) {
+        list.removeNode(entry.node);
+        list.addNodeFirst(entry.node);
+    }
+
+    private enum Region {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    private static class Entry<K, V> {
+        private DoublyLinkedList.Node<K, V> node;
+        private Region region;
+
+        private Entry(DoublyLinkedList.Node<K, V> node, Region region) {
+            this.node = node;
+            this.region = region;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.sakujj.cache;
+
+/**
+ * <p>Calculates the weight of a cached value, the sum of which is bounded by the maximum weight of a cache.</p>
+ * <p>Can be replaced by a bean of this type. The weight of a value must not change while it is cached.</p>
+ *
+ * @param <V> type of weighed values
+ */
+@FunctionalInterface
+public interface Weigher<V> {
+
+    /**
+     * @param value value to weigh
+     * @return non-negative weight of the value
+     */
+    int weigh(V value);
+
+    /**
+     * @return weigher giving every value a weight of 1, so that the maximum weight is the number of values
+     */
+    static <V> Weigher<V> singleton() {
+        return value -> 1;
+    }
+}
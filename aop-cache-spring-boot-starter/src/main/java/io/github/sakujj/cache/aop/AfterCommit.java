@@ -0,0 +1,50 @@
+package io.github.sakujj.cache.aop;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+/**
+ * <p>Defers the actions that must only take effect once the changes of the current transaction are visible,
+ * e.g. the invalidations sent to the other nodes, which would otherwise reload the old state before the commit.</p>
+ * <p>An action is run after the commit of the transaction synchronized with the current thread,
+ * and is dropped if the transaction rolls back. Without a transaction, or without spring-tx on the classpath,
+ * the action is run at once.</p>
+ */
+final class AfterCommit {
+
+    private static final boolean IS_SPRING_TX_PRESENT = ClassUtils.isPresent(
+            "org.springframework.transaction.support.TransactionSynchronizationManager",
+            AfterCommit.class.getClassLoader());
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (IS_SPRING_TX_PRESENT && Synchronizations.registerAfterCommit(action)) {
+            return;
+        }
+
+        action.run();
+    }
+
+    /**
+     * Loaded only if spring-tx is on the classpath.
+     */
+    private static class Synchronizations {
+
+        private static boolean registerAfterCommit(Runnable action) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return false;
+            }
+
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+            return true;
+        }
+    }
+}
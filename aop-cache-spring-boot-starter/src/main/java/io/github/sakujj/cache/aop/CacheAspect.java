@@ -1,88 +1,335 @@
 package io.github.sakujj.cache.aop;
 
+import io.github.sakujj.cache.AsyncCache;
 import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CacheManager;
 import io.github.sakujj.cache.IdentifiableByUUID;
+import io.github.sakujj.cache.invalidation.InvalidationPublisher;
+import io.github.sakujj.cache.trace.TraceOperation;
+import io.github.sakujj.cache.trace.TraceRecorder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 
+import java.lang.annotation.Annotation;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * <p>Each advice works with the cache region named by its annotation.</p>
+ * <p>Advices are serialized per region and uuid only, by the locks of the {@link CacheManager} :
+ * operations on different uuids, including the calls to the advised methods, run in parallel.</p>
+ * <p>Concurrent misses on the same uuid are collapsed into a single call of the advised method,
+ * the result of which is shared by all the waiting callers.</p>
+ * <p>If the region has a negative cache, a uuid found missing gets a tombstone,
+ * which answers the next lookups with an empty result until it expires,
+ * or until an entity with this uuid is created or updated.</p>
+ * <p>If the region refreshes its entities, a hit on an entity due for a refresh is answered with the cached value
+ * at once, while the advised find method is called again on the refresh executor to reload it.
+ * At most one refresh per uuid is in flight, and none is scheduled while the executor is saturated.
+ * A failed refresh keeps the cached value, the entity stays due and is refreshed again on a later read.</p>
+ * <p>A find method may also return {@code CompletableFuture<Optional<T>>} : its loads and refreshes
+ * go through the {@link AsyncCache} of the region and are not serialized with the writes on the same uuid,
+ * instead a create, an update or a delete discards the loads in flight, so that neither their results
+ * nor their tombstones are cached.</p>
+ * <p>Only the calls of the advised find method, including the refreshes, are recorded as loads
+ * in the statistics of the region, the callers waiting for a load in flight are not.</p>
+ * <p>The uuids of the created, updated and deleted entities are published to the {@link InvalidationPublisher}
+ * once the transaction of the advised method commits, or once the method returns if it runs without a transaction,
+ * so that the other nodes evict their copies and do not reload the uncommitted state.
+ * The changes rolled back are not published.</p>
+ * <p>Every find, and every write once the advised method returns, is recorded by the {@link TraceRecorder}.</p>
+ * <p>The uuid is the first {@link UUID} argument of the advised method, unless the annotation declares
+ * a key expression or a key generator, resolved by the {@link CacheKeyResolver}.</p>
+ */
 @Slf4j
 @Aspect
 @RequiredArgsConstructor
 public class CacheAspect {
 
-    private final Cache cache;
+    private final CacheManager cacheManager;
+
+    private final CacheKeyResolver cacheKeyResolver;
+
+    private final Executor refreshExecutor;
+
+    private final InvalidationPublisher invalidationPublisher;
+
+    private final TraceRecorder traceRecorder;
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> loadsInFlight = new ConcurrentHashMap<>();
+
+    private final Set<RegionKey> refreshesInFlight = ConcurrentHashMap.newKeySet();
 
-    @Around("@annotation(CacheableFindByUUID) && args(uuid)")
-    public Object findByUUID(ProceedingJoinPoint pjp, UUID uuid) throws Throwable {
-        synchronized (Cache.class) {
-            log.info("CacheAspect find method was invoked on uuid " + uuid);
+    @Around("@annotation(cacheableFindByUUID)")
+    public Object findByUUID(ProceedingJoinPoint pjp, CacheableFindByUUID cacheableFindByUUID) throws Throwable {
+        UUID uuid = resolveUUID(pjp, cacheableFindByUUID, cacheableFindByUUID.key(), cacheableFindByUUID.keyGenerator())
+                .orElseThrow(() -> new RuntimeException("An incorrect usage of @CacheableFindByUUID " +
+                        ": find method should accept a java.util.UUID or declare a key"));
+        log.info("CacheAspect find method was invoked on uuid " + uuid);
+        traceRecorder.record(cacheableFindByUUID.cache(), uuid, TraceOperation.READ);
 
-            Optional<IdentifiableByUUID> optional = cache.getById(uuid);
-            if (optional.isPresent()) {
-                return optional;
+        if (isAsync(pjp)) {
+            return findByUUIDAsync(pjp, cacheableFindByUUID.cache(), uuid);
+        }
+
+        Cache<UUID, IdentifiableByUUID> cache = cacheManager.getCache(cacheableFindByUUID.cache());
+        Optional<IdentifiableByUUID> optional = cache.getById(uuid);
+        if (optional.isPresent()) {
+            if (cache.isRefreshDue(uuid)) {
+                refresh(pjp, cache, new RegionKey(cacheableFindByUUID.cache(), uuid));
             }
 
-            Object pjpResult = pjp.proceed();
+            return optional;
+        }
 
-            if (!(pjpResult instanceof Optional<?> optionalResult)) {
+        Optional<Cache<UUID, Boolean>> negativeCache = cacheManager.getNegativeCache(cacheableFindByUUID.cache());
+        if (negativeCache.isPresent() && negativeCache.get().getById(uuid).isPresent()) {
+            cache.getStatsCounter().recordNegativeHit();
+            return Optional.empty();
+        }
+
+        RegionKey key = new RegionKey(cacheableFindByUUID.cache(), uuid);
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> loadInFlight = loadsInFlight.putIfAbsent(key, load);
+        if (loadInFlight != null) {
+            return awaitLoad(loadInFlight);
+        }
+
+        long loadStart = System.nanoTime();
+        try {
+            Object result = loadAndCache(pjp, cache, negativeCache, key);
+            cache.getStatsCounter().recordLoadSuccess(System.nanoTime() - loadStart);
+            load.complete(result);
+
+            return result;
+        } catch (Throwable t) {
+            cache.getStatsCounter().recordLoadFailure(System.nanoTime() - loadStart);
+            load.completeExceptionally(t);
+
+            throw t;
+        } finally {
+            loadsInFlight.remove(key, load);
+        }
+    }
+
+    @Around("@annotation(cacheableDeleteByUUID)")
+    public Object deleteByUUID(ProceedingJoinPoint pjp, CacheableDeleteByUUID cacheableDeleteByUUID) throws Throwable {
+        UUID uuid = resolveUUID(pjp, cacheableDeleteByUUID, cacheableDeleteByUUID.key(), cacheableDeleteByUUID.keyGenerator())
+                .orElseThrow(() -> new RuntimeException("An incorrect usage of @CacheableDeleteByUUID " +
+                        ": delete method should accept a java.util.UUID or declare a key"));
+        log.info("CacheAspect delete method was invoked on uuid " + uuid);
+
+        Cache<UUID, IdentifiableByUUID> cache = cacheManager.getCache(cacheableDeleteByUUID.cache());
+        RegionKey key = new RegionKey(cacheableDeleteByUUID.cache(), uuid);
+
+        cacheManager.lock(key.cache(), key.uuid());
+        try {
+            cache.removeById(uuid);
+
+            Object result = pjp.proceed();
+            cacheManager.getAsyncCache(cacheableDeleteByUUID.cache()).invalidate(uuid);
+            AfterCommit.run(() -> invalidationPublisher.publish(cacheableDeleteByUUID.cache(), uuid));
+            traceRecorder.record(cacheableDeleteByUUID.cache(), uuid, TraceOperation.DELETE);
+
+            return result;
+        } finally {
+            cacheManager.unlock(key.cache(), key.uuid());
+        }
+    }
+
+    @Around("@annotation(cacheableUpdateByUUID)")
+    public Object updateByUUID(ProceedingJoinPoint pjp, CacheableUpdateByUUID cacheableUpdateByUUID) throws Throwable {
+        log.info("CacheAspect update method was invoked");
+
+        Cache<UUID, IdentifiableByUUID> cache = cacheManager.getCache(cacheableUpdateByUUID.cache());
+        Optional<Cache<UUID, Boolean>> negativeCache = cacheManager.getNegativeCache(cacheableUpdateByUUID.cache());
+
+        Optional<UUID> uuidArgument = resolveUUID(pjp,
+                cacheableUpdateByUUID,
+                cacheableUpdateByUUID.key(),
+                cacheableUpdateByUUID.keyGenerator());
+        if (uuidArgument.isEmpty()) {
+            return updateAndCache(pjp, cacheableUpdateByUUID.cache(), cache, negativeCache);
+        }
+
+        RegionKey key = new RegionKey(cacheableUpdateByUUID.cache(), uuidArgument.get());
+        cacheManager.lock(key.cache(), key.uuid());
+        try {
+            return updateAndCache(pjp, cacheableUpdateByUUID.cache(), cache, negativeCache);
+        } finally {
+            cacheManager.unlock(key.cache(), key.uuid());
+        }
+    }
+
+    @Around("@annotation(cacheableCreate)")
+    public Object create(ProceedingJoinPoint pjp, CacheableCreate cacheableCreate) throws Throwable {
+        log.info("CacheAspect create method was invoked");
+
+        Object pjpResult = pjp.proceed();
+        if (!(pjpResult instanceof IdentifiableByUUID result)) {
+
+            throw new RuntimeException("An incorrect usage of @CacheableCreate " +
+                    ": create method should return an instance of io.github.sakujj.cache.IdentifiableByUUID");
+        }
+
+        Cache<UUID, IdentifiableByUUID> cache = cacheManager.getCache(cacheableCreate.cache());
+        RegionKey key = new RegionKey(cacheableCreate.cache(), result.getUuid());
+
+        cacheManager.lock(key.cache(), key.uuid());
+        try {
+            cacheManager.getAsyncCache(cacheableCreate.cache()).discardLoad(result.getUuid());
+            cache.addOrUpdate(result.getUuid(), result);
+            cacheManager.getNegativeCache(cacheableCreate.cache())
+                    .ifPresent(tombstones -> tombstones.removeById(result.getUuid()));
+        } finally {
+            cacheManager.unlock(key.cache(), key.uuid());
+        }
+        // the other nodes could have a tombstone for the uuid
+        AfterCommit.run(() -> invalidationPublisher.publish(cacheableCreate.cache(), result.getUuid()));
+        traceRecorder.record(cacheableCreate.cache(), result.getUuid(), TraceOperation.WRITE);
+
+        return result;
+    }
+
+    private CompletableFuture<Optional<IdentifiableByUUID>> findByUUIDAsync(ProceedingJoinPoint pjp,
+                                                                            String cacheName,
+                                                                            UUID uuid) {
+        AsyncCache<UUID, IdentifiableByUUID> asyncCache = cacheManager.getAsyncCache(cacheName);
+        Cache<UUID, IdentifiableByUUID> cache = asyncCache.synchronous();
+
+        Optional<IdentifiableByUUID> optional = cache.getById(uuid);
+        if (optional.isPresent()) {
+            if (cache.isRefreshDue(uuid)) {
+                refreshAsync(pjp, asyncCache, new RegionKey(cacheName, uuid));
+            }
+
+            return CompletableFuture.completedFuture(optional);
+        }
+
+        Optional<Cache<UUID, Boolean>> negativeCache = cacheManager.getNegativeCache(cacheName);
+        if (negativeCache.isPresent() && negativeCache.get().getById(uuid).isPresent()) {
+            cache.getStatsCounter().recordNegativeHit();
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        return asyncCache.load(uuid, id -> proceedAsync(pjp), id -> putTombstone(negativeCache, id));
+    }
+
+    private void refreshAsync(ProceedingJoinPoint pjp, AsyncCache<UUID, IdentifiableByUUID> asyncCache, RegionKey key) {
+        if (!refreshesInFlight.add(key)) {
+            return;
+        }
+
+        Optional<Cache<UUID, Boolean>> negativeCache = cacheManager.getNegativeCache(key.cache());
+        asyncCache.load(key.uuid(), id -> proceedAsync(pjp), id -> putTombstone(negativeCache, id))
+                .whenComplete((result, failure) -> {
+                    refreshesInFlight.remove(key);
+                    if (failure == null) {
+                        asyncCache.synchronous().getStatsCounter().recordRefreshSuccess();
+                        return;
+                    }
+
+                    asyncCache.synchronous().getStatsCounter().recordRefreshFailure();
+                    log.warn("Refresh of uuid {} in cache {} failed, keeping the cached value", key.uuid(), key.cache(), failure);
+                });
+    }
+
+    private static CompletableFuture<Optional<IdentifiableByUUID>> proceedAsync(ProceedingJoinPoint pjp) {
+        Object pjpResult;
+        try {
+            pjpResult = pjp.proceed();
+        } catch (Throwable t) {
+            return CompletableFuture.failedFuture(t);
+        }
+
+        if (!(pjpResult instanceof CompletableFuture<?> futureResult)) {
+
+            throw new RuntimeException("An incorrect usage of @CacheableFindByUUID " +
+                    ": find method should return a non-null CompletableFuture<Optional<T>>, " +
+                    "where T is io.github.sakujj.cache.IdentifiableByUUID");
+        }
+
+        return futureResult.thenApply(result -> {
+            if (!(result instanceof Optional<?> optionalResult)) {
 
                 throw new RuntimeException("An incorrect usage of @CacheableFindByUUID " +
-                        ": update method should return Optional<T>, where T is io.github.sakujj.cache.IdentifiableByUUID");
+                        ": find method should complete with Optional<T>, where T is io.github.sakujj.cache.IdentifiableByUUID");
             }
 
             if (optionalResult.isEmpty()) {
-                return optionalResult;
+                return Optional.empty();
             }
 
-            Object result = optionalResult.get();
-
-            if (!(result instanceof IdentifiableByUUID identifiable)) {
+            if (!(optionalResult.get() instanceof IdentifiableByUUID identifiable)) {
 
                 throw new RuntimeException("An incorrect usage of @CacheableFindByUUID " +
                         ": cached object should be an instance of io.github.sakujj.cache.IdentifiableByUUID");
             }
 
-            cache.addOrUpdate(identifiable);
-
-            return optionalResult;
-        }
-
+            return Optional.of(identifiable);
+        });
     }
 
-    @Around("@annotation(CacheableDeleteByUUID) && args(uuid)")
-    public Object deleteByUUID(ProceedingJoinPoint pjp, UUID uuid) throws Throwable {
-        synchronized (Cache.class) {
-            log.info("CacheAspect delete method was invoked on uuid " + uuid);
+    private static void putTombstone(Optional<Cache<UUID, Boolean>> negativeCache, UUID uuid) {
+        negativeCache.ifPresent(tombstones -> tombstones.addOrUpdate(uuid, Boolean.TRUE));
+    }
 
-            Optional<IdentifiableByUUID> optional = cache.getById(uuid);
-            if (optional.isPresent()) {
-                cache.removeById(uuid);
-            }
+    private void refresh(ProceedingJoinPoint pjp, Cache<UUID, IdentifiableByUUID> cache, RegionKey key) {
+        if (!refreshesInFlight.add(key)) {
+            return;
+        }
 
-            return pjp.proceed();
+        Optional<Cache<UUID, Boolean>> negativeCache = cacheManager.getNegativeCache(key.cache());
+        try {
+            refreshExecutor.execute(() -> {
+                long loadStart = System.nanoTime();
+                try {
+                    loadAndCache(pjp, cache, negativeCache, key);
+                    cache.getStatsCounter().recordLoadSuccess(System.nanoTime() - loadStart);
+                    cache.getStatsCounter().recordRefreshSuccess();
+                } catch (Throwable t) {
+                    cache.getStatsCounter().recordLoadFailure(System.nanoTime() - loadStart);
+                    cache.getStatsCounter().recordRefreshFailure();
+                    log.warn("Refresh of uuid {} in cache {} failed, keeping the cached value", key.uuid(), key.cache(), t);
+                } finally {
+                    refreshesInFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshesInFlight.remove(key);
+            log.debug("Refresh of uuid {} in cache {} skipped : the refresh executor is saturated", key.uuid(), key.cache());
         }
     }
 
-    @Around("@annotation(CacheableUpdateByUUID)")
-    public Object updateByUUID(ProceedingJoinPoint pjp) throws Throwable {
-        synchronized (Cache.class) {
-            log.info("CacheAspect update method was invoked");
-
+    private Object loadAndCache(ProceedingJoinPoint pjp,
+                                Cache<UUID, IdentifiableByUUID> cache,
+                                Optional<Cache<UUID, Boolean>> negativeCache,
+                                RegionKey key) throws Throwable {
+        cacheManager.lock(key.cache(), key.uuid());
+        try {
             Object pjpResult = pjp.proceed();
 
             if (!(pjpResult instanceof Optional<?> optionalResult)) {
 
-                throw new RuntimeException("An incorrect usage of @CacheableUpdateByUUID " +
+                throw new RuntimeException("An incorrect usage of @CacheableFindByUUID " +
                         ": update method should return Optional<T>, where T is io.github.sakujj.cache.IdentifiableByUUID");
             }
 
             if (optionalResult.isEmpty()) {
+                // a refreshed entity could have been deleted bypassing the cache
+                cache.removeById(key.uuid());
+                negativeCache.ifPresent(tombstones -> tombstones.addOrUpdate(key.uuid(), Boolean.TRUE));
                 return optionalResult;
             }
 
@@ -90,31 +337,90 @@ public class CacheAspect {
 
             if (!(result instanceof IdentifiableByUUID identifiable)) {
 
-                throw new RuntimeException("An incorrect usage of @CacheableUpdateByUUID " +
+                throw new RuntimeException("An incorrect usage of @CacheableFindByUUID " +
                         ": cached object should be an instance of io.github.sakujj.cache.IdentifiableByUUID");
             }
 
-            cache.addOrUpdate(identifiable);
+            cache.addOrUpdate(identifiable.getUuid(), identifiable);
 
             return optionalResult;
+        } finally {
+            cacheManager.unlock(key.cache(), key.uuid());
         }
     }
 
-    @Around("@annotation(CacheableCreate)")
-    public Object create(ProceedingJoinPoint pjp) throws Throwable {
-        synchronized (Cache.class) {
-            log.info("CacheAspect create method was invoked");
+    private Object updateAndCache(ProceedingJoinPoint pjp,
+                                  String cacheName,
+                                  Cache<UUID, IdentifiableByUUID> cache,
+                                  Optional<Cache<UUID, Boolean>> negativeCache) throws Throwable {
+        Object pjpResult = pjp.proceed();
 
-            Object pjpResult = pjp.proceed();
-            if (!(pjpResult instanceof IdentifiableByUUID result)) {
+        if (!(pjpResult instanceof Optional<?> optionalResult)) {
+
+            throw new RuntimeException("An incorrect usage of @CacheableUpdateByUUID " +
+                    ": update method should return Optional<T>, where T is io.github.sakujj.cache.IdentifiableByUUID");
+        }
+
+        if (optionalResult.isEmpty()) {
+            return optionalResult;
+        }
+
+        Object result = optionalResult.get();
+
+        if (!(result instanceof IdentifiableByUUID identifiable)) {
+
+            throw new RuntimeException("An incorrect usage of @CacheableUpdateByUUID " +
+                    ": cached object should be an instance of io.github.sakujj.cache.IdentifiableByUUID");
+        }
+
+        cacheManager.getAsyncCache(cacheName).discardLoad(identifiable.getUuid());
+        cache.addOrUpdate(identifiable.getUuid(), identifiable);
+        negativeCache.ifPresent(tombstones -> tombstones.removeById(identifiable.getUuid()));
+        AfterCommit.run(() -> invalidationPublisher.publish(cacheName, identifiable.getUuid()));
+        traceRecorder.record(cacheName, identifiable.getUuid(), TraceOperation.WRITE);
+
+        return optionalResult;
+    }
 
-                throw new RuntimeException("An incorrect usage of @CacheableCreate " +
-                        ": create method should return an instance of io.github.sakujj.cache.IdentifiableByUUID");
+    private Optional<UUID> resolveUUID(ProceedingJoinPoint pjp, Annotation annotation, String key, String keyGenerator) {
+        Object resolved = cacheKeyResolver.resolve(pjp,
+                annotation,
+                key,
+                keyGenerator,
+                args -> findUUIDArgument(args).orElse(null));
+
+        if (resolved != null && !(resolved instanceof UUID)) {
+
+            throw new RuntimeException("An incorrect usage of @" + annotation.annotationType().getSimpleName() +
+                    " : key should be a java.util.UUID, but was " + resolved.getClass().getName());
+        }
+
+        return Optional.ofNullable((UUID) resolved);
+    }
+
+    private static boolean isAsync(ProceedingJoinPoint pjp) {
+        return pjp.getSignature() instanceof MethodSignature signature
+                && CompletableFuture.class.isAssignableFrom(signature.getReturnType());
+    }
+
+    private static Optional<UUID> findUUIDArgument(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof UUID uuid) {
+                return Optional.of(uuid);
             }
+        }
 
-            cache.addOrUpdate(result);
+        return Optional.empty();
+    }
 
-            return result;
+    private static Object awaitLoad(CompletableFuture<Object> loadInFlight) throws Throwable {
+        try {
+            return loadInFlight.get();
+        } catch (ExecutionException | CompletionException e) {
+            throw e.getCause();
         }
     }
+
+    private record RegionKey(String cache, UUID uuid) {
+    }
 }
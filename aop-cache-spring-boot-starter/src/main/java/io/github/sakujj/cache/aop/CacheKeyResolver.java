@@ -0,0 +1,149 @@
+package io.github.sakujj.cache.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.InlineList;
+import org.springframework.expression.spel.ast.SpelNodeImpl;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * <p>Derives the cache keys of the advised methods from their arguments.</p>
+ * <p>A key is built by a SpEL expression, whose variables are the arguments by name
+ * (and by position as <i>#p0</i>, <i>#p1</i>...), or by a {@link KeyGenerator} bean.
+ * Composite keys are built with an inline list, e.g. <i>{#series, #number}</i>, into an unmodifiable list.</p>
+ * <p>The expression is parsed, the parameter names discovered and the key generator looked up
+ * once per method and annotation. Expressions are compiled to bytecode after their first evaluations,
+ * so the key derivation on the hot path does not use reflection. As SpEL does not compile an inline list
+ * of variables, the elements of a composite key are compiled one by one and collected in the list here.
+ * They are evaluated in a {@link SimpleEvaluationContext} : they can read properties and call methods
+ * of the arguments, but can not reference types or beans.</p>
+ */
+public class CacheKeyResolver {
+
+    private final BeanFactory beanFactory;
+
+    private final SpelParserConfiguration parserConfiguration =
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, CacheKeyResolver.class.getClassLoader());
+
+    private final SpelExpressionParser parser = new SpelExpressionParser(parserConfiguration);
+
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private final ConcurrentHashMap<MethodKey, KeyFunction> keyFunctions = new ConcurrentHashMap<>();
+
+    /**
+     * @param beanFactory factory of the {@link KeyGenerator} beans
+     */
+    public CacheKeyResolver(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * Used to get the key of a call of an advised method.
+     *
+     * @param pjp          call of the method
+     * @param annotation   annotation declaring the key
+     * @param key          SpEL expression of the key, empty to use the key generator or the default key
+     * @param keyGenerator name of the {@link KeyGenerator} bean, empty to use the default key
+     * @param defaultKey   builds the key from the arguments when neither the expression nor the generator is set
+     * @return key of the call
+     */
+    public Object resolve(ProceedingJoinPoint pjp,
+                          Annotation annotation,
+                          String key,
+                          String keyGenerator,
+                          Function<Object[], Object> defaultKey) {
+
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        KeyFunction keyFunction = keyFunctions.computeIfAbsent(new MethodKey(method, annotation.annotationType()),
+                methodKey -> createKeyFunction(method, key, keyGenerator, defaultKey));
+
+        return keyFunction.apply(pjp.getTarget(), method, pjp.getArgs());
+    }
+
+    private KeyFunction createKeyFunction(Method method,
+                                          String key,
+                                          String keyGenerator,
+                                          Function<Object[], Object> defaultKey) {
+
+        if (!key.isEmpty() && !keyGenerator.isEmpty()) {
+            throw new IllegalStateException("An incorrect usage of the cache annotations on " + method
+                    + " : key and keyGenerator are mutually exclusive");
+        }
+
+        if (!keyGenerator.isEmpty()) {
+            KeyGenerator generator = beanFactory.getBean(keyGenerator, KeyGenerator.class);
+            return generator::generate;
+        }
+
+        if (key.isEmpty()) {
+            return (target, m, args) -> defaultKey.apply(args);
+        }
+
+        Expression expression = parser.parseExpression(key);
+        String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
+        String[] positionalNames = new String[method.getParameterCount()];
+        for (int i = 0; i < positionalNames.length; i++) {
+            positionalNames[i] = "p" + i;
+        }
+
+        if (((SpelExpression) expression).getAST() instanceof InlineList inlineList && !inlineList.isConstant()) {
+            Expression[] elements = new Expression[inlineList.getChildCount()];
+            for (int i = 0; i < elements.length; i++) {
+                SpelNodeImpl element = (SpelNodeImpl) inlineList.getChild(i);
+                elements[i] = new SpelExpression(element.toStringAST(), element, parserConfiguration);
+            }
+
+            return (target, m, args) -> {
+                EvaluationContext context = createContext(parameterNames, positionalNames, args);
+                Object[] values = new Object[elements.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = elements[i].getValue(context);
+                }
+                return Collections.unmodifiableList(Arrays.asList(values));
+            };
+        }
+
+        return (target, m, args) -> expression.getValue(createContext(parameterNames, positionalNames, args));
+    }
+
+    private static EvaluationContext createContext(String[] parameterNames, String[] positionalNames, Object[] args) {
+        EvaluationContext context = SimpleEvaluationContext.forReadOnlyDataBinding()
+                .withInstanceMethods()
+                .build();
+
+        for (int i = 0; i < args.length; i++) {
+            if (parameterNames != null) {
+                context.setVariable(parameterNames[i], args[i]);
+            }
+            context.setVariable(positionalNames[i], args[i]);
+        }
+
+        return context;
+    }
+
+    @FunctionalInterface
+    private interface KeyFunction {
+        Object apply(Object target, Method method, Object[] args);
+    }
+
+    private record MethodKey(Method method, Class<? extends Annotation> annotationType) {
+    }
+}
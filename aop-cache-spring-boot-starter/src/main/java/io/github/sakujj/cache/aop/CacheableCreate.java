@@ -1,5 +1,7 @@
 package io.github.sakujj.cache.aop;
 
+import io.github.sakujj.cache.CacheManager;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -13,4 +15,9 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface CacheableCreate {
+
+    /**
+     * @return name of the cache region, configured under <i>sakujj.cache.regions.&lt;name></i>
+     */
+    String cache() default CacheManager.DEFAULT_CACHE;
 }
@@ -1,15 +1,35 @@
 package io.github.sakujj.cache.aop;
 
+import io.github.sakujj.cache.CacheManager;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * <p>Used on methods of a pattern : <i>public * *(java.util.UUID),</p>
- * <p>to remove an object from a cache by specified uuid and then call the method.</p>
+ * <p>Used on methods of a pattern : <i>public * *(..),</p>
+ * <p>to remove an object from a cache by the uuid argument, or by the uuid built by the key expression,
+ * and then call the method.</p>
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface CacheableDeleteByUUID {
+
+    /**
+     * @return name of the cache region, configured under <i>sakujj.cache.regions.&lt;name></i>
+     */
+    String cache() default CacheManager.DEFAULT_CACHE;
+
+    /**
+     * @return SpEL expression of the uuid, built from the arguments by name, e.g. <i>#request.uuid</i>.
+     * By default, the uuid argument
+     */
+    String key() default "";
+
+    /**
+     * @return name of a {@link org.springframework.cache.interceptor.KeyGenerator} bean building the uuid,
+     * exclusive with {@link #key()}
+     */
+    String keyGenerator() default "";
 }
@@ -0,0 +1,42 @@
+package io.github.sakujj.cache.aop;
+
+import io.github.sakujj.cache.CacheManager;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Used on methods of a pattern : <i>public Optional&lt;T> *(..),</p>
+ * <p>where T extends {@link io.github.sakujj.cache.IdentifiableByUUID}</i>,</p>
+ * <p>to find an object from a cache by a key built from any arguments, e.g. a person by passport series and number.
+ * The key is mapped to the uuid of the found object, the object itself is put in and resolved through the cache region.
+ * Empty results are cached too. If absent or stale, find using the method and put in the cache.</p>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheableFind {
+
+    /**
+     * @return name of the cache region of the found object, configured under <i>sakujj.cache.regions.&lt;name></i>
+     */
+    String cache() default CacheManager.DEFAULT_CACHE;
+
+    /**
+     * @return tags of the result, invalidated by the methods annotated with {@link CacheableInvalidatePages}
+     */
+    String[] tags();
+
+    /**
+     * @return SpEL expression of the key, built from the arguments by name, e.g. <i>{#series, #number}</i>.
+     * By default, all the arguments
+     */
+    String key() default "";
+
+    /**
+     * @return name of a {@link org.springframework.cache.interceptor.KeyGenerator} bean building the key,
+     * exclusive with {@link #key()}
+     */
+    String keyGenerator() default "";
+}
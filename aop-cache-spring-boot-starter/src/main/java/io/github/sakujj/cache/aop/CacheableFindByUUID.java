@@ -1,16 +1,36 @@
 package io.github.sakujj.cache.aop;
 
+import io.github.sakujj.cache.CacheManager;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * <p>Used on methods of a pattern : <i>public Optional&lt;T> *(java.lang.UUID),</p>
+ * <p>Used on methods of a pattern : <i>public Optional&lt;T> *(..),</p>
  * <p>where T extends {@link io.github.sakujj.cache.IdentifiableByUUID}</i>,</p>
- * <p>to find an object from a cache. If empty, try to find using the method and put in the cache.</p>
+ * <p>to find an object from a cache by the uuid argument, or by the uuid built by the key expression.
+ * If empty, try to find using the method and put in the cache.</p>
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface CacheableFindByUUID {
+
+    /**
+     * @return name of the cache region, configured under <i>sakujj.cache.regions.&lt;name></i>
+     */
+    String cache() default CacheManager.DEFAULT_CACHE;
+
+    /**
+     * @return SpEL expression of the uuid, built from the arguments by name, e.g. <i>#request.uuid</i>.
+     * By default, the uuid argument
+     */
+    String key() default "";
+
+    /**
+     * @return name of a {@link org.springframework.cache.interceptor.KeyGenerator} bean building the uuid,
+     * exclusive with {@link #key()}
+     */
+    String keyGenerator() default "";
 }
@@ -0,0 +1,42 @@
+package io.github.sakujj.cache.aop;
+
+import io.github.sakujj.cache.CacheManager;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Used on methods of a pattern : <i>public Page&lt;T> *(..., org.springframework.data.domain.Pageable),</p>
+ * <p>where T extends {@link io.github.sakujj.cache.IdentifiableByUUID}</i>,</p>
+ * <p>to find a page by the arguments of the method from a cache. The page is stored as the uuids of its content,
+ * the content itself is put in and resolved through the cache region. If the page is absent, stale,
+ * or some of its content is not in the region anymore, find using the method and put in the cache.</p>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheableFindPage {
+
+    /**
+     * @return name of the cache region of the page content, configured under <i>sakujj.cache.regions.&lt;name></i>
+     */
+    String cache() default CacheManager.DEFAULT_CACHE;
+
+    /**
+     * @return tags of the page, invalidated by the methods annotated with {@link CacheableInvalidatePages}
+     */
+    String[] tags();
+
+    /**
+     * @return SpEL expression of the key of the page, built from the arguments by name,
+     * e.g. <i>{#houseUuid, #pageable}</i>. It should include the pageable. By default, all the arguments
+     */
+    String key() default "";
+
+    /**
+     * @return name of a {@link org.springframework.cache.interceptor.KeyGenerator} bean building the key,
+     * exclusive with {@link #key()}
+     */
+    String keyGenerator() default "";
+}
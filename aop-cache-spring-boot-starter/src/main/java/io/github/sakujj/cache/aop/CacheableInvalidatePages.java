@@ -0,0 +1,20 @@
+package io.github.sakujj.cache.aop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Used on methods changing the results of the methods annotated with {@link CacheableFindPage},</p>
+ * <p>to invalidate the cached pages with any of the specified tags.</p>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheableInvalidatePages {
+
+    /**
+     * @return tags of the pages to invalidate
+     */
+    String[] tags();
+}
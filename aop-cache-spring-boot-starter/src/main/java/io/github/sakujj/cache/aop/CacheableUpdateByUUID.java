@@ -1,5 +1,7 @@
 package io.github.sakujj.cache.aop;
 
+import io.github.sakujj.cache.CacheManager;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -13,4 +15,21 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface CacheableUpdateByUUID {
+
+    /**
+     * @return name of the cache region, configured under <i>sakujj.cache.regions.&lt;name></i>
+     */
+    String cache() default CacheManager.DEFAULT_CACHE;
+
+    /**
+     * @return SpEL expression of the uuid to lock the update on, built from the arguments by name,
+     * e.g. <i>#request.uuid</i>. By default, the uuid argument, if any
+     */
+    String key() default "";
+
+    /**
+     * @return name of a {@link org.springframework.cache.interceptor.KeyGenerator} bean building the uuid,
+     * exclusive with {@link #key()}
+     */
+    String keyGenerator() default "";
 }
@@ -0,0 +1,187 @@
+package io.github.sakujj.cache.aop;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.IdentifiableByUUID;
+import io.github.sakujj.cache.invalidation.InvalidationPublisher;
+import io.github.sakujj.cache.page.CachedPage;
+import io.github.sakujj.cache.page.PageCache;
+import io.github.sakujj.cache.page.PageKey;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * <p>Caches the pages of the methods annotated with {@link CacheableFindPage}, and the results
+ * of the methods annotated with {@link CacheableFind} as pages of at most one element,
+ * and invalidates them by tag on the calls of the methods annotated with {@link CacheableInvalidatePages}.</p>
+ * <p>A result is keyed by the method and all its arguments, unless the annotation declares
+ * a key expression or a key generator, resolved by the {@link CacheKeyResolver}.</p>
+ * <p>Tags are invalidated before the call of the advised method, and again once the transaction of the method commits,
+ * or once the method returns if it runs without a transaction, so that a page loaded before the changes are visible
+ * is not kept as current, and neither is its content put in the cache region.
+ * A rolled back transaction leaves the pages loaded meanwhile current, as they hold the state kept by the rollback.
+ * The invalidated tags are published to the {@link InvalidationPublisher} at the same time as the second invalidation.</p>
+ */
+@Slf4j
+@Aspect
+@RequiredArgsConstructor
+public class PageCacheAspect {
+
+    private final CacheManager cacheManager;
+
+    private final PageCache pageCache;
+
+    private final CacheKeyResolver cacheKeyResolver;
+
+    private final InvalidationPublisher invalidationPublisher;
+
+    @Around("@annotation(cacheableFind)")
+    public Object find(ProceedingJoinPoint pjp, CacheableFind cacheableFind) throws Throwable {
+        log.info("PageCacheAspect find method was invoked");
+
+        Cache<UUID, IdentifiableByUUID> cache = cacheManager.getCache(cacheableFind.cache());
+        PageKey key = resolveKey(pjp, cacheableFind, cacheableFind.key(), cacheableFind.keyGenerator());
+
+        Optional<Page<IdentifiableByUUID>> cachedResult = pageCache.get(key)
+                .flatMap(page -> resolve(page, cache));
+        if (cachedResult.isPresent()) {
+            return cachedResult.get().stream().findFirst();
+        }
+
+        List<String> tags = List.of(cacheableFind.tags());
+        long[] tagVersions = pageCache.getVersions(tags);
+
+        Object pjpResult = pjp.proceed();
+        if (!(pjpResult instanceof Optional<?> optionalResult)) {
+
+            throw new RuntimeException("An incorrect usage of @CacheableFind " +
+                    ": find method should return Optional<T>, where T is io.github.sakujj.cache.IdentifiableByUUID");
+        }
+
+        if (optionalResult.isPresent() && !(optionalResult.get() instanceof IdentifiableByUUID)) {
+
+            throw new RuntimeException("An incorrect usage of @CacheableFind " +
+                    ": cached object should be an instance of io.github.sakujj.cache.IdentifiableByUUID");
+        }
+
+        if (pageCache.isCurrent(tags, tagVersions)) {
+            List<UUID> uuids = optionalResult
+                    .map(result -> (IdentifiableByUUID) result)
+                    .map(identifiable -> {
+                        cache.addOrUpdate(identifiable.getUuid(), identifiable);
+                        return List.of(identifiable.getUuid());
+                    })
+                    .orElse(List.of());
+
+            pageCache.put(key, new CachedPage(uuids, Pageable.unpaged(), uuids.size(), tags, tagVersions));
+        }
+
+        return pjpResult;
+    }
+
+    @Around("@annotation(cacheableFindPage)")
+    public Object findPage(ProceedingJoinPoint pjp, CacheableFindPage cacheableFindPage) throws Throwable {
+        log.info("PageCacheAspect find page method was invoked");
+
+        Cache<UUID, IdentifiableByUUID> cache = cacheManager.getCache(cacheableFindPage.cache());
+        PageKey key = resolveKey(pjp, cacheableFindPage, cacheableFindPage.key(), cacheableFindPage.keyGenerator());
+
+        Optional<Page<IdentifiableByUUID>> cachedPage = pageCache.get(key)
+                .flatMap(page -> resolve(page, cache));
+        if (cachedPage.isPresent()) {
+            return cachedPage.get();
+        }
+
+        List<String> tags = List.of(cacheableFindPage.tags());
+        long[] tagVersions = pageCache.getVersions(tags);
+
+        Object pjpResult = pjp.proceed();
+        if (!(pjpResult instanceof Page<?> page)) {
+
+            throw new RuntimeException("An incorrect usage of @CacheableFindPage " +
+                    ": find method should return Page<T>, where T is io.github.sakujj.cache.IdentifiableByUUID");
+        }
+
+        // a query may return the same entity more than once, e.g. a house lived in twice
+        List<UUID> uuids = new ArrayList<>(page.getNumberOfElements());
+        Map<UUID, IdentifiableByUUID> contentByUUID = new LinkedHashMap<>();
+        for (Object element : page.getContent()) {
+            if (!(element instanceof IdentifiableByUUID identifiable)) {
+
+                throw new RuntimeException("An incorrect usage of @CacheableFindPage " +
+                        ": cached object should be an instance of io.github.sakujj.cache.IdentifiableByUUID");
+            }
+
+            uuids.add(identifiable.getUuid());
+            contentByUUID.put(identifiable.getUuid(), identifiable);
+        }
+
+        if (pageCache.isCurrent(tags, tagVersions)) {
+            cache.addOrUpdateAll(contentByUUID);
+            pageCache.put(key, new CachedPage(uuids,
+                    page.getPageable(),
+                    page.getTotalElements(),
+                    tags,
+                    tagVersions));
+        }
+
+        return pjpResult;
+    }
+
+    @Around("@annotation(cacheableInvalidatePages)")
+    public Object invalidatePages(ProceedingJoinPoint pjp, CacheableInvalidatePages cacheableInvalidatePages) throws Throwable {
+        log.info("PageCacheAspect invalidate pages method was invoked");
+
+        List<String> tags = List.of(cacheableInvalidatePages.tags());
+
+        pageCache.invalidate(tags);
+        try {
+            return pjp.proceed();
+        } finally {
+            AfterCommit.run(() -> {
+                pageCache.invalidate(tags);
+                invalidationPublisher.publishTags(tags);
+            });
+        }
+    }
+
+    private PageKey resolveKey(ProceedingJoinPoint pjp, Annotation annotation, String key, String keyGenerator) {
+        Object resolved = cacheKeyResolver.resolve(pjp, annotation, key, keyGenerator, Arrays::asList);
+
+        return new PageKey(pjp.getSignature().toLongString(), resolved);
+    }
+
+    /**
+     * Used to get the content of a page from the cache region, in a single batch lookup.
+     *
+     * @return the page, empty if some of its content is not in the region anymore
+     */
+    private static Optional<Page<IdentifiableByUUID>> resolve(CachedPage page, Cache<UUID, IdentifiableByUUID> cache) {
+        Cache.BulkLookup<UUID, IdentifiableByUUID> lookup = cache.getAllById(page.uuids());
+        if (!lookup.missing().isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<IdentifiableByUUID> content = new ArrayList<>(page.uuids().size());
+        for (UUID uuid : page.uuids()) {
+            content.add(lookup.found().get(uuid));
+        }
+
+        return Optional.of(new PageImpl<>(content, page.pageable(), page.totalElements()));
+    }
+}
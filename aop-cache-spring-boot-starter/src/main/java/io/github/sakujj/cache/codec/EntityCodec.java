@@ -0,0 +1,46 @@
+package io.github.sakujj.cache.codec;
+
+import io.github.sakujj.cache.IdentifiableByUUID;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Encodes cached entities to bytes and back, for the caches that keep entities outside of the Java heap.</p>
+ * <p>Can be replaced by a bean of this type.</p>
+ */
+public interface EntityCodec {
+
+    /**
+     * @param identifiableByUUID entity to encode
+     * @return encoded entity
+     */
+    byte[] encode(IdentifiableByUUID identifiableByUUID);
+
+    /**
+     * Used to decode an entity from the remaining bytes of a buffer.
+     *
+     * @param buffer buffer positioned at the start of the encoded entity
+     * @return decoded entity
+     */
+    IdentifiableByUUID decode(ByteBuffer buffer);
+
+    /**
+     * Used to encode an entity so that it can be decoded by another codec instance, e.g. after a restart.
+     *
+     * @param identifiableByUUID entity to encode
+     * @return encoded entity
+     */
+    default byte[] encodePortable(IdentifiableByUUID identifiableByUUID) {
+        return encode(identifiableByUUID);
+    }
+
+    /**
+     * Used to decode an entity encoded by {@link #encodePortable(IdentifiableByUUID)}.
+     *
+     * @param buffer buffer positioned at the start of the encoded entity
+     * @return decoded entity
+     */
+    default IdentifiableByUUID decodePortable(ByteBuffer buffer) {
+        return decode(buffer);
+    }
+}
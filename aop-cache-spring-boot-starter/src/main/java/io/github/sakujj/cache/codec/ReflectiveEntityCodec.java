@@ -0,0 +1,627 @@
+package io.github.sakujj.cache.codec;
+
+import io.github.sakujj.cache.IdentifiableByUUID;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>Encodes flat entities field by field, without any per-class configuration.</p>
+ * <p>Supported field types are primitives and their wrappers, {@link String}, {@link UUID}, {@link BigDecimal},
+ * enums, {@link LocalDate}, {@link LocalTime}, {@link LocalDateTime} and {@link Instant}.
+ * An entity is instantiated either through a no-args constructor, after which its fields are set,
+ * or through a constructor taking all the fields in declaration order, e.g. the one generated by Lombok's
+ * {@code @Builder} or {@code @AllArgsConstructor}.</p>
+ * <p>Encoded form : class id, a bitmap of null fields, then the non-null field values.
+ * Class ids are assigned by this codec instance, so the bytes can only be decoded by the same instance.
+ * The portable form has the class name and a fingerprint of the names and types of the fields instead of the class id :
+ * an entity encoded before the fields of its class were changed is rejected rather than decoded into the wrong fields,
+ * and only the classes implementing {@link IdentifiableByUUID} are decoded.</p>
+ * <p>Optionally, the configured string fields of the encoded form are dictionary-encoded : each of them has its own
+ * append-only dictionary of up to {@code maxDictionarySize} values, learned from the encoded entities.
+ * A string found in the dictionary is written as its index, so a low-cardinality field, e.g. a country or a city,
+ * takes one or two bytes, and the decoded entities share the dictionary instances of its strings.
+ * Once a dictionary is full, the new values are written inline, so only the fields with few distinct values
+ * should be configured : the dictionary of a high-cardinality field is filled by the first values
+ * and never released. The portable form is never dictionary-encoded.</p>
+ */
+public class ReflectiveEntityCodec implements EntityCodec {
+    private static final int MAX_DECODE_BUFFER_SIZE = 8192;
+
+    private final ConcurrentHashMap<Class<?>, ClassCodec> codecsByClass = new ConcurrentHashMap<>();
+    private final List<ClassCodec> codecsById = new CopyOnWriteArrayList<>();
+    private final Set<String> dictionaryFields;
+    private final int maxDictionarySize;
+    private final ThreadLocal<byte[]> decodeBuffers;
+
+    public ReflectiveEntityCodec() {
+        this(Set.of(), 0, false);
+    }
+
+    /**
+     * @param dictionaryFields  names of the string fields to dictionary-encode, in any encoded class
+     * @param maxDictionarySize maximum number of values in the dictionary of a field, 0 to disable dictionaries
+     * @param usesDecodeBuffers whether the strings read from direct buffers, e.g. off-heap, are decoded through
+     *                          a buffer reused by the thread instead of a temporary array per string
+     */
+    public ReflectiveEntityCodec(Set<String> dictionaryFields, int maxDictionarySize, boolean usesDecodeBuffers) {
+        this.dictionaryFields = Set.copyOf(dictionaryFields);
+        this.maxDictionarySize = maxDictionarySize;
+        decodeBuffers = usesDecodeBuffers
+                ? ThreadLocal.withInitial(() -> new byte[256])
+                : null;
+    }
+
+    @Override
+    public byte[] encode(IdentifiableByUUID identifiableByUUID) {
+        ClassCodec classCodec = classCodecOf(identifiableByUUID.getClass());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            writeVarInt(out, classCodec.id);
+            classCodec.encode(identifiableByUUID, out, classCodec.compactFieldTypes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public IdentifiableByUUID decode(ByteBuffer buffer) {
+        int classId = readVarInt(buffer);
+        ClassCodec classCodec = codecsById.get(classId);
+        return (IdentifiableByUUID) classCodec.decode(buffer, classCodec.compactFieldTypes);
+    }
+
+    @Override
+    public byte[] encodePortable(IdentifiableByUUID identifiableByUUID) {
+        ClassCodec classCodec = classCodecOf(identifiableByUUID.getClass());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(192);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            byte[] className = identifiableByUUID.getClass().getName().getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, className.length);
+            out.write(className);
+            out.writeLong(classCodec.layoutFingerprint);
+            classCodec.encode(identifiableByUUID, out, classCodec.fieldTypes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the class of the entity is missing, is not an {@link IdentifiableByUUID}
+     *                                  or its fields changed since the entity was encoded
+     */
+    @Override
+    public IdentifiableByUUID decodePortable(ByteBuffer buffer) {
+        int classNameLength = readVarInt(buffer);
+        if (classNameLength < 0 || classNameLength > buffer.remaining()) {
+            throw new IllegalArgumentException("Can not decode an entity : unexpected class name length " + classNameLength);
+        }
+        byte[] className = new byte[classNameLength];
+        buffer.get(className);
+
+        Class<?> type;
+        try {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader() != null
+                    ? Thread.currentThread().getContextClassLoader()
+                    : ReflectiveEntityCodec.class.getClassLoader();
+            type = Class.forName(new String(className, StandardCharsets.UTF_8), false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Can not decode an instance of a missing class", e);
+        }
+
+        if (!IdentifiableByUUID.class.isAssignableFrom(type)) {
+            throw new IllegalArgumentException("Can not decode an instance of " + type.getName()
+                    + " : it is not an " + IdentifiableByUUID.class.getSimpleName());
+        }
+
+        ClassCodec classCodec = classCodecOf(type);
+        if (buffer.getLong() != classCodec.layoutFingerprint) {
+            throw new IllegalArgumentException("Can not decode an instance of " + type.getName()
+                    + " : its fields changed since it was encoded");
+        }
+        return (IdentifiableByUUID) classCodec.decode(buffer, classCodec.fieldTypes);
+    }
+
+    private ClassCodec classCodecOf(Class<?> type) {
+        ClassCodec classCodec = codecsByClass.get(type);
+        if (classCodec != null) {
+            return classCodec;
+        }
+
+        synchronized (codecsById) {
+            return codecsByClass.computeIfAbsent(type, t -> {
+                ClassCodec created = new ClassCodec(codecsById.size(), t, dictionaryFields, maxDictionarySize, decodeBuffers);
+                codecsById.add(created);
+                return created;
+            });
+        }
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads the string from the backing array of a heap buffer without copying it,
+     * and through the buffer of the thread, if any, from a direct buffer.
+     */
+    static String readString(ByteBuffer buffer, int length, ThreadLocal<byte[]> decodeBuffers) {
+        if (buffer.hasArray()) {
+            int position = buffer.position();
+            buffer.position(position + length);
+            return new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+        }
+
+        byte[] bytes;
+        if (decodeBuffers != null && length <= MAX_DECODE_BUFFER_SIZE) {
+            bytes = decodeBuffers.get();
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+                decodeBuffers.set(bytes);
+            }
+        } else {
+            bytes = new byte[length];
+        }
+
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static class ClassCodec {
+        private final int id;
+        private final Field[] fields;
+        private final FieldType[] fieldTypes;
+        private final FieldType[] compactFieldTypes;
+        private final Constructor<?> noArgsConstructor;
+        private final Constructor<?> allArgsConstructor;
+        private final long layoutFingerprint;
+
+        private ClassCodec(int id,
+                           Class<?> type,
+                           Set<String> dictionaryFields,
+                           int maxDictionarySize,
+                           ThreadLocal<byte[]> decodeBuffers) {
+            this.id = id;
+
+            List<Field> instanceFields = new ArrayList<>();
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+                if (!field.trySetAccessible()) {
+                    throw new IllegalArgumentException("Can not access field " + field + " to encode " + type);
+                }
+                instanceFields.add(field);
+            }
+
+            fields = instanceFields.toArray(Field[]::new);
+            fieldTypes = Arrays.stream(fields)
+                    .map(field -> FieldType.of(field.getType(), field))
+                    .toArray(FieldType[]::new);
+            compactFieldTypes = Arrays.stream(fields)
+                    .map(field -> field.getType() != String.class
+                            ? FieldType.of(field.getType(), field)
+                            : maxDictionarySize > 0 && dictionaryFields.contains(field.getName())
+                            ? new DictionaryStringType(maxDictionarySize, decodeBuffers)
+                            : new StringType(decodeBuffers))
+                    .toArray(FieldType[]::new);
+
+            Class<?>[] parameterTypes = Arrays.stream(fields)
+                    .map(Field::getType)
+                    .toArray(Class<?>[]::new);
+            layoutFingerprint = fingerprintOf(fields);
+            noArgsConstructor = findAccessibleConstructor(type);
+            allArgsConstructor = findAccessibleConstructor(type, parameterTypes);
+
+            if (noArgsConstructor == null && allArgsConstructor == null) {
+                throw new IllegalArgumentException("Can not encode " + type
+                        + " : it should have a no-args constructor or a constructor taking all the fields in declaration order");
+            }
+        }
+
+        private void encode(Object entity, DataOutputStream out, FieldType[] fieldTypes) throws IOException {
+            Object[] values = new Object[fields.length];
+            byte[] nulls = new byte[(fields.length + 7) / 8];
+
+            for (int i = 0; i < fields.length; i++) {
+                values[i] = readField(fields[i], entity);
+                if (values[i] == null) {
+                    nulls[i >>> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+
+            out.write(nulls);
+            for (int i = 0; i < fields.length; i++) {
+                if (values[i] != null) {
+                    fieldTypes[i].write(out, values[i]);
+                }
+            }
+        }
+
+        private Object decode(ByteBuffer buffer, FieldType[] fieldTypes) {
+            byte[] nulls = new byte[(fields.length + 7) / 8];
+            buffer.get(nulls);
+
+            Object[] values = new Object[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                boolean isNull = (nulls[i >>> 3] & (1 << (i & 7))) != 0;
+                values[i] = isNull
+                        ? null
+                        : fieldTypes[i].read(buffer);
+            }
+
+            try {
+                if (allArgsConstructor != null) {
+                    return allArgsConstructor.newInstance(values);
+                }
+
+                Object entity = noArgsConstructor.newInstance();
+                for (int i = 0; i < fields.length; i++) {
+                    if (values[i] != null) {
+                        fields[i].set(entity, values[i]);
+                    }
+                }
+                return entity;
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Can not decode an instance of " + fields[0].getDeclaringClass(), e);
+            }
+        }
+
+        /**
+         * Hashes the names and the types of the fields in declaration order, and the constants of the enum fields,
+         * which are encoded by ordinal.
+         */
+        private static long fingerprintOf(Field[] fields) {
+            StringBuilder layout = new StringBuilder();
+            for (Field field : fields) {
+                layout.append(field.getName()).append(':').append(field.getType().getName());
+                if (field.getType().isEnum()) {
+                    for (Object constant : field.getType().getEnumConstants()) {
+                        layout.append(',').append(((Enum<?>) constant).name());
+                    }
+                }
+                layout.append(';');
+            }
+
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256")
+                        .digest(layout.toString().getBytes(StandardCharsets.UTF_8));
+                return ByteBuffer.wrap(digest).getLong();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("Can not fingerprint the fields of " + fields[0].getDeclaringClass(), e);
+            }
+        }
+
+        private static Object readField(Field field, Object entity) {
+            try {
+                return field.get(entity);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Can not read field " + field, e);
+            }
+        }
+
+        private static Constructor<?> findAccessibleConstructor(Class<?> type, Class<?>... parameterTypes) {
+            try {
+                Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+                return constructor.trySetAccessible()
+                        ? constructor
+                        : null;
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    }
+
+    private interface FieldType {
+        void write(DataOutputStream out, Object value) throws IOException;
+
+        Object read(ByteBuffer buffer);
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        static FieldType of(Class<?> type, Field field) {
+            if (type == String.class) {
+                return new StringType(null);
+            }
+            if (type == UUID.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeLong(((UUID) value).getMostSignificantBits());
+                        out.writeLong(((UUID) value).getLeastSignificantBits());
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return new UUID(buffer.getLong(), buffer.getLong());
+                    }
+                };
+            }
+            if (type == LocalDateTime.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeLong(((LocalDateTime) value).toLocalDate().toEpochDay());
+                        out.writeLong(((LocalDateTime) value).toLocalTime().toNanoOfDay());
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return LocalDateTime.of(LocalDate.ofEpochDay(buffer.getLong()), LocalTime.ofNanoOfDay(buffer.getLong()));
+                    }
+                };
+            }
+            if (type == LocalDate.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeLong(((LocalDate) value).toEpochDay());
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return LocalDate.ofEpochDay(buffer.getLong());
+                    }
+                };
+            }
+            if (type == LocalTime.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeLong(((LocalTime) value).toNanoOfDay());
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return LocalTime.ofNanoOfDay(buffer.getLong());
+                    }
+                };
+            }
+            if (type == Instant.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeLong(((Instant) value).getEpochSecond());
+                        out.writeInt(((Instant) value).getNano());
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+                    }
+                };
+            }
+            if (type == BigDecimal.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeUTF(value.toString());
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+                        buffer.get(bytes);
+                        return new BigDecimal(new String(bytes, StandardCharsets.UTF_8));
+                    }
+                };
+            }
+            if (type.isEnum()) {
+                Object[] constants = type.getEnumConstants();
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        writeVarInt(out, ((Enum) value).ordinal());
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return constants[readVarInt(buffer)];
+                    }
+                };
+            }
+            if (type == Integer.class || type == int.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeInt((Integer) value);
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return buffer.getInt();
+                    }
+                };
+            }
+            if (type == Long.class || type == long.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeLong((Long) value);
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return buffer.getLong();
+                    }
+                };
+            }
+            if (type == Double.class || type == double.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeDouble((Double) value);
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return buffer.getDouble();
+                    }
+                };
+            }
+            if (type == Float.class || type == float.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeFloat((Float) value);
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return buffer.getFloat();
+                    }
+                };
+            }
+            if (type == Short.class || type == short.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeShort((Short) value);
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return buffer.getShort();
+                    }
+                };
+            }
+            if (type == Character.class || type == char.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeChar((Character) value);
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return buffer.getChar();
+                    }
+                };
+            }
+            if (type == Byte.class || type == byte.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeByte((Byte) value);
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return buffer.get();
+                    }
+                };
+            }
+            if (type == Boolean.class || type == boolean.class) {
+                return new FieldType() {
+                    public void write(DataOutputStream out, Object value) throws IOException {
+                        out.writeBoolean((Boolean) value);
+                    }
+
+                    public Object read(ByteBuffer buffer) {
+                        return buffer.get() != 0;
+                    }
+                };
+            }
+
+            throw new IllegalArgumentException("Unsupported type of field " + field);
+        }
+    }
+
+    /**
+     * Writes a string as the length of its UTF-8 bytes followed by these bytes.
+     */
+    private static class StringType implements FieldType {
+        private final ThreadLocal<byte[]> decodeBuffers;
+
+        private StringType(ThreadLocal<byte[]> decodeBuffers) {
+            this.decodeBuffers = decodeBuffers;
+        }
+
+        @Override
+        public void write(DataOutputStream out, Object value) throws IOException {
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer) {
+            return readString(buffer, readVarInt(buffer), decodeBuffers);
+        }
+    }
+
+    /**
+     * <p>Writes a string as a single varint header : the index in the dictionary shifted left with the lowest bit set,
+     * or the length of the inline UTF-8 bytes shifted left, followed by these bytes.</p>
+     * <p>A value is put in the dictionary before its index is published, so a concurrent decoder
+     * always finds the values of the indexes it reads.</p>
+     */
+    private static class DictionaryStringType implements FieldType {
+        private final int maxDictionarySize;
+        private final ThreadLocal<byte[]> decodeBuffers;
+        private final ConcurrentHashMap<String, Integer> indexesByValue = new ConcurrentHashMap<>();
+        private final List<String> values = new CopyOnWriteArrayList<>();
+
+        private DictionaryStringType(int maxDictionarySize, ThreadLocal<byte[]> decodeBuffers) {
+            this.maxDictionarySize = maxDictionarySize;
+            this.decodeBuffers = decodeBuffers;
+        }
+
+        @Override
+        public void write(DataOutputStream out, Object value) throws IOException {
+            String string = (String) value;
+
+            Integer index = indexesByValue.get(string);
+            if (index == null && values.size() < maxDictionarySize) {
+                index = addToDictionary(string);
+            }
+
+            if (index != null) {
+                writeVarInt(out, index << 1 | 1);
+                return;
+            }
+
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length << 1);
+            out.write(bytes);
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer) {
+            int header = readVarInt(buffer);
+            return (header & 1) != 0
+                    ? values.get(header >>> 1)
+                    : readString(buffer, header >>> 1, decodeBuffers);
+        }
+
+        private Integer addToDictionary(String string) {
+            synchronized (values) {
+                Integer index = indexesByValue.get(string);
+                if (index != null || values.size() >= maxDictionarySize) {
+                    return index;
+                }
+
+                values.add(string);
+                index = values.size() - 1;
+                indexesByValue.put(string, index);
+                return index;
+            }
+        }
+    }
+}
\ No newline at end of file
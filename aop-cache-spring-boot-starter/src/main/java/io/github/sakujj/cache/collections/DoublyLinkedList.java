@@ -2,20 +2,21 @@ package io.github.sakujj.cache.collections;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
 
 import java.util.Objects;
-import java.util.function.Predicate;
+import java.util.function.BiConsumer;
 
-public class DoublyLinkedList<T> {
+public class DoublyLinkedList<K, T> {
     private static final String MESSAGE_ON_EMPTY = "DLList is empty";
 
-    Node<T> head;
-    Node<T> tail;
+    Node<K, T> head;
+    Node<K, T> tail;
     @Getter
     int size = 0;
 
-    public Node<T> addFirst(T value) {
-        Node<T> nodeToAdd = new Node<>(value);
+    public Node<K, T> addFirst(K key, T value) {
+        Node<K, T> nodeToAdd = new Node<>(key, value);
         size++;
 
         if (head == null && tail == null) {
@@ -30,7 +31,7 @@ public class DoublyLinkedList<T> {
         return nodeToAdd;
     }
 
-    public void addNodeFirst(Node<T> nodeToAdd) {
+    public void addNodeFirst(Node<K, T> nodeToAdd) {
         size++;
 
         if (head == null && tail == null) {
@@ -53,6 +54,14 @@ public class DoublyLinkedList<T> {
         return tail.value;
     }
 
+    public Node<K, T> getLastNode() {
+        if (tail == null) {
+            throw new IllegalStateException(MESSAGE_ON_EMPTY);
+        }
+
+        return tail;
+    }
+
     public T getFirst() {
         if (head == null) {
             throw new IllegalStateException(MESSAGE_ON_EMPTY);
@@ -69,25 +78,23 @@ public class DoublyLinkedList<T> {
         removeNode(tail);
     }
 
-    public void removeByCondition(Predicate<T> removePredicate) {
-        var curNode = head;
-        while (curNode != null) {
-            if (!removePredicate.test(curNode.value)) {
-                curNode = curNode.next;
-                continue;
-            }
-
-            var nodeToRemove = curNode;
-            curNode = curNode.next;
-            removeNode(nodeToRemove);
+    public void forEach(BiConsumer<K, T> consumer) {
+        for (var curNode = head; curNode != null; curNode = curNode.next) {
+            consumer.accept(curNode.key, curNode.value);
         }
     }
 
-    public void removeNode(Node<T> node) {
+    public void clear() {
+        head = null;
+        tail = null;
+        size = 0;
+    }
+
+    public void removeNode(Node<K, T> node) {
         Objects.requireNonNull(node);
 
-        Node<T> next = node.next;
-        Node<T> prev = node.prev;
+        Node<K, T> next = node.next;
+        Node<K, T> prev = node.prev;
 
         node.next = null;
         node.prev = null;
@@ -119,14 +126,22 @@ public class DoublyLinkedList<T> {
     }
 
     @EqualsAndHashCode
-    public static class Node<V> {
-        private Node(V value) {
+    public static class Node<K, V> {
+        private Node(K key, V value) {
+            this.key = key;
             this.value = value;
         }
+        @Getter
+        private final K key;
+        @Getter
         private final V value;
+        @Getter
+        @Setter
+        @EqualsAndHashCode.Exclude
+        private int weight;
         @EqualsAndHashCode.Exclude
-        private Node<V> prev;
+        private Node<K, V> prev;
         @EqualsAndHashCode.Exclude
-        private Node<V> next;
+        private Node<K, V> next;
     }
 }
@@ -0,0 +1,110 @@
+package io.github.sakujj.cache.collections;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * <p>A lossy multiple-producer / single-consumer buffer, striped by thread to reduce contention.</p>
+ * <p>Producers never block : an element is dropped when its stripe is full or contended.
+ * Draining must be done by one thread at a time, i.e. under an external lock.</p>
+ *
+ * @param <T> type of the buffered elements
+ */
+public class StripedRingBuffer<T> {
+
+    private static final int STRIPE_CAPACITY = 16;
+    private static final int STRIPE_MASK = STRIPE_CAPACITY - 1;
+
+    /**
+     * Number of buffered elements in a stripe after which a drain is recommended.
+     */
+    public static final int DRAIN_THRESHOLD = STRIPE_CAPACITY / 2;
+
+    private final Stripe<T>[] stripes;
+    private final int stripesMask;
+
+    @SuppressWarnings("unchecked") // a generic array can not be created, every element is a Stripe<T>
+    public StripedRingBuffer() {
+        int stripeCount = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+
+        stripes = (Stripe<T>[]) new Stripe<?>[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        stripesMask = stripeCount - 1;
+    }
+
+    /**
+     * Used to record an element in the stripe of the current thread.
+     *
+     * @param element element to record
+     * @return true if the stripe is full enough to be drained
+     */
+    public boolean offer(T element) {
+        int stripeIndex = (int) Thread.currentThread().getId() & stripesMask;
+        return stripes[stripeIndex].offer(element) >= DRAIN_THRESHOLD;
+    }
+
+    /**
+     * Used to pass all the recorded elements to the consumer, stripe by stripe.
+     * Must not be called concurrently.
+     *
+     * @param consumer consumer of the recorded elements
+     */
+    public void drainTo(Consumer<T> consumer) {
+        for (Stripe<T> stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+
+    private static class Stripe<T> {
+        private final AtomicReferenceArray<T> elements = new AtomicReferenceArray<>(STRIPE_CAPACITY);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        /**
+         * @return number of elements pending in the stripe, or {@link #STRIPE_CAPACITY} if the element was dropped
+         */
+        private int offer(T element) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+
+            long size = tail - head;
+            if (size >= STRIPE_CAPACITY) {
+                return STRIPE_CAPACITY;
+            }
+
+            if (!writeCounter.compareAndSet(tail, tail + 1)) {
+                return (int) size;
+            }
+
+            elements.lazySet((int) (tail & STRIPE_MASK), element);
+            return (int) size + 1;
+        }
+
+        private void drainTo(Consumer<T> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+
+            for (; head < tail; head++) {
+                int index = (int) (head & STRIPE_MASK);
+
+                T element = elements.get(index);
+                if (element == null) {
+                    // the producer has claimed the slot but not published the element yet
+                    break;
+                }
+
+                elements.lazySet(index, null);
+                consumer.accept(element);
+            }
+
+            readCounter = head;
+        }
+    }
+}
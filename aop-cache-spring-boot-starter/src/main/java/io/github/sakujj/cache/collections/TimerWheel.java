@@ -0,0 +1,241 @@
+package io.github.sakujj.cache.collections;
+
+import java.util.function.Consumer;
+
+/**
+ * <p>A hierarchical timing wheel, used to expire elements in amortized O(1).</p>
+ * <p>Each level is a circular array of buckets, each bucket being a doubly linked list of timers.
+ * A timer is put in the level whose span covers its remaining delay, so that the timers due soon
+ * are kept with a fine resolution and the distant ones with a coarse one.
+ * While the wheel is advanced, the passed buckets are emptied : due timers are expired
+ * and the others are rescheduled into the lower levels.</p>
+ * <p>The resolution of the lowest level is about a second.
+ * Deadlines are read lazily, so a timer can be postponed by changing its deadline without moving it,
+ * it will be rescheduled when its bucket is reached.</p>
+ * <p>Not thread-safe.</p>
+ *
+ * @param <K> type of the elements to expire
+ */
+public class TimerWheel<K> {
+
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    private static final long[] SPANS = {
+            1L << 30, // 1.07s
+            1L << 36, // 1.14m
+            1L << 42, // 1.22h
+            1L << 46, // 0.81d
+            1L << 50, // 13d
+            1L << 50
+    };
+    private static final long[] SHIFTS = {
+            Long.numberOfTrailingZeros(SPANS[0]),
+            Long.numberOfTrailingZeros(SPANS[1]),
+            Long.numberOfTrailingZeros(SPANS[2]),
+            Long.numberOfTrailingZeros(SPANS[3]),
+            Long.numberOfTrailingZeros(SPANS[4])
+    };
+
+    private final Timer<K>[][] wheel;
+    private long nanos;
+
+    /**
+     * @param currentTimeNanos current time, as read from a {@link io.github.sakujj.cache.Ticker}
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long currentTimeNanos) {
+        nanos = currentTimeNanos;
+
+        wheel = (Timer<K>[][]) new Timer<?>[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = (Timer<K>[]) new Timer<?>[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                wheel[i][j] = Timer.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Used to check whether advancing to the specified time would pass at least one bucket.
+     *
+     * @param currentTimeNanos time to check
+     * @return true if {@link #advance(long, Consumer)} has work to do
+     */
+    public boolean isAdvanceNeeded(long currentTimeNanos) {
+        return (currentTimeNanos >>> SHIFTS[0]) != (nanos >>> SHIFTS[0]);
+    }
+
+    /**
+     * Used to add a new timer.
+     *
+     * @param element  element to expire
+     * @param deadline time at which the element expires
+     * @return the timer, to be used to reschedule or deschedule it
+     */
+    public Timer<K> schedule(K element, long deadline) {
+        Timer<K> timer = new Timer<>(element);
+        timer.deadline = deadline;
+
+        link(findBucket(deadline), timer);
+        return timer;
+    }
+
+    /**
+     * Used to move a timer to the bucket corresponding to its new deadline.
+     *
+     * @param timer    scheduled timer
+     * @param deadline new time at which the element expires
+     */
+    public void reschedule(Timer<K> timer, long deadline) {
+        unlink(timer);
+        timer.deadline = deadline;
+        link(findBucket(deadline), timer);
+    }
+
+    /**
+     * Used to remove a timer, if it is still scheduled.
+     *
+     * @param timer timer to remove
+     */
+    public void deschedule(Timer<K> timer) {
+        if (timer.next != null) {
+            unlink(timer);
+        }
+    }
+
+    /**
+     * Used to remove all the timers without expiring them.
+     */
+    public void clear() {
+        for (Timer<K>[] level : wheel) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = Timer.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Used to move the wheel to the specified time, expiring all the timers due by then.
+     *
+     * @param currentTimeNanos time to advance to
+     * @param onExpiration     consumer of the expired elements
+     */
+    public void advance(long currentTimeNanos, Consumer<K> onExpiration) {
+        long previousTimeNanos = nanos;
+        nanos = currentTimeNanos;
+
+        for (int i = 0; i < SHIFTS.length; i++) {
+            long previousTicks = previousTimeNanos >>> SHIFTS[i];
+            long currentTicks = currentTimeNanos >>> SHIFTS[i];
+            if (currentTicks - previousTicks <= 0L) {
+                break;
+            }
+
+            expire(i, previousTicks, currentTicks - previousTicks, onExpiration);
+        }
+    }
+
+    private void expire(int level, long previousTicks, long delta, Consumer<K> onExpiration) {
+        Timer<K>[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+
+        for (int i = start; i < end; i++) {
+            Timer<K> sentinel = buckets[i & mask];
+
+            Timer<K> timer = sentinel.next;
+            sentinel.next = sentinel;
+            sentinel.prev = sentinel;
+
+            while (timer != sentinel) {
+                Timer<K> next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+
+                if (timer.deadline - nanos <= 0L) {
+                    onExpiration.accept(timer.element);
+                } else {
+                    link(findBucket(timer.deadline), timer);
+                }
+
+                timer = next;
+            }
+        }
+    }
+
+    private Timer<K> findBucket(long deadline) {
+        long duration = deadline - nanos;
+        int lastLevel = wheel.length - 1;
+
+        for (int i = 0; i < lastLevel; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = deadline >>> SHIFTS[i];
+                int index = (int) (ticks & (wheel[i].length - 1));
+                return wheel[i][index];
+            }
+        }
+
+        return wheel[lastLevel][0];
+    }
+
+    private static <K> void link(Timer<K> sentinel, Timer<K> timer) {
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+    }
+
+    private static <K> void unlink(Timer<K> timer) {
+        Timer<K> next = timer.next;
+        if (next == null) {
+            return;
+        }
+
+        Timer<K> prev = timer.prev;
+        next.prev = prev;
+        prev.next = next;
+
+        timer.next = null;
+        timer.prev = null;
+    }
+
+    public static class Timer<K> {
+        private final K element;
+        private volatile long deadline;
+        private Timer<K> prev;
+        private Timer<K> next;
+
+        private Timer(K element) {
+            this.element = element;
+        }
+
+        private static <K> Timer<K> sentinel() {
+            Timer<K> sentinel = new Timer<>(null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        public K getElement() {
+            return element;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * Used to postpone the expiration without moving the timer.
+         * The timer is rescheduled lazily, when its current bucket is reached by the wheel.
+         * Safe to call concurrently with the wheel operations.
+         *
+         * @param deadline new deadline, later than the current one
+         */
+        public void setDeadline(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+}
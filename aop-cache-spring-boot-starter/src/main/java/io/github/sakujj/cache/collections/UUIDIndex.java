@@ -0,0 +1,136 @@
+package io.github.sakujj.cache.collections;
+
+import java.util.Arrays;
+
+/**
+ * <p>An open-addressing hash table from UUIDs, stored as their two longs, to non-negative long values.</p>
+ * <p>Keys and values are kept in primitive arrays, so the index creates no objects per entry.
+ * Collisions are resolved by linear probing, and removals shift the following entries back
+ * instead of leaving tombstones, so lookups never degrade over time.</p>
+ * <p>Not thread-safe.</p>
+ */
+public class UUIDIndex {
+
+    public static final long ABSENT = -1L;
+
+    private final long[] mostSignificantBits;
+    private final long[] leastSignificantBits;
+    private final long[] values;
+    private final int mask;
+    private final int maxSize;
+    private int size;
+
+    /**
+     * @param maxSize maximum number of entries, the table is allocated to keep the load factor at most 0.5
+     */
+    public UUIDIndex(int maxSize) {
+        int tableSize = ceilingPowerOfTwo(Math.max(2, maxSize) * 2);
+
+        mostSignificantBits = new long[tableSize];
+        leastSignificantBits = new long[tableSize];
+        values = new long[tableSize];
+        Arrays.fill(values, ABSENT);
+
+        mask = tableSize - 1;
+        this.maxSize = maxSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size >= maxSize;
+    }
+
+    /**
+     * @return the value associated with the key, or {@link #ABSENT}
+     */
+    public long get(long msb, long lsb) {
+        for (int i = indexOf(msb, lsb); values[i] != ABSENT; i = (i + 1) & mask) {
+            if (mostSignificantBits[i] == msb && leastSignificantBits[i] == lsb) {
+                return values[i];
+            }
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Used to associate a value with the key. A new key must not be put while the index is full.
+     *
+     * @param value non-negative value
+     * @return the previous value associated with the key, or {@link #ABSENT}
+     */
+    public long put(long msb, long lsb, long value) {
+        int i = indexOf(msb, lsb);
+        for (; values[i] != ABSENT; i = (i + 1) & mask) {
+            if (mostSignificantBits[i] == msb && leastSignificantBits[i] == lsb) {
+                long previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+
+        if (isFull()) {
+            throw new IllegalStateException("UUIDIndex is full");
+        }
+
+        mostSignificantBits[i] = msb;
+        leastSignificantBits[i] = lsb;
+        values[i] = value;
+        size++;
+        return ABSENT;
+    }
+
+    /**
+     * @return the removed value, or {@link #ABSENT}
+     */
+    public long remove(long msb, long lsb) {
+        int i = indexOf(msb, lsb);
+        for (; values[i] != ABSENT; i = (i + 1) & mask) {
+            if (mostSignificantBits[i] == msb && leastSignificantBits[i] == lsb) {
+                long removed = values[i];
+                shiftBack(i);
+                size--;
+                return removed;
+            }
+        }
+        return ABSENT;
+    }
+
+    public void clear() {
+        Arrays.fill(values, ABSENT);
+        size = 0;
+    }
+
+    private void shiftBack(int emptied) {
+        int hole = emptied;
+        for (int i = (hole + 1) & mask; values[i] != ABSENT; i = (i + 1) & mask) {
+            int home = indexOf(mostSignificantBits[i], leastSignificantBits[i]);
+
+            // the entry can fill the hole only if its home slot is not in the cyclic range (hole, i]
+            boolean canMove = hole <= i
+                    ? home <= hole || home > i
+                    : home <= hole && home > i;
+            if (canMove) {
+                mostSignificantBits[hole] = mostSignificantBits[i];
+                leastSignificantBits[hole] = leastSignificantBits[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = ABSENT;
+    }
+
+    private int indexOf(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.sakujj.cache.invalidation;
+
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.page.PageCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Applies the invalidations received from outside of this node to its cache regions and pages.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Cache of the pages to invalidate, null if pages are not cached.
+     */
+    private final PageCache pageCache;
+
+    /**
+     * Used to evict an entity along with its tombstone, discarding its load in flight. A region that does not exist yet is not created.
+     * The eviction waits for the lock of the entity, so a load that read the entity before the change
+     * and caches it afterwards is evicted too.
+     *
+     * @param cache name of the region
+     * @param uuid  uuid of the entity
+     */
+    public void invalidate(String cache, UUID uuid) {
+        if (!cacheManager.getCaches().containsKey(cache)) {
+            return;
+        }
+
+        cacheManager.lock(cache, uuid);
+        try {
+            cacheManager.getAsyncCache(cache).invalidate(uuid);
+            cacheManager.getNegativeCache(cache)
+                    .ifPresent(tombstones -> tombstones.removeById(uuid));
+        } finally {
+            cacheManager.unlock(cache, uuid);
+        }
+    }
+
+    /**
+     * @param tags tags of the pages to invalidate
+     */
+    public void invalidateTags(Collection<String> tags) {
+        if (!tags.isEmpty() && pageCache != null) {
+            pageCache.invalidate(List.copyOf(tags));
+        }
+    }
+
+    /**
+     * Used to clear all the regions and pages, when some invalidations could have been missed.
+     */
+    public void clearAll() {
+        log.info("Clearing the cache : invalidations could have been missed");
+        cacheManager.clear();
+        if (pageCache != null) {
+            pageCache.clear();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.sakujj.cache.invalidation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * <p>Invalidations coalesced between two sends to a peer : an entity changed several times is sent once.</p>
+ * <p>Invalidations are idempotent and their order does not matter, so batches are merged by union.
+ * A batch that grew too large is replaced by a single clear, which also covers
+ * all the invalidations added to it afterwards, since they are applied no earlier than it is.</p>
+ */
+class InvalidationBatch {
+    private static final int MAX_SERIALIZED_COUNT = 1 << 20;
+    private static final int MIN_MAX_SERIALIZED_SIZE = 1 << 20;
+    private static final int MAX_SERIALIZED_INVALIDATION_SIZE = 64;
+
+    private final Set<Entity> entities = new LinkedHashSet<>();
+    private final Set<String> tags = new LinkedHashSet<>();
+    private boolean isClear;
+
+    void add(String cache, UUID uuid) {
+        if (!isClear) {
+            entities.add(new Entity(cache, uuid));
+        }
+    }
+
+    void addTags(Collection<String> tags) {
+        if (!isClear) {
+            this.tags.addAll(tags);
+        }
+    }
+
+    void addAll(InvalidationBatch other) {
+        if (other.isClear) {
+            clear();
+            return;
+        }
+
+        other.entities.forEach(entity -> add(entity.cache(), entity.uuid()));
+        addTags(other.tags);
+    }
+
+    /**
+     * Used to replace the batch by a clear of all the regions and pages.
+     */
+    void clear() {
+        isClear = true;
+        entities.clear();
+        tags.clear();
+    }
+
+    int size() {
+        return entities.size() + tags.size();
+    }
+
+    boolean isEmpty() {
+        return !isClear && size() == 0;
+    }
+
+    /**
+     * Used to bound the batches on both ends : a larger one is replaced by a clear before it is sent,
+     * and rejected by the receiver.
+     *
+     * @param maxInvalidations number of invalidations above which a batch is replaced by a clear
+     * @return maximum size of a serialized batch, at least 1 MiB
+     */
+    static int maxSerializedSize(int maxInvalidations) {
+        return (int) Math.min(Integer.MAX_VALUE,
+                Math.max(MIN_MAX_SERIALIZED_SIZE, (long) maxInvalidations * MAX_SERIALIZED_INVALIDATION_SIZE));
+    }
+
+    void applyTo(CacheInvalidator invalidator) {
+        if (isClear) {
+            invalidator.clearAll();
+            return;
+        }
+
+        entities.forEach(entity -> invalidator.invalidate(entity.cache(), entity.uuid()));
+        invalidator.invalidateTags(tags);
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeBoolean(isClear);
+
+        out.writeInt(entities.size());
+        for (Entity entity : entities) {
+            out.writeUTF(entity.cache());
+            out.writeLong(entity.uuid().getMostSignificantBits());
+            out.writeLong(entity.uuid().getLeastSignificantBits());
+        }
+
+        out.writeInt(tags.size());
+        for (String tag : tags) {
+            out.writeUTF(tag);
+        }
+    }
+
+    static InvalidationBatch readFrom(DataInputStream in) throws IOException {
+        InvalidationBatch batch = new InvalidationBatch();
+        if (in.readBoolean()) {
+            batch.clear();
+        }
+
+        int entityCount = readCount(in);
+        for (int i = 0; i < entityCount; i++) {
+            batch.entities.add(new Entity(in.readUTF(), new UUID(in.readLong(), in.readLong())));
+        }
+
+        int tagCount = readCount(in);
+        for (int i = 0; i < tagCount; i++) {
+            batch.tags.add(in.readUTF());
+        }
+
+        return batch;
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > MAX_SERIALIZED_COUNT) {
+            throw new IOException("Corrupted invalidation batch : count " + count);
+        }
+
+        return count;
+    }
+
+    private record Entity(String cache, UUID uuid) {
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.sakujj.cache.invalidation;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publishes the changes made through this node to the other nodes, which evict their copies.
+ * Publishing must not block the caller.
+ */
+public interface InvalidationPublisher {
+
+    /**
+     * @param cache name of the region
+     * @param uuid  uuid of the created, updated or deleted entity
+     */
+    void publish(String cache, UUID uuid);
+
+    /**
+     * @param tags tags of the invalidated pages
+     */
+    void publishTags(List<String> tags);
+
+    /**
+     * @return publisher ignoring the changes, for a single node
+     */
+    static InvalidationPublisher none() {
+        return new InvalidationPublisher() {
+            @Override
+            public void publish(String cache, UUID uuid) {
+            }
+
+            @Override
+            public void publishTags(List<String> tags) {
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.sakujj.cache.invalidation;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * <p>Authenticates the messages between the nodes with an HMAC-SHA256 of a secret shared by all the nodes.</p>
+ * <p>Both ends of a connection send a random nonce on connect, and every message is signed over the two nonces,
+ * in the order of its direction, and its sequence number, so a message can neither be forged without the secret,
+ * nor replayed on another connection, nor sent back to its sender.</p>
+ * <p>The handshake ends with both ends proving the secret by signing an empty message of the sequence
+ * {@link #HANDSHAKE_SEQUENCE}, before any batch is read.</p>
+ */
+class PeerAuthenticator {
+    static final int NONCE_SIZE = 16;
+    static final int MAC_SIZE = 32;
+    // the batches start at 1, so a proof of the handshake can pass neither for a batch nor for an acknowledgement
+    static final long HANDSHAKE_SEQUENCE = 0;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * @param secret secret shared by all the nodes
+     */
+    PeerAuthenticator(String secret) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalArgumentException("Secret shared by the cache peers should not be empty");
+        }
+
+        key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    byte[] newNonce() {
+        byte[] nonce = new byte[NONCE_SIZE];
+        random.nextBytes(nonce);
+        return nonce;
+    }
+
+    /**
+     * @param senderNonce   nonce sent by the sender of the message
+     * @param receiverNonce nonce sent by the receiver of the message
+     * @param sequence      sequence number of the message
+     * @param payload       content of the message
+     * @return the signature of the message
+     */
+    byte[] sign(byte[] senderNonce, byte[] receiverNonce, long sequence, byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(senderNonce);
+            mac.update(receiverNonce);
+            mac.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence).array());
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /**
+     * Compares the signatures in constant time.
+     */
+    boolean verify(byte[] senderNonce, byte[] receiverNonce, long sequence, byte[] payload, byte[] signature) {
+        return MessageDigest.isEqual(sign(senderNonce, receiverNonce, sequence, payload), signature);
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.sakujj.cache.invalidation;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * <p>Provides the addresses of the nodes to publish the invalidations to.</p>
+ * <p>Called periodically, so an implementation backed by a registry should return its current view.
+ * The list may include this node itself, which is recognized and skipped.</p>
+ */
+@FunctionalInterface
+public interface PeerDiscovery {
+
+    /**
+     * @return the current addresses of the peers
+     */
+    List<InetSocketAddress> getPeers();
+}
@@ -0,0 +1,283 @@
+package io.github.sakujj.cache.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Invalidates the cache of the other application nodes on the changes made through this one,
+ * over direct TCP connections between the nodes, without a broker.</p>
+ * <p>Each node listens on a port for the invalidations of its peers, and keeps one connection
+ * to each peer for its own, see {@link PeerSender} for batching and delivery.
+ * The peers are taken from the {@link PeerDiscovery} at startup and then periodically,
+ * a peer that disappeared from it stops receiving invalidations.</p>
+ * <p>As with the database notifications, an entity is evicted on the peers rather than sent to them,
+ * so the bus only carries uuids and tags, and a peer reloads the entity on its next read.
+ * The invalidations are published once the transaction of the advised method commits, so a peer reading the entity
+ * between the commit and the delivery of the batch still gets the old value for that time.</p>
+ * <p>The port is bound to a single address, e.g. loopback or the interface of the cluster network,
+ * and every connection and message is authenticated with the secret shared by the nodes, see {@link PeerAuthenticator} :
+ * a connection not proving the secret within the handshake timeout, or sending a message not signed with it, is closed,
+ * the message being ignored. Nothing a peer sends is buffered before it proves the secret.
+ * The batches are bounded by the maximum of pending invalidations, the connections by a fixed number,
+ * and a connection without even a heartbeat for three heartbeat intervals is closed.</p>
+ */
+@Slf4j
+public class PeerInvalidationBus implements InvalidationPublisher, DisposableBean {
+    private static final Duration DISCOVERY_INTERVAL = Duration.ofSeconds(30);
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+    private static final int IDLE_TIMEOUT_MILLIS = (int) PeerSender.HEARTBEAT_INTERVAL.toMillis() * 3;
+    private static final int MAX_RECEIVING_CONNECTIONS = 64;
+
+    private final CacheInvalidator invalidator;
+    private final PeerDiscovery peerDiscovery;
+    private final PeerAuthenticator authenticator;
+    private final Duration flushInterval;
+    private final int maxPendingInvalidations;
+    private final int maxBatchSize;
+    private final UUID nodeId;
+    private final ServerSocket serverSocket;
+    private final Thread acceptingThread;
+    private final ScheduledExecutorService discoveryScheduler;
+    private final ConcurrentHashMap<InetSocketAddress, PeerSender> sendersByAddress;
+    private final Set<Socket> receivingSockets;
+    private volatile boolean isStopped;
+
+    /**
+     * @param invalidator             invalidator of the cache of this node
+     * @param bindAddress             address to listen on for the invalidations of the peers
+     * @param port                    port to listen on for the invalidations of the peers, 0 for an ephemeral one
+     * @param secret                  secret shared by all the nodes, authenticating their messages
+     * @param peerDiscovery           discovery of the peers
+     * @param flushInterval           time to coalesce the invalidations before a send
+     * @param maxPendingInvalidations number of invalidations pending for an unreachable peer,
+     *                                above which they are replaced by a clear of its cache
+     * @throws IOException if the port could not be bound
+     */
+    public PeerInvalidationBus(CacheInvalidator invalidator,
+                               InetAddress bindAddress,
+                               int port,
+                               String secret,
+                               PeerDiscovery peerDiscovery,
+                               Duration flushInterval,
+                               int maxPendingInvalidations) throws IOException {
+        this.invalidator = invalidator;
+        this.peerDiscovery = peerDiscovery;
+        this.authenticator = new PeerAuthenticator(secret);
+        this.flushInterval = flushInterval;
+        this.maxPendingInvalidations = maxPendingInvalidations;
+        maxBatchSize = InvalidationBatch.maxSerializedSize(maxPendingInvalidations);
+        nodeId = UUID.randomUUID();
+        sendersByAddress = new ConcurrentHashMap<>();
+        receivingSockets = ConcurrentHashMap.newKeySet();
+
+        serverSocket = new ServerSocket(port, 0, bindAddress);
+        log.info("Listening to cache invalidations of the peers on {}", serverSocket.getLocalSocketAddress());
+
+        acceptingThread = new Thread(this::accept, "cache-peer-acceptor");
+        acceptingThread.setDaemon(true);
+        acceptingThread.start();
+
+        discoveryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-peer-discovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = DISCOVERY_INTERVAL.toMillis();
+        discoveryScheduler.scheduleWithFixedDelay(this::refreshPeers, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the port listened on, useful if it was ephemeral
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void publish(String cache, UUID uuid) {
+        sendersByAddress.values().forEach(sender -> sender.publish(cache, uuid));
+    }
+
+    @Override
+    public void publishTags(List<String> tags) {
+        sendersByAddress.values().forEach(sender -> sender.publishTags(tags));
+    }
+
+    /**
+     * Used to start sending to the newly discovered peers and stop sending to the ones gone,
+     * logging discovery failures : the known peers are kept until the next successful discovery.
+     */
+    public synchronized void refreshPeers() {
+        if (isStopped) {
+            return;
+        }
+
+        Set<InetSocketAddress> peers;
+        try {
+            peers = new HashSet<>(peerDiscovery.getPeers());
+        } catch (RuntimeException e) {
+            log.warn("Could not discover cache peers, keeping the known ones", e);
+            return;
+        }
+
+        sendersByAddress.entrySet().removeIf(entry -> {
+            if (peers.contains(entry.getKey())) {
+                return false;
+            }
+
+            log.info("Cache peer {} is gone", entry.getKey());
+            entry.getValue().stop();
+            return true;
+        });
+
+        for (InetSocketAddress peer : peers) {
+            sendersByAddress.computeIfAbsent(peer,
+                    address -> new PeerSender(address, nodeId, authenticator, flushInterval, maxPendingInvalidations));
+        }
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException, InterruptedException {
+        isStopped = true;
+        discoveryScheduler.shutdownNow();
+
+        sendersByAddress.values().forEach(PeerSender::stop);
+        sendersByAddress.clear();
+
+        serverSocket.close();
+        for (Socket socket : receivingSockets) {
+            socket.close();
+        }
+        acceptingThread.join(DISCOVERY_INTERVAL.toMillis());
+    }
+
+    private void accept() {
+        while (!isStopped) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!isStopped) {
+                    log.error("Stopped accepting cache peers", e);
+                }
+                return;
+            }
+
+            // only this thread adds sockets, so the set does not grow beyond the limit
+            if (receivingSockets.size() >= MAX_RECEIVING_CONNECTIONS) {
+                log.warn("Rejected a connection from {} : {} connections of cache peers already",
+                        socket.getRemoteSocketAddress(), MAX_RECEIVING_CONNECTIONS);
+                closeQuietly(socket);
+                continue;
+            }
+
+            receivingSockets.add(socket);
+            Thread receivingThread = new Thread(() -> receive(socket), "cache-peer-receiver");
+            receivingThread.setDaemon(true);
+            receivingThread.start();
+        }
+    }
+
+    private void receive(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            if (in.readInt() != PeerSender.MAGIC) {
+                log.warn("Rejected a connection from {} : not a cache node", socket.getRemoteSocketAddress());
+                return;
+            }
+
+            UUID peerId = new UUID(in.readLong(), in.readLong());
+            byte[] peerNonce = new byte[PeerAuthenticator.NONCE_SIZE];
+            in.readFully(peerNonce);
+
+            byte[] nonce = authenticator.newNonce();
+            out.writeInt(PeerSender.MAGIC);
+            out.writeLong(nodeId.getMostSignificantBits());
+            out.writeLong(nodeId.getLeastSignificantBits());
+            out.write(nonce);
+            out.flush();
+            if (peerId.equals(nodeId)) {
+                return;
+            }
+
+            byte[] peerProof = new byte[PeerAuthenticator.MAC_SIZE];
+            in.readFully(peerProof);
+            if (!authenticator.verify(peerNonce, nonce, PeerAuthenticator.HANDSHAKE_SEQUENCE, PeerSender.NO_PAYLOAD, peerProof)) {
+                log.warn("Rejected a connection from {} : unauthenticated handshake", socket.getRemoteSocketAddress());
+                return;
+            }
+            out.write(authenticator.sign(nonce, peerNonce, PeerAuthenticator.HANDSHAKE_SEQUENCE, PeerSender.NO_PAYLOAD));
+            out.flush();
+
+            // the peer sends heartbeats while idle
+            socket.setSoTimeout(IDLE_TIMEOUT_MILLIS);
+            long lastSequence = 0;
+            while (!isStopped) {
+                long sequence = in.readLong();
+                int size = in.readInt();
+                if (size < 0 || size > maxBatchSize) {
+                    log.warn("Rejected a connection from {} : batch of {} bytes", socket.getRemoteSocketAddress(), size);
+                    return;
+                }
+
+                byte[] payload = new byte[size];
+                in.readFully(payload);
+                byte[] signature = new byte[PeerAuthenticator.MAC_SIZE];
+                in.readFully(signature);
+
+                if (sequence <= lastSequence || !authenticator.verify(peerNonce, nonce, sequence, payload, signature)) {
+                    log.warn("Rejected a connection from {} : unauthenticated invalidations", socket.getRemoteSocketAddress());
+                    return;
+                }
+                lastSequence = sequence;
+
+                InvalidationBatch.readFrom(new DataInputStream(new ByteArrayInputStream(payload))).applyTo(invalidator);
+
+                out.writeLong(sequence);
+                out.write(authenticator.sign(nonce, peerNonce, sequence, PeerSender.NO_PAYLOAD));
+                out.flush();
+            }
+        } catch (EOFException e) {
+            log.debug("Cache peer {} disconnected", socket.getRemoteSocketAddress());
+        } catch (IOException | RuntimeException e) {
+            if (!isStopped) {
+                log.warn("Lost the connection from cache peer {}", socket.getRemoteSocketAddress(), e);
+            }
+        } finally {
+            receivingSockets.remove(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.debug("Could not close the connection from {}", socket.getRemoteSocketAddress(), e);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package io.github.sakujj.cache.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * <p>Sends the invalidations published on this node to one peer, over a connection of its own.</p>
+ * <p>The invalidations published within the flush interval are coalesced and sent as one batch,
+ * which the peer acknowledges once applied. A batch not acknowledged, because the peer is down
+ * or restarting, is merged back with the ones published since and sent again after a reconnect,
+ * so a restarted peer receives the invalidations it missed rather than clearing its cache.
+ * Only if the peer stays unreachable until more than the maximum of pending invalidations accumulate,
+ * they are replaced by a clear of all its regions and pages.</p>
+ * <p>The batches and their acknowledgements are signed by the {@link PeerAuthenticator}.
+ * A connection idle for the heartbeat interval gets an empty batch, so that the peer can time out dead connections.</p>
+ */
+@Slf4j
+class PeerSender {
+    static final int MAGIC = 0x43494E56;
+    static final byte[] NO_PAYLOAD = new byte[0];
+    static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(10);
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int ACK_TIMEOUT_MILLIS = 5000;
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(1);
+
+    private final InetSocketAddress address;
+    private final UUID nodeId;
+    private final PeerAuthenticator authenticator;
+    private final Duration flushInterval;
+    private final int maxPendingInvalidations;
+    private final int maxBatchSize;
+    private final Thread sendingThread;
+    // guarded by this
+    private InvalidationBatch pending = new InvalidationBatch();
+    private volatile boolean isStopped;
+    private volatile boolean isSelf;
+    private volatile Socket socket;
+    private DataInputStream in;
+    private DataOutputStream out;
+    private byte[] nonce;
+    private byte[] peerNonce;
+    private long sequence;
+
+    /**
+     * @param address                 address of the peer
+     * @param nodeId                  id of this node, to recognize itself among the peers
+     * @param authenticator           authenticator of the messages
+     * @param flushInterval           time to coalesce the invalidations before a send
+     * @param maxPendingInvalidations number of pending invalidations above which they are replaced by a clear
+     */
+    PeerSender(InetSocketAddress address,
+               UUID nodeId,
+               PeerAuthenticator authenticator,
+               Duration flushInterval,
+               int maxPendingInvalidations) {
+        this.address = address;
+        this.nodeId = nodeId;
+        this.authenticator = authenticator;
+        this.flushInterval = flushInterval;
+        this.maxPendingInvalidations = maxPendingInvalidations;
+        maxBatchSize = InvalidationBatch.maxSerializedSize(maxPendingInvalidations);
+
+        sendingThread = new Thread(this::send, "cache-peer-sender-" + address);
+        sendingThread.setDaemon(true);
+        sendingThread.start();
+    }
+
+    synchronized void publish(String cache, UUID uuid) {
+        if (isSelf || isStopped) {
+            return;
+        }
+
+        pending.add(cache, uuid);
+        onPublished();
+    }
+
+    synchronized void publishTags(List<String> tags) {
+        if (isSelf || isStopped) {
+            return;
+        }
+
+        pending.addTags(tags);
+        onPublished();
+    }
+
+    /**
+     * @return whether the address turned out to be the one of this node
+     */
+    boolean isSelf() {
+        return isSelf;
+    }
+
+    void stop() {
+        isStopped = true;
+        sendingThread.interrupt();
+        closeConnection();
+    }
+
+    private void onPublished() {
+        if (pending.size() > maxPendingInvalidations) {
+            pending.clear();
+        }
+
+        notifyAll();
+    }
+
+    private void send() {
+        while (!isStopped) {
+            InvalidationBatch batch;
+            try {
+                batch = awaitBatch();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (batch.isEmpty() && socket == null) {
+                continue;
+            }
+
+            try {
+                deliver(batch);
+            } catch (IOException e) {
+                closeConnection();
+                if (isStopped || isSelf) {
+                    return;
+                }
+
+                log.warn("Could not send cache invalidations to peer {}, retrying in {} : {}",
+                        address, RECONNECT_DELAY, e.toString());
+                requeue(batch);
+                try {
+                    Thread.sleep(RECONNECT_DELAY.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+
+        closeConnection();
+    }
+
+    /**
+     * Used to wait for a first invalidation, then for the flush interval, to take all the invalidations published meanwhile.
+     *
+     * @return the invalidations, an empty batch if none were published for the heartbeat interval
+     */
+    private InvalidationBatch awaitBatch() throws InterruptedException {
+        synchronized (this) {
+            long deadline = System.currentTimeMillis() + HEARTBEAT_INTERVAL.toMillis();
+            while (pending.isEmpty()) {
+                long remainingMillis = deadline - System.currentTimeMillis();
+                if (remainingMillis <= 0) {
+                    return new InvalidationBatch();
+                }
+                wait(remainingMillis);
+            }
+        }
+
+        Thread.sleep(flushInterval.toMillis());
+
+        synchronized (this) {
+            InvalidationBatch batch = pending;
+            pending = new InvalidationBatch();
+            return batch;
+        }
+    }
+
+    private synchronized void requeue(InvalidationBatch batch) {
+        batch.addAll(pending);
+        pending = batch;
+        if (pending.size() > maxPendingInvalidations) {
+            pending.clear();
+        }
+    }
+
+    private void deliver(InvalidationBatch batch) throws IOException {
+        if (socket == null) {
+            connect();
+        }
+
+        byte[] bytes = serialize(batch);
+        if (bytes.length > maxBatchSize) {
+            // the region names or the tags are too long for the peer to accept the batch
+            batch.clear();
+            bytes = serialize(batch);
+        }
+
+        out.writeLong(++sequence);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.write(authenticator.sign(nonce, peerNonce, sequence, bytes));
+        out.flush();
+
+        long acknowledged = in.readLong();
+        byte[] signature = new byte[PeerAuthenticator.MAC_SIZE];
+        in.readFully(signature);
+        if (!authenticator.verify(peerNonce, nonce, acknowledged, NO_PAYLOAD, signature)) {
+            throw new IOException("Unauthenticated acknowledgement from peer " + address + " : is its secret the same?");
+        }
+        if (acknowledged != sequence) {
+            throw new IOException("Unexpected acknowledgement " + acknowledged + " of batch " + sequence);
+        }
+    }
+
+    private static byte[] serialize(InvalidationBatch batch) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        batch.writeTo(new DataOutputStream(payload));
+        return payload.toByteArray();
+    }
+
+    private void connect() throws IOException {
+        Socket connecting = new Socket();
+        socket = connecting;
+        connecting.connect(new InetSocketAddress(address.getHostString(), address.getPort()), CONNECT_TIMEOUT_MILLIS);
+        connecting.setSoTimeout(ACK_TIMEOUT_MILLIS);
+        connecting.setTcpNoDelay(true);
+
+        in = new DataInputStream(new BufferedInputStream(connecting.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(connecting.getOutputStream()));
+
+        nonce = authenticator.newNonce();
+        out.writeInt(MAGIC);
+        out.writeLong(nodeId.getMostSignificantBits());
+        out.writeLong(nodeId.getLeastSignificantBits());
+        out.write(nonce);
+        out.flush();
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Peer " + address + " is not a cache node");
+        }
+
+        UUID peerId = new UUID(in.readLong(), in.readLong());
+        peerNonce = new byte[PeerAuthenticator.NONCE_SIZE];
+        in.readFully(peerNonce);
+        if (peerId.equals(nodeId)) {
+            log.debug("Cache peer {} is this node, skipping it", address);
+            isSelf = true;
+            synchronized (this) {
+                pending = new InvalidationBatch();
+            }
+
+            throw new IOException("Peer " + address + " is this node");
+        }
+
+        out.write(authenticator.sign(nonce, peerNonce, PeerAuthenticator.HANDSHAKE_SEQUENCE, NO_PAYLOAD));
+        out.flush();
+        byte[] proof = new byte[PeerAuthenticator.MAC_SIZE];
+        in.readFully(proof);
+        if (!authenticator.verify(peerNonce, nonce, PeerAuthenticator.HANDSHAKE_SEQUENCE, NO_PAYLOAD, proof)) {
+            throw new IOException("Unauthenticated handshake of peer " + address + " : is its secret the same?");
+        }
+
+        log.info("Connected to cache peer {}", address);
+    }
+
+    private void closeConnection() {
+        Socket closing = socket;
+        socket = null;
+        if (closing == null) {
+            return;
+        }
+
+        try {
+            closing.close();
+        } catch (IOException e) {
+            log.debug("Could not close the connection to cache peer {}", address, e);
+        }
+    }
+}
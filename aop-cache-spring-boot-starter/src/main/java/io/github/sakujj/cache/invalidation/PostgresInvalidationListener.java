@@ -0,0 +1,143 @@
+package io.github.sakujj.cache.invalidation;
+
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.page.PageCache;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * <p>Invalidates the cache on the changes made to the database by anyone : other application nodes,
+ * batch jobs or manual SQL. Keeps one connection listening to a PostgreSQL channel,
+ * notified by triggers on the cached tables.</p>
+ * <p>A notification payload is <i>&lt;cache region>;&lt;uuid>;&lt;page tags></i>, e.g. <i>houses;9f1c...;houses,owners</i> :
+ * the entity with the uuid is evicted from the region, along with its tombstone, and the pages with any of the tags
+ * become stale. The region or the uuid are empty if the changed row is not a cached entity.
+ * The changes made through this node are notified as well, so the entity it has just cached
+ * is evicted once more and reloaded on the next read.</p>
+ * <p>Notifications are delivered after the commit, so a load running concurrently with a change can read
+ * the old value : the eviction then waits for the load to cache it, and evicts it. Reads between the commit
+ * and the delivery of the notification still get the old value.
+ * Notifications sent while the connection is lost are lost too, so all the regions and pages are cleared
+ * after a reconnect.</p>
+ */
+@Slf4j
+public class PostgresInvalidationListener implements DisposableBean {
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+    private final CacheInvalidator invalidator;
+    private final DataSource dataSource;
+    private final String channel;
+    private final Thread listeningThread;
+    private volatile boolean isStopped;
+
+    /**
+     * @param cacheManager manager of the regions to evict from
+     * @param pageCache    cache of the pages to invalidate, null if pages are not cached
+     * @param dataSource   source of the listening connection, which is held until shutdown
+     * @param channel      channel notified by the triggers
+     */
+    public PostgresInvalidationListener(CacheManager cacheManager,
+                                        PageCache pageCache,
+                                        DataSource dataSource,
+                                        String channel) {
+        this.invalidator = new CacheInvalidator(cacheManager, pageCache);
+        this.dataSource = dataSource;
+        this.channel = channel;
+
+        listeningThread = new Thread(this::listen, "cache-invalidation-listener");
+        listeningThread.setDaemon(true);
+        listeningThread.start();
+    }
+
+    /**
+     * Used to apply a notification, logging malformed ones.
+     *
+     * @param payload payload of the notification
+     */
+    public void onNotification(String payload) {
+        String[] parts = payload.split(";", -1);
+        if (parts.length != 3) {
+            log.warn("Malformed cache invalidation notification : {}", payload);
+            return;
+        }
+
+        String cache = parts[0];
+        String uuid = parts[1];
+        String tags = parts[2];
+
+        if (!cache.isEmpty() && !uuid.isEmpty()) {
+            UUID id;
+            try {
+                id = UUID.fromString(uuid);
+            } catch (IllegalArgumentException e) {
+                log.warn("Malformed cache invalidation notification : {}", payload);
+                return;
+            }
+
+            invalidator.invalidate(cache, id);
+        }
+
+        if (!tags.isEmpty()) {
+            invalidator.invalidateTags(List.of(tags.split(",")));
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        isStopped = true;
+        listeningThread.interrupt();
+        listeningThread.join(RECONNECT_DELAY.toMillis());
+    }
+
+    private void listen() {
+        boolean isReconnect = false;
+        while (!isStopped) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN \"" + channel.replace("\"", "\"\"") + "\"");
+                }
+                log.info("Listening to cache invalidations on channel {}", channel);
+
+                if (isReconnect) {
+                    invalidator.clearAll();
+                }
+                isReconnect = true;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (!isStopped) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+
+                    for (PGNotification notification : notifications) {
+                        onNotification(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (isStopped) {
+                    return;
+                }
+
+                log.warn("Cache invalidation listener lost its connection, reconnecting in {}", RECONNECT_DELAY, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
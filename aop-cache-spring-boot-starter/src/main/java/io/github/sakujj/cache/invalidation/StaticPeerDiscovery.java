@@ -0,0 +1,46 @@
+package io.github.sakujj.cache.invalidation;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Peers from a fixed list of <i>host:port</i> addresses, resolved on each call, so a peer can move between hosts.
+ */
+public class StaticPeerDiscovery implements PeerDiscovery {
+    private final List<String> peers;
+
+    /**
+     * @param peers addresses of the peers, in the form of <i>host:port</i>
+     */
+    public StaticPeerDiscovery(List<String> peers) {
+        for (String peer : peers) {
+            parse(peer);
+        }
+
+        this.peers = List.copyOf(peers);
+    }
+
+    @Override
+    public List<InetSocketAddress> getPeers() {
+        return peers.stream()
+                .map(StaticPeerDiscovery::parse)
+                .map(address -> new InetSocketAddress(address.getHostString(), address.getPort()))
+                .toList();
+    }
+
+    private static InetSocketAddress parse(String peer) {
+        int separator = peer.lastIndexOf(':');
+        if (separator <= 0) {
+
+            throw new RuntimeException("An incorrect cache peer address : expected host:port, but was " + peer);
+        }
+
+        try {
+            return InetSocketAddress.createUnresolved(peer.substring(0, separator).trim(),
+                    Integer.parseInt(peer.substring(separator + 1).trim()));
+        } catch (IllegalArgumentException e) {
+
+            throw new RuntimeException("An incorrect cache peer address : expected host:port, but was " + peer, e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package io.github.sakujj.cache.memory;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.Ticker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Shrinks the caches when the old generation stays full after the garbage collections,
+ * and lets them grow back once the pressure falls.</p>
+ * <p>The old generation pools are the heap pools supporting both usage thresholds, their collection usage threshold
+ * is set to the high watermark. The usage after a collection is the one that counts : the usage before it
+ * crosses any threshold with the garbage waiting for the next collection.</p>
+ * <p>When the usage after a collection reaches the high watermark, the regions are bounded to the fraction of their
+ * maximum weight expected to bring it down to the low watermark, their current fraction times low watermark / usage,
+ * but not below the minimum fraction. When it falls below the low watermark, they grow back by a step.</p>
+ * <p>The entities evicted from the old generation are reclaimed only by its next collection, so the regions
+ * are adjusted at most once per cooldown. The adjustments are made on a thread of their own,
+ * out of the thread delivering the notifications.</p>
+ */
+@Slf4j
+public class HeapPressureMonitor implements DisposableBean {
+    private final CacheManager cacheManager;
+    private final double highWatermark;
+    private final double lowWatermark;
+    private final double minFraction;
+    private final double growthStep;
+    private final long cooldownNanos;
+    private final Ticker ticker;
+    private final List<MemoryPoolMXBean> oldGenerationPools;
+    private final List<NotificationEmitter> emitters;
+    private final NotificationListener listener;
+    private final ExecutorService adjuster;
+    private long lastAdjustment;
+    private boolean isAdjusted;
+
+    /**
+     * @param cacheManager  manager of the regions to resize
+     * @param highWatermark usage of the old generation after a collection, from 0 to 1, from which the regions shrink
+     * @param lowWatermark  usage of the old generation after a collection, from 0 to the high watermark,
+     *                      the regions shrink down to and below which they grow back
+     * @param minFraction   fraction of their maximum weight the regions never shrink below
+     * @param growthStep    fraction of their maximum weight the regions grow back by per adjustment
+     * @param cooldown      minimum time between adjustments
+     * @param ticker        source of time
+     */
+    public HeapPressureMonitor(CacheManager cacheManager,
+                               double highWatermark,
+                               double lowWatermark,
+                               double minFraction,
+                               double growthStep,
+                               Duration cooldown,
+                               Ticker ticker) {
+        this.cacheManager = cacheManager;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        this.minFraction = minFraction;
+        this.growthStep = growthStep;
+        this.cooldownNanos = cooldown.toNanos();
+        this.ticker = ticker;
+
+        oldGenerationPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP
+                        && pool.isUsageThresholdSupported()
+                        && pool.isCollectionUsageThresholdSupported()
+                        && pool.getUsage().getMax() > 0)
+                .toList();
+        emitters = new ArrayList<>();
+        listener = this::onNotification;
+        adjuster = new ThreadPoolExecutor(1, 1,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-heap-pressure");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        if (oldGenerationPools.isEmpty()) {
+            log.warn("No old generation pool supporting usage thresholds, the caches keep their capacity under heap pressure");
+            return;
+        }
+
+        for (MemoryPoolMXBean pool : oldGenerationPools) {
+            pool.setCollectionUsageThreshold((long) (pool.getUsage().getMax() * highWatermark));
+        }
+
+        addListener(ManagementFactory.getMemoryMXBean());
+        ManagementFactory.getGarbageCollectorMXBeans().forEach(this::addListener);
+    }
+
+    /**
+     * Used to adjust the regions to the usage of the old generation after a collection,
+     * unless they were adjusted less than a cooldown ago.
+     *
+     * @param usage used fraction of the old generation after a collection, from 0 to 1
+     */
+    public synchronized void adjust(double usage) {
+        long now = ticker.read();
+        if (isAdjusted && now - lastAdjustment < cooldownNanos) {
+            return;
+        }
+
+        double fraction = cacheManager.getCapacityFraction();
+        double adjustedFraction;
+        if (usage >= highWatermark) {
+            adjustedFraction = Math.max(minFraction, fraction * lowWatermark / usage);
+        } else if (usage < lowWatermark) {
+            adjustedFraction = Math.min(1, fraction + growthStep);
+        } else {
+            return;
+        }
+
+        if (adjustedFraction == fraction) {
+            return;
+        }
+
+        isAdjusted = true;
+        lastAdjustment = now;
+        cacheManager.resize(adjustedFraction);
+
+        if (adjustedFraction < fraction) {
+            log.warn("Old generation {}% full after a collection, caches shrunk to {}% of their capacity",
+                    Math.round(usage * 100), Math.round(adjustedFraction * 100));
+        } else {
+            log.info("Old generation {}% full after a collection, caches grown back to {}% of their capacity",
+                    Math.round(usage * 100), Math.round(adjustedFraction * 100));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (ListenerNotFoundException e) {
+                log.debug("Heap pressure listener already removed", e);
+            }
+        }
+
+        for (MemoryPoolMXBean pool : oldGenerationPools) {
+            pool.setCollectionUsageThreshold(0);
+        }
+
+        adjuster.shutdownNow();
+    }
+
+    /**
+     * Called by the thread delivering the notifications, both the collection usage threshold notifications
+     * and the ones of every collection, so that the regions grow back once the pressure falls.
+     */
+    private void onNotification(Notification notification, Object handback) {
+        String type = notification.getType();
+        if (!MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(type)
+                && !GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(type)) {
+            return;
+        }
+
+        try {
+            adjuster.execute(() -> adjust(oldGenerationUsage()));
+        } catch (RejectedExecutionException e) {
+            log.debug("Heap pressure adjustment skipped : the previous one is still pending");
+        }
+    }
+
+    private double oldGenerationUsage() {
+        double usage = 0;
+        for (MemoryPoolMXBean pool : oldGenerationPools) {
+            MemoryUsage collectionUsage = pool.getCollectionUsage();
+            if (collectionUsage != null && collectionUsage.getMax() > 0) {
+                usage = Math.max(usage, (double) collectionUsage.getUsed() / collectionUsage.getMax());
+            }
+        }
+
+        return usage;
+    }
+
+    private void addListener(Object bean) {
+        if (bean instanceof NotificationEmitter emitter) {
+            emitter.addNotificationListener(listener, null, null);
+            emitters.add(emitter);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.sakujj.cache.page;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A page stored as the uuids of its content, resolved through an entity cache region.
+ * A single optional result is stored as an unpaged page of at most one element.
+ *
+ * @param uuids         uuids of the content, in the page order
+ * @param pageable      pagination of the page
+ * @param totalElements total number of elements of the query
+ * @param tags          tags invalidating the page
+ * @param tagVersions   versions of the tags when the query started
+ */
+public record CachedPage(List<UUID> uuids,
+                         Pageable pageable,
+                         long totalElements,
+                         List<String> tags,
+                         long[] tagVersions) {
+}
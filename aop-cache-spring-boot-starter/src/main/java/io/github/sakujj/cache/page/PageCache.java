@@ -0,0 +1,100 @@
+package io.github.sakujj.cache.page;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.ConcurrentLRUCache;
+import io.github.sakujj.cache.stats.CacheStats;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Holds the results of paginated queries as lists of uuids.</p>
+ * <p>A page is stored with the versions of its tags read before the query started.
+ * Invalidating a tag increments its version, so all the pages with this tag become stale at once, in O(1) :
+ * a stale page is dropped on its next lookup, the ones never looked up again are evicted in LRU order.
+ * Since the versions are read before the query, a page loaded concurrently with an invalidation
+ * is stale as soon as it is stored.</p>
+ */
+public class PageCache {
+    private final Cache<PageKey, CachedPage> pages;
+    private final ConcurrentHashMap<String, AtomicLong> versionsByTag;
+
+    /**
+     * @param capacity maximum number of pages in cache
+     */
+    public PageCache(int capacity) {
+        pages = new ConcurrentLRUCache<>(capacity);
+        versionsByTag = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Used to get a page, if it was not invalidated since it was loaded.
+     *
+     * @param key key of the page
+     * @return the page, empty if absent or stale
+     */
+    public Optional<CachedPage> get(PageKey key) {
+        Optional<CachedPage> page = pages.getById(key);
+        if (page.isEmpty() || isCurrent(page.get().tags(), page.get().tagVersions())) {
+            return page;
+        }
+
+        pages.removeById(key);
+        return Optional.empty();
+    }
+
+    public void put(PageKey key, CachedPage page) {
+        pages.addOrUpdate(key, page);
+    }
+
+    /**
+     * @param tags tags to get the versions of
+     * @return the current versions of the tags, in the same order
+     */
+    public long[] getVersions(List<String> tags) {
+        long[] versions = new long[tags.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = versionOf(tags.get(i)).get();
+        }
+
+        return versions;
+    }
+
+    /**
+     * @param tags     tags to check
+     * @param versions versions previously read by {@link #getVersions(List)}
+     * @return whether none of the tags was invalidated since the versions were read
+     */
+    public boolean isCurrent(List<String> tags, long[] versions) {
+        for (int i = 0; i < versions.length; i++) {
+            if (versionOf(tags.get(i)).get() != versions[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Used to make stale all the pages with any of the specified tags.
+     *
+     * @param tags tags to invalidate
+     */
+    public void invalidate(List<String> tags) {
+        tags.forEach(tag -> versionOf(tag).incrementAndGet());
+    }
+
+    public void clear() {
+        pages.clear();
+    }
+
+    public CacheStats getStats() {
+        return pages.getStats();
+    }
+
+    private AtomicLong versionOf(String tag) {
+        return versionsByTag.computeIfAbsent(tag, t -> new AtomicLong());
+    }
+}
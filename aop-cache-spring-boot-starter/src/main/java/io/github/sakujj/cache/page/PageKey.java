@@ -0,0 +1,11 @@
+package io.github.sakujj.cache.page;
+
+/**
+ * Key of a cached page : the query method and the key of the call, by default its arguments,
+ * including the {@code Pageable}.
+ *
+ * @param method signature of the method
+ * @param key    key of the call, should implement equals and hashCode
+ */
+public record PageKey(String method, Object key) {
+}
@@ -0,0 +1,87 @@
+package io.github.sakujj.cache.snapshot;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.IdentifiableByUUID;
+import io.github.sakujj.cache.codec.EntityCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Writes snapshots of the cache regions on shutdown and, optionally, periodically, one file per region.</p>
+ * <p>The entities are collected under the cache lock, then encoded and written outside of it,
+ * so a snapshot blocks the cache only for the time of a traversal.</p>
+ */
+@Slf4j
+public class CacheSnapshotWriter implements DisposableBean {
+    private final CacheManager cacheManager;
+    private final Path path;
+    private final EntityCodec codec;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param cacheManager manager of the caches to snapshot
+     * @param path         path of the snapshot of the default region, see {@link SnapshotFile#pathOf(Path, String)}
+     * @param codec    codec of entities
+     * @param interval interval between periodic snapshots, null to write only on shutdown
+     */
+    public CacheSnapshotWriter(CacheManager cacheManager, Path path, EntityCodec codec, Duration interval) {
+        this.cacheManager = cacheManager;
+        this.path = path;
+        this.codec = codec;
+
+        if (interval == null) {
+            scheduler = null;
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::write, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Used to write a snapshot, logging failures : a missing snapshot only means a cold start.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void write() {
+        for (Map.Entry<String, Cache<UUID, ? extends IdentifiableByUUID>> entry : cacheManager.getCaches().entrySet()) {
+            if (!(entry.getValue() instanceof Snapshottable<?, ?> snapshottable)) {
+                log.warn("Cache {} does not support snapshots", entry.getKey());
+                continue;
+            }
+
+            Path regionPath = SnapshotFile.pathOf(path, entry.getKey());
+            try {
+                int count = SnapshotFile.write(regionPath,
+                        (Snapshottable<UUID, ? extends IdentifiableByUUID>) snapshottable,
+                        codec);
+                log.info("Cache snapshot written to {} : {} entries", regionPath, count);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Cache snapshot could not be written to {}", regionPath, e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+
+        write();
+    }
+}
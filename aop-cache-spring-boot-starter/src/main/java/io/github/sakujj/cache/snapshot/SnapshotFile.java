@@ -0,0 +1,293 @@
+package io.github.sakujj.cache.snapshot;
+
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.IdentifiableByUUID;
+import io.github.sakujj.cache.codec.EntityCodec;
+import io.github.sakujj.cache.collections.UUIDIndex;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * <p>Reads and writes cache snapshots through memory-mapped files.</p>
+ * <p>Format, version 2, big-endian :</p>
+ * <ul>
+ *     <li>header : magic {@code "SKCS"} (4), version (2), creation time in epoch milliseconds (8), entry count (4);</li>
+ *     <li>entries, from the most to the least valuable : most significant bits (8), least significant bits (8),
+ *     frequency (4), length (4), entity encoded by {@link EntityCodec#encodePortable(IdentifiableByUUID)}.</li>
+ * </ul>
+ * <p>A snapshot is written to a temporary file which is then atomically moved over the previous one,
+ * so a crash while writing never leaves a corrupted snapshot. Snapshots are limited to 2 GiB,
+ * the least valuable entries are left out beyond that.</p>
+ * <p>A snapshot is checked before it is indexed : a snapshot whose entry count or entry lengths
+ * do not fit its size, or with more than 16M entries, is discarded. An entry that can not be decoded,
+ * e.g. because the fields of its class changed since it was written, is discarded when taken and treated as missing.</p>
+ */
+@Slf4j
+public final class SnapshotFile {
+
+    static final int MAGIC = 0x534B4353;
+    static final short VERSION = 2;
+
+    private static final int HEADER_SIZE = 18;
+    private static final int ENTRY_HEADER_SIZE = 24;
+    private static final int REGION_SIZE = 16 << 20;
+    private static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+    private static final int MAX_ENTRY_COUNT = 1 << 24;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Used to get the path of the snapshot of a cache region : the default region uses the base path,
+     * the other ones get their name appended to the file name, e.g. <i>cache-snapshot-houses.bin</i>.
+     *
+     * @param basePath  path of the snapshot of the default region
+     * @param cacheName name of the region
+     * @return path of the snapshot of the region
+     */
+    public static Path pathOf(Path basePath, String cacheName) {
+        if (CacheManager.DEFAULT_CACHE.equals(cacheName)) {
+            return basePath;
+        }
+
+        String fileName = basePath.getFileName().toString();
+        int extensionIndex = fileName.lastIndexOf('.');
+        String regionFileName = extensionIndex > 0
+                ? fileName.substring(0, extensionIndex) + "-" + cacheName + fileName.substring(extensionIndex)
+                : fileName + "-" + cacheName;
+
+        return basePath.resolveSibling(regionFileName);
+    }
+
+    /**
+     * Used to write a snapshot of the cache content.
+     *
+     * @param path  path of the snapshot
+     * @param cache cache to snapshot
+     * @param codec codec of entities
+     * @return number of written entries
+     */
+    public static int write(Path path,
+                            Snapshottable<UUID, ? extends IdentifiableByUUID> cache,
+                            EntityCodec codec) throws IOException {
+        List<UUID> ids = new ArrayList<>();
+        List<IdentifiableByUUID> entities = new ArrayList<>();
+        List<Integer> frequencies = new ArrayList<>();
+        cache.forEachEntry((UUID id, IdentifiableByUUID entity, int frequency) -> {
+            ids.add(id);
+            entities.add(entity);
+            frequencies.add(frequency);
+        });
+
+        Path absolutePath = path.toAbsolutePath();
+        if (absolutePath.getParent() != null) {
+            Files.createDirectories(absolutePath.getParent());
+        }
+        Path temporaryPath = absolutePath.resolveSibling(absolutePath.getFileName() + ".tmp");
+
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(temporaryPath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            long regionStart = 0;
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+            long position = HEADER_SIZE;
+
+            for (int i = 0; i < entities.size(); i++) {
+                byte[] encoded = codec.encodePortable(entities.get(i));
+                int entrySize = ENTRY_HEADER_SIZE + encoded.length;
+
+                if (position + entrySize > MAX_FILE_SIZE) {
+                    log.warn("Cache snapshot is limited to 2 GiB, {} least valuable entries are left out",
+                            entities.size() - i);
+                    break;
+                }
+
+                if (position + entrySize > regionStart + region.capacity()) {
+                    region.force();
+                    regionStart = position;
+                    region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(REGION_SIZE, entrySize));
+                }
+
+                UUID uuid = ids.get(i);
+                region.position((int) (position - regionStart));
+                region.putLong(uuid.getMostSignificantBits());
+                region.putLong(uuid.getLeastSignificantBits());
+                region.putInt(frequencies.get(i));
+                region.putInt(encoded.length);
+                region.put(encoded);
+
+                position += entrySize;
+                count++;
+            }
+            region.force();
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.putLong(System.currentTimeMillis());
+            header.putInt(count);
+            header.force();
+
+            channel.truncate(position);
+        }
+
+        Files.move(temporaryPath, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /**
+     * Used to open a snapshot, only indexing its entries : they are decoded when taken.
+     *
+     * @param path         path of the snapshot
+     * @param maxStaleness maximum age of a snapshot, older snapshots are discarded
+     * @param codec        codec of entities
+     * @return the snapshot, empty if it does not exist or it is too old, or written in another format, or corrupted
+     */
+    public static Optional<Snapshot> read(Path path, Duration maxStaleness, EntityCodec codec) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > MAX_FILE_SIZE) {
+                log.warn("Cache snapshot {} is discarded : unexpected size {}", path, size);
+                return Optional.empty();
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            int magic = buffer.getInt();
+            short version = buffer.getShort();
+            if (magic != MAGIC || version != VERSION) {
+                log.warn("Cache snapshot {} is discarded : unsupported format", path);
+                return Optional.empty();
+            }
+
+            long createdAt = buffer.getLong();
+            long age = System.currentTimeMillis() - createdAt;
+            if (maxStaleness != null && age > maxStaleness.toMillis()) {
+                log.info("Cache snapshot {} is discarded : it is {} ms old", path, age);
+                return Optional.empty();
+            }
+
+            int count = buffer.getInt();
+            if (count < 0 || count > MAX_ENTRY_COUNT || count > (size - HEADER_SIZE) / ENTRY_HEADER_SIZE) {
+                log.warn("Cache snapshot {} is discarded : unexpected entry count {} for size {}", path, count, size);
+                return Optional.empty();
+            }
+
+            UUIDIndex index = new UUIDIndex(count);
+
+            long position = HEADER_SIZE;
+            for (int i = 0; i < count; i++) {
+                if (position + ENTRY_HEADER_SIZE > size) {
+                    log.warn("Cache snapshot {} is discarded : entry {} is truncated", path, i);
+                    return Optional.empty();
+                }
+
+                long msb = buffer.getLong((int) position);
+                long lsb = buffer.getLong((int) position + 8);
+                int length = buffer.getInt((int) position + 20);
+                if (length < 0 || position + ENTRY_HEADER_SIZE + length > size) {
+                    log.warn("Cache snapshot {} is discarded : entry {} is truncated", path, i);
+                    return Optional.empty();
+                }
+
+                if (index.get(msb, lsb) == UUIDIndex.ABSENT) {
+                    index.put(msb, lsb, position);
+                }
+                position += ENTRY_HEADER_SIZE + length;
+            }
+
+            return Optional.of(new Snapshot(buffer, index, codec));
+        }
+    }
+
+    /**
+     * An opened snapshot, from which entries are taken one by one.
+     */
+    public static class Snapshot {
+        private final MappedByteBuffer buffer;
+        private final UUIDIndex index;
+        private final EntityCodec codec;
+        private boolean hasUndecodableEntries;
+
+        private Snapshot(MappedByteBuffer buffer, UUIDIndex index, EntityCodec codec) {
+            this.buffer = buffer;
+            this.index = index;
+            this.codec = codec;
+        }
+
+        public synchronized int getSize() {
+            return index.size();
+        }
+
+        /**
+         * Used to remove an entry from the snapshot, decode it and restore it.
+         * The restorer is called under the lock of the snapshot, so that an entry taken before a {@link #discard(UUID)}
+         * is restored before it returns, and a newer version written after the discard is never overwritten.
+         *
+         * @param id       id of the entity
+         * @param restorer restores the entry into the cache
+         * @return the restored entity with its frequency, empty if it is not in the snapshot or can not be decoded
+         */
+        public synchronized Optional<Entry> take(UUID id, Consumer<? super Entry> restorer) {
+            long position = index.remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (position == UUIDIndex.ABSENT) {
+                return Optional.empty();
+            }
+
+            int offset = (int) position;
+            int frequency = buffer.getInt(offset + 16);
+            int length = buffer.getInt(offset + 20);
+
+            Entry entry;
+            try {
+                entry = new Entry(codec.decodePortable(buffer.slice(offset + ENTRY_HEADER_SIZE, length)), frequency);
+            } catch (RuntimeException e) {
+                if (!hasUndecodableEntries) {
+                    hasUndecodableEntries = true;
+                    log.warn("Cache snapshot entry {} is discarded : it can not be decoded", id, e);
+                } else {
+                    log.debug("Cache snapshot entry {} is discarded : it can not be decoded", id, e);
+                }
+                return Optional.empty();
+            }
+            restorer.accept(entry);
+
+            return Optional.of(entry);
+        }
+
+        /**
+         * Used to forget an entry, e.g. because a newer version has been written to the cache.
+         *
+         * @param id id of the entity
+         */
+        public synchronized void discard(UUID id) {
+            index.remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        }
+
+        public synchronized void discardAll() {
+            index.clear();
+        }
+    }
+
+    public record Entry(IdentifiableByUUID entity, int frequency) {
+    }
+}
@@ -0,0 +1,151 @@
+package io.github.sakujj.cache.snapshot;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.IdentifiableByUUID;
+import io.github.sakujj.cache.stats.StatsCounter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * <p>Decorates a cache to restore it lazily from a snapshot written before a restart.</p>
+ * <p>On a cache miss, the entity is taken from the snapshot, if present, and restored into the cache
+ * with its recorded frequency. A write or a removal discards the snapshot version of the entity
+ * before it reaches the decorated cache, and a restore is serialized with the discards,
+ * so that the snapshot version never overwrites a newer one.
+ * The order of the restored entities follows their accesses after the restart,
+ * so only the entities actually requested again take space in the cache.</p>
+ * <p>A lookup answered from the snapshot counts as a miss of the decorated cache.</p>
+ *
+ * @param <V> type of cached entities
+ */
+public class SnapshotRestoringCache<V extends IdentifiableByUUID> implements Cache<UUID, V>, Snapshottable<UUID, V> {
+    private final Cache<UUID, V> cache;
+    private final Snapshottable<UUID, V> snapshottable;
+    private final SnapshotFile.Snapshot snapshot;
+
+    /**
+     * @param cache    cache to decorate, implementing {@link Snapshottable}
+     * @param snapshot snapshot to restore from
+     */
+    @SuppressWarnings("unchecked")
+    public SnapshotRestoringCache(Cache<UUID, V> cache, SnapshotFile.Snapshot snapshot) {
+        if (!(cache instanceof Snapshottable<?, ?> restorable)) {
+            throw new IllegalArgumentException("Cache " + cache.getClass() + " does not support snapshots");
+        }
+
+        this.cache = cache;
+        this.snapshottable = (Snapshottable<UUID, V>) restorable;
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<V> getById(UUID id) {
+        Optional<V> optional = cache.getById(id);
+        if (optional.isPresent()) {
+            return optional;
+        }
+
+        return snapshot.take(id, entry -> snapshottable.restore(id, (V) entry.entity(), entry.frequency()))
+                .map(entry -> (V) entry.entity());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public BulkLookup<UUID, V> getAllById(Collection<? extends UUID> ids) {
+        BulkLookup<UUID, V> lookup = cache.getAllById(ids);
+        if (lookup.missing().isEmpty()) {
+            return lookup;
+        }
+
+        Map<UUID, V> found = new HashMap<>(lookup.found());
+        Set<UUID> missing = new HashSet<>();
+        for (UUID id : lookup.missing()) {
+            Optional<SnapshotFile.Entry> restored = snapshot.take(id, entry ->
+                    snapshottable.restore(id, (V) entry.entity(), entry.frequency()));
+            if (restored.isEmpty()) {
+                missing.add(id);
+                continue;
+            }
+
+            found.put(id, (V) restored.get().entity());
+        }
+
+        return new BulkLookup<>(found, missing);
+    }
+
+    @Override
+    public void addOrUpdateAll(Map<? extends UUID, ? extends V> values) {
+        values.keySet().forEach(snapshot::discard);
+        cache.addOrUpdateAll(values);
+    }
+
+    @Override
+    public void removeAllById(Collection<? extends UUID> ids) {
+        ids.forEach(snapshot::discard);
+        cache.removeAllById(ids);
+    }
+
+    @Override
+    public void addOrUpdate(UUID id, V value) {
+        snapshot.discard(id);
+        cache.addOrUpdate(id, value);
+    }
+
+    @Override
+    public void removeById(UUID id) {
+        snapshot.discard(id);
+        cache.removeById(id);
+    }
+
+    @Override
+    public int getSize() {
+        return cache.getSize();
+    }
+
+    @Override
+    public long getWeight() {
+        return cache.getWeight();
+    }
+
+    @Override
+    public StatsCounter getStatsCounter() {
+        return cache.getStatsCounter();
+    }
+
+    @Override
+    public boolean isRefreshDue(UUID id) {
+        return cache.isRefreshDue(id);
+    }
+
+    @Override
+    public void resize(double fraction) {
+        cache.resize(fraction);
+    }
+
+    @Override
+    public void clear() {
+        snapshot.discardAll();
+        cache.clear();
+    }
+
+    /**
+     * Passes only the restored entities : the ones not requested since the restart are not worth keeping.
+     */
+    @Override
+    public void forEachEntry(EntryConsumer<? super UUID, ? super V> consumer) {
+        snapshottable.forEachEntry(consumer);
+    }
+
+    @Override
+    public void restore(UUID id, V value, int frequency) {
+        snapshot.discard(id);
+        snapshottable.restore(id, value, frequency);
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.sakujj.cache.snapshot;
+
+/**
+ * Implemented by the caches whose content can be saved to a snapshot and restored from it after a restart.
+ *
+ * @param <K> type of ids
+ * @param <V> type of cached values
+ */
+public interface Snapshottable<K, V> {
+
+    /**
+     * Used to pass the cached entries to the consumer, from the most to the least valuable to keep,
+     * together with their access frequency (1 for the caches that do not count accesses).
+     *
+     * @param consumer consumer of the entries and their frequencies
+     */
+    void forEachEntry(EntryConsumer<? super K, ? super V> consumer);
+
+    /**
+     * Used to put an entry restored from a snapshot, keeping its recorded access frequency if counted.
+     *
+     * @param id        id of the restored value
+     * @param value     restored value
+     * @param frequency recorded access frequency
+     */
+    void restore(K id, V value, int frequency);
+
+    @FunctionalInterface
+    interface EntryConsumer<K, V> {
+        void accept(K id, V value, int frequency);
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.sakujj.cache.stats;
+
+import io.github.sakujj.cache.CacheManager;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * <p>Exports the statistics of the cache regions as Micrometer meters, tagged with the name of the region.</p>
+ * <p>Meters read the region through the {@link CacheManager} on every poll,
+ * so they follow a region replaced by {@link CacheManager#registerCache}.
+ * Each meter reads only its own counter of the {@link StatsCounter} of the region, without taking the locks
+ * of the engine that a full {@link CacheStats} snapshot takes to read the size and the weight.
+ * Regions created after binding get their meters on creation.</p>
+ */
+public class CacheMetricsBinder implements MeterBinder {
+    private static final String CACHE_TAG = "cache";
+
+    private final CacheManager cacheManager;
+
+    public CacheMetricsBinder(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cacheManager.addCreationListener(name -> bindCache(registry, name));
+        cacheManager.getCaches()
+                .keySet()
+                .forEach(name -> bindCache(registry, name));
+    }
+
+    private void bindCache(MeterRegistry registry, String name) {
+        Tags tags = Tags.of(CACHE_TAG, name);
+
+        counter(registry, "cache.gets", tags.and("result", "hit"), name, StatsCounter::hitCount,
+                "The number of times cache lookup methods have returned a cached value");
+        counter(registry, "cache.gets", tags.and("result", "miss"), name, StatsCounter::missCount,
+                "The number of times cache lookup methods have not returned a cached value");
+        counter(registry, "cache.negative.hits", tags, name, StatsCounter::negativeHitCount,
+                "The number of misses answered by a tombstone of a missing entity");
+        counter(registry, "cache.loads", tags.and("result", "success"), name, StatsCounter::loadSuccessCount,
+                "The number of values loaded after a miss or by a refresh");
+        counter(registry, "cache.loads", tags.and("result", "failure"), name, StatsCounter::loadFailureCount,
+                "The number of loads that failed");
+        counter(registry, "cache.refreshes", tags.and("result", "success"), name, StatsCounter::refreshSuccessCount,
+                "The number of values reloaded in the background");
+        counter(registry, "cache.refreshes", tags.and("result", "failure"), name, StatsCounter::refreshFailureCount,
+                "The number of background reloads that failed, keeping the cached value");
+
+        for (RemovalCause cause : RemovalCause.values()) {
+            counter(registry, "cache.evictions", tags.and("cause", cause.name().toLowerCase(Locale.ROOT)), name,
+                    counter -> counter.evictionCount(cause),
+                    "The number of entries evicted from the cache");
+        }
+
+        FunctionTimer.builder("cache.load.duration", cacheManager,
+                        manager -> statsCounterOf(name).loadSuccessCount() + statsCounterOf(name).loadFailureCount(),
+                        manager -> statsCounterOf(name).totalLoadTimeNanos(),
+                        TimeUnit.NANOSECONDS)
+                .tags(tags)
+                .description("The time spent loading values after a miss")
+                .register(registry);
+
+        Gauge.builder("cache.size", cacheManager, manager -> manager.getCache(name).getSize())
+                .tags(tags)
+                .description("The number of entries in the cache")
+                .register(registry);
+        Gauge.builder("cache.weight", cacheManager, manager -> manager.getCache(name).getWeight())
+                .tags(tags)
+                .description("The total weight of entries in the cache")
+                .register(registry);
+    }
+
+    private void counter(MeterRegistry registry,
+                         String meterName,
+                         Tags tags,
+                         String name,
+                         ToDoubleFunction<StatsCounter> count,
+                         String description) {
+
+        FunctionCounter.builder(meterName, cacheManager, manager -> count.applyAsDouble(statsCounterOf(name)))
+                .tags(tags)
+                .description(description)
+                .register(registry);
+    }
+
+    private StatsCounter statsCounterOf(String name) {
+        return cacheManager.getCache(name).getStatsCounter();
+    }
+}
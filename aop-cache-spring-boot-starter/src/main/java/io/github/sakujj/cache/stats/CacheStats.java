@@ -0,0 +1,52 @@
+package io.github.sakujj.cache.stats;
+
+import java.util.Map;
+
+/**
+ * Statistics of a cache at a point in time.
+ *
+ * @param hitCount            number of lookups that found an entry
+ * @param missCount           number of lookups that found no entry
+ * @param negativeHitCount    number of misses answered by a tombstone of a missing entity, a subset of misses
+ * @param loadSuccessCount    number of values loaded after a miss or by a refresh
+ * @param loadFailureCount    number of loads that threw an exception
+ * @param totalLoadTimeNanos  total time spent loading values
+ * @param refreshSuccessCount number of values reloaded in the background, a subset of loads
+ * @param refreshFailureCount number of background reloads that failed, a subset of load failures
+ * @param evictionCounts      number of evicted entries by cause
+ * @param size                number of entries
+ * @param weight              total weight of entries, the number of entries if the cache is not weighted
+ */
+public record CacheStats(long hitCount,
+                         long missCount,
+                         long negativeHitCount,
+                         long loadSuccessCount,
+                         long loadFailureCount,
+                         long totalLoadTimeNanos,
+                         long refreshSuccessCount,
+                         long refreshFailureCount,
+                         Map<RemovalCause, Long> evictionCounts,
+                         long size,
+                         long weight) {
+
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return ratio of lookups that found an entry, 1 if there were no lookups
+     */
+    public double hitRate() {
+        long requestCount = requestCount();
+        return requestCount == 0
+                ? 1.0
+                : (double) hitCount / requestCount;
+    }
+
+    public long evictionCount() {
+        return evictionCounts.values()
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+}
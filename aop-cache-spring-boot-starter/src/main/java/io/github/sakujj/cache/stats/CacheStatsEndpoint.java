@@ -0,0 +1,45 @@
+package io.github.sakujj.cache.stats;
+
+import io.github.sakujj.cache.CacheManager;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exposes the statistics of the cache regions. Named {@code cachestats},
+ * since the {@code caches} id belongs to the endpoint of the Spring caches.
+ */
+@Endpoint(id = "cachestats")
+public class CacheStatsEndpoint {
+    private final CacheManager cacheManager;
+
+    public CacheStatsEndpoint(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * @return statistics of the regions created so far, by name
+     */
+    @ReadOperation
+    public Map<String, CacheStats> caches() {
+        Map<String, CacheStats> statsByName = new TreeMap<>();
+        cacheManager.getCaches().forEach((name, cache) -> statsByName.put(name, cache.getStats()));
+
+        return statsByName;
+    }
+
+    /**
+     * @param name name of the region
+     * @return statistics of the region, null if the region has not been created, which results in 404
+     */
+    @ReadOperation
+    public CacheStats cache(@Selector String name) {
+        var cache = cacheManager.getCaches().get(name);
+        return cache != null
+                ? cache.getStats()
+                : null;
+    }
+}
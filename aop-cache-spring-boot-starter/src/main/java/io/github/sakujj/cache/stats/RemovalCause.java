@@ -0,0 +1,17 @@
+package io.github.sakujj.cache.stats;
+
+/**
+ * Cause of an entry leaving a cache without being removed explicitly.
+ */
+public enum RemovalCause {
+
+    /**
+     * Evicted to keep the cache within its capacity or maximum weight.
+     */
+    SIZE,
+
+    /**
+     * Its time to live has elapsed.
+     */
+    EXPIRED
+}
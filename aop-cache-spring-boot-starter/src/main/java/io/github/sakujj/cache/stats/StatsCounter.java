@@ -0,0 +1,140 @@
+package io.github.sakujj.cache.stats;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Counts the events of a cache.</p>
+ * <p>Backed by {@link LongAdder}s, which are striped under contention,
+ * so recording an event costs an uncontended increment even when many threads hit the cache.</p>
+ */
+public class StatsCounter {
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder negativeHitCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder refreshSuccessCount = new LongAdder();
+    private final LongAdder refreshFailureCount = new LongAdder();
+    private final EnumMap<RemovalCause, LongAdder> evictionCounts;
+
+    public StatsCounter() {
+        evictionCounts = new EnumMap<>(RemovalCause.class);
+        for (RemovalCause cause : RemovalCause.values()) {
+            evictionCounts.put(cause, new LongAdder());
+        }
+    }
+
+    public void recordHit() {
+        hitCount.increment();
+    }
+
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    /**
+     * Records a miss answered by a tombstone of a missing entity, without loading it.
+     */
+    public void recordNegativeHit() {
+        negativeHitCount.increment();
+    }
+
+    /**
+     * @param loadTimeNanos time spent loading the value
+     */
+    public void recordLoadSuccess(long loadTimeNanos) {
+        loadSuccessCount.increment();
+        totalLoadTime.add(loadTimeNanos);
+    }
+
+    /**
+     * @param loadTimeNanos time spent before the load failed
+     */
+    public void recordLoadFailure(long loadTimeNanos) {
+        loadFailureCount.increment();
+        totalLoadTime.add(loadTimeNanos);
+    }
+
+    /**
+     * Records a background reload of a cached value, in addition to the load itself.
+     */
+    public void recordRefreshSuccess() {
+        refreshSuccessCount.increment();
+    }
+
+    /**
+     * Records a background reload that failed, the cached value being kept.
+     */
+    public void recordRefreshFailure() {
+        refreshFailureCount.increment();
+    }
+
+    public void recordEviction(RemovalCause cause) {
+        evictionCounts.get(cause).increment();
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    public long negativeHitCount() {
+        return negativeHitCount.sum();
+    }
+
+    public long loadSuccessCount() {
+        return loadSuccessCount.sum();
+    }
+
+    public long loadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    public long totalLoadTimeNanos() {
+        return totalLoadTime.sum();
+    }
+
+    public long refreshSuccessCount() {
+        return refreshSuccessCount.sum();
+    }
+
+    public long refreshFailureCount() {
+        return refreshFailureCount.sum();
+    }
+
+    public long evictionCount(RemovalCause cause) {
+        return evictionCounts.get(cause).sum();
+    }
+
+    /**
+     * Used to get the current values of the counters. Not atomic : counters updated concurrently
+     * may be read at slightly different moments.
+     *
+     * @param size   current number of entries
+     * @param weight current total weight of entries
+     * @return statistics
+     */
+    public CacheStats snapshot(long size, long weight) {
+        EnumMap<RemovalCause, Long> evictions = new EnumMap<>(RemovalCause.class);
+        evictionCounts.forEach((cause, count) -> evictions.put(cause, count.sum()));
+
+        return new CacheStats(
+                hitCount.sum(),
+                missCount.sum(),
+                negativeHitCount.sum(),
+                loadSuccessCount.sum(),
+                loadFailureCount.sum(),
+                totalLoadTime.sum(),
+                refreshSuccessCount.sum(),
+                refreshFailureCount.sum(),
+                Map.copyOf(evictions),
+                size,
+                weight);
+    }
+}
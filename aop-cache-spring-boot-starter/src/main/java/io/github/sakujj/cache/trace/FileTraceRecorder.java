@@ -0,0 +1,189 @@
+package io.github.sakujj.cache.trace;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Records the accesses to rotating files in the format of {@link TraceFile}.</p>
+ * <p>The callers only put the records in a bounded queue, a single writer thread encodes them.
+ * A record that does not fit in the queue is dropped rather than slowing the caller down,
+ * the number of the dropped records is logged on shutdown.</p>
+ * <p>Once the current file reaches its maximum size, it is renamed to <i>.1</i>, the older ones are shifted
+ * and the oldest beyond the maximum number of files is deleted. The files of a previous run are kept the same way.</p>
+ * <p>Every file of a run gets the start of the run as its base time, so that the records still queued
+ * when a file is rotated keep their time. The base time only moves once the records get too far from it.</p>
+ */
+@Slf4j
+public class FileTraceRecorder implements TraceRecorder, DisposableBean {
+    private static final int BUFFER_SIZE = 64 << 10;
+    private static final int DRAIN_BATCH_SIZE = 1024;
+    private static final long IDLE_FLUSH_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+    private static final long MAX_AGE_MILLIS = 0xFFFFFFFFL;
+    private static final long REBASE_MARGIN_MILLIS = MAX_AGE_MILLIS / 2;
+    private static final int MAX_REGIONS_PER_FILE = 0xFFFF;
+
+    private final Path basePath;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final BlockingQueue<TraceRecord> queue;
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean isRunning = true;
+
+    // owned by the writer thread
+    private final Map<String, Integer> regionIndexes = new HashMap<>();
+    private DataOutputStream out;
+    private long baseTime;
+
+    /**
+     * @param basePath      path of the current trace file
+     * @param maxFileSize   size in bytes from which a file is rotated, at most 2 GiB
+     * @param maxFiles      maximum number of files, the current one included
+     * @param queueCapacity maximum number of records waiting for the writer
+     * @throws IOException if the trace file cannot be created
+     */
+    public FileTraceRecorder(Path basePath, long maxFileSize, int maxFiles, int queueCapacity) throws IOException {
+        this.basePath = basePath;
+        this.maxFileSize = Math.min(maxFileSize, Integer.MAX_VALUE);
+        this.maxFiles = Math.max(1, maxFiles);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Path directory = basePath.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        rotate(System.currentTimeMillis());
+
+        writer = new Thread(this::writeAll, "cache-trace-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void record(String cache, UUID uuid, TraceOperation operation) {
+        if (!isRunning || !queue.offer(new TraceRecord(cache, uuid, operation, System.currentTimeMillis()))) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return number of the records dropped because the writer could not keep up or failed
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        isRunning = false;
+        writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+
+        long dropped = droppedCount.get();
+        if (dropped > 0) {
+            log.warn("Cache trace {} : {} records dropped", basePath, dropped);
+        }
+    }
+
+    private void writeAll() {
+        List<TraceRecord> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        try {
+            while (isRunning || !queue.isEmpty()) {
+                TraceRecord first = queue.poll(IDLE_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    out.flush();
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+                for (TraceRecord traceRecord : batch) {
+                    write(traceRecord);
+                }
+                batch.clear();
+            }
+        } catch (IOException e) {
+            log.warn("Cache trace could not be written to {}, recording stopped", basePath, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            isRunning = false;
+            droppedCount.addAndGet(queue.size() + batch.size());
+            queue.clear();
+            closeQuietly();
+        }
+    }
+
+    private void write(TraceRecord traceRecord) throws IOException {
+        if (traceRecord.timestamp() < baseTime || traceRecord.timestamp() - baseTime > MAX_AGE_MILLIS) {
+            // leaves room for the records queued before this one as well as for the clock going back
+            rotate(traceRecord.timestamp() - REBASE_MARGIN_MILLIS);
+        } else if (out.size() >= maxFileSize) {
+            rotate(baseTime);
+        }
+
+        Integer regionIndex = regionIndexes.get(traceRecord.cache());
+        if (regionIndex == null) {
+            if (regionIndexes.size() == MAX_REGIONS_PER_FILE) {
+                rotate(baseTime);
+            }
+
+            regionIndex = regionIndexes.size();
+            regionIndexes.put(traceRecord.cache(), regionIndex);
+            out.writeByte(TraceFile.REGION_TAG);
+            out.writeShort(regionIndex);
+            out.writeUTF(traceRecord.cache());
+        }
+
+        out.writeByte(traceRecord.operation().ordinal() + 1);
+        out.writeShort(regionIndex);
+        out.writeLong(traceRecord.uuid().getMostSignificantBits());
+        out.writeLong(traceRecord.uuid().getLeastSignificantBits());
+        out.writeInt((int) (traceRecord.timestamp() - baseTime));
+    }
+
+    private void rotate(long baseTime) throws IOException {
+        if (out != null) {
+            out.close();
+        }
+
+        Files.deleteIfExists(TraceFile.pathOf(basePath, maxFiles - 1));
+        for (int index = maxFiles - 2; index >= 0; index--) {
+            Path path = TraceFile.pathOf(basePath, index);
+            if (Files.exists(path)) {
+                Files.move(path, TraceFile.pathOf(basePath, index + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        this.baseTime = baseTime;
+        regionIndexes.clear();
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(basePath), BUFFER_SIZE));
+        out.writeInt(TraceFile.MAGIC);
+        out.writeShort(TraceFile.VERSION);
+        out.writeLong(baseTime);
+    }
+
+    private void closeQuietly() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Cache trace {} could not be closed", basePath, e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.sakujj.cache.trace;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * <p>Reads access traces and names their rotated files.</p>
+ * <p>Format, version 1, big-endian :</p>
+ * <ul>
+ *     <li>header : magic {@code "SKCT"} (4), version (2), base time in epoch milliseconds (8);</li>
+ *     <li>records, each starting with a tag (1) :
+ *     <ul>
+ *         <li>tag 0, a region seen for the first time in the file : region index (2), name (modified UTF-8);</li>
+ *         <li>tags 1 to 3, an operation of {@link TraceOperation} by ordinal plus 1 : region index (2),
+ *         most significant bits (8), least significant bits (8), milliseconds since the base time (4).</li>
+ *     </ul>
+ *     </li>
+ * </ul>
+ * <p>Every file is readable on its own. A file cut short by a crash is read up to its last whole record.</p>
+ */
+public final class TraceFile {
+
+    static final int MAGIC = 0x534B4354;
+    static final short VERSION = 1;
+    static final byte REGION_TAG = 0;
+
+    private static final int BUFFER_SIZE = 64 << 10;
+
+    private TraceFile() {
+    }
+
+    /**
+     * Used to get the path of a rotated trace file : the current file uses the base path,
+     * the older ones get their index inserted before the extension, e.g. <i>cache-trace.2.bin</i>.
+     *
+     * @param basePath path of the current trace file
+     * @param index    0 for the current file, increasing with the age of the file
+     * @return path of the file
+     */
+    public static Path pathOf(Path basePath, int index) {
+        if (index == 0) {
+            return basePath;
+        }
+
+        String fileName = basePath.getFileName().toString();
+        int extensionIndex = fileName.lastIndexOf('.');
+        String rotatedFileName = extensionIndex > 0
+                ? fileName.substring(0, extensionIndex) + "." + index + fileName.substring(extensionIndex)
+                : fileName + "." + index;
+
+        return basePath.resolveSibling(rotatedFileName);
+    }
+
+    /**
+     * @param basePath path of the current trace file
+     * @return paths of the existing trace files, from the oldest to the current one
+     */
+    public static List<Path> listOldestFirst(Path basePath) {
+        List<Path> paths = new ArrayList<>();
+        for (int index = 0; Files.exists(pathOf(basePath, index)); index++) {
+            paths.add(pathOf(basePath, index));
+        }
+
+        Collections.reverse(paths);
+        return paths;
+    }
+
+    /**
+     * Used to read the records of a trace file in the order they were written.
+     *
+     * @param path     path of the trace file
+     * @param consumer consumer of the records
+     * @return number of read records
+     * @throws IOException if the file cannot be read or is not a trace
+     */
+    public static long read(Path path, Consumer<? super TraceRecord> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a cache trace : " + path);
+            }
+
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported cache trace version " + version + " : " + path);
+            }
+
+            long baseTime = in.readLong();
+            List<String> regions = new ArrayList<>();
+            TraceOperation[] operations = TraceOperation.values();
+
+            long count = 0;
+            try {
+                while (true) {
+                    byte tag = in.readByte();
+                    if (tag == REGION_TAG) {
+                        regions.add(in.readUnsignedShort(), in.readUTF());
+                        continue;
+                    }
+
+                    if (tag < 1 || tag > operations.length) {
+                        throw new IOException("Corrupted cache trace, unknown tag " + tag + " : " + path);
+                    }
+
+                    String region = regions.get(in.readUnsignedShort());
+                    UUID uuid = new UUID(in.readLong(), in.readLong());
+                    long timestamp = baseTime + Integer.toUnsignedLong(in.readInt());
+
+                    consumer.accept(new TraceRecord(region, uuid, operations[tag - 1], timestamp));
+                    count++;
+                }
+            } catch (EOFException e) {
+                return count;
+            }
+        }
+    }
+}
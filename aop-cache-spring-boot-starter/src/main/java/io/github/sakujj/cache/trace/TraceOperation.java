@@ -0,0 +1,8 @@
+package io.github.sakujj.cache.trace;
+
+/**
+ * Operation of the advised methods on a cached entity.
+ */
+public enum TraceOperation {
+    READ, WRITE, DELETE
+}
@@ -0,0 +1,12 @@
+package io.github.sakujj.cache.trace;
+
+import java.util.UUID;
+
+/**
+ * @param cache     name of the region
+ * @param uuid      uuid of the entity
+ * @param operation operation on the entity
+ * @param timestamp time of the operation in epoch milliseconds
+ */
+public record TraceRecord(String cache, UUID uuid, TraceOperation operation, long timestamp) {
+}
@@ -0,0 +1,25 @@
+package io.github.sakujj.cache.trace;
+
+import java.util.UUID;
+
+/**
+ * Records the accesses of the advised methods to the cached entities, to replay them offline.
+ * Recording must not block the caller.
+ */
+public interface TraceRecorder {
+
+    /**
+     * @param cache     name of the region
+     * @param uuid      uuid of the entity
+     * @param operation operation on the entity
+     */
+    void record(String cache, UUID uuid, TraceOperation operation);
+
+    /**
+     * @return recorder ignoring the accesses
+     */
+    static TraceRecorder none() {
+        return (cache, uuid, operation) -> {
+        };
+    }
+}
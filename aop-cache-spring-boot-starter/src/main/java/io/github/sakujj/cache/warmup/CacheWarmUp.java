@@ -0,0 +1,173 @@
+package io.github.sakujj.cache.warmup;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.IdentifiableByUUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
+
+/**
+ * <p>Preloads the cache regions from the {@link CacheWarmUpSource} beans before the application becomes ready.</p>
+ * <p>Runs as an {@link ApplicationRunner} : Spring Boot publishes {@link ReadinessState#ACCEPTING_TRAFFIC}
+ * only after all the runners have completed, so the readiness probe passes once the warm-up
+ * has finished or timed out. The batches of all the sources are loaded by a fixed pool of threads.</p>
+ */
+@Slf4j
+public class CacheWarmUp implements ApplicationRunner {
+    private final CacheManager cacheManager;
+    private final List<CacheWarmUpSource> sources;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ToIntFunction<String> limitByCacheName;
+    private final int batchSize;
+    private final int parallelism;
+    private final Duration timeout;
+
+    private final AtomicReference<State> state;
+    private final AtomicInteger loaded;
+    private final AtomicBoolean isFailed;
+    private volatile long startedAtNanos;
+    private volatile long finishedAtNanos;
+
+    /**
+     * @param cacheManager     manager of the caches to preload
+     * @param sources          sources of the entities
+     * @param eventPublisher   publisher of the readiness state
+     * @param limitByCacheName maximum number of entities to load from a source, by the name of its cache region
+     * @param batchSize      number of entities per batch
+     * @param parallelism    number of threads loading the batches
+     * @param timeout        maximum duration of the warm-up, after which the application becomes ready anyway
+     */
+    public CacheWarmUp(CacheManager cacheManager,
+                       List<CacheWarmUpSource> sources,
+                       ApplicationEventPublisher eventPublisher,
+                       ToIntFunction<String> limitByCacheName,
+                       int batchSize,
+                       int parallelism,
+                       Duration timeout) {
+        this.cacheManager = cacheManager;
+        this.sources = List.copyOf(sources);
+        this.eventPublisher = eventPublisher;
+        this.limitByCacheName = limitByCacheName;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.timeout = timeout;
+
+        state = new AtomicReference<>(State.PENDING);
+        loaded = new AtomicInteger();
+        isFailed = new AtomicBoolean();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (!state.compareAndSet(State.PENDING, State.RUNNING)) {
+            return;
+        }
+
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        startedAtNanos = System.nanoTime();
+        log.info("Cache warm-up started : {} sources", sources.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (CacheWarmUpSource source : sources) {
+            AtomicInteger nextBatch = new AtomicInteger();
+            for (int i = 0; i < parallelism; i++) {
+                executor.execute(() -> loadBatches(source, nextBatch));
+            }
+        }
+
+        executor.shutdown();
+        boolean isCompleted = executor.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        if (!isCompleted) {
+            executor.shutdownNow();
+        }
+
+        finishedAtNanos = System.nanoTime();
+        state.set(!isCompleted
+                ? State.TIMED_OUT
+                : isFailed.get()
+                ? State.FAILED
+                : State.COMPLETED);
+
+        log.info("Cache warm-up {} : {} entities loaded in {} ms",
+                state.get(), loaded.get(), getElapsed().toMillis());
+    }
+
+    /**
+     * @return the current progress of the warm-up
+     */
+    public Progress getProgress() {
+        return new Progress(state.get(), loaded.get(), getElapsed());
+    }
+
+    private void loadBatches(CacheWarmUpSource source, AtomicInteger nextBatch) {
+        Cache<UUID, IdentifiableByUUID> cache = cacheManager.getCache(source.getCacheName());
+        int limit = limitByCacheName.applyAsInt(source.getCacheName());
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                int batchIndex = nextBatch.getAndIncrement();
+                long from = (long) batchIndex * batchSize;
+                if (from >= limit) {
+                    return;
+                }
+
+                List<? extends IdentifiableByUUID> batch = source.loadBatch(batchIndex, batchSize);
+                if (batch.isEmpty()) {
+                    return;
+                }
+
+                int count = (int) Math.min(batch.size(), limit - from);
+                Map<UUID, IdentifiableByUUID> entitiesByUUID = new LinkedHashMap<>();
+                for (int i = 0; i < count; i++) {
+                    IdentifiableByUUID entity = batch.get(i);
+                    entitiesByUUID.put(entity.getUuid(), entity);
+                }
+                cache.addOrUpdateAll(entitiesByUUID);
+
+                log.debug("Cache warm-up : {} entities loaded", loaded.addAndGet(count));
+            }
+        } catch (RuntimeException e) {
+            isFailed.set(true);
+            log.warn("Cache warm-up source {} failed", source, e);
+        }
+    }
+
+    private Duration getElapsed() {
+        long startedAt = startedAtNanos;
+        if (startedAt == 0) {
+            return Duration.ZERO;
+        }
+
+        long finishedAt = finishedAtNanos;
+        return Duration.ofNanos((finishedAt != 0 ? finishedAt : System.nanoTime()) - startedAt);
+    }
+
+    public enum State {
+        PENDING, RUNNING, COMPLETED, TIMED_OUT, FAILED
+    }
+
+    public record Progress(State state, int loaded, Duration elapsed) {
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.sakujj.cache.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * <p>Reports the progress of the {@link CacheWarmUp} as the {@code cacheWarmUp} health component :
+ * out of service while the warm-up is pending or running, up once it has ended, whatever its outcome,
+ * since the application becomes ready anyway.</p>
+ * <p>The details hold the state of the warm-up, the number of entities loaded so far and the elapsed time.</p>
+ */
+public class CacheWarmUpHealthIndicator implements HealthIndicator {
+    private final CacheWarmUp cacheWarmUp;
+
+    public CacheWarmUpHealthIndicator(CacheWarmUp cacheWarmUp) {
+        this.cacheWarmUp = cacheWarmUp;
+    }
+
+    @Override
+    public Health health() {
+        CacheWarmUp.Progress progress = cacheWarmUp.getProgress();
+
+        Health.Builder builder = switch (progress.state()) {
+            case PENDING, RUNNING -> Health.outOfService();
+            case COMPLETED, TIMED_OUT, FAILED -> Health.up();
+        };
+
+        return builder
+                .withDetail("state", progress.state())
+                .withDetail("loaded", progress.loaded())
+                .withDetail("elapsedMillis", progress.elapsed().toMillis())
+                .build();
+    }
+}
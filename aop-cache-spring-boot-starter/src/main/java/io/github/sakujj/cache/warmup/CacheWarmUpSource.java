@@ -0,0 +1,74 @@
+package io.github.sakujj.cache.warmup;
+
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.IdentifiableByUUID;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * <p>Source of the entities to preload into the cache on startup, read in batches.</p>
+ * <p>Declare it as a bean, e.g. loading a page of the most recently updated entities per batch.
+ * Batches of a source are loaded in parallel, so the implementation must be thread-safe.</p>
+ */
+@FunctionalInterface
+public interface CacheWarmUpSource {
+
+    /**
+     * Used to load a batch of entities.
+     *
+     * @param batchIndex index of the batch, starting from 0
+     * @param batchSize  maximum number of entities in the batch
+     * @return entities of the batch, empty if there are no more entities
+     */
+    List<? extends IdentifiableByUUID> loadBatch(int batchIndex, int batchSize);
+
+    /**
+     * @return name of the cache region to preload
+     */
+    default String getCacheName() {
+        return CacheManager.DEFAULT_CACHE;
+    }
+
+    /**
+     * Used to create a source preloading the specified cache region.
+     *
+     * @param cacheName name of the cache region
+     * @param source    source of the entities
+     * @return the source
+     */
+    static CacheWarmUpSource forCache(String cacheName, CacheWarmUpSource source) {
+        return new CacheWarmUpSource() {
+            @Override
+            public List<? extends IdentifiableByUUID> loadBatch(int batchIndex, int batchSize) {
+                return source.loadBatch(batchIndex, batchSize);
+            }
+
+            @Override
+            public String getCacheName() {
+                return cacheName;
+            }
+        };
+    }
+
+    /**
+     * Used to create a source of the entities with the specified ids.
+     *
+     * @param uuids  ids of the entities to preload
+     * @param loader loads the entities of a batch of ids, usually with a single query
+     * @return the source
+     */
+    static CacheWarmUpSource ofUUIDs(List<UUID> uuids, Function<List<UUID>, List<? extends IdentifiableByUUID>> loader) {
+        List<UUID> copy = List.copyOf(uuids);
+
+        return (batchIndex, batchSize) -> {
+            long from = (long) batchIndex * batchSize;
+            if (from >= copy.size()) {
+                return List.of();
+            }
+
+            return loader.apply(copy.subList((int) from, (int) Math.min(copy.size(), from + batchSize)));
+        };
+    }
+}
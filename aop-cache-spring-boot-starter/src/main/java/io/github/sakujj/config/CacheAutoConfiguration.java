@@ -1,17 +1,66 @@
 package io.github.sakujj.config;
 
 import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.CompactCache;
+import io.github.sakujj.cache.ConcurrentLRUCache;
+import io.github.sakujj.cache.EvictionListener;
+import io.github.sakujj.cache.ExpiringCache;
+import io.github.sakujj.cache.IdentifiableByUUID;
 import io.github.sakujj.cache.LFUCache;
 import io.github.sakujj.cache.LRUCache;
+import io.github.sakujj.cache.ObjectSizeWeigher;
+import io.github.sakujj.cache.OffHeapCache;
+import io.github.sakujj.cache.RefreshingCache;
+import io.github.sakujj.cache.Ticker;
+import io.github.sakujj.cache.TieredCache;
+import io.github.sakujj.cache.TinyLFUCache;
+import io.github.sakujj.cache.Weigher;
 import io.github.sakujj.cache.aop.CacheAspect;
+import io.github.sakujj.cache.aop.CacheKeyResolver;
+import io.github.sakujj.cache.aop.PageCacheAspect;
+import io.github.sakujj.cache.codec.EntityCodec;
+import io.github.sakujj.cache.codec.ReflectiveEntityCodec;
+import io.github.sakujj.cache.invalidation.InvalidationPublisher;
+import io.github.sakujj.cache.page.PageCache;
+import io.github.sakujj.cache.snapshot.CacheSnapshotWriter;
+import io.github.sakujj.cache.snapshot.SnapshotFile;
+import io.github.sakujj.cache.snapshot.SnapshotRestoringCache;
+import io.github.sakujj.cache.trace.FileTraceRecorder;
+import io.github.sakujj.cache.trace.TraceRecorder;
+import io.github.sakujj.cache.warmup.CacheWarmUp;
+import io.github.sakujj.cache.warmup.CacheWarmUpSource;
 import io.github.sakujj.configprops.CacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@Slf4j
 @AutoConfiguration
 @EnableConfigurationProperties(value = CacheProperties.class)
 @ConditionalOnProperty(name = "sakujj.cache.isEnabled", matchIfMissing = true)
@@ -19,48 +68,472 @@ public class CacheAutoConfiguration {
 
     private static final String DEFAULT_CACHE_TYPE = "LRU";
     private static final int DEFAULT_CACHE_CAPACITY = 100;
+    private static final long DEFAULT_OFF_HEAP_MAX_BYTES = 64L << 20;
+    private static final Set<String> CACHE_TYPES = Set.of("LRU", "LFU", "CONCURRENT_LRU", "TINYLFU", "OFF_HEAP");
+    private static final String DEFAULT_STORAGE = "OBJECT";
+    private static final Set<String> STORAGES = Set.of("OBJECT", "COMPACT");
+    private static final int DEFAULT_CODEC_DICTIONARY_SIZE = 1024;
+    private static final String DEFAULT_L1_CACHE_TYPE = "LRU";
+    private static final Set<String> L1_CACHE_TYPES = Set.of("LRU", "TINYLFU");
+    private static final String DEFAULT_SNAPSHOT_PATH = "cache-snapshot.bin";
+    private static final Duration DEFAULT_SNAPSHOT_MAX_STALENESS = Duration.ofHours(1);
+    private static final int DEFAULT_WARM_UP_BATCH_SIZE = 100;
+    private static final int DEFAULT_WARM_UP_PARALLELISM = 4;
+    private static final Duration DEFAULT_WARM_UP_TIMEOUT = Duration.ofMinutes(1);
+    private static final int DEFAULT_PAGE_CACHE_CAPACITY = 1000;
+    private static final int DEFAULT_REFRESH_PARALLELISM = 2;
+    private static final int DEFAULT_REFRESH_QUEUE_CAPACITY = 1000;
+    private static final String DEFAULT_TRACE_PATH = "cache-trace.bin";
+    private static final long DEFAULT_TRACE_MAX_FILE_SIZE = 64L << 20;
+    private static final int DEFAULT_TRACE_MAX_FILES = 10;
+    private static final int DEFAULT_TRACE_QUEUE_CAPACITY = 65536;
 
     public static final String PREFIX = "sakujj.cache";
+    public static final String REFRESH_EXECUTOR_BEAN_NAME = "cacheRefreshExecutor";
 
     @Autowired
     private CacheProperties cacheProperties;
 
     @Bean
     @ConditionalOnMissingBean
-    public Cache cache() {
-        return inferCacheFromProperties(cacheProperties);
+    public Ticker ticker() {
+        return Ticker.systemTicker();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Weigher<Object> weigher() {
+        return new ObjectSizeWeigher();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public EntityCodec entityCodec() {
+        return new ReflectiveEntityCodec(Set.of(), 0, Boolean.TRUE.equals(cacheProperties.getCodecDecodeBuffers()));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheManager cacheManager(Ticker ticker, Weigher<Object> weigher, EntityCodec entityCodec) {
+        CacheManager cacheManager = new CacheManager(
+                name -> createCache(name, ticker, weigher, entityCodec),
+                name -> createNegativeCache(name, ticker));
+        cacheProperties.getRegions()
+                .keySet()
+                .forEach(cacheManager::getCache);
+
+        return cacheManager;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sakujj.cache.snapshotEnabled", havingValue = "true")
+    public CacheSnapshotWriter cacheSnapshotWriter(CacheManager cacheManager, EntityCodec entityCodec) {
+        return new CacheSnapshotWriter(cacheManager, snapshotPath(), entityCodec,
+                positiveOrNull(cacheProperties.getSnapshotInterval()));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(CacheWarmUpSource.class)
+    @ConditionalOnProperty(name = "sakujj.cache.warmUpEnabled", havingValue = "true")
+    public CacheWarmUp cacheWarmUp(CacheManager cacheManager,
+                                   List<CacheWarmUpSource> sources,
+                                   ApplicationEventPublisher eventPublisher) {
+
+        Integer inferredLimit = cacheProperties.getWarmUpLimit();
+        boolean isLimited = inferredLimit != null && inferredLimit > 0;
+
+        Integer inferredBatchSize = cacheProperties.getWarmUpBatchSize();
+        int batchSize = inferredBatchSize != null && inferredBatchSize > 0
+                ? inferredBatchSize
+                : DEFAULT_WARM_UP_BATCH_SIZE;
+
+        Integer inferredParallelism = cacheProperties.getWarmUpParallelism();
+        int parallelism = inferredParallelism != null && inferredParallelism > 0
+                ? inferredParallelism
+                : DEFAULT_WARM_UP_PARALLELISM;
+
+        Duration timeout = positiveOrNull(cacheProperties.getWarmUpTimeout());
+
+        return new CacheWarmUp(cacheManager, sources, eventPublisher,
+                name -> isLimited
+                        ? inferredLimit
+                        : capacityOf(regionOf(name)),
+                batchSize,
+                parallelism,
+                timeout != null ? timeout : DEFAULT_WARM_UP_TIMEOUT);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheKeyResolver cacheKeyResolver(BeanFactory beanFactory) {
+        return new CacheKeyResolver(beanFactory);
+    }
+
+    /**
+     * Refreshes are best-effort : a refresh that does not fit in the queue is not scheduled,
+     * the entity is served as is and refreshed on a later read.
+     */
+    @Bean(name = REFRESH_EXECUTOR_BEAN_NAME)
+    @ConditionalOnMissingBean(name = REFRESH_EXECUTOR_BEAN_NAME)
+    public ExecutorService cacheRefreshExecutor() {
+        Integer inferredParallelism = cacheProperties.getRefreshParallelism();
+        int parallelism = inferredParallelism != null && inferredParallelism > 0
+                ? inferredParallelism
+                : DEFAULT_REFRESH_PARALLELISM;
+
+        Integer inferredQueueCapacity = cacheProperties.getRefreshQueueCapacity();
+        int queueCapacity = inferredQueueCapacity != null && inferredQueueCapacity > 0
+                ? inferredQueueCapacity
+                : DEFAULT_REFRESH_QUEUE_CAPACITY;
+
+        return new ThreadPoolExecutor(parallelism, parallelism,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public CacheAspect cacheAspect(Cache cache) {
-        return new CacheAspect(cache);
+    @ConditionalOnProperty(name = "sakujj.cache.traceEnabled", havingValue = "true")
+    public TraceRecorder cacheTraceRecorder() throws IOException {
+        String inferredPath = cacheProperties.getTracePath();
+        Path path = Path.of(inferredPath != null && !inferredPath.isBlank()
+                ? inferredPath
+                : DEFAULT_TRACE_PATH);
+
+        Long inferredMaxFileSize = cacheProperties.getTraceMaxFileSize();
+        long maxFileSize = inferredMaxFileSize != null && inferredMaxFileSize > 0
+                ? inferredMaxFileSize
+                : DEFAULT_TRACE_MAX_FILE_SIZE;
+
+        Integer inferredMaxFiles = cacheProperties.getTraceMaxFiles();
+        int maxFiles = inferredMaxFiles != null && inferredMaxFiles > 0
+                ? inferredMaxFiles
+                : DEFAULT_TRACE_MAX_FILES;
+
+        Integer inferredQueueCapacity = cacheProperties.getTraceQueueCapacity();
+        int queueCapacity = inferredQueueCapacity != null && inferredQueueCapacity > 0
+                ? inferredQueueCapacity
+                : DEFAULT_TRACE_QUEUE_CAPACITY;
+
+        return new FileTraceRecorder(path, maxFileSize, maxFiles, queueCapacity);
     }
 
-    private static Cache inferCacheFromProperties(CacheProperties cacheProperties) {
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheAspect cacheAspect(CacheManager cacheManager,
+                                   CacheKeyResolver cacheKeyResolver,
+                                   @Qualifier(REFRESH_EXECUTOR_BEAN_NAME) Executor refreshExecutor,
+                                   ObjectProvider<InvalidationPublisher> invalidationPublisher,
+                                   ObjectProvider<TraceRecorder> traceRecorder) {
+        return new CacheAspect(cacheManager,
+                cacheKeyResolver,
+                refreshExecutor,
+                invalidationPublisher.getIfAvailable(InvalidationPublisher::none),
+                traceRecorder.getIfAvailable(TraceRecorder::none));
+    }
+
+    /**
+     * Pages are cached only if Spring Data is on the classpath.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Page.class)
+    static class PageCacheConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public PageCache pageCache(CacheProperties cacheProperties) {
+            Integer inferredCapacity = cacheProperties.getPageCacheCapacity();
+            return new PageCache(inferredCapacity != null && inferredCapacity > 0
+                    ? inferredCapacity
+                    : DEFAULT_PAGE_CACHE_CAPACITY);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public PageCacheAspect pageCacheAspect(CacheManager cacheManager,
+                                               PageCache pageCache,
+                                               CacheKeyResolver cacheKeyResolver,
+                                               ObjectProvider<InvalidationPublisher> invalidationPublisher) {
+            return new PageCacheAspect(cacheManager,
+                    pageCache,
+                    cacheKeyResolver,
+                    invalidationPublisher.getIfAvailable(InvalidationPublisher::none));
+        }
+    }
 
-        Integer inferredCapacity = cacheProperties.getCapacity();
+    private Cache<UUID, ? extends IdentifiableByUUID> createCache(String name,
+                                                                  Ticker ticker,
+                                                                  Weigher<Object> weigher,
+                                                                  EntityCodec entityCodec) {
+
+        CacheProperties.Region region = regionOf(name);
+
+        EntityCodec compactEntityCodec = compactEntityCodec();
+        Function<EvictionListener<UUID, IdentifiableByUUID>, Cache<UUID, IdentifiableByUUID>> storageFactory =
+                evictionListener -> inferCacheFromProperties(region,
+                        weigher,
+                        entityCodec,
+                        compactEntityCodec,
+                        evictionListener);
+        var cacheFactory = storageFactory;
+
+        // the evictions of the tiered cache are the evictions of L2, the entities evicted from L1 are demoted
+        Integer inferredL1Capacity = region.getL1Capacity();
+        if (inferredL1Capacity != null && inferredL1Capacity > 0) {
+            cacheFactory = evictionListener -> new TieredCache<>(l1EvictionListener -> createL1Cache(region.getL1Type(),
+                    inferredL1Capacity,
+                    l1EvictionListener), storageFactory.apply(evictionListener));
+        }
+
+        Cache<UUID, IdentifiableByUUID> cache;
+        Duration expireAfterWrite = positiveOrNull(region.getExpireAfterWrite());
+        Duration expireAfterAccess = positiveOrNull(region.getExpireAfterAccess());
+        if (expireAfterWrite != null || expireAfterAccess != null) {
+            cache = new ExpiringCache<>(cacheFactory, expireAfterWrite, expireAfterAccess, ticker);
+        } else {
+            cache = cacheFactory.apply(null);
+        }
+
+        Duration refreshAfterWrite = positiveOrNull(region.getRefreshAfterWrite());
+        if (refreshAfterWrite != null) {
+            cache = new RefreshingCache<>(cache, refreshAfterWrite, capacityOf(region), ticker);
+        }
+
+        if (!Boolean.TRUE.equals(cacheProperties.getSnapshotEnabled())) {
+            return cache;
+        }
+
+        Duration maxStaleness = positiveOrNull(cacheProperties.getSnapshotMaxStaleness());
+        try {
+            var snapshot = SnapshotFile.read(SnapshotFile.pathOf(snapshotPath(), name),
+                    maxStaleness != null ? maxStaleness : DEFAULT_SNAPSHOT_MAX_STALENESS,
+                    entityCodec);
+
+            return snapshot.isPresent()
+                    ? new SnapshotRestoringCache<>(cache, snapshot.get())
+                    : cache;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Snapshot of cache {} could not be read, starting with an empty cache", name, e);
+            return cache;
+        }
+    }
+
+    /**
+     * Tombstones are read on every miss, so they are kept in a cache with lock-free lookups.
+     */
+    private Cache<UUID, Boolean> createNegativeCache(String name, Ticker ticker) {
+        CacheProperties.Region region = regionOf(name);
+
+        Duration ttl = positiveOrNull(region.getNegativeCacheTtl());
+        if (ttl == null) {
+            return null;
+        }
+
+        Integer inferredCapacity = region.getNegativeCacheCapacity();
         int capacity = inferredCapacity != null && inferredCapacity > 0
                 ? inferredCapacity
-                : DEFAULT_CACHE_CAPACITY;
+                : capacityOf(region);
+
+        return new ExpiringCache<>(evictionListener -> new ConcurrentLRUCache<>(capacity, Weigher.singleton(), evictionListener),
+                ttl,
+                null,
+                ticker);
+    }
+
+    /**
+     * Used to get the settings of a region, the unset ones being taken from the top-level settings.
+     */
+    private CacheProperties.Region regionOf(String name) {
+        CacheProperties.Region configured = cacheProperties.getRegions().get(name);
+        if (configured == null) {
+            configured = new CacheProperties.Region();
+        }
+
+        CacheProperties.Region region = new CacheProperties.Region();
+        region.setType(configured.getType() != null
+                ? configured.getType()
+                : cacheProperties.getType());
+        region.setCapacity(configured.getCapacity() != null
+                ? configured.getCapacity()
+                : cacheProperties.getCapacity());
+        region.setMaxWeight(configured.getMaxWeight() != null
+                ? configured.getMaxWeight()
+                : cacheProperties.getMaxWeight());
+        region.setOffHeapMaxBytes(configured.getOffHeapMaxBytes() != null
+                ? configured.getOffHeapMaxBytes()
+                : cacheProperties.getOffHeapMaxBytes());
+        region.setStorage(configured.getStorage() != null
+                ? configured.getStorage()
+                : cacheProperties.getStorage());
+        region.setLfuDecayPeriod(configured.getLfuDecayPeriod() != null
+                ? configured.getLfuDecayPeriod()
+                : cacheProperties.getLfuDecayPeriod());
+        region.setL1Type(configured.getL1Type() != null
+                ? configured.getL1Type()
+                : cacheProperties.getL1Type());
+        region.setL1Capacity(configured.getL1Capacity() != null
+                ? configured.getL1Capacity()
+                : cacheProperties.getL1Capacity());
+        region.setExpireAfterWrite(configured.getExpireAfterWrite() != null
+                ? configured.getExpireAfterWrite()
+                : cacheProperties.getExpireAfterWrite());
+        region.setExpireAfterAccess(configured.getExpireAfterAccess() != null
+                ? configured.getExpireAfterAccess()
+                : cacheProperties.getExpireAfterAccess());
+        region.setNegativeCacheTtl(configured.getNegativeCacheTtl() != null
+                ? configured.getNegativeCacheTtl()
+                : cacheProperties.getNegativeCacheTtl());
+        region.setNegativeCacheCapacity(configured.getNegativeCacheCapacity() != null
+                ? configured.getNegativeCacheCapacity()
+                : cacheProperties.getNegativeCacheCapacity());
+        region.setRefreshAfterWrite(configured.getRefreshAfterWrite() != null
+                ? configured.getRefreshAfterWrite()
+                : cacheProperties.getRefreshAfterWrite());
+
+        return region;
+    }
+
+    private Path snapshotPath() {
+        String inferredPath = cacheProperties.getSnapshotPath();
+        return Path.of(inferredPath != null && !inferredPath.isBlank()
+                ? inferredPath
+                : DEFAULT_SNAPSHOT_PATH);
+    }
+
+    /**
+     * The compact storage of a region has its own codec, dictionary-encoding the configured fields,
+     * so that the dictionaries neither change the encoding of the off-heap caches and snapshots nor are shared by regions.
+     */
+    private EntityCodec compactEntityCodec() {
+        Integer inferredDictionarySize = cacheProperties.getCodecDictionarySize();
+        int dictionarySize = inferredDictionarySize != null && inferredDictionarySize >= 0
+                ? inferredDictionarySize
+                : DEFAULT_CODEC_DICTIONARY_SIZE;
+
+        return new ReflectiveEntityCodec(Set.copyOf(cacheProperties.getCodecDictionaryFields()), dictionarySize, false);
+    }
+
+    /**
+     * @param compactEntityCodec codec of the entities of the COMPACT storage
+     * @param evictionListener   listener of the entities evicted to fit the maximum weight, null if none
+     */
+    private static Cache<UUID, IdentifiableByUUID> inferCacheFromProperties(CacheProperties.Region region,
+                                                                            Weigher<Object> weigher,
+                                                                            EntityCodec entityCodec,
+                                                                            EntityCodec compactEntityCodec,
+                                                                            EvictionListener<UUID, IdentifiableByUUID> evictionListener) {
+
+        int capacity = capacityOf(region);
 
 
-        String inferredType = cacheProperties.getType();
+        String inferredType = region.getType();
 
         String type = inferredType != null
                 ? inferredType
                 : DEFAULT_CACHE_TYPE;
 
-        if (!type.equals("LFU") && !type.equals("LRU")) {
+        if (!CACHE_TYPES.contains(type)) {
             type = DEFAULT_CACHE_TYPE;
         }
 
+        Integer inferredDecayPeriod = region.getLfuDecayPeriod();
+        int decayPeriod = inferredDecayPeriod != null && inferredDecayPeriod > 0
+                ? inferredDecayPeriod
+                : 0;
+
+        Long inferredMaxWeight = region.getMaxWeight();
+        boolean isWeighted = inferredMaxWeight != null && inferredMaxWeight > 0;
+
+        long maxWeight = isWeighted
+                ? inferredMaxWeight
+                : capacity;
+        Weigher<Object> entityWeigher = isWeighted
+                ? weigher
+                : Weigher.singleton();
+
+        Long inferredOffHeapMaxBytes = region.getOffHeapMaxBytes();
+        long offHeapMaxBytes = inferredOffHeapMaxBytes != null && inferredOffHeapMaxBytes > 0
+                ? inferredOffHeapMaxBytes
+                : DEFAULT_OFF_HEAP_MAX_BYTES;
+
+        if (type.equals("OFF_HEAP")) {
+            return new OffHeapCache<>(capacity, offHeapMaxBytes, entityCodec, evictionListener);
+        }
+
+        String inferredStorage = region.getStorage();
+        String storage = inferredStorage != null && STORAGES.contains(inferredStorage)
+                ? inferredStorage
+                : DEFAULT_STORAGE;
+
+        if (!storage.equals("COMPACT")) {
+            return createOnHeapCache(type, maxWeight, capacity, entityWeigher, decayPeriod, listenerOrNone(evictionListener));
+        }
+
+        String onHeapType = type;
+        return new CompactCache<>(bytesEvictionListener -> createOnHeapCache(onHeapType,
+                maxWeight,
+                capacity,
+                entityWeigher,
+                decayPeriod,
+                bytesEvictionListener), compactEntityCodec, evictionListener);
+    }
+
+    private static <V> Cache<UUID, V> createOnHeapCache(String type,
+                                                        long maxWeight,
+                                                        int capacity,
+                                                        Weigher<Object> weigher,
+                                                        int decayPeriod,
+                                                        EvictionListener<UUID, V> evictionListener) {
         return switch (type) {
-            case "LRU" -> new LRUCache(capacity);
-            case "LFU" -> new LFUCache(capacity);
+            case "LRU" -> new LRUCache<>(maxWeight, weigher, evictionListener);
+            case "LFU" -> new LFUCache<>(maxWeight, weigher, decayPeriod, evictionListener);
+            case "CONCURRENT_LRU" -> new ConcurrentLRUCache<>(maxWeight, weigher, evictionListener);
+            case "TINYLFU" -> new TinyLFUCache<>(maxWeight, capacity, weigher, evictionListener);
             default -> throw new RuntimeException("Internal error : wrong cache type");
         };
     }
 
-}
+    private static <K, V> EvictionListener<K, V> listenerOrNone(EvictionListener<K, V> evictionListener) {
+        return evictionListener != null
+                ? evictionListener
+                : EvictionListener.none();
+    }
 
+    /**
+     * L1 holds a few hot entities, so it is bounded by their number rather than by their weight.
+     */
+    private static Cache<UUID, IdentifiableByUUID> createL1Cache(String inferredType,
+                                                                 int capacity,
+                                                                 EvictionListener<UUID, IdentifiableByUUID> evictionListener) {
+
+        String type = inferredType != null && L1_CACHE_TYPES.contains(inferredType)
+                ? inferredType
+                : DEFAULT_L1_CACHE_TYPE;
+
+        return switch (type) {
+            case "LRU" -> new LRUCache<>(capacity, Weigher.singleton(), evictionListener);
+            case "TINYLFU" -> new TinyLFUCache<>(capacity, capacity, Weigher.singleton(), evictionListener);
+            default -> throw new RuntimeException("Internal error : wrong L1 cache type");
+        };
+    }
+
+    private static int capacityOf(CacheProperties.Region region) {
+        Integer inferredCapacity = region.getCapacity();
+        return inferredCapacity != null && inferredCapacity > 0
+                ? inferredCapacity
+                : DEFAULT_CACHE_CAPACITY;
+    }
+
+    private static Duration positiveOrNull(Duration duration) {
+        return duration != null && !duration.isNegative() && !duration.isZero()
+                ? duration
+                : null;
+    }
+}
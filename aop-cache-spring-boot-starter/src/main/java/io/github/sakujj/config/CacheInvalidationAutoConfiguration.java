@@ -0,0 +1,45 @@
+package io.github.sakujj.config;
+
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.invalidation.PostgresInvalidationListener;
+import io.github.sakujj.cache.page.PageCache;
+import io.github.sakujj.configprops.CacheProperties;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Invalidates the cache on the notifications of the PostgreSQL triggers, when enabled and the driver is on the classpath.
+ */
+@AutoConfiguration(after = {CacheAutoConfiguration.class, DataSourceAutoConfiguration.class})
+@ConditionalOnClass(PGConnection.class)
+@ConditionalOnBean({CacheManager.class, DataSource.class})
+@ConditionalOnProperty(name = "sakujj.cache.invalidationEnabled", havingValue = "true")
+public class CacheInvalidationAutoConfiguration {
+
+    private static final String DEFAULT_INVALIDATION_CHANNEL = "cache_invalidation";
+
+    @Bean
+    @ConditionalOnMissingBean
+    public PostgresInvalidationListener postgresInvalidationListener(CacheManager cacheManager,
+                                                                     ObjectProvider<PageCache> pageCache,
+                                                                     DataSource dataSource,
+                                                                     CacheProperties cacheProperties) {
+
+        String inferredChannel = cacheProperties.getInvalidationChannel();
+        return new PostgresInvalidationListener(cacheManager,
+                pageCache.getIfAvailable(),
+                dataSource,
+                inferredChannel != null && !inferredChannel.isBlank()
+                        ? inferredChannel
+                        : DEFAULT_INVALIDATION_CHANNEL);
+    }
+}
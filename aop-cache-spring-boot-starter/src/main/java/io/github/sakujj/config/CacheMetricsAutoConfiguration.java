@@ -0,0 +1,58 @@
+package io.github.sakujj.config;
+
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.stats.CacheMetricsBinder;
+import io.github.sakujj.cache.stats.CacheStatsEndpoint;
+import io.github.sakujj.cache.warmup.CacheWarmUp;
+import io.github.sakujj.cache.warmup.CacheWarmUpHealthIndicator;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exports the cache statistics and the progress of the warm-up to Micrometer and Actuator, when they are on the classpath.
+ */
+@AutoConfiguration(after = CacheAutoConfiguration.class)
+@ConditionalOnBean(CacheManager.class)
+public class CacheMetricsAutoConfiguration {
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterBinder.class)
+    static class CacheMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public CacheMetricsBinder cacheMetricsBinder(CacheManager cacheManager) {
+            return new CacheMetricsBinder(cacheManager);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Endpoint.class)
+    static class CacheStatsEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public CacheStatsEndpoint cacheStatsEndpoint(CacheManager cacheManager) {
+            return new CacheStatsEndpoint(cacheManager);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(HealthIndicator.class)
+    @ConditionalOnBean(CacheWarmUp.class)
+    static class CacheWarmUpHealthConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public CacheWarmUpHealthIndicator cacheWarmUpHealthIndicator(CacheWarmUp cacheWarmUp) {
+            return new CacheWarmUpHealthIndicator(cacheWarmUp);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.sakujj.config;
+
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.Ticker;
+import io.github.sakujj.cache.memory.HeapPressureMonitor;
+import io.github.sakujj.configprops.CacheProperties;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Shrinks the cache regions under heap pressure and lets them grow back once it falls, when enabled.
+ */
+@AutoConfiguration(after = CacheAutoConfiguration.class)
+@ConditionalOnBean(CacheManager.class)
+@ConditionalOnProperty(name = "sakujj.cache.heapPressureEnabled", havingValue = "true")
+public class HeapPressureAutoConfiguration {
+
+    private static final double DEFAULT_HIGH_WATERMARK = 0.85;
+    private static final double DEFAULT_LOW_WATERMARK = 0.7;
+    private static final double DEFAULT_MIN_CAPACITY_FRACTION = 0.1;
+    private static final double DEFAULT_GROWTH_STEP = 0.1;
+    private static final Duration DEFAULT_COOLDOWN = Duration.ofSeconds(5);
+
+    @Bean
+    @ConditionalOnMissingBean
+    public HeapPressureMonitor heapPressureMonitor(CacheManager cacheManager,
+                                                   Ticker ticker,
+                                                   CacheProperties cacheProperties) {
+
+        Double inferredHighWatermark = cacheProperties.getHeapPressureHighWatermark();
+        Double inferredLowWatermark = cacheProperties.getHeapPressureLowWatermark();
+        boolean areWatermarksValid = inferredHighWatermark != null && inferredLowWatermark != null
+                && inferredLowWatermark > 0
+                && inferredLowWatermark < inferredHighWatermark
+                && inferredHighWatermark < 1;
+
+        double highWatermark = areWatermarksValid
+                ? inferredHighWatermark
+                : DEFAULT_HIGH_WATERMARK;
+        double lowWatermark = areWatermarksValid
+                ? inferredLowWatermark
+                : DEFAULT_LOW_WATERMARK;
+
+        Double inferredMinFraction = cacheProperties.getHeapPressureMinCapacityFraction();
+        double minFraction = inferredMinFraction != null && inferredMinFraction > 0 && inferredMinFraction <= 1
+                ? inferredMinFraction
+                : DEFAULT_MIN_CAPACITY_FRACTION;
+
+        Double inferredGrowthStep = cacheProperties.getHeapPressureGrowthStep();
+        double growthStep = inferredGrowthStep != null && inferredGrowthStep > 0
+                ? inferredGrowthStep
+                : DEFAULT_GROWTH_STEP;
+
+        Duration inferredCooldown = cacheProperties.getHeapPressureCooldown();
+        Duration cooldown = inferredCooldown != null && !inferredCooldown.isNegative()
+                ? inferredCooldown
+                : DEFAULT_COOLDOWN;
+
+        return new HeapPressureMonitor(cacheManager,
+                highWatermark,
+                lowWatermark,
+                minFraction,
+                growthStep,
+                cooldown,
+                ticker);
+    }
+}
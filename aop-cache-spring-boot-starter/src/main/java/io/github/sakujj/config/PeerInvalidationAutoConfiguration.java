@@ -0,0 +1,79 @@
+package io.github.sakujj.config;
+
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.invalidation.CacheInvalidator;
+import io.github.sakujj.cache.invalidation.PeerDiscovery;
+import io.github.sakujj.cache.invalidation.PeerInvalidationBus;
+import io.github.sakujj.cache.invalidation.StaticPeerDiscovery;
+import io.github.sakujj.cache.page.PageCache;
+import io.github.sakujj.configprops.CacheProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.Duration;
+
+/**
+ * Publishes the changes made through this node to its peers and applies the ones of the peers, when enabled.
+ */
+@AutoConfiguration(after = CacheAutoConfiguration.class)
+@ConditionalOnBean(CacheManager.class)
+@ConditionalOnProperty(name = "sakujj.cache.peerInvalidationEnabled", havingValue = "true")
+public class PeerInvalidationAutoConfiguration {
+
+    private static final int DEFAULT_PEER_PORT = 7601;
+    private static final Duration DEFAULT_PEER_FLUSH_INTERVAL = Duration.ofMillis(10);
+    private static final int DEFAULT_PEER_MAX_PENDING_INVALIDATIONS = 10_000;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public PeerDiscovery peerDiscovery(CacheProperties cacheProperties) {
+        return new StaticPeerDiscovery(cacheProperties.getPeers());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public PeerInvalidationBus peerInvalidationBus(CacheManager cacheManager,
+                                                   ObjectProvider<PageCache> pageCache,
+                                                   PeerDiscovery peerDiscovery,
+                                                   CacheProperties cacheProperties) throws IOException {
+
+        String secret = cacheProperties.getPeerSecret();
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalStateException("sakujj.cache.peerSecret should be set to the secret shared by the cache peers");
+        }
+
+        String inferredBindAddress = cacheProperties.getPeerBindAddress();
+        InetAddress bindAddress = inferredBindAddress != null && !inferredBindAddress.isBlank()
+                ? InetAddress.getByName(inferredBindAddress)
+                : InetAddress.getLoopbackAddress();
+
+        Integer inferredPort = cacheProperties.getPeerPort();
+        int port = inferredPort != null && inferredPort >= 0
+                ? inferredPort
+                : DEFAULT_PEER_PORT;
+
+        Duration inferredFlushInterval = cacheProperties.getPeerFlushInterval();
+        Duration flushInterval = inferredFlushInterval != null && !inferredFlushInterval.isNegative()
+                ? inferredFlushInterval
+                : DEFAULT_PEER_FLUSH_INTERVAL;
+
+        Integer inferredMaxPending = cacheProperties.getPeerMaxPendingInvalidations();
+        int maxPendingInvalidations = inferredMaxPending != null && inferredMaxPending > 0
+                ? inferredMaxPending
+                : DEFAULT_PEER_MAX_PENDING_INVALIDATIONS;
+
+        return new PeerInvalidationBus(new CacheInvalidator(cacheManager, pageCache.getIfAvailable()),
+                bindAddress,
+                port,
+                secret,
+                peerDiscovery,
+                flushInterval,
+                maxPendingInvalidations);
+    }
+}
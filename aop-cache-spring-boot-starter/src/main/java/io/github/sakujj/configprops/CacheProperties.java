@@ -4,9 +4,82 @@ import io.github.sakujj.config.CacheAutoConfiguration;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @ConfigurationProperties(prefix = CacheAutoConfiguration.PREFIX)
 @Data
 public class CacheProperties {
     private String type;
     private Integer capacity;
+    private Long maxWeight;
+    private Long offHeapMaxBytes;
+    private String storage;
+    private List<String> codecDictionaryFields = new ArrayList<>();
+    private Integer codecDictionarySize;
+    private Boolean codecDecodeBuffers;
+    private Integer lfuDecayPeriod;
+    private String l1Type;
+    private Integer l1Capacity;
+    private Duration expireAfterWrite;
+    private Duration expireAfterAccess;
+    private Duration negativeCacheTtl;
+    private Integer negativeCacheCapacity;
+    private Duration refreshAfterWrite;
+    private Integer refreshParallelism;
+    private Integer refreshQueueCapacity;
+    private Boolean snapshotEnabled;
+    private String snapshotPath;
+    private Duration snapshotInterval;
+    private Duration snapshotMaxStaleness;
+    private Boolean warmUpEnabled;
+    private Integer warmUpLimit;
+    private Integer warmUpBatchSize;
+    private Integer warmUpParallelism;
+    private Duration warmUpTimeout;
+    private Integer pageCacheCapacity;
+    private Boolean invalidationEnabled;
+    private String invalidationChannel;
+    private Boolean peerInvalidationEnabled;
+    private String peerBindAddress;
+    private Integer peerPort;
+    private String peerSecret;
+    private List<String> peers = new ArrayList<>();
+    private Duration peerFlushInterval;
+    private Integer peerMaxPendingInvalidations;
+    private Boolean traceEnabled;
+    private String tracePath;
+    private Long traceMaxFileSize;
+    private Integer traceMaxFiles;
+    private Integer traceQueueCapacity;
+    private Boolean heapPressureEnabled;
+    private Double heapPressureHighWatermark;
+    private Double heapPressureLowWatermark;
+    private Double heapPressureMinCapacityFraction;
+    private Double heapPressureGrowthStep;
+    private Duration heapPressureCooldown;
+    private Map<String, Region> regions = new HashMap<>();
+
+    /**
+     * Settings of a named cache region, the unset ones are taken from the top-level settings.
+     */
+    @Data
+    public static class Region {
+        private String type;
+        private Integer capacity;
+        private Long maxWeight;
+        private Long offHeapMaxBytes;
+        private String storage;
+        private Integer lfuDecayPeriod;
+        private String l1Type;
+        private Integer l1Capacity;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        private Duration negativeCacheTtl;
+        private Integer negativeCacheCapacity;
+        private Duration refreshAfterWrite;
+    }
 }
@@ -0,0 +1,24 @@
+package ru.clevertec.house.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncLookupConfig {
+
+    private static final int LOOKUP_QUEUE_CAPACITY = 1000;
+
+    @Bean
+    public AsyncTaskExecutor lookupExecutor() {
+        int poolSize = Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(LOOKUP_QUEUE_CAPACITY);
+        executor.setThreadNamePrefix("lookup-");
+        return executor;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.clevertec.house.config;
+
+import io.github.sakujj.cache.warmup.CacheWarmUpSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.clevertec.house.constant.ApplicationConstants;
+import ru.clevertec.house.entity.House;
+import ru.clevertec.house.entity.Person;
+import ru.clevertec.house.mapper.HouseMapper;
+import ru.clevertec.house.mapper.PersonMapper;
+import ru.clevertec.house.repository.HouseRepository;
+import ru.clevertec.house.repository.PersonRepository;
+
+@Configuration
+@ConditionalOnProperty(name = "sakujj.cache.warmUpEnabled", havingValue = "true")
+public class CacheWarmUpConfig {
+
+    @Bean
+    public CacheWarmUpSource recentlyUpdatedPeople(PersonRepository personRepository, PersonMapper personMapper) {
+        return CacheWarmUpSource.forCache(ApplicationConstants.PEOPLE_CACHE, (batchIndex, batchSize) -> personRepository
+                .findAll(PageRequest.of(batchIndex, batchSize, Sort.by(Sort.Direction.DESC, Person.Fields.updateDate)))
+                .map(personMapper::toResponse)
+                .getContent());
+    }
+
+    @Bean
+    public CacheWarmUpSource recentlyCreatedHouses(HouseRepository houseRepository, HouseMapper houseMapper) {
+        return CacheWarmUpSource.forCache(ApplicationConstants.HOUSES_CACHE, (batchIndex, batchSize) -> houseRepository
+                .findAll(PageRequest.of(batchIndex, batchSize, Sort.by(Sort.Direction.DESC, House.Fields.createDate)))
+                .map(houseMapper::toResponse)
+                .getContent());
+    }
+}
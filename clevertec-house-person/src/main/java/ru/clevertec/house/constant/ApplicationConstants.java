@@ -5,4 +5,10 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class ApplicationConstants {
     public static final String DEFAULT_JPA_REPOSITORIES_BASE_PACKAGE = "ru.clevertec.house.repository";
+    public static final String HOUSES_CACHE = "houses";
+    public static final String PEOPLE_CACHE = "people";
+    public static final String HOUSES_TAG = "houses";
+    public static final String PEOPLE_TAG = "people";
+    public static final String OWNERS_TAG = "owners";
+    public static final String HISTORY_TAG = "history";
 }
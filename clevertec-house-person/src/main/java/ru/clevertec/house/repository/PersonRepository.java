@@ -19,6 +19,9 @@ public interface PersonRepository extends JpaRepository<Person, Long> {
     @EntityGraph(attributePaths = {"houseOfResidence"})
     Optional<Person> findByUuid(UUID uuid);
 
+    @EntityGraph(attributePaths = {"houseOfResidence"})
+    Optional<Person> findByPassportSeriesAndPassportNumber(String passportSeries, String passportNumber);
+
     @EntityGraph(attributePaths = {"houseOfResidence"})
     Page<Person> findAllResidentsByHouseOfResidenceUuid(UUID houseOfResidenceUuid, Pageable pageable);
 
@@ -1,10 +1,12 @@
 package ru.clevertec.house.service;
 
+import io.github.sakujj.cache.aop.CacheableFindPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.house.constant.ApplicationConstants;
 import ru.clevertec.house.dto.HouseResponse;
 import ru.clevertec.house.dto.PersonResponse;
 import ru.clevertec.house.entity.HouseHistory;
@@ -25,21 +27,25 @@ public class HouseHistoryServiceImpl implements HouseHistoryService {
     private final PersonMapper personMapper;
 
     @Override
+    @CacheableFindPage(cache = ApplicationConstants.HOUSES_CACHE, tags = ApplicationConstants.HISTORY_TAG)
     public Page<HouseResponse> findAllHousesWherePersonLivedByPersonUuid(UUID personUuid, Pageable pageable) {
         return findAllHousesByPersonUuidAndType(personUuid, PersonType.TENANT, pageable);
     }
 
     @Override
+    @CacheableFindPage(cache = ApplicationConstants.HOUSES_CACHE, tags = ApplicationConstants.HISTORY_TAG)
     public Page<HouseResponse> findAllHousesWhichPersonOwnedByPersonUuid(UUID personUuid, Pageable pageable) {
         return findAllHousesByPersonUuidAndType(personUuid, PersonType.OWNER, pageable);
     }
 
     @Override
+    @CacheableFindPage(cache = ApplicationConstants.PEOPLE_CACHE, tags = ApplicationConstants.HISTORY_TAG)
     public Page<PersonResponse> findAllPeopleThatLivedInHouseByHouseUuid(UUID houseUuid, Pageable pageable) {
         return findAllPeopleByHouseUuidAndType(houseUuid, PersonType.TENANT, pageable);
     }
 
     @Override
+    @CacheableFindPage(cache = ApplicationConstants.PEOPLE_CACHE, tags = ApplicationConstants.HISTORY_TAG)
     public Page<PersonResponse> findAllPeopleThatOwnedHouseByHouseUuid(UUID houseUuid, Pageable pageable) {
         return findAllPeopleByHouseUuidAndType(houseUuid, PersonType.OWNER, pageable);
     }
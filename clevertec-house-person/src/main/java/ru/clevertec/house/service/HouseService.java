@@ -7,11 +7,14 @@ import ru.clevertec.house.dto.HouseResponse;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface HouseService {
 
     Optional<HouseResponse> findByUUID(UUID uuid);
 
+    CompletableFuture<Optional<HouseResponse>> findByUUIDAsync(UUID uuid);
+
     Page<HouseResponse> findAll(Pageable pageable);
 
     Page<HouseResponse> findAllHousesByOwnerUUID(UUID ownerUUID, Pageable pageable);
@@ -3,12 +3,18 @@ package ru.clevertec.house.service;
 import io.github.sakujj.cache.aop.CacheableCreate;
 import io.github.sakujj.cache.aop.CacheableDeleteByUUID;
 import io.github.sakujj.cache.aop.CacheableFindByUUID;
+import io.github.sakujj.cache.aop.CacheableFindPage;
+import io.github.sakujj.cache.aop.CacheableInvalidatePages;
 import io.github.sakujj.cache.aop.CacheableUpdateByUUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.clevertec.house.constant.ApplicationConstants;
 import ru.clevertec.house.dto.HouseRequest;
 import ru.clevertec.house.dto.HouseResponse;
 import ru.clevertec.house.entity.House;
@@ -19,6 +25,7 @@ import ru.clevertec.house.repository.PersonRepository;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -29,8 +36,11 @@ public class HouseServiceImpl implements HouseService {
     private final HouseMapper houseMapper;
     private final PersonRepository personRepository;
 
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor lookupExecutor;
+
     @Override
-    @CacheableFindByUUID
+    @CacheableFindByUUID(cache = ApplicationConstants.HOUSES_CACHE)
     public Optional<HouseResponse> findByUUID(UUID uuid) {
 
         return houseRepository.findByUuid(uuid)
@@ -38,6 +48,16 @@ public class HouseServiceImpl implements HouseService {
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CacheableFindByUUID(cache = ApplicationConstants.HOUSES_CACHE)
+    public CompletableFuture<Optional<HouseResponse>> findByUUIDAsync(UUID uuid) {
+
+        return CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> houseRepository.findByUuid(uuid)
+                .map(houseMapper::toResponse)), lookupExecutor);
+    }
+
+    @Override
+    @CacheableFindPage(cache = ApplicationConstants.HOUSES_CACHE, tags = ApplicationConstants.HOUSES_TAG)
     public Page<HouseResponse> findAll(Pageable pageable) {
 
         return houseRepository.findAll(pageable)
@@ -45,6 +65,8 @@ public class HouseServiceImpl implements HouseService {
     }
 
     @Override
+    @CacheableFindPage(cache = ApplicationConstants.HOUSES_CACHE,
+            tags = {ApplicationConstants.HOUSES_TAG, ApplicationConstants.OWNERS_TAG})
     public Page<HouseResponse> findAllHousesByOwnerUUID(UUID ownerUUID, Pageable pageable) {
 
         return houseRepository.findAllHousesByOwnerUuid(ownerUUID, pageable)
@@ -53,6 +75,7 @@ public class HouseServiceImpl implements HouseService {
 
     @Override
     @Transactional
+    @CacheableInvalidatePages(tags = {ApplicationConstants.OWNERS_TAG, ApplicationConstants.HISTORY_TAG})
     public void addNewOwnerToHouse(UUID houseUUID, UUID newOwnerUUID) {
 
         Person newOwner = personRepository.findByUuid(newOwnerUUID)
@@ -67,7 +90,9 @@ public class HouseServiceImpl implements HouseService {
 
     @Override
     @Transactional
-    @CacheableDeleteByUUID
+    @CacheableDeleteByUUID(cache = ApplicationConstants.HOUSES_CACHE)
+    @CacheableInvalidatePages(tags = {ApplicationConstants.HOUSES_TAG, ApplicationConstants.OWNERS_TAG,
+            ApplicationConstants.HISTORY_TAG})
     public long deleteByUUID(UUID uuid) {
 
         long l = houseRepository.deleteByUuid(uuid);
@@ -76,7 +101,8 @@ public class HouseServiceImpl implements HouseService {
 
     @Override
     @Transactional
-    @CacheableCreate
+    @CacheableCreate(cache = ApplicationConstants.HOUSES_CACHE)
+    @CacheableInvalidatePages(tags = ApplicationConstants.HOUSES_TAG)
     public HouseResponse create(HouseRequest houseRequest) {
 
         House houseToCreate = houseMapper.fromRequest(houseRequest);
@@ -85,7 +111,8 @@ public class HouseServiceImpl implements HouseService {
 
     @Override
     @Transactional
-    @CacheableUpdateByUUID
+    @CacheableUpdateByUUID(cache = ApplicationConstants.HOUSES_CACHE)
+    @CacheableInvalidatePages(tags = ApplicationConstants.HOUSES_TAG)
     public Optional<HouseResponse> update(HouseRequest houseToUpdateRequest, UUID houseUUID) {
 
         Optional<House> optionalHouse = houseRepository.findByUuid(houseUUID);
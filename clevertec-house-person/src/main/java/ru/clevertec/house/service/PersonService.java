@@ -7,11 +7,16 @@ import ru.clevertec.house.dto.PersonResponse;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface PersonService {
 
     Optional<PersonResponse> findByUUID(UUID uuid);
 
+    CompletableFuture<Optional<PersonResponse>> findByUUIDAsync(UUID uuid);
+
+    Optional<PersonResponse> findByPassport(String passportSeries, String passportNumber);
+
     Page<PersonResponse> findAll(Pageable pageable);
 
     Page<PersonResponse> findAllResidentsByHouseOfResidenceUUID(UUID houseOfResidenceUUID, Pageable pageable);
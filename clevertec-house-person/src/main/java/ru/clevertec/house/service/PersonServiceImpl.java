@@ -2,13 +2,20 @@ package ru.clevertec.house.service;
 
 import io.github.sakujj.cache.aop.CacheableCreate;
 import io.github.sakujj.cache.aop.CacheableDeleteByUUID;
+import io.github.sakujj.cache.aop.CacheableFind;
 import io.github.sakujj.cache.aop.CacheableFindByUUID;
+import io.github.sakujj.cache.aop.CacheableFindPage;
+import io.github.sakujj.cache.aop.CacheableInvalidatePages;
 import io.github.sakujj.cache.aop.CacheableUpdateByUUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.clevertec.house.constant.ApplicationConstants;
 import ru.clevertec.house.dto.PersonRequest;
 import ru.clevertec.house.dto.PersonResponse;
 import ru.clevertec.house.entity.House;
@@ -20,6 +27,7 @@ import ru.clevertec.house.repository.PersonRepository;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -31,14 +39,36 @@ public class PersonServiceImpl implements PersonService {
 
     private final PersonMapper personMapper;
 
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor lookupExecutor;
+
     @Override
-    @CacheableFindByUUID
+    @CacheableFindByUUID(cache = ApplicationConstants.PEOPLE_CACHE)
     public Optional<PersonResponse> findByUUID(UUID uuid) {
 
         return personRepository.findByUuid(uuid)
                 .map(personMapper::toResponse);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CacheableFindByUUID(cache = ApplicationConstants.PEOPLE_CACHE)
+    public CompletableFuture<Optional<PersonResponse>> findByUUIDAsync(UUID uuid) {
+
+        return CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> personRepository.findByUuid(uuid)
+                .map(personMapper::toResponse)), lookupExecutor);
+    }
+
+    @Override
+    @CacheableFind(cache = ApplicationConstants.PEOPLE_CACHE,
+            key = "{#passportSeries, #passportNumber}",
+            tags = ApplicationConstants.PEOPLE_TAG)
+    public Optional<PersonResponse> findByPassport(String passportSeries, String passportNumber) {
+
+        return personRepository.findByPassportSeriesAndPassportNumber(passportSeries, passportNumber)
+                .map(personMapper::toResponse);
+    }
+
     @Override
     public Page<PersonResponse> findAll(Pageable pageable) {
 
@@ -47,6 +77,7 @@ public class PersonServiceImpl implements PersonService {
     }
 
     @Override
+    @CacheableFindPage(cache = ApplicationConstants.PEOPLE_CACHE, tags = ApplicationConstants.PEOPLE_TAG)
     public Page<PersonResponse> findAllResidentsByHouseOfResidenceUUID(UUID houseOfResidenceUUID, Pageable pageable) {
 
         return personRepository.findAllResidentsByHouseOfResidenceUuid(houseOfResidenceUUID, pageable)
@@ -55,7 +86,9 @@ public class PersonServiceImpl implements PersonService {
 
     @Override
     @Transactional
-    @CacheableDeleteByUUID
+    @CacheableDeleteByUUID(cache = ApplicationConstants.PEOPLE_CACHE)
+    @CacheableInvalidatePages(tags = {ApplicationConstants.PEOPLE_TAG, ApplicationConstants.OWNERS_TAG,
+            ApplicationConstants.HISTORY_TAG})
     public long deleteByUUID(UUID uuid) {
 
         return personRepository.deleteByUuid(uuid);
@@ -63,7 +96,8 @@ public class PersonServiceImpl implements PersonService {
 
     @Override
     @Transactional
-    @CacheableCreate
+    @CacheableCreate(cache = ApplicationConstants.PEOPLE_CACHE)
+    @CacheableInvalidatePages(tags = {ApplicationConstants.PEOPLE_TAG, ApplicationConstants.HISTORY_TAG})
     public PersonResponse create(PersonRequest personRequest) {
 
         Person personToCreate = personMapper.fromRequest(personRequest);
@@ -81,7 +115,8 @@ public class PersonServiceImpl implements PersonService {
 
     @Override
     @Transactional
-    @CacheableUpdateByUUID
+    @CacheableUpdateByUUID(cache = ApplicationConstants.PEOPLE_CACHE)
+    @CacheableInvalidatePages(tags = {ApplicationConstants.PEOPLE_TAG, ApplicationConstants.HISTORY_TAG})
     public Optional<PersonResponse> update(PersonRequest personToUpdateRequest, UUID personUUID) {
 
         Optional<Person> optionalPerson = personRepository.findByUuid(personUUID);
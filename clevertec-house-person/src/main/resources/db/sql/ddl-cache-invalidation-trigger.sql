@@ -0,0 +1,39 @@
+-- Notifies the cache invalidation listeners of the application nodes about every change of a cached table,
+-- including the ones made bypassing the application. Payload : <cache region>;<uuid of the row>;<page tags>.
+-- Arguments : name of the cache region of the row (empty if the rows are not cached), comma-separated page tags.
+CREATE FUNCTION notify_cache_invalidation() RETURNS trigger AS $$
+    DECLARE
+        changed_row JSONB;
+    BEGIN
+        IF (TG_OP = 'DELETE') THEN
+            changed_row := to_jsonb(OLD);
+        ELSE
+            changed_row := to_jsonb(NEW);
+        END IF;
+
+        PERFORM pg_notify(
+            'cache_invalidation',
+            TG_ARGV[0] || ';' || COALESCE(changed_row ->> 'uuid', '') || ';' || TG_ARGV[1]
+        );
+        RETURN NULL;
+    END;
+$$ LANGUAGE plpgsql;
+-- !!!!!!!!!!!!!!!!!!!!!
+
+
+-- !!!!!!!!!!!!!!!!!!!!!
+CREATE TRIGGER cache_invalidation_trigger_on_changed_house
+    AFTER INSERT OR UPDATE OR DELETE
+    ON House
+    FOR EACH ROW EXECUTE FUNCTION notify_cache_invalidation('houses', 'houses,owners,history');
+
+CREATE TRIGGER cache_invalidation_trigger_on_changed_person
+    AFTER INSERT OR UPDATE OR DELETE
+    ON Person
+    FOR EACH ROW EXECUTE FUNCTION notify_cache_invalidation('people', 'people,owners,history');
+
+CREATE TRIGGER cache_invalidation_trigger_on_changed_house_owner
+    AFTER INSERT OR UPDATE OR DELETE
+    ON owner_to_owned_house
+    FOR EACH ROW EXECUTE FUNCTION notify_cache_invalidation('', 'owners,history');
+-- !!!!!!!!!!!!!!!!!!!!!
@@ -0,0 +1,126 @@
+package ru.clevertec.house.cache;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.config.CacheAutoConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import ru.clevertec.house.constant.ApplicationConstants;
+import ru.clevertec.house.dto.PersonResponse;
+import ru.clevertec.house.service.PersonService;
+import ru.clevertec.house.testcontainer.ExclusivePostgresContainerInitializer;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+// not transactional : the triggers notify only on commit
+@SpringBootTest
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+public class CacheInvalidationTests extends ExclusivePostgresContainerInitializer {
+
+    private static final long NOTIFICATION_TIMEOUT_MILLIS = 5000;
+    private static final long NOTIFICATION_DELIVERY_MILLIS = 1000;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @SpyBean
+    private PersonService personService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void configureCache(DynamicPropertyRegistry registry) {
+        registry.add("sakujj.cache.isEnabled", () -> "true");
+        registry.add("sakujj.cache.type", () -> "LRU");
+        registry.add("sakujj.cache.capacity", () -> 100);
+        registry.add("sakujj.cache.invalidationEnabled", () -> "true");
+    }
+
+    @AfterEach
+    void clear() {
+        cacheManager.clear();
+    }
+
+    @Test
+    public void cacheShouldEvictElementUpdatedBypassingService() throws InterruptedException {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+        Cache<UUID, PersonResponse> cache = cacheManager.getCache(ApplicationConstants.PEOPLE_CACHE);
+        String updatedName = "Updated";
+
+        // when
+        personService.findByUUID(uuid);
+        int cacheSizeAfterFind = cache.getSize();
+
+        jdbcTemplate.update("UPDATE Person SET name = ? WHERE uuid = ?", updatedName, uuid);
+        awaitEmpty(cache);
+        int cacheSizeAfterUpdate = cache.getSize();
+
+        Optional<PersonResponse> responseAfterUpdate = personService.findByUUID(uuid);
+
+        // then
+        assertThat(cacheSizeAfterFind).isEqualTo(1);
+        assertThat(cacheSizeAfterUpdate).isEqualTo(0);
+        assertThat(responseAfterUpdate.map(PersonResponse::getName)).contains(updatedName);
+    }
+
+    @Test
+    public void cacheShouldEvictElementLoadedBeforeUpdateAndCachedAfterNotification() throws Exception {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+        Cache<UUID, PersonResponse> cache = cacheManager.getCache(ApplicationConstants.PEOPLE_CACHE);
+        String updatedName = "Updated during load";
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+
+        // the load reads the person, then waits for the update to commit and be notified before returning
+        PersonService target = AopTestUtils.getUltimateTargetObject(personService);
+        doAnswer(invocation -> {
+            Object response = invocation.callRealMethod();
+            loaded.countDown();
+            updated.await();
+            return response;
+        }).when(target).findByUUID(uuid);
+
+        // when
+        CompletableFuture<Optional<PersonResponse>> load = CompletableFuture.supplyAsync(() -> personService.findByUUID(uuid));
+        loaded.await();
+
+        jdbcTemplate.update("UPDATE Person SET name = ? WHERE uuid = ?", updatedName, uuid);
+        Thread.sleep(NOTIFICATION_DELIVERY_MILLIS);
+        updated.countDown();
+
+        Optional<PersonResponse> loadedResponse = load.get();
+        awaitEmpty(cache);
+        int cacheSizeAfterLoad = cache.getSize();
+
+        Optional<PersonResponse> responseAfterLoad = personService.findByUUID(uuid);
+
+        // then
+        assertThat(loadedResponse.orElseThrow().getName()).isNotEqualTo(updatedName);
+        assertThat(cacheSizeAfterLoad).isEqualTo(0);
+        assertThat(responseAfterLoad.map(PersonResponse::getName)).contains(updatedName);
+    }
+
+    private static void awaitEmpty(Cache<UUID, PersonResponse> cache) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + NOTIFICATION_TIMEOUT_MILLIS;
+        while (cache.getSize() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ru.clevertec.house.cache;
+
+import io.github.sakujj.cache.trace.TraceFile;
+import io.github.sakujj.cache.trace.TraceOperation;
+import io.github.sakujj.cache.trace.TraceRecord;
+import io.github.sakujj.config.CacheAutoConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.house.constant.ApplicationConstants;
+import ru.clevertec.house.dto.PersonRequest;
+import ru.clevertec.house.entity.House;
+import ru.clevertec.house.repository.HouseRepository;
+import ru.clevertec.house.service.PersonService;
+import ru.clevertec.house.test.util.PersonTestBuilder;
+import ru.clevertec.house.testcontainer.ExclusivePostgresContainerInitializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+@SpringBootTest
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+public class CacheTraceTests extends ExclusivePostgresContainerInitializer {
+
+    private static final long FLUSH_TIMEOUT_MILLIS = 5000;
+    private static final Path TRACE_PATH = createTraceDirectory().resolve("cache-trace.bin");
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private HouseRepository houseRepository;
+
+    @DynamicPropertySource
+    static void configureCache(DynamicPropertyRegistry registry) {
+        registry.add("sakujj.cache.isEnabled", () -> "true");
+        registry.add("sakujj.cache.type", () -> "LRU");
+        registry.add("sakujj.cache.capacity", () -> 100);
+        registry.add("sakujj.cache.traceEnabled", () -> "true");
+        registry.add("sakujj.cache.tracePath", TRACE_PATH::toString);
+    }
+
+    @Test
+    public void findsAndUpdateShouldBeRecordedInOrder() throws IOException, InterruptedException {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+        long start = System.currentTimeMillis();
+
+        // when
+        personService.findByUUID(uuid);
+        personService.findByUUID(uuid);
+        personService.update(aPersonRequest(), uuid);
+        List<TraceRecord> records = awaitRecords(uuid, start, 3);
+
+        // then
+        assertThat(records)
+                .extracting(TraceRecord::operation)
+                .containsExactly(TraceOperation.READ, TraceOperation.READ, TraceOperation.WRITE);
+        assertThat(records)
+                .extracting(TraceRecord::cache)
+                .containsOnly(ApplicationConstants.PEOPLE_CACHE);
+    }
+
+    @Test
+    public void deleteShouldBeRecorded() throws IOException, InterruptedException {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+        long start = System.currentTimeMillis();
+
+        // when
+        personService.deleteByUUID(uuid);
+        List<TraceRecord> records = awaitRecords(uuid, start, 1);
+
+        // then
+        assertThat(records)
+                .extracting(TraceRecord::operation)
+                .containsExactly(TraceOperation.DELETE);
+    }
+
+    private PersonRequest aPersonRequest() {
+        House house = houseRepository.findAll(PageRequest.of(0, 1))
+                .getContent().get(0);
+
+        return PersonTestBuilder.aPerson()
+                .withHouseOfResidence(house)
+                .buildRequest();
+    }
+
+    /**
+     * The recorder writes asynchronously, so the records of the uuid since the start are read until they are all flushed.
+     */
+    private static List<TraceRecord> awaitRecords(UUID uuid, long start, int count) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+        while (true) {
+            List<TraceRecord> records = new ArrayList<>();
+            for (Path path : TraceFile.listOldestFirst(TRACE_PATH)) {
+                TraceFile.read(path, traceRecord -> {
+                    if (traceRecord.uuid().equals(uuid) && traceRecord.timestamp() >= start) {
+                        records.add(traceRecord);
+                    }
+                });
+            }
+
+            if (records.size() >= count || System.currentTimeMillis() >= deadline) {
+                return records;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static Path createTraceDirectory() {
+        try {
+            return Files.createTempDirectory("cache-trace");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.clevertec.house.cache;
+
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.warmup.CacheWarmUp;
+import io.github.sakujj.cache.warmup.CacheWarmUpHealthIndicator;
+import io.github.sakujj.config.CacheAutoConfiguration;
+import io.github.sakujj.config.CacheMetricsAutoConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+import ru.clevertec.house.constant.ApplicationConstants;
+import ru.clevertec.house.testcontainer.ExclusivePostgresContainerInitializer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("warmup")
+@ImportAutoConfiguration({CacheAutoConfiguration.class, CacheMetricsAutoConfiguration.class})
+public class CacheWarmUpTests extends ExclusivePostgresContainerInitializer {
+
+    private static final List<ReadinessState> READINESS_STATES = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    private CacheWarmUpHealthIndicator cacheWarmUpHealthIndicator;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // the readiness changes are published while the context starts, before the test instance is created
+    @TestConfiguration
+    static class ReadinessRecorderConfiguration {
+
+        @EventListener
+        public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+            READINESS_STATES.add(event.getState());
+        }
+    }
+
+    @Test
+    public void applicationShouldAcceptTrafficOnlyAfterWarmUp() {
+        // given, when
+        Health health = cacheWarmUpHealthIndicator.health();
+
+        // then
+        assertThat(READINESS_STATES).containsSubsequence(ReadinessState.REFUSING_TRAFFIC, ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(applicationAvailability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("state", CacheWarmUp.State.COMPLETED);
+        assertThat((int) health.getDetails().get("loaded")).isPositive();
+
+        assertThat(cacheManager.getCache(ApplicationConstants.PEOPLE_CACHE).getSize()).isPositive();
+        assertThat(cacheManager.getCache(ApplicationConstants.HOUSES_CACHE).getSize()).isPositive();
+    }
+}
@@ -0,0 +1,135 @@
+package ru.clevertec.house.cache;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.Ticker;
+import io.github.sakujj.cache.memory.HeapPressureMonitor;
+import io.github.sakujj.config.CacheAutoConfiguration;
+import io.github.sakujj.config.HeapPressureAutoConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.house.constant.ApplicationConstants;
+import ru.clevertec.house.dto.PersonResponse;
+import ru.clevertec.house.service.PersonService;
+import ru.clevertec.house.testcontainer.ExclusivePostgresContainerInitializer;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+@SpringBootTest
+@ImportAutoConfiguration({CacheAutoConfiguration.class, HeapPressureAutoConfiguration.class})
+public class HeapPressureTests extends ExclusivePostgresContainerInitializer {
+
+    private static final int CAPACITY = 4;
+    private static final Duration COOLDOWN = Duration.ofHours(1);
+    private static final AtomicLong NOW = new AtomicLong();
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private HeapPressureMonitor heapPressureMonitor;
+
+    @DynamicPropertySource
+    static void configureCache(DynamicPropertyRegistry registry) {
+        registry.add("sakujj.cache.isEnabled", () -> "true");
+        registry.add("sakujj.cache.type", () -> "LRU");
+        registry.add("sakujj.cache.capacity", () -> CAPACITY);
+        registry.add("sakujj.cache.heapPressureEnabled", () -> "true");
+        registry.add("sakujj.cache.heapPressureHighWatermark", () -> 0.8);
+        registry.add("sakujj.cache.heapPressureLowWatermark", () -> 0.4);
+        registry.add("sakujj.cache.heapPressureMinCapacityFraction", () -> 0.25);
+        registry.add("sakujj.cache.heapPressureGrowthStep", () -> 0.5);
+        registry.add("sakujj.cache.heapPressureCooldown", COOLDOWN::toString);
+    }
+
+    // the monitor also follows the real collections, which the cooldown keeps out between the adjustments of a test
+    @TestConfiguration
+    static class ManualTickerConfiguration {
+
+        @Bean
+        public Ticker ticker() {
+            return NOW::get;
+        }
+    }
+
+    @AfterEach
+    void restoreCapacity() {
+        cacheManager.resize(1);
+        cacheManager.clear();
+    }
+
+    @Test
+    public void cacheShouldShrinkToLowWatermarkUnderPressure() {
+        // given
+        Cache<UUID, PersonResponse> cache = cacheManager.getCache(ApplicationConstants.PEOPLE_CACHE);
+        findPeople(CAPACITY);
+        int cacheSizeBeforePressure = cache.getSize();
+
+        // when
+        adjustAfterCooldown(0.8);
+
+        // then
+        assertThat(cacheSizeBeforePressure).isEqualTo(CAPACITY);
+        assertThat(cacheManager.getCapacityFraction()).isEqualTo(0.5);
+        assertThat(cache.getSize()).isEqualTo(CAPACITY / 2);
+    }
+
+    @Test
+    public void cacheShouldNotShrinkBelowMinCapacityFraction() {
+        // given
+        Cache<UUID, PersonResponse> cache = cacheManager.getCache(ApplicationConstants.PEOPLE_CACHE);
+        findPeople(CAPACITY);
+
+        // when
+        adjustAfterCooldown(0.99);
+        adjustAfterCooldown(0.99);
+        adjustAfterCooldown(0.99);
+
+        // then
+        assertThat(cacheManager.getCapacityFraction()).isEqualTo(0.25);
+        assertThat(cache.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void cacheShouldGrowBackWhenPressureFalls() {
+        // given
+        Cache<UUID, PersonResponse> cache = cacheManager.getCache(ApplicationConstants.PEOPLE_CACHE);
+        adjustAfterCooldown(0.8);
+
+        // when
+        adjustAfterCooldown(0.1);
+        findPeople(CAPACITY);
+
+        // then
+        assertThat(cacheManager.getCapacityFraction()).isEqualTo(1);
+        assertThat(cache.getSize()).isEqualTo(CAPACITY);
+    }
+
+    private void adjustAfterCooldown(double usage) {
+        NOW.addAndGet(COOLDOWN.toNanos());
+        heapPressureMonitor.adjust(usage);
+    }
+
+    private void findPeople(int count) {
+        personService.findAll(PageRequest.of(0, count))
+                .getContent()
+                .forEach(person -> personService.findByUUID(person.getUuid()));
+    }
+}
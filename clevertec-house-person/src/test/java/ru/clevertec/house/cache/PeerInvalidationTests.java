@@ -0,0 +1,345 @@
+package ru.clevertec.house.cache;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.LRUCache;
+import io.github.sakujj.cache.invalidation.CacheInvalidator;
+import io.github.sakujj.cache.invalidation.PeerInvalidationBus;
+import io.github.sakujj.config.CacheAutoConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.clevertec.house.constant.ApplicationConstants;
+import ru.clevertec.house.dto.PersonRequest;
+import ru.clevertec.house.dto.PersonResponse;
+import ru.clevertec.house.entity.House;
+import ru.clevertec.house.repository.HouseRepository;
+import ru.clevertec.house.service.PersonService;
+import ru.clevertec.house.test.util.PersonTestBuilder;
+import ru.clevertec.house.testcontainer.ExclusivePostgresContainerInitializer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the application context is one node, the other one is started by the tests;
+// the updates commit, since the invalidations are sent once the transaction commits
+@SpringBootTest
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+public class PeerInvalidationTests extends ExclusivePostgresContainerInitializer {
+
+    private static final long DELIVERY_TIMEOUT_MILLIS = 5000;
+    private static final int NODE_PORT = findFreePort();
+    private static final int PEER_PORT = findFreePort();
+    private static final String SECRET = "peer-secret";
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int PEER_MAGIC = 0x43494E56;
+    private static final int NONCE_SIZE = 16;
+    private static final int MAC_SIZE = 32;
+    private static final int OVERSIZED_BATCH_SIZE = 64 << 20;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private HouseRepository houseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private CacheManager peerCacheManager;
+
+    private PeerInvalidationBus peer;
+
+    @DynamicPropertySource
+    static void configureCache(DynamicPropertyRegistry registry) {
+        registry.add("sakujj.cache.isEnabled", () -> "true");
+        registry.add("sakujj.cache.type", () -> "LRU");
+        registry.add("sakujj.cache.capacity", () -> 100);
+        registry.add("sakujj.cache.peerInvalidationEnabled", () -> "true");
+        registry.add("sakujj.cache.peerPort", () -> NODE_PORT);
+        registry.add("sakujj.cache.peerSecret", () -> SECRET);
+        registry.add("sakujj.cache.peers[0]", () -> "localhost:" + NODE_PORT);
+        registry.add("sakujj.cache.peers[1]", () -> "localhost:" + PEER_PORT);
+    }
+
+    @BeforeEach
+    void startPeer() throws IOException {
+        peerCacheManager = new CacheManager(name -> new LRUCache<>(100), name -> new LRUCache<>(100));
+        peer = startPeer(peerCacheManager);
+    }
+
+    @AfterEach
+    void stopPeer() throws IOException, InterruptedException {
+        peer.destroy();
+        cacheManager.clear();
+    }
+
+    @Test
+    public void updateShouldEvictElementOnPeer() throws InterruptedException {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+        Cache<UUID, PersonResponse> peerCache = peerCacheManager.getCache(ApplicationConstants.PEOPLE_CACHE);
+        peerCache.addOrUpdate(uuid, personService.findByUUID(uuid).get());
+
+        // when
+        personService.update(aPersonRequest("1000000000001"), uuid);
+        awaitEmpty(peerCache);
+
+        // then
+        assertThat(peerCache.getSize()).isEqualTo(0);
+        assertThat(cacheManager.getCache(ApplicationConstants.PEOPLE_CACHE).getById(uuid)).isPresent();
+    }
+
+    @Test
+    public void cacheShouldEvictElementChangedOnPeer() throws InterruptedException {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+        Cache<UUID, PersonResponse> cache = cacheManager.getCache(ApplicationConstants.PEOPLE_CACHE);
+
+        // when
+        personService.findByUUID(uuid);
+        int cacheSizeAfterFind = cache.getSize();
+
+        peer.publish(ApplicationConstants.PEOPLE_CACHE, uuid);
+        awaitEmpty(cache);
+
+        // then
+        assertThat(cacheSizeAfterFind).isEqualTo(1);
+        assertThat(cache.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void nodeShouldCloseConnectionWithUnauthenticatedHandshake() throws IOException {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+        Cache<UUID, PersonResponse> cache = cacheManager.getCache(ApplicationConstants.PEOPLE_CACHE);
+        personService.findByUUID(uuid);
+
+        int endOfStream;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), NODE_PORT)) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            // when
+            handshake(in, out, new byte[NONCE_SIZE], "not-the-peer-secret");
+            endOfStream = in.read();
+        }
+
+        // then
+        assertThat(endOfStream).isEqualTo(-1);
+        assertThat(cache.getById(uuid)).isPresent();
+    }
+
+    @Test
+    public void nodeShouldProveSecretAndIgnoreUnsignedInvalidations() throws IOException {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+        Cache<UUID, PersonResponse> cache = cacheManager.getCache(ApplicationConstants.PEOPLE_CACHE);
+        personService.findByUUID(uuid);
+
+        byte[] nonce = new byte[NONCE_SIZE];
+        byte[] nodeProof = new byte[MAC_SIZE];
+        byte[] nodeNonce;
+        int endOfStream;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), NODE_PORT)) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            // when
+            nodeNonce = handshake(in, out, nonce, SECRET);
+            in.readFully(nodeProof);
+
+            byte[] clearAll = {1, 0, 0, 0, 0, 0, 0, 0, 0};
+            out.writeLong(1);
+            out.writeInt(clearAll.length);
+            out.write(clearAll);
+            out.write(new byte[MAC_SIZE]);
+            out.flush();
+
+            endOfStream = in.read();
+        }
+
+        // then
+        assertThat(nodeProof).isEqualTo(sign(SECRET, nodeNonce, nonce));
+        assertThat(endOfStream).isEqualTo(-1);
+        assertThat(cache.getById(uuid)).isPresent();
+    }
+
+    @Test
+    public void nodeShouldCloseConnectionAnnouncingOversizedBatch() throws IOException {
+        // given
+        byte[] nonce = new byte[NONCE_SIZE];
+
+        int endOfStream;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), NODE_PORT)) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            handshake(in, out, nonce, SECRET);
+            in.readFully(new byte[MAC_SIZE]);
+
+            // when
+            out.writeLong(1);
+            out.writeInt(OVERSIZED_BATCH_SIZE);
+            out.flush();
+
+            endOfStream = in.read();
+        }
+
+        // then
+        assertThat(endOfStream).isEqualTo(-1);
+    }
+
+    @Test
+    public void restartedPeerShouldReceiveMissedInvalidationsWithoutClearing() throws IOException, InterruptedException {
+        // given
+        UUID uuidToUpdate = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+        UUID otherUuid = UUID.randomUUID();
+        PersonResponse response = personService.findByUUID(uuidToUpdate).get();
+
+        // when
+        peer.destroy();
+        personService.update(aPersonRequest("1000000000002"), uuidToUpdate);
+
+        peerCacheManager = new CacheManager(name -> new LRUCache<>(100), name -> new LRUCache<>(100));
+        Cache<UUID, PersonResponse> peerCache = peerCacheManager.getCache(ApplicationConstants.PEOPLE_CACHE);
+        peerCache.addOrUpdate(uuidToUpdate, response);
+        peerCache.addOrUpdate(otherUuid, response);
+        peer = startPeer(peerCacheManager);
+
+        awaitSize(peerCache, 1);
+
+        // then
+        assertThat(peerCache.getById(uuidToUpdate)).isEmpty();
+        assertThat(peerCache.getById(otherUuid)).isPresent();
+    }
+
+    @Test
+    public void rolledBackUpdateShouldNotEvictElementOnPeer() throws InterruptedException {
+        // given
+        List<PersonResponse> people = personService.findAll(PageRequest.of(0, 2))
+                .getContent();
+        UUID rolledBackUUID = people.get(0).getUuid();
+        UUID committedUUID = people.get(1).getUuid();
+
+        Cache<UUID, PersonResponse> peerCache = peerCacheManager.getCache(ApplicationConstants.PEOPLE_CACHE);
+        peerCache.addOrUpdate(rolledBackUUID, people.get(0));
+        peerCache.addOrUpdate(committedUUID, people.get(1));
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> {
+            personService.update(aPersonRequest("1000000000003"), rolledBackUUID);
+            status.setRollbackOnly();
+        });
+        // invalidations are delivered in order, so once this one arrives the rolled back one would have too
+        personService.update(aPersonRequest("1000000000004"), committedUUID);
+        awaitSize(peerCache, 1);
+
+        // then
+        assertThat(peerCache.getById(committedUUID)).isEmpty();
+        assertThat(peerCache.getById(rolledBackUUID)).isPresent();
+    }
+
+    private PersonRequest aPersonRequest(String passportNumber) {
+        House house = houseRepository.findAll(PageRequest.of(0, 1))
+                .getContent().get(0);
+
+        return PersonTestBuilder.aPerson()
+                .withHouseOfResidence(house)
+                .withPassportNumber(passportNumber)
+                .buildRequest();
+    }
+
+    /**
+     * Exchanges the headers with the node, then sends the proof of the secret.
+     *
+     * @return the nonce of the node
+     */
+    private static byte[] handshake(DataInputStream in, DataOutputStream out, byte[] nonce, String secret) throws IOException {
+        out.writeInt(PEER_MAGIC);
+        out.writeLong(0);
+        out.writeLong(1);
+        out.write(nonce);
+        out.flush();
+
+        in.readFully(new byte[Integer.BYTES + 2 * Long.BYTES]);
+        byte[] nodeNonce = new byte[NONCE_SIZE];
+        in.readFully(nodeNonce);
+
+        out.write(sign(secret, nonce, nodeNonce));
+        out.flush();
+        return nodeNonce;
+    }
+
+    /**
+     * @return the proof of the handshake : an HMAC of the nonces, the sequence 0 and no payload
+     */
+    private static byte[] sign(String secret, byte[] senderNonce, byte[] receiverNonce) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM));
+            mac.update(senderNonce);
+            mac.update(receiverNonce);
+            return mac.doFinal(new byte[Long.BYTES]);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static PeerInvalidationBus startPeer(CacheManager peerCacheManager) throws IOException {
+        return startPeer(peerCacheManager, SECRET);
+    }
+
+    private static PeerInvalidationBus startPeer(CacheManager peerCacheManager, String secret) throws IOException {
+        return new PeerInvalidationBus(new CacheInvalidator(peerCacheManager, null),
+                InetAddress.getLoopbackAddress(),
+                PEER_PORT,
+                secret,
+                () -> List.of(new InetSocketAddress("localhost", NODE_PORT)),
+                Duration.ofMillis(10),
+                1000);
+    }
+
+    private static void awaitEmpty(Cache<UUID, PersonResponse> cache) throws InterruptedException {
+        awaitSize(cache, 0);
+    }
+
+    private static void awaitSize(Cache<UUID, PersonResponse> cache, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MILLIS;
+        while (cache.getSize() > size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static int findFreePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package ru.clevertec.house.cache.engine;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.ConcurrentLRUCache;
+import io.github.sakujj.cache.ExpiringCache;
+import io.github.sakujj.cache.LRUCache;
+import io.github.sakujj.cache.Weigher;
+import io.github.sakujj.cache.codec.EntityCodec;
+import io.github.sakujj.cache.codec.ReflectiveEntityCodec;
+import io.github.sakujj.cache.snapshot.SnapshotFile;
+import io.github.sakujj.cache.snapshot.SnapshotRestoringCache;
+import io.github.sakujj.cache.stats.RemovalCause;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.clevertec.house.dto.HouseResponse;
+import ru.clevertec.house.test.util.HouseTestBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BulkOperationsTests {
+
+    private static final int CAPACITY = 3;
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+    private static final int SNAPSHOT_ENTRY_COUNT = 10;
+
+    private final AtomicLong now = new AtomicLong();
+    private final EntityCodec codec = new ReflectiveEntityCodec();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void concurrentLRUGetAllByIdShouldSplitFoundAndMissing() {
+        // given
+        ConcurrentLRUCache<UUID, HouseResponse> cache = new ConcurrentLRUCache<>(CAPACITY);
+        cache.addOrUpdate(uuidOf(0), houseOf(0));
+        cache.addOrUpdate(uuidOf(1), houseOf(1));
+
+        // when
+        Cache.BulkLookup<UUID, HouseResponse> lookup = cache.getAllById(uuidsOf(0, 1, 2));
+
+        // then
+        assertThat(lookup.found()).isEqualTo(housesOf(0, 1));
+        assertThat(lookup.missing()).containsExactly(uuidOf(2));
+        assertThat(cache.getStats().hitCount()).isEqualTo(2);
+        assertThat(cache.getStats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void concurrentLRUAddOrUpdateAllShouldEvictLeastRecentlyUsedDuringBatch() {
+        // given
+        ConcurrentLRUCache<UUID, HouseResponse> cache = new ConcurrentLRUCache<>(CAPACITY);
+        cache.addOrUpdateAll(housesOf(0, 1, 2));
+        cache.getAllById(uuidsOf(0));
+
+        // when
+        cache.addOrUpdateAll(housesOf(3, 4));
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(CAPACITY);
+        assertThat(cache.getAllById(uuidsOf(0, 1, 2, 3, 4)).found()).isEqualTo(housesOf(0, 3, 4));
+        assertThat(cache.getStats().evictionCounts()).containsEntry(RemovalCause.SIZE, 2L);
+    }
+
+    @Test
+    public void concurrentLRUAddOrUpdateAllShouldKeepLastValuesOfBatchLargerThanCapacity() {
+        // given
+        ConcurrentLRUCache<UUID, HouseResponse> cache = new ConcurrentLRUCache<>(CAPACITY);
+
+        // when
+        cache.addOrUpdateAll(housesOf(0, 1, 2, 3, 4));
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(CAPACITY);
+        assertThat(cache.getAllById(uuidsOf(0, 1, 2, 3, 4)).found()).isEqualTo(housesOf(2, 3, 4));
+    }
+
+    @Test
+    public void concurrentLRURemoveAllByIdShouldRemoveOnlyGivenIds() {
+        // given
+        ConcurrentLRUCache<UUID, HouseResponse> cache = new ConcurrentLRUCache<>(CAPACITY);
+        cache.addOrUpdateAll(housesOf(0, 1, 2));
+
+        // when
+        cache.removeAllById(uuidsOf(0, 2, 5));
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(1);
+        assertThat(cache.getWeight()).isEqualTo(1);
+        assertThat(cache.getAllById(uuidsOf(0, 1, 2)).found()).isEqualTo(housesOf(1));
+    }
+
+    @Test
+    public void expiringGetAllByIdShouldReportExpiredAsMissing() {
+        // given
+        ExpiringCache<UUID, HouseResponse> cache = expiringCache();
+        cache.addOrUpdate(uuidOf(0), houseOf(0));
+        now.addAndGet(EXPIRE_AFTER_WRITE.dividedBy(2).toNanos());
+        cache.addOrUpdate(uuidOf(1), houseOf(1));
+
+        // when
+        now.addAndGet(EXPIRE_AFTER_WRITE.dividedBy(2).toNanos());
+        Cache.BulkLookup<UUID, HouseResponse> lookup = cache.getAllById(uuidsOf(0, 1, 2));
+
+        // then
+        assertThat(lookup.found()).isEqualTo(housesOf(1));
+        assertThat(lookup.missing()).containsExactlyInAnyOrder(uuidOf(0), uuidOf(2));
+        assertThat(cache.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void expiringAddOrUpdateAllShouldRestartTimeToLiveOfEveryValue() {
+        // given
+        ExpiringCache<UUID, HouseResponse> cache = expiringCache();
+        cache.addOrUpdateAll(housesOf(0, 1));
+        now.addAndGet(EXPIRE_AFTER_WRITE.dividedBy(2).toNanos());
+
+        // when
+        cache.addOrUpdateAll(housesOf(0));
+        now.addAndGet(EXPIRE_AFTER_WRITE.dividedBy(2).toNanos());
+
+        // then
+        assertThat(cache.getAllById(uuidsOf(0, 1)).found()).isEqualTo(housesOf(0));
+    }
+
+    @Test
+    public void expiringAddOrUpdateAllShouldEvictDuringBatchAndExpireTheRest() {
+        // given
+        ExpiringCache<UUID, HouseResponse> cache = expiringCache();
+
+        // when
+        cache.addOrUpdateAll(housesOf(0, 1, 2, 3, 4));
+        now.addAndGet(EXPIRE_AFTER_WRITE.toNanos());
+        cache.addOrUpdateAll(housesOf(0, 1));
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(2);
+        assertThat(cache.getAllById(uuidsOf(0, 1, 2, 3, 4)).found()).isEqualTo(housesOf(0, 1));
+        assertThat(cache.getStats().evictionCounts())
+                .containsEntry(RemovalCause.SIZE, 2L)
+                .containsEntry(RemovalCause.EXPIRED, 3L);
+    }
+
+    @Test
+    public void expiringRemoveAllByIdShouldRemoveOnlyGivenIds() {
+        // given
+        ExpiringCache<UUID, HouseResponse> cache = expiringCache();
+        cache.addOrUpdateAll(housesOf(0, 1, 2));
+
+        // when
+        cache.removeAllById(uuidsOf(0, 2, 5));
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(1);
+        assertThat(cache.getAllById(uuidsOf(0, 1, 2)).found()).isEqualTo(housesOf(1));
+    }
+
+    @Test
+    public void snapshotGetAllByIdShouldRestoreFoundInSnapshot() throws IOException {
+        // given
+        LRUCache<UUID, HouseResponse> restored = new LRUCache<>(CAPACITY);
+        SnapshotRestoringCache<HouseResponse> cache = new SnapshotRestoringCache<>(restored, readSnapshot());
+        cache.addOrUpdate(uuidOf(0), houseOf(0));
+
+        // when
+        Cache.BulkLookup<UUID, HouseResponse> lookup = cache.getAllById(List.of(uuidOf(0), uuidOf(1), uuidOf(100)));
+
+        // then
+        assertThat(lookup.found()).isEqualTo(housesOf(0, 1));
+        assertThat(lookup.missing()).containsExactly(uuidOf(100));
+        assertThat(restored.getAllById(uuidsOf(0, 1)).found()).isEqualTo(housesOf(0, 1));
+    }
+
+    @Test
+    public void snapshotGetAllByIdShouldReturnAllRestoredEvenIfTheyEvictEachOther() throws IOException {
+        // given
+        LRUCache<UUID, HouseResponse> restored = new LRUCache<>(CAPACITY);
+        SnapshotRestoringCache<HouseResponse> cache = new SnapshotRestoringCache<>(restored, readSnapshot());
+
+        // when
+        Cache.BulkLookup<UUID, HouseResponse> lookup = cache.getAllById(uuidsOf(0, 1, 2, 3, 4));
+
+        // then
+        assertThat(lookup.found()).isEqualTo(housesOf(0, 1, 2, 3, 4));
+        assertThat(lookup.missing()).isEmpty();
+        assertThat(restored.getSize()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    public void snapshotAddOrUpdateAllAndRemoveAllByIdShouldDiscardSnapshotEntries() throws IOException {
+        // given
+        SnapshotRestoringCache<HouseResponse> cache = new SnapshotRestoringCache<>(new LRUCache<>(CAPACITY), readSnapshot());
+        HouseResponse updated = HouseTestBuilder.aHouse()
+                .withUuid(uuidOf(0))
+                .withStreet("Updated")
+                .buildResponse();
+
+        // when
+        cache.addOrUpdateAll(Map.of(uuidOf(0), updated));
+        cache.removeAllById(uuidsOf(0, 1));
+
+        // then
+        Cache.BulkLookup<UUID, HouseResponse> lookup = cache.getAllById(uuidsOf(0, 1, 2));
+        assertThat(lookup.found()).isEqualTo(housesOf(2));
+        assertThat(lookup.missing()).containsExactlyInAnyOrder(uuidOf(0), uuidOf(1));
+    }
+
+    private ExpiringCache<UUID, HouseResponse> expiringCache() {
+        return new ExpiringCache<>(evictionListener -> new LRUCache<>(CAPACITY, Weigher.singleton(), evictionListener),
+                EXPIRE_AFTER_WRITE,
+                null,
+                now::get);
+    }
+
+    private SnapshotFile.Snapshot readSnapshot() throws IOException {
+        LRUCache<UUID, HouseResponse> cache = new LRUCache<>(SNAPSHOT_ENTRY_COUNT);
+        cache.addOrUpdateAll(housesOf(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+
+        Path path = directory.resolve("cache-snapshot.bin");
+        SnapshotFile.write(path, cache, codec);
+        return SnapshotFile.read(path, Duration.ofHours(1), codec).orElseThrow();
+    }
+
+    private static List<UUID> uuidsOf(int... indexes) {
+        return Arrays.stream(indexes)
+                .mapToObj(BulkOperationsTests::uuidOf)
+                .toList();
+    }
+
+    private static Map<UUID, HouseResponse> housesOf(int... indexes) {
+        Map<UUID, HouseResponse> houses = new LinkedHashMap<>();
+        for (int i : indexes) {
+            houses.put(uuidOf(i), houseOf(i));
+        }
+        return houses;
+    }
+
+    private static UUID uuidOf(int i) {
+        return new UUID(0, i);
+    }
+
+    private static HouseResponse houseOf(int i) {
+        return HouseTestBuilder.aHouse()
+                .withUuid(uuidOf(i))
+                .withNumber(i)
+                .buildResponse();
+    }
+}
@@ -0,0 +1,127 @@
+package ru.clevertec.house.cache.engine;
+
+import io.github.sakujj.cache.aop.CacheKeyResolver;
+import io.github.sakujj.cache.aop.CacheableFind;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanFactory;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CacheKeyResolverTests {
+
+    private static final String SERIES = "AB";
+    private static final int NUMBER = 1234567;
+    private static final int COMPILING_CALL_COUNT = 1000;
+
+    private final CacheKeyResolver resolver = new CacheKeyResolver(mock(BeanFactory.class));
+
+    @Test
+    public void resolveShouldBuildCompositeKeyAsList() throws NoSuchMethodException {
+        // given
+        Method method = methodOf("findByPassport");
+
+        // when
+        Object key = resolve(method, SERIES, NUMBER);
+
+        // then
+        assertThat(key).isEqualTo(List.of(SERIES, NUMBER));
+    }
+
+    @Test
+    public void resolveShouldKeepCompositeKeyOnceCompiled() throws NoSuchMethodException {
+        // given
+        Method method = methodOf("findByPassport");
+        for (int i = 0; i < COMPILING_CALL_COUNT; i++) {
+            resolve(method, SERIES + i, i);
+        }
+
+        // when
+        Object key = resolve(method, SERIES, NUMBER);
+        Object keyWithNull = resolve(method, null, NUMBER);
+
+        // then
+        assertThat(key).isEqualTo(List.of(SERIES, NUMBER));
+        assertThat(keyWithNull).isEqualTo(Arrays.asList(null, NUMBER));
+    }
+
+    @Test
+    public void resolveShouldReturnCompositeKeyThatCanNotBeModified() throws NoSuchMethodException {
+        // given
+        Method method = methodOf("findByPassport");
+
+        // when
+        Object key = resolve(method, SERIES, NUMBER);
+
+        // then
+        assertThatThrownBy(() -> ((List<?>) key).remove(0))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void resolveShouldBuildConstantCompositeKeyAsList() throws NoSuchMethodException {
+        // given
+        Method method = methodOf("findConstant");
+
+        // when
+        Object key = resolve(method, SERIES, NUMBER);
+
+        // then
+        assertThat(key).isEqualTo(List.of("passport", 1));
+    }
+
+    @Test
+    public void resolveShouldBuildSingleKeyAsIs() throws NoSuchMethodException {
+        // given
+        Method method = methodOf("findBySeries");
+
+        // when
+        Object key = resolve(method, SERIES, NUMBER);
+
+        // then
+        assertThat(key).isEqualTo(SERIES);
+    }
+
+    private Object resolve(Method method, Object... args) {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+
+        ProceedingJoinPoint pjp = mock(ProceedingJoinPoint.class);
+        when(pjp.getSignature()).thenReturn(signature);
+        when(pjp.getArgs()).thenReturn(args);
+
+        CacheableFind annotation = method.getAnnotation(CacheableFind.class);
+        return resolver.resolve(pjp, annotation, annotation.key(), annotation.keyGenerator(), arguments -> arguments);
+    }
+
+    private static Method methodOf(String name) throws NoSuchMethodException {
+        return PassportFinder.class.getDeclaredMethod(name, String.class, Integer.class);
+    }
+
+    private static class PassportFinder {
+
+        @CacheableFind(tags = "people", key = "{#p0, #p1}")
+        public Optional<Object> findByPassport(String series, Integer number) {
+            return Optional.empty();
+        }
+
+        @CacheableFind(tags = "people", key = "{'passport', 1}")
+        public Optional<Object> findConstant(String series, Integer number) {
+            return Optional.empty();
+        }
+
+        @CacheableFind(tags = "people", key = "#p0")
+        public Optional<Object> findBySeries(String series, Integer number) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.clevertec.house.cache.engine;
+
+import io.github.sakujj.cache.trace.FileTraceRecorder;
+import io.github.sakujj.cache.trace.TraceFile;
+import io.github.sakujj.cache.trace.TraceOperation;
+import io.github.sakujj.cache.trace.TraceRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileTraceRecorderTests {
+
+    private static final String CACHE = "people";
+    private static final int RECORD_COUNT = 2000;
+    private static final long MAX_FILE_SIZE = 1024;
+    private static final int MAX_FILES = RECORD_COUNT;
+    private static final int QUEUE_CAPACITY = RECORD_COUNT;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void recordsShouldKeepTheirTimeAcrossRotations() throws IOException, InterruptedException {
+        // given
+        Path basePath = directory.resolve("cache-trace.bin");
+        FileTraceRecorder recorder = new FileTraceRecorder(basePath, MAX_FILE_SIZE, MAX_FILES, QUEUE_CAPACITY);
+        long[] earliestTimes = new long[RECORD_COUNT];
+        long[] latestTimes = new long[RECORD_COUNT];
+
+        // when
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            earliestTimes[i] = System.currentTimeMillis();
+            recorder.record(CACHE, new UUID(0, i), TraceOperation.READ);
+            latestTimes[i] = System.currentTimeMillis();
+        }
+        recorder.destroy();
+
+        List<TraceRecord> records = new ArrayList<>();
+        for (Path path : TraceFile.listOldestFirst(basePath)) {
+            TraceFile.read(path, records::add);
+        }
+
+        // then
+        assertThat(recorder.getDroppedCount()).isZero();
+        assertThat(TraceFile.listOldestFirst(basePath)).hasSizeGreaterThan(1);
+        assertThat(records).hasSize(RECORD_COUNT);
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            assertThat(records.get(i).uuid()).isEqualTo(new UUID(0, i));
+            assertThat(records.get(i).timestamp()).isBetween(earliestTimes[i], latestTimes[i]);
+        }
+    }
+}
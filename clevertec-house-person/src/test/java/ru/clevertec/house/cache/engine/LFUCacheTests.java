@@ -0,0 +1,94 @@
+package ru.clevertec.house.cache.engine;
+
+import io.github.sakujj.cache.LFUCache;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.house.dto.HouseResponse;
+import ru.clevertec.house.test.util.HouseTestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LFUCacheTests {
+
+    private static final int CAPACITY = 2;
+    private static final int DECAY_PERIOD = 8;
+    private static final int FORMERLY_HOT_HITS = 16;
+    private static final int CURRENTLY_HOT_HITS = 8;
+
+    @Test
+    public void cacheShouldEvictFormerlyHotEntryOnceFrequenciesDecay() {
+        // given
+        LFUCache<UUID, HouseResponse> cache = new LFUCache<>(CAPACITY, DECAY_PERIOD);
+        shiftWorkload(cache);
+
+        // when
+        cache.addOrUpdate(uuidOf(2), houseOf(2));
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(CAPACITY);
+        assertThat(cache.getById(uuidOf(0))).isEmpty();
+        assertThat(cache.getById(uuidOf(1))).isPresent();
+        assertThat(cache.getById(uuidOf(2))).isPresent();
+    }
+
+    @Test
+    public void cacheShouldKeepFormerlyHotEntryWithoutDecay() {
+        // given
+        LFUCache<UUID, HouseResponse> cache = new LFUCache<>(CAPACITY);
+        shiftWorkload(cache);
+
+        // when
+        cache.addOrUpdate(uuidOf(2), houseOf(2));
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(CAPACITY);
+        assertThat(cache.getById(uuidOf(0))).isPresent();
+        assertThat(cache.getById(uuidOf(1))).isEmpty();
+        assertThat(cache.getById(uuidOf(2))).isPresent();
+    }
+
+    @Test
+    public void restoreShouldTreatFrequencyBelowOneAsOne() {
+        // given
+        LFUCache<UUID, HouseResponse> cache = new LFUCache<>(CAPACITY);
+        cache.restore(uuidOf(0), houseOf(0), 1);
+        cache.restore(uuidOf(1), houseOf(1), 0);
+        cache.getById(uuidOf(1));
+
+        // when
+        cache.addOrUpdate(uuidOf(2), houseOf(2));
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(CAPACITY);
+        assertThat(cache.getById(uuidOf(0))).isEmpty();
+        assertThat(cache.getById(uuidOf(1))).isPresent();
+        assertThat(cache.getById(uuidOf(2))).isPresent();
+    }
+
+    /**
+     * Reads the entity 0 often, then the entity 1 half as often : without decay the entity 0 stays the most frequent.
+     */
+    private static void shiftWorkload(LFUCache<UUID, HouseResponse> cache) {
+        cache.addOrUpdate(uuidOf(0), houseOf(0));
+        for (int i = 0; i < FORMERLY_HOT_HITS; i++) {
+            cache.getById(uuidOf(0));
+        }
+
+        cache.addOrUpdate(uuidOf(1), houseOf(1));
+        for (int i = 0; i < CURRENTLY_HOT_HITS; i++) {
+            cache.getById(uuidOf(1));
+        }
+    }
+
+    private static UUID uuidOf(int i) {
+        return new UUID(0, i);
+    }
+
+    private static HouseResponse houseOf(int i) {
+        return HouseTestBuilder.aHouse()
+                .withUuid(uuidOf(i))
+                .withNumber(i)
+                .buildResponse();
+    }
+}
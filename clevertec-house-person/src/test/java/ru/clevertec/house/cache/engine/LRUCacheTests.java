@@ -0,0 +1,67 @@
+package ru.clevertec.house.cache.engine;
+
+import io.github.sakujj.cache.LRUCache;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.house.dto.HouseResponse;
+import ru.clevertec.house.test.util.HouseTestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LRUCacheTests {
+
+    private static final int CAPACITY = 3;
+
+    @Test
+    public void cacheShouldNotEvictWhenUpdatingExistingKeyOfFullCache() {
+        // given
+        LRUCache<UUID, HouseResponse> cache = new LRUCache<>(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.addOrUpdate(uuidOf(i), houseOf(i, "Street"));
+        }
+        HouseResponse updated = houseOf(1, "Updated");
+
+        // when
+        cache.addOrUpdate(uuidOf(1), updated);
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(CAPACITY);
+        assertThat(cache.getStats().evictionCounts()).allSatisfy((cause, count) -> assertThat(count).isZero());
+        assertThat(cache.getById(uuidOf(0))).contains(houseOf(0, "Street"));
+        assertThat(cache.getById(uuidOf(1))).contains(updated);
+        assertThat(cache.getById(uuidOf(2))).contains(houseOf(2, "Street"));
+    }
+
+    @Test
+    public void cacheShouldEvictLeastRecentlyUsedAfterUpdateMovesKeyToFront() {
+        // given
+        LRUCache<UUID, HouseResponse> cache = new LRUCache<>(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.addOrUpdate(uuidOf(i), houseOf(i, "Street"));
+        }
+        cache.addOrUpdate(uuidOf(0), houseOf(0, "Updated"));
+
+        // when
+        cache.addOrUpdate(uuidOf(3), houseOf(3, "Street"));
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(CAPACITY);
+        assertThat(cache.getById(uuidOf(0))).isPresent();
+        assertThat(cache.getById(uuidOf(1))).isEmpty();
+        assertThat(cache.getById(uuidOf(2))).isPresent();
+        assertThat(cache.getById(uuidOf(3))).isPresent();
+    }
+
+    private static UUID uuidOf(int i) {
+        return new UUID(0, i);
+    }
+
+    private static HouseResponse houseOf(int i, String street) {
+        return HouseTestBuilder.aHouse()
+                .withUuid(uuidOf(i))
+                .withNumber(i)
+                .withStreet(street)
+                .buildResponse();
+    }
+}
@@ -0,0 +1,83 @@
+package ru.clevertec.house.cache.engine;
+
+import io.github.sakujj.cache.OffHeapCache;
+import io.github.sakujj.cache.codec.ReflectiveEntityCodec;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.house.dto.HouseResponse;
+import ru.clevertec.house.test.util.HouseTestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OffHeapCacheTests {
+
+    private static final int CAPACITY = 100;
+
+    @Test
+    public void cacheShouldKeepCapacityWhenIndexFillsBeforeSlabs() {
+        // given
+        OffHeapCache<HouseResponse> cache = new OffHeapCache<>(CAPACITY, 64L << 20, new ReflectiveEntityCodec());
+
+        // when
+        for (int i = 0; i <= CAPACITY; i++) {
+            cache.addOrUpdate(uuidOf(i), houseOf(i));
+        }
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(CAPACITY);
+        assertThat(cache.getById(uuidOf(0))).isEmpty();
+        assertThat(cache.getById(uuidOf(1))).contains(houseOf(1));
+        assertThat(cache.getById(uuidOf(CAPACITY))).contains(houseOf(CAPACITY));
+    }
+
+    @Test
+    public void cacheShouldEvictOldestRecordsAcrossSlabs() {
+        // given
+        OffHeapCache<HouseResponse> cache = new OffHeapCache<>(CAPACITY, 1L << 20, new ReflectiveEntityCodec());
+
+        // when
+        for (int i = 0; i < 10 * CAPACITY; i++) {
+            cache.addOrUpdate(uuidOf(i), houseOf(i));
+        }
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(CAPACITY);
+        assertThat(cache.getById(uuidOf(9 * CAPACITY - 1))).isEmpty();
+        for (int i = 9 * CAPACITY; i < 10 * CAPACITY; i++) {
+            assertThat(cache.getById(uuidOf(i))).contains(houseOf(i));
+        }
+    }
+
+    @Test
+    public void cacheShouldNotEvictWhenUpdatingExistingRecordOfFullIndex() {
+        // given
+        OffHeapCache<HouseResponse> cache = new OffHeapCache<>(CAPACITY, 64L << 20, new ReflectiveEntityCodec());
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.addOrUpdate(uuidOf(i), houseOf(i));
+        }
+
+        // when
+        HouseResponse updated = HouseTestBuilder.aHouse()
+                .withUuid(uuidOf(0))
+                .withStreet("Updated")
+                .buildResponse();
+        cache.addOrUpdate(uuidOf(0), updated);
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(CAPACITY);
+        assertThat(cache.getById(uuidOf(0))).contains(updated);
+        assertThat(cache.getById(uuidOf(1))).contains(houseOf(1));
+    }
+
+    private static UUID uuidOf(int i) {
+        return new UUID(0, i);
+    }
+
+    private static HouseResponse houseOf(int i) {
+        return HouseTestBuilder.aHouse()
+                .withUuid(uuidOf(i))
+                .withNumber(i)
+                .buildResponse();
+    }
+}
@@ -0,0 +1,152 @@
+package ru.clevertec.house.cache.engine;
+
+import io.github.sakujj.cache.IdentifiableByUUID;
+import io.github.sakujj.cache.codec.ReflectiveEntityCodec;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.house.dto.HouseResponse;
+import ru.clevertec.house.dto.PersonResponse;
+import ru.clevertec.house.enumeration.Sex;
+import ru.clevertec.house.test.util.HouseTestBuilder;
+import ru.clevertec.house.test.util.PersonTestBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ReflectiveEntityCodecTests {
+
+    private static final int DICTIONARY_SIZE = 2;
+
+    private final ReflectiveEntityCodec codec = new ReflectiveEntityCodec(Set.of("country", "city"), DICTIONARY_SIZE, true);
+
+    @Test
+    public void decodeShouldReturnEqualEntity() {
+        // given
+        HouseResponse house = houseOf(0, "Minsk");
+        PersonResponse person = PersonTestBuilder.aPerson()
+                .withSex(Sex.FEMALE)
+                .withPassportSeries(null)
+                .buildResponse();
+
+        // when
+        IdentifiableByUUID decodedHouse = codec.decode(ByteBuffer.wrap(codec.encode(house)));
+        IdentifiableByUUID decodedPerson = codec.decode(directBufferOf(codec.encode(person)));
+
+        // then
+        assertThat(decodedHouse).isEqualTo(house);
+        assertThat(decodedPerson).isEqualTo(person);
+    }
+
+    @Test
+    public void decodePortableShouldReturnEqualEntityForAnotherCodecInstance() {
+        // given
+        HouseResponse house = houseOf(0, "Minsk");
+        byte[] encoded = codec.encodePortable(house);
+
+        // when
+        IdentifiableByUUID decoded = new ReflectiveEntityCodec().decodePortable(ByteBuffer.wrap(encoded));
+
+        // then
+        assertThat(decoded).isEqualTo(house);
+    }
+
+    @Test
+    public void decodePortableShouldRejectEntityEncodedWithOtherFields() {
+        // given
+        byte[] encoded = codec.encodePortable(houseOf(0, "Minsk"));
+
+        // a house read as a person : the same bytes under a class with other fields
+        byte[] renamed = withClassName(encoded, HouseResponse.class, PersonResponse.class.getName());
+
+        // when, then
+        assertThatThrownBy(() -> new ReflectiveEntityCodec().decodePortable(ByteBuffer.wrap(renamed)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("fields changed");
+    }
+
+    @Test
+    public void decodePortableShouldRejectClassNotIdentifiableByUUID() {
+        // given
+        byte[] encoded = codec.encodePortable(houseOf(0, "Minsk"));
+        byte[] renamed = withClassName(encoded, HouseResponse.class, ArrayList.class.getName());
+
+        // when, then
+        assertThatThrownBy(() -> new ReflectiveEntityCodec().decodePortable(ByteBuffer.wrap(renamed)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not an IdentifiableByUUID");
+    }
+
+    @Test
+    public void encodeShouldDictionaryEncodeOnlyConfiguredFields() {
+        // given
+        ReflectiveEntityCodec withoutDictionaries = new ReflectiveEntityCodec();
+        HouseResponse house = houseOf(0, "Minsk");
+
+        // when
+        int length = codec.encode(house).length;
+        int lengthWithoutDictionaries = withoutDictionaries.encode(house).length;
+
+        // then
+        // the country and the city are written as one-byte indexes instead of a length and the bytes, the street as is
+        assertThat(lengthWithoutDictionaries - length)
+                .isEqualTo(house.getCountry().length() + house.getCity().length());
+    }
+
+    @Test
+    public void encodeShouldWriteValuesBeyondFullDictionaryInline() {
+        // given
+        HouseResponse[] houses = new HouseResponse[DICTIONARY_SIZE + 2];
+        byte[][] encoded = new byte[houses.length][];
+        for (int i = 0; i < houses.length; i++) {
+            houses[i] = houseOf(i, "City" + i);
+            encoded[i] = codec.encode(houses[i]);
+        }
+
+        // when
+        byte[] reencodedFirst = codec.encode(houses[0]);
+
+        // then
+        for (int i = 0; i < houses.length; i++) {
+            assertThat(codec.decode(ByteBuffer.wrap(encoded[i]))).isEqualTo(houses[i]);
+        }
+        assertThat(encoded[DICTIONARY_SIZE].length - encoded[0].length).isEqualTo(houses[DICTIONARY_SIZE].getCity().length());
+        assertThat(reencodedFirst).isEqualTo(encoded[0]);
+
+        HouseResponse first = (HouseResponse) codec.decode(ByteBuffer.wrap(encoded[0]));
+        HouseResponse second = (HouseResponse) codec.decode(ByteBuffer.wrap(reencodedFirst));
+        assertThat(second.getCity()).isSameAs(first.getCity());
+    }
+
+    /**
+     * Replaces the class name at the start of the portable form, both names being shorter than 128 bytes.
+     */
+    private static byte[] withClassName(byte[] encoded, Class<?> type, String className) {
+        byte[] name = className.getBytes(StandardCharsets.UTF_8);
+        int headerSize = 1 + type.getName().getBytes(StandardCharsets.UTF_8).length;
+
+        return ByteBuffer.allocate(1 + name.length + encoded.length - headerSize)
+                .put((byte) name.length)
+                .put(name)
+                .put(encoded, headerSize, encoded.length - headerSize)
+                .array();
+    }
+
+    private static ByteBuffer directBufferOf(byte[] bytes) {
+        return ByteBuffer.allocateDirect(bytes.length)
+                .put(bytes)
+                .flip();
+    }
+
+    private static HouseResponse houseOf(int i, String city) {
+        return HouseTestBuilder.aHouse()
+                .withUuid(new UUID(0, i))
+                .withNumber(i)
+                .withCity(city)
+                .buildResponse();
+    }
+}
@@ -0,0 +1,177 @@
+package ru.clevertec.house.cache.engine;
+
+import io.github.sakujj.cache.IdentifiableByUUID;
+import io.github.sakujj.cache.LRUCache;
+import io.github.sakujj.cache.codec.EntityCodec;
+import io.github.sakujj.cache.codec.ReflectiveEntityCodec;
+import io.github.sakujj.cache.snapshot.SnapshotFile;
+import io.github.sakujj.cache.snapshot.SnapshotRestoringCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.clevertec.house.dto.HouseResponse;
+import ru.clevertec.house.test.util.HouseTestBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SnapshotFileTests {
+
+    private static final int ENTRY_COUNT = 10;
+    private static final int ENTRY_COUNT_OFFSET = 14;
+    private static final Duration MAX_STALENESS = Duration.ofHours(1);
+
+    private final EntityCodec codec = new ReflectiveEntityCodec();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void readShouldIndexAllEntriesOfValidSnapshot() throws IOException {
+        // given
+        Path path = writeSnapshot();
+
+        // when
+        Optional<SnapshotFile.Snapshot> snapshot = SnapshotFile.read(path, MAX_STALENESS, codec);
+
+        // then
+        assertThat(snapshot).isPresent();
+        assertThat(snapshot.get().getSize()).isEqualTo(ENTRY_COUNT);
+    }
+
+    @Test
+    public void readShouldDiscardSnapshotWithEntryCountBeyondItsSize() throws IOException {
+        // given
+        Path path = writeSnapshot();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, Integer.MAX_VALUE), ENTRY_COUNT_OFFSET);
+        }
+
+        // when
+        Optional<SnapshotFile.Snapshot> snapshot = SnapshotFile.read(path, MAX_STALENESS, codec);
+
+        // then
+        assertThat(snapshot).isEmpty();
+    }
+
+    @Test
+    public void readShouldDiscardSnapshotWithTruncatedEntry() throws IOException {
+        // given
+        Path path = writeSnapshot();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(path) - 1);
+        }
+
+        // when
+        Optional<SnapshotFile.Snapshot> snapshot = SnapshotFile.read(path, MAX_STALENESS, codec);
+
+        // then
+        assertThat(snapshot).isEmpty();
+    }
+
+    @Test
+    public void takeShouldTreatUndecodableEntryAsMissing() throws IOException {
+        // given
+        EntityCodec failingCodec = new EntityCodec() {
+            @Override
+            public byte[] encode(IdentifiableByUUID identifiableByUUID) {
+                return codec.encode(identifiableByUUID);
+            }
+
+            @Override
+            public IdentifiableByUUID decode(ByteBuffer buffer) {
+                return codec.decode(buffer);
+            }
+
+            @Override
+            public IdentifiableByUUID decodePortable(ByteBuffer buffer) {
+                throw new IllegalArgumentException("Can not decode an instance of a missing class");
+            }
+        };
+        SnapshotFile.Snapshot snapshot = SnapshotFile.read(writeSnapshot(), MAX_STALENESS, failingCodec).orElseThrow();
+        List<SnapshotFile.Entry> restored = new ArrayList<>();
+
+        // when
+        Optional<SnapshotFile.Entry> taken = snapshot.take(uuidOf(0), restored::add);
+
+        // then
+        assertThat(taken).isEmpty();
+        assertThat(restored).isEmpty();
+        assertThat(snapshot.getSize()).isEqualTo(ENTRY_COUNT - 1);
+    }
+
+    @Test
+    public void restoreShouldNotOverwriteValueWrittenMeanwhile() throws Exception {
+        // given
+        SnapshotFile.Snapshot snapshot = SnapshotFile.read(writeSnapshot(), MAX_STALENESS, codec).orElseThrow();
+        HouseResponse updated = HouseTestBuilder.aHouse()
+                .withUuid(uuidOf(0))
+                .withStreet("Updated")
+                .buildResponse();
+
+        AtomicReference<Thread> writer = new AtomicReference<>();
+        AtomicReference<SnapshotRestoringCache<HouseResponse>> restoringCache = new AtomicReference<>();
+        LRUCache<UUID, HouseResponse> cache = new LRUCache<>(ENTRY_COUNT) {
+            @Override
+            public void restore(UUID id, HouseResponse value, int frequency) {
+                // the write of the newer value starts while the snapshot value is being restored
+                writer.set(new Thread(() -> restoringCache.get().addOrUpdate(uuidOf(0), updated)));
+                writer.get().start();
+                awaitBlockedOrTerminated(writer.get());
+
+                super.restore(id, value, frequency);
+            }
+        };
+        restoringCache.set(new SnapshotRestoringCache<>(cache, snapshot));
+
+        // when
+        Optional<HouseResponse> restored = restoringCache.get().getById(uuidOf(0));
+        writer.get().join();
+
+        // then
+        assertThat(restored).contains(houseOf(0));
+        assertThat(restoringCache.get().getById(uuidOf(0))).contains(updated);
+    }
+
+    private Path writeSnapshot() throws IOException {
+        LRUCache<UUID, HouseResponse> cache = new LRUCache<>(ENTRY_COUNT);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            cache.addOrUpdate(uuidOf(i), houseOf(i));
+        }
+
+        Path path = directory.resolve("cache-snapshot.bin");
+        SnapshotFile.write(path, cache, codec);
+        return path;
+    }
+
+    private static void awaitBlockedOrTerminated(Thread thread) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (thread.getState() != Thread.State.BLOCKED
+                && thread.getState() != Thread.State.TERMINATED
+                && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static UUID uuidOf(int i) {
+        return new UUID(0, i);
+    }
+
+    private static HouseResponse houseOf(int i) {
+        return HouseTestBuilder.aHouse()
+                .withUuid(uuidOf(i))
+                .withNumber(i)
+                .buildResponse();
+    }
+}
@@ -0,0 +1,97 @@
+package ru.clevertec.house.cache.engine;
+
+import io.github.sakujj.cache.collections.StripedRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StripedRingBufferTests {
+
+    private static final int ELEMENT_COUNT = 20_000;
+    private static final int PRODUCER_COUNT = 8;
+
+    @Test
+    public void drainShouldPassEveryElementOnceInOrderWhileProducerOffers() throws InterruptedException {
+        // given
+        StripedRingBuffer<Integer> buffer = new StripedRingBuffer<>();
+        List<Integer> drained = new ArrayList<>();
+        AtomicLong drainCount = new AtomicLong();
+        AtomicBoolean isProducing = new AtomicBoolean(true);
+
+        Thread drainer = new Thread(() -> {
+            while (isProducing.get()) {
+                buffer.drainTo(drained::add);
+                drainCount.incrementAndGet();
+                Thread.yield();
+            }
+        });
+
+        // when
+        drainer.start();
+        for (int i = 0; i < ELEMENT_COUNT; i++) {
+            if (buffer.offer(i)) {
+                // a drain started after the offer empties the stripe, so that no element is dropped as the stripe is full
+                long awaitedDrainCount = drainCount.get() + 2;
+                while (drainCount.get() < awaitedDrainCount) {
+                    Thread.yield();
+                }
+            }
+        }
+        isProducing.set(false);
+        drainer.join();
+        buffer.drainTo(drained::add);
+
+        // then
+        assertThat(drained).containsExactlyElementsOf(IntStream.range(0, ELEMENT_COUNT).boxed().toList());
+    }
+
+    @Test
+    public void drainShouldNeverDuplicateElementsOfConcurrentProducers() throws InterruptedException {
+        // given
+        StripedRingBuffer<Integer> buffer = new StripedRingBuffer<>();
+        List<Integer> drained = new ArrayList<>();
+        AtomicBoolean isProducing = new AtomicBoolean(true);
+
+        Thread drainer = new Thread(() -> {
+            while (isProducing.get()) {
+                buffer.drainTo(drained::add);
+                Thread.yield();
+            }
+        });
+        List<Thread> producers = IntStream.range(0, PRODUCER_COUNT)
+                .mapToObj(producer -> new Thread(() -> {
+                    for (int i = producer; i < ELEMENT_COUNT * PRODUCER_COUNT; i += PRODUCER_COUNT) {
+                        buffer.offer(i);
+                    }
+                }))
+                .toList();
+
+        // when
+        drainer.start();
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        isProducing.set(false);
+        drainer.join();
+        buffer.drainTo(drained::add);
+
+        List<Integer> drainedAfterAll = new ArrayList<>();
+        buffer.drainTo(drainedAfterAll::add);
+
+        // then
+        Set<Integer> distinct = new HashSet<>(drained);
+        assertThat(distinct).hasSameSizeAs(drained);
+        assertThat(distinct).allMatch(element -> element >= 0 && element < ELEMENT_COUNT * PRODUCER_COUNT);
+        assertThat(drained).isNotEmpty();
+        assertThat(drainedAfterAll).isEmpty();
+    }
+}
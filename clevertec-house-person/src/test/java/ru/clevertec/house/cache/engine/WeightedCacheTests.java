@@ -0,0 +1,100 @@
+package ru.clevertec.house.cache.engine;
+
+import io.github.sakujj.cache.LRUCache;
+import io.github.sakujj.cache.ObjectSizeWeigher;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.house.dto.HouseResponse;
+import ru.clevertec.house.test.util.HouseTestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WeightedCacheTests {
+
+    private final ObjectSizeWeigher weigher = new ObjectSizeWeigher();
+
+    @Test
+    public void weigherShouldCountStringContent() {
+        // given
+        HouseResponse shortStreet = houseOf(0, "a".repeat(8));
+        HouseResponse longStreet = houseOf(0, "a".repeat(8 + 64));
+
+        // when
+        int shortStreetWeight = weigher.weigh(shortStreet);
+        int longStreetWeight = weigher.weigh(longStreet);
+
+        // then
+        assertThat(longStreetWeight - shortStreetWeight).isEqualTo(64);
+    }
+
+    @Test
+    public void weigherShouldMatchGraphWalkForFlatEntity() {
+        // given
+        HouseResponse house = houseOf(0, "Street");
+
+        // when
+        int weight = weigher.weigh(house);
+
+        // then
+        assertThat(weight).isEqualTo(weigher.deepSizeOf(house));
+    }
+
+    @Test
+    public void cacheShouldEvictLeastRecentlyUsedEntitiesToFitMaxWeight() {
+        // given
+        int lightWeight = weigher.weigh(houseOf(0, "Street"));
+        HouseResponse heavy = houseOf(3, "Street" + "a".repeat(lightWeight / 2));
+        int heavyWeight = weigher.weigh(heavy);
+
+        LRUCache<UUID, HouseResponse> cache = new LRUCache<>(3L * lightWeight, weigher);
+        for (int i = 0; i < 3; i++) {
+            cache.addOrUpdate(uuidOf(i), houseOf(i, "Street"));
+        }
+        cache.getById(uuidOf(0));
+
+        // when
+        cache.addOrUpdate(uuidOf(3), heavy);
+
+        // then
+        assertThat(heavyWeight).isGreaterThan(lightWeight).isLessThanOrEqualTo(2 * lightWeight);
+        assertThat(cache.getSize()).isEqualTo(2);
+        assertThat(cache.getWeight()).isEqualTo(lightWeight + heavyWeight);
+        assertThat(cache.getById(uuidOf(0))).isPresent();
+        assertThat(cache.getById(uuidOf(1))).isEmpty();
+        assertThat(cache.getById(uuidOf(2))).isEmpty();
+        assertThat(cache.getById(uuidOf(3))).contains(heavy);
+    }
+
+    @Test
+    public void cacheShouldEvictWhenUpdateMakesEntityHeavier() {
+        // given
+        int lightWeight = weigher.weigh(houseOf(0, "Street"));
+        LRUCache<UUID, HouseResponse> cache = new LRUCache<>(3L * lightWeight, weigher);
+        for (int i = 0; i < 3; i++) {
+            cache.addOrUpdate(uuidOf(i), houseOf(i, "Street"));
+        }
+
+        // when
+        HouseResponse heavier = houseOf(2, "Street" + "a".repeat(lightWeight / 2));
+        cache.addOrUpdate(uuidOf(2), heavier);
+
+        // then
+        assertThat(cache.getSize()).isEqualTo(2);
+        assertThat(cache.getById(uuidOf(0))).isEmpty();
+        assertThat(cache.getById(uuidOf(1))).isPresent();
+        assertThat(cache.getById(uuidOf(2))).contains(heavier);
+    }
+
+    private static UUID uuidOf(int i) {
+        return new UUID(0, i);
+    }
+
+    private static HouseResponse houseOf(int i, String street) {
+        return HouseTestBuilder.aHouse()
+                .withUuid(uuidOf(i))
+                .withNumber(i)
+                .withStreet(street)
+                .buildResponse();
+    }
+}
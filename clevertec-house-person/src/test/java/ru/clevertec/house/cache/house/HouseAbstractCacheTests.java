@@ -2,29 +2,44 @@ package ru.clevertec.house.cache.house;
 
 
 import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.page.PageCache;
+import io.github.sakujj.cache.stats.CacheStats;
 import io.github.sakujj.config.CacheAutoConfiguration;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.AopTestUtils;
 import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.house.constant.ApplicationConstants;
 import ru.clevertec.house.dto.HouseRequest;
 import ru.clevertec.house.dto.HouseResponse;
+import ru.clevertec.house.entity.House;
+import ru.clevertec.house.repository.HouseRepository;
 import ru.clevertec.house.service.HouseService;
 import ru.clevertec.house.test.util.HouseTestBuilder;
 import ru.clevertec.house.testcontainer.ExclusivePostgresContainerInitializer;
 
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -35,18 +50,39 @@ public abstract class HouseAbstractCacheTests extends ExclusivePostgresContainer
 
     private static final int THREAD_COUNT = 6;
 
-    @SpyBean
-    private Cache cache;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache<UUID, HouseResponse> registeredCache;
+
+    protected Cache<UUID, HouseResponse> cache;
 
     private ExecutorService executorService;
 
     @SpyBean
-    private HouseService houseService;
+    protected HouseService houseService;
 
+    @Autowired
+    private HouseRepository houseRepository;
+
+    @Autowired
+    private PageCache pageCache;
+
+
+    @BeforeEach
+    void spyOnCache() {
+        registeredCache = cacheManager.getCache(ApplicationConstants.HOUSES_CACHE);
+        cache = spy(registeredCache);
+        cacheManager.registerCache(ApplicationConstants.HOUSES_CACHE, cache);
+    }
 
     @AfterEach
     void clear() {
         cache.clear();
+        cacheManager.registerCache(ApplicationConstants.HOUSES_CACHE, registeredCache);
+        registeredCache.clear();
+        cacheManager.getNegativeCache(ApplicationConstants.HOUSES_CACHE).ifPresent(Cache::clear);
+        pageCache.clear();
     }
 
     @Test
@@ -54,10 +90,10 @@ public abstract class HouseAbstractCacheTests extends ExclusivePostgresContainer
         // given
         executorService = Executors.newFixedThreadPool(THREAD_COUNT);
 
-        HouseResponse houseResponse = houseService.findAll(PageRequest.of(0, 1))
+        House house = houseRepository.findAll(PageRequest.of(0, 1))
                 .getContent()
                 .get(0);
-        UUID uuid = houseResponse.getUuid();
+        UUID uuid = house.getUuid();
 
         CountDownLatch latch = new CountDownLatch(40);
 
@@ -94,13 +130,50 @@ public abstract class HouseAbstractCacheTests extends ExclusivePostgresContainer
 
         verify(cache, atLeast(20)).getById(uuid);
         // 1 time in findByUUID advice and 20 times in updateByUUID advice
-        verify(cache, times(21)).addOrUpdate(any());
+        verify(cache, times(21)).addOrUpdate(any(), any());
 
         verify(houseService).findByUUID(any(UUID.class));
         verify(houseService, times(20)).update(any(HouseRequest.class), any(UUID.class));
     }
 
 
+    @Test
+    public void findByUUIDAsyncShouldShareOneLoadAndCacheResult() {
+        // given
+        UUID uuid = UUID.fromString("e89895ef-ca4c-433b-87e8-3ead2646fed1");
+
+        AtomicInteger loadCount = new AtomicInteger();
+        CompletableFuture<Void> loaderLatch = new CompletableFuture<>();
+        HouseService target = AopTestUtils.getUltimateTargetObject(houseService);
+        doAnswer(invocation -> {
+            loadCount.incrementAndGet();
+            CompletableFuture<?> loaded = (CompletableFuture<?>) invocation.callRealMethod();
+            return loaded.thenCombine(loaderLatch, (result, released) -> result);
+        }).when(target).findByUUIDAsync(uuid);
+
+        // when
+        CompletableFuture<Optional<HouseResponse>> first = houseService.findByUUIDAsync(uuid);
+        CompletableFuture<Optional<HouseResponse>> second = houseService.findByUUIDAsync(uuid);
+        boolean pendingTogether = !first.isDone() && !second.isDone();
+        int loadCountWhilePending = loadCount.get();
+
+        loaderLatch.complete(null);
+        Optional<HouseResponse> firstResponse = first.join();
+        Optional<HouseResponse> secondResponse = second.join();
+        int cacheSizeAfterLoad = cache.getSize();
+
+        Optional<HouseResponse> cachedResponse = houseService.findByUUIDAsync(uuid).join();
+
+        // then
+        assertThat(pendingTogether).isTrue();
+        assertThat(loadCountWhilePending).isEqualTo(1);
+        assertThat(firstResponse).isPresent();
+        assertThat(secondResponse).isEqualTo(firstResponse);
+        assertThat(cachedResponse).isEqualTo(firstResponse);
+        assertThat(cacheSizeAfterLoad).isEqualTo(1);
+        assertThat(loadCount).hasValue(1);
+    }
+
     @Test
     public void cacheShouldRemoveElementAfterDelete() {
         // given
@@ -124,7 +197,7 @@ public abstract class HouseAbstractCacheTests extends ExclusivePostgresContainer
         assertThat(cacheSizeAfterDelete).isEqualTo(0);
         assertThat(cacheSizeAfterSecondFind).isEqualTo(0);
 
-        verify(cache, times(3)).getById(uuid);
+        verify(cache, times(2)).getById(uuid);
         verify(cache).removeById(uuid);
 
         verify(houseService, times(2)).findByUUID(any(UUID.class));
@@ -188,5 +261,51 @@ public abstract class HouseAbstractCacheTests extends ExclusivePostgresContainer
         verify(houseService).update(any(HouseRequest.class), any(UUID.class));
     }
 
+    @Test
+    public void cacheShouldRecordHitsMissesAndLoads() {
+        // given
+        HouseRequest houseRequest = HouseTestBuilder.aHouse().buildRequest();
+        UUID absentUUID = UUID.fromString("00000000-0000-0000-0000-000000000000");
+
+        // when
+        CacheStats statsInitial = cache.getStats();
+
+        HouseResponse created = houseService.create(houseRequest);
+        houseService.findByUUID(created.getUuid());
+        houseService.findByUUID(absentUUID);
+
+        CacheStats statsAfterFinds = cache.getStats();
+
+        // then
+        assertThat(statsAfterFinds.hitCount() - statsInitial.hitCount()).isEqualTo(1);
+        assertThat(statsAfterFinds.missCount() - statsInitial.missCount()).isEqualTo(1);
+        assertThat(statsAfterFinds.loadSuccessCount() - statsInitial.loadSuccessCount()).isEqualTo(1);
+        assertThat(statsAfterFinds.loadFailureCount() - statsInitial.loadFailureCount()).isEqualTo(0);
+        assertThat(statsAfterFinds.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void pageShouldBeCachedUntilInvalidatedByCreate() {
+        // given
+        PageRequest pageRequest = PageRequest.of(0, 5);
+        HouseRequest houseRequest = HouseTestBuilder.aHouse().buildRequest();
+
+        // when
+        Page<HouseResponse> firstPage = houseService.findAll(pageRequest);
+        int cacheSizeAfterFirstFind = cache.getSize();
+
+        Page<HouseResponse> secondPage = houseService.findAll(pageRequest);
 
+        houseService.create(houseRequest);
+        houseService.findAll(pageRequest);
+
+        // then
+        assertThat(cacheSizeAfterFirstFind).isEqualTo(firstPage.getNumberOfElements());
+        assertThat(secondPage.getContent()).isEqualTo(firstPage.getContent());
+        assertThat(secondPage.getTotalElements()).isEqualTo(firstPage.getTotalElements());
+
+        verify(cache).getAllById(any());
+
+        verify(houseService, times(2)).findAll(any(PageRequest.class));
+    }
 }
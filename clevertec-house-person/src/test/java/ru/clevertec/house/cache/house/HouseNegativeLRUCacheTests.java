@@ -0,0 +1,88 @@
+package ru.clevertec.house.cache.house;
+
+import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.stats.CacheStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import ru.clevertec.house.constant.ApplicationConstants;
+import ru.clevertec.house.dto.HouseRequest;
+import ru.clevertec.house.dto.HouseResponse;
+import ru.clevertec.house.service.HouseService;
+import ru.clevertec.house.test.util.HouseTestBuilder;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class HouseNegativeLRUCacheTests extends HouseAbstractCacheTests {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @DynamicPropertySource
+    static void configureCache(DynamicPropertyRegistry registry) {
+        registry.add("sakujj.cache.isEnabled", () -> "true");
+        registry.add("sakujj.cache.type", () -> "LRU");
+        registry.add("sakujj.cache.capacity", () -> 100);
+        registry.add("sakujj.cache.negativeCacheTtl", () -> "1m");
+    }
+
+    @Test
+    public void cacheShouldAnswerWithTombstoneAfterDelete() {
+        // given
+        UUID uuid = UUID.fromString("e89895ef-ca4c-433b-87e8-3ead2646fed1");
+
+        // when
+        houseService.findByUUID(uuid);
+        houseService.deleteByUUID(uuid);
+
+        CacheStats statsAfterDelete = cache.getStats();
+
+        Optional<HouseResponse> responseAfterFirstFind = houseService.findByUUID(uuid);
+        Optional<HouseResponse> responseAfterSecondFind = houseService.findByUUID(uuid);
+
+        CacheStats statsAfterFinds = cache.getStats();
+
+        // then
+        assertThat(responseAfterFirstFind).isEmpty();
+        assertThat(responseAfterSecondFind).isEmpty();
+
+        assertThat(statsAfterFinds.negativeHitCount() - statsAfterDelete.negativeHitCount()).isEqualTo(1);
+
+        verify(houseService, times(2)).findByUUID(any(UUID.class));
+    }
+
+    @Test
+    public void createShouldRemoveTombstoneOfCreatedUuid() {
+        // given
+        HouseRequest houseRequest = HouseTestBuilder.aHouse().buildRequest();
+        Cache<UUID, Boolean> tombstones = cacheManager.getNegativeCache(ApplicationConstants.HOUSES_CACHE).orElseThrow();
+
+        // a concurrent lookup finds the uuid missing before the created house is cached
+        HouseService target = AopTestUtils.getUltimateTargetObject(houseService);
+        doAnswer(invocation -> {
+            HouseResponse created = (HouseResponse) invocation.callRealMethod();
+            tombstones.addOrUpdate(created.getUuid(), Boolean.TRUE);
+            return created;
+        }).when(target).create(any(HouseRequest.class));
+
+        // when
+        HouseResponse created = houseService.create(houseRequest);
+        Optional<HouseResponse> responseAfterCreate = houseService.findByUUID(created.getUuid());
+
+        // then
+        assertThat(tombstones.getById(created.getUuid())).isEmpty();
+        assertThat(responseAfterCreate).contains(created);
+
+        verify(houseService, times(0)).findByUUID(any(UUID.class));
+    }
+}
@@ -1,15 +1,21 @@
 package ru.clevertec.house.cache.person;
 
 import io.github.sakujj.cache.Cache;
+import io.github.sakujj.cache.CacheManager;
+import io.github.sakujj.cache.page.PageCache;
+import io.github.sakujj.cache.stats.CacheStats;
 import io.github.sakujj.config.CacheAutoConfiguration;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.AopTestUtils;
 import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.house.constant.ApplicationConstants;
 import ru.clevertec.house.dto.PersonRequest;
 import ru.clevertec.house.dto.PersonResponse;
 import ru.clevertec.house.entity.House;
@@ -18,15 +24,21 @@ import ru.clevertec.house.service.PersonService;
 import ru.clevertec.house.test.util.PersonTestBuilder;
 import ru.clevertec.house.testcontainer.ExclusivePostgresContainerInitializer;
 
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -37,20 +49,38 @@ public abstract class PersonAbstractCacheTests extends ExclusivePostgresContaine
 
     private static final int THREAD_COUNT = 6;
 
-    @SpyBean
-    private Cache cache;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache<UUID, PersonResponse> registeredCache;
+
+    protected Cache<UUID, PersonResponse> cache;
 
     private ExecutorService executorService;
 
     @SpyBean
-    private PersonService personService;
+    protected PersonService personService;
 
     @Autowired
     private HouseRepository houseRepository;
 
+    @Autowired
+    private PageCache pageCache;
+
+    @BeforeEach
+    void spyOnCache() {
+        registeredCache = cacheManager.getCache(ApplicationConstants.PEOPLE_CACHE);
+        cache = spy(registeredCache);
+        cacheManager.registerCache(ApplicationConstants.PEOPLE_CACHE, cache);
+    }
+
     @AfterEach
     void clear() {
         cache.clear();
+        cacheManager.registerCache(ApplicationConstants.PEOPLE_CACHE, registeredCache);
+        registeredCache.clear();
+        cacheManager.getNegativeCache(ApplicationConstants.PEOPLE_CACHE).ifPresent(Cache::clear);
+        pageCache.clear();
     }
 
     // can not test with update or create because (Persistence Context is different for
@@ -89,6 +119,43 @@ public abstract class PersonAbstractCacheTests extends ExclusivePostgresContaine
     }
 
 
+    @Test
+    public void findByUUIDAsyncShouldShareOneLoadAndCacheResult() {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+
+        AtomicInteger loadCount = new AtomicInteger();
+        CompletableFuture<Void> loaderLatch = new CompletableFuture<>();
+        PersonService target = AopTestUtils.getUltimateTargetObject(personService);
+        doAnswer(invocation -> {
+            loadCount.incrementAndGet();
+            CompletableFuture<?> loaded = (CompletableFuture<?>) invocation.callRealMethod();
+            return loaded.thenCombine(loaderLatch, (result, released) -> result);
+        }).when(target).findByUUIDAsync(uuid);
+
+        // when
+        CompletableFuture<Optional<PersonResponse>> first = personService.findByUUIDAsync(uuid);
+        CompletableFuture<Optional<PersonResponse>> second = personService.findByUUIDAsync(uuid);
+        boolean pendingTogether = !first.isDone() && !second.isDone();
+        int loadCountWhilePending = loadCount.get();
+
+        loaderLatch.complete(null);
+        Optional<PersonResponse> firstResponse = first.join();
+        Optional<PersonResponse> secondResponse = second.join();
+        int cacheSizeAfterLoad = cache.getSize();
+
+        Optional<PersonResponse> cachedResponse = personService.findByUUIDAsync(uuid).join();
+
+        // then
+        assertThat(pendingTogether).isTrue();
+        assertThat(loadCountWhilePending).isEqualTo(1);
+        assertThat(firstResponse).isPresent();
+        assertThat(secondResponse).isEqualTo(firstResponse);
+        assertThat(cachedResponse).isEqualTo(firstResponse);
+        assertThat(cacheSizeAfterLoad).isEqualTo(1);
+        assertThat(loadCount).hasValue(1);
+    }
+
     @Test
     public void cacheShouldRemoveElementAfterDelete() {
         // given
@@ -112,7 +179,7 @@ public abstract class PersonAbstractCacheTests extends ExclusivePostgresContaine
         assertThat(cacheSizeAfterDelete).isEqualTo(0);
         assertThat(cacheSizeAfterSecondFind).isEqualTo(0);
 
-        verify(cache, times(3)).getById(uuid);
+        verify(cache, times(2)).getById(uuid);
         verify(cache).removeById(uuid);
 
         verify(personService, times(2)).findByUUID(any(UUID.class));
@@ -186,6 +253,63 @@ public abstract class PersonAbstractCacheTests extends ExclusivePostgresContaine
         verify(personService).update(any(PersonRequest.class), any(UUID.class));
     }
 
+    @Test
+    public void cacheShouldRecordHitsMissesAndLoads() {
+        // given
+        House house = houseRepository.findAll(PageRequest.of(0, 1))
+                .getContent().get(0);
 
-}
+        PersonRequest personRequest = PersonTestBuilder.aPerson()
+                .withHouseOfResidence(house)
+                .buildRequest();
+        UUID absentUUID = UUID.fromString("00000000-0000-0000-0000-000000000000");
 
+        // when
+        CacheStats statsInitial = cache.getStats();
+
+        PersonResponse created = personService.create(personRequest);
+        personService.findByUUID(created.getUuid());
+        personService.findByUUID(absentUUID);
+
+        CacheStats statsAfterFinds = cache.getStats();
+
+        // then
+        assertThat(statsAfterFinds.hitCount() - statsInitial.hitCount()).isEqualTo(1);
+        assertThat(statsAfterFinds.missCount() - statsInitial.missCount()).isEqualTo(1);
+        assertThat(statsAfterFinds.loadSuccessCount() - statsInitial.loadSuccessCount()).isEqualTo(1);
+        assertThat(statsAfterFinds.loadFailureCount() - statsInitial.loadFailureCount()).isEqualTo(0);
+        assertThat(statsAfterFinds.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void findByPassportShouldBeCachedUntilInvalidatedByUpdate() {
+        // given
+        House house = houseRepository.findAll(PageRequest.of(0, 1))
+                .getContent().get(0);
+
+        PersonRequest personRequest = PersonTestBuilder.aPerson()
+                .withHouseOfResidence(house)
+                .buildRequest();
+        UUID uuidToUpdate = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+
+        PersonResponse existing = personService.findByUUID(uuidToUpdate).get();
+
+        // when
+        Optional<PersonResponse> firstFound = personService.findByPassport(existing.getPassportSeries(),
+                existing.getPassportNumber());
+        Optional<PersonResponse> secondFound = personService.findByPassport(existing.getPassportSeries(),
+                existing.getPassportNumber());
+
+        personService.update(personRequest, uuidToUpdate);
+
+        Optional<PersonResponse> foundAfterUpdate = personService.findByPassport(existing.getPassportSeries(),
+                existing.getPassportNumber());
+
+        // then
+        assertThat(firstFound).contains(existing);
+        assertThat(secondFound).contains(existing);
+        assertThat(foundAfterUpdate).isEmpty();
+
+        verify(personService, times(2)).findByPassport(anyString(), anyString());
+    }
+}
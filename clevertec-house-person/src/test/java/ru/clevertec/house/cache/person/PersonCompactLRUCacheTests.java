@@ -0,0 +1,48 @@
+package ru.clevertec.house.cache.person;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.clevertec.house.dto.PersonResponse;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PersonCompactLRUCacheTests extends PersonAbstractCacheTests {
+
+    @DynamicPropertySource
+    static void configureCache(DynamicPropertyRegistry registry) {
+        registry.add("sakujj.cache.isEnabled", () -> "true");
+        registry.add("sakujj.cache.type", () -> "LRU");
+        registry.add("sakujj.cache.storage", () -> "COMPACT");
+        registry.add("sakujj.cache.codecDictionaryFields", () -> "passportSeries");
+        registry.add("sakujj.cache.capacity", () -> 100);
+    }
+
+    @Test
+    public void cacheShouldDecodeNewInstanceOnEveryHit() {
+        // given
+        UUID uuid = personService.findAll(PageRequest.of(0, 1))
+                .getContent()
+                .get(0)
+                .getUuid();
+        PersonResponse loaded = personService.findByUUID(uuid).orElseThrow();
+
+        // when
+        Optional<PersonResponse> firstHit = personService.findByUUID(uuid);
+        firstHit.orElseThrow().setName("modified by the caller");
+        Optional<PersonResponse> secondHit = personService.findByUUID(uuid);
+
+        // then
+        assertThat(secondHit).contains(loaded);
+        assertThat(secondHit.get()).isNotSameAs(firstHit.get());
+
+        verify(personService, times(3)).findByUUID(any(UUID.class));
+    }
+}
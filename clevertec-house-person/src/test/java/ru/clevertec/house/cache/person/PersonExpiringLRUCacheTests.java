@@ -0,0 +1,83 @@
+package ru.clevertec.house.cache.person;
+
+import io.github.sakujj.cache.Ticker;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.clevertec.house.dto.PersonResponse;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PersonExpiringLRUCacheTests extends PersonAbstractCacheTests {
+
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofHours(1);
+    private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofMinutes(10);
+    private static final AtomicLong NOW = new AtomicLong();
+
+    @DynamicPropertySource
+    static void configureCache(DynamicPropertyRegistry registry) {
+        registry.add("sakujj.cache.isEnabled", () -> "true");
+        registry.add("sakujj.cache.type", () -> "LRU");
+        registry.add("sakujj.cache.capacity", () -> 100);
+        registry.add("sakujj.cache.expireAfterWrite", EXPIRE_AFTER_WRITE::toString);
+        registry.add("sakujj.cache.expireAfterAccess", EXPIRE_AFTER_ACCESS::toString);
+    }
+
+    @TestConfiguration
+    static class ManualTickerConfiguration {
+
+        @Bean
+        public Ticker ticker() {
+            return NOW::get;
+        }
+    }
+
+    @Test
+    public void cacheShouldExpireElementAfterAccess() {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+        Duration almostExpireAfterAccess = EXPIRE_AFTER_ACCESS.minusMinutes(1);
+
+        // when
+        personService.findByUUID(uuid);
+        NOW.addAndGet(almostExpireAfterAccess.toNanos());
+        Optional<PersonResponse> responseBeforeExpiration = cache.getById(uuid);
+
+        NOW.addAndGet(EXPIRE_AFTER_ACCESS.toNanos());
+        Optional<PersonResponse> responseAfterExpiration = cache.getById(uuid);
+
+        // then
+        assertThat(responseBeforeExpiration).isPresent();
+        assertThat(responseAfterExpiration).isEmpty();
+    }
+
+    @Test
+    public void cacheShouldExpireElementAfterWriteDespiteAccess() {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+        Duration accessPeriod = EXPIRE_AFTER_ACCESS.dividedBy(2);
+
+        // when
+        personService.findByUUID(uuid);
+        for (Duration elapsed = Duration.ZERO; elapsed.compareTo(EXPIRE_AFTER_WRITE) < 0; elapsed = elapsed.plus(accessPeriod)) {
+            NOW.addAndGet(accessPeriod.toNanos());
+            personService.findByUUID(uuid);
+        }
+        int cacheSizeAfterExpiration = cache.getSize();
+
+        // then
+        assertThat(cacheSizeAfterExpiration).isEqualTo(1);
+
+        verify(personService, times(2)).findByUUID(any(UUID.class));
+    }
+}
@@ -0,0 +1,51 @@
+package ru.clevertec.house.cache.person;
+
+import io.github.sakujj.cache.stats.CacheStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.clevertec.house.dto.PersonResponse;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PersonNegativeLRUCacheTests extends PersonAbstractCacheTests {
+
+    @DynamicPropertySource
+    static void configureCache(DynamicPropertyRegistry registry) {
+        registry.add("sakujj.cache.isEnabled", () -> "true");
+        registry.add("sakujj.cache.type", () -> "LRU");
+        registry.add("sakujj.cache.capacity", () -> 100);
+        registry.add("sakujj.cache.negativeCacheTtl", () -> "1m");
+    }
+
+    @Test
+    public void cacheShouldAnswerWithTombstoneAfterDelete() {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+
+        // when
+        personService.findByUUID(uuid);
+        personService.deleteByUUID(uuid);
+
+        CacheStats statsAfterDelete = cache.getStats();
+
+        Optional<PersonResponse> responseAfterFirstFind = personService.findByUUID(uuid);
+        Optional<PersonResponse> responseAfterSecondFind = personService.findByUUID(uuid);
+
+        CacheStats statsAfterFinds = cache.getStats();
+
+        // then
+        assertThat(responseAfterFirstFind).isEmpty();
+        assertThat(responseAfterSecondFind).isEmpty();
+
+        assertThat(statsAfterFinds.negativeHitCount() - statsAfterDelete.negativeHitCount()).isEqualTo(1);
+
+        verify(personService, times(2)).findByUUID(any(UUID.class));
+    }
+}
@@ -0,0 +1,69 @@
+package ru.clevertec.house.cache.person;
+
+import io.github.sakujj.cache.Ticker;
+import io.github.sakujj.cache.stats.CacheStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.clevertec.house.dto.PersonResponse;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PersonRefreshingLRUCacheTests extends PersonAbstractCacheTests {
+
+    private static final Duration REFRESH_AFTER_WRITE = Duration.ofMinutes(5);
+    private static final AtomicLong NOW = new AtomicLong();
+
+    @DynamicPropertySource
+    static void configureCache(DynamicPropertyRegistry registry) {
+        registry.add("sakujj.cache.isEnabled", () -> "true");
+        registry.add("sakujj.cache.type", () -> "LRU");
+        registry.add("sakujj.cache.capacity", () -> 100);
+        registry.add("sakujj.cache.refreshAfterWrite", REFRESH_AFTER_WRITE::toString);
+    }
+
+    @TestConfiguration
+    static class ManualTickerConfiguration {
+
+        @Bean
+        public Ticker ticker() {
+            return NOW::get;
+        }
+    }
+
+    @Test
+    public void cacheShouldServeCachedElementWhileRefreshing() {
+        // given
+        UUID uuid = UUID.fromString("26df4783-5eae-4dd7-ae62-5249ea9c3c18");
+
+        // when
+        Optional<PersonResponse> responseAfterFirstFind = personService.findByUUID(uuid);
+        CacheStats statsAfterFirstFind = cache.getStats();
+
+        NOW.addAndGet(REFRESH_AFTER_WRITE.plusSeconds(1).toNanos());
+
+        Optional<PersonResponse> responseAfterSecondFind = personService.findByUUID(uuid);
+
+        // then
+        assertThat(responseAfterSecondFind).isEqualTo(responseAfterFirstFind);
+
+        verify(cache, timeout(5000).times(2)).addOrUpdate(eq(uuid), any());
+        verify(personService, times(2)).findByUUID(any(UUID.class));
+
+        CacheStats statsAfterRefresh = cache.getStats();
+        assertThat(statsAfterRefresh.hitCount() - statsAfterFirstFind.hitCount()).isEqualTo(1);
+        assertThat(statsAfterRefresh.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.clevertec.house.cache.person;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.clevertec.house.dto.PersonResponse;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PersonTieredOffHeapCacheTests extends PersonAbstractCacheTests {
+
+    @DynamicPropertySource
+    static void configureCache(DynamicPropertyRegistry registry) {
+        registry.add("sakujj.cache.isEnabled", () -> "true");
+        registry.add("sakujj.cache.type", () -> "OFF_HEAP");
+        registry.add("sakujj.cache.capacity", () -> 100);
+        registry.add("sakujj.cache.l1Type", () -> "LRU");
+        registry.add("sakujj.cache.l1Capacity", () -> 1);
+    }
+
+    @Test
+    public void cacheShouldPromoteElementDemotedFromL1() {
+        // given
+        List<PersonResponse> people = personService.findAll(PageRequest.of(0, 2))
+                .getContent();
+        UUID firstUUID = people.get(0).getUuid();
+        UUID secondUUID = people.get(1).getUuid();
+
+        // when
+        Optional<PersonResponse> firstResponse = personService.findByUUID(firstUUID);
+        personService.findByUUID(secondUUID);
+
+        Optional<PersonResponse> firstResponseAfterDemotion = personService.findByUUID(firstUUID);
+        Optional<PersonResponse> secondResponseAfterDemotion = personService.findByUUID(secondUUID);
+
+        // then
+        assertThat(firstResponseAfterDemotion).isEqualTo(firstResponse);
+        assertThat(secondResponseAfterDemotion).isPresent();
+        assertThat(cache.getSize()).isEqualTo(2);
+
+        verify(personService, times(2)).findByUUID(any(UUID.class));
+    }
+}